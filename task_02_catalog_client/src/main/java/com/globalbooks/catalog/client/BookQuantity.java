@@ -0,0 +1,42 @@
+package com.globalbooks.catalog.client;
+
+import javax.xml.bind.annotation.XmlAccessType;
+import javax.xml.bind.annotation.XmlAccessorType;
+import javax.xml.bind.annotation.XmlElement;
+import javax.xml.bind.annotation.XmlType;
+
+@XmlAccessorType(XmlAccessType.FIELD)
+@XmlType(name = "BookQuantity", propOrder = {
+    "bookId",
+    "quantity"
+})
+public class BookQuantity {
+
+    @XmlElement(namespace = "http://catalog.globalbooks.com/", required = true)
+    protected String bookId;
+    @XmlElement(namespace = "http://catalog.globalbooks.com/")
+    protected int quantity;
+
+    public BookQuantity() {}
+
+    public BookQuantity(String bookId, int quantity) {
+        this.bookId = bookId;
+        this.quantity = quantity;
+    }
+
+    public String getBookId() {
+        return bookId;
+    }
+
+    public void setBookId(String value) {
+        this.bookId = value;
+    }
+
+    public int getQuantity() {
+        return quantity;
+    }
+
+    public void setQuantity(int value) {
+        this.quantity = value;
+    }
+}
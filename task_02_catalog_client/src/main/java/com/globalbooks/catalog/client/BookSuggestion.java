@@ -0,0 +1,66 @@
+package com.globalbooks.catalog.client;
+
+import javax.xml.bind.annotation.XmlAccessType;
+import javax.xml.bind.annotation.XmlAccessorType;
+import javax.xml.bind.annotation.XmlElement;
+import javax.xml.bind.annotation.XmlType;
+
+@XmlAccessorType(XmlAccessType.FIELD)
+@XmlType(name = "BookSuggestion", propOrder = {
+    "isbn",
+    "title",
+    "author",
+    "score"
+})
+public class BookSuggestion {
+
+    @XmlElement(namespace = "http://catalog.globalbooks.com/", required = true)
+    protected String isbn;
+    @XmlElement(namespace = "http://catalog.globalbooks.com/")
+    protected String title;
+    @XmlElement(namespace = "http://catalog.globalbooks.com/")
+    protected String author;
+    @XmlElement(namespace = "http://catalog.globalbooks.com/")
+    protected double score;
+
+    public BookSuggestion() {}
+
+    public BookSuggestion(String isbn, String title, String author, double score) {
+        this.isbn = isbn;
+        this.title = title;
+        this.author = author;
+        this.score = score;
+    }
+
+    public String getIsbn() {
+        return isbn;
+    }
+
+    public void setIsbn(String value) {
+        this.isbn = value;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public void setTitle(String value) {
+        this.title = value;
+    }
+
+    public String getAuthor() {
+        return author;
+    }
+
+    public void setAuthor(String value) {
+        this.author = value;
+    }
+
+    public double getScore() {
+        return score;
+    }
+
+    public void setScore(double value) {
+        this.score = value;
+    }
+}
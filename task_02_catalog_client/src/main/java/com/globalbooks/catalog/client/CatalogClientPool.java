@@ -0,0 +1,130 @@
+package com.globalbooks.catalog.client;
+
+import org.apache.cxf.Bus;
+import org.apache.cxf.BusFactory;
+import org.apache.cxf.endpoint.Client;
+import org.apache.cxf.frontend.ClientProxy;
+import org.apache.cxf.jaxws.JaxWsProxyFactoryBean;
+import org.apache.cxf.transport.http.HTTPConduit;
+import org.apache.cxf.transports.http.configuration.ConnectionType;
+import org.apache.cxf.transports.http.configuration.HTTPClientPolicy;
+import org.apache.cxf.ws.security.wss4j.WSS4JInInterceptor;
+import org.apache.cxf.ws.security.wss4j.WSS4JOutInterceptor;
+
+import javax.xml.ws.BindingProvider;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * A fixed pool of ready-built SOAP proxies for the catalog's CXF endpoint. Building
+ * a JAX-WS proxy means introspecting the service interface, generating wrapper
+ * types and setting up interceptors; here that is done once per pooled proxy, up
+ * front, instead of once per use. No WSDL is fetched: the service model comes from
+ * the {@link CatalogService} annotations.
+ *
+ * All proxies share one CXF bus, and therefore one cached JAXBContext for the
+ * service types, and the same WS-Security interceptors, so the {@code Crypto} behind
+ * them is loaded once. Each proxy keeps its HTTP connection alive between calls;
+ * the JDK keeps at most {@code http.maxConnections} (default 5) idle connections
+ * per host, so raise it to the pool size for larger pools.
+ *
+ * A proxy is used by one caller at a time, so callers may set its request context
+ * (e.g. per-call timeouts) without affecting anyone else; the context is put back
+ * as it was built when the proxy returns to the pool.
+ */
+public class CatalogClientPool implements AutoCloseable {
+
+    private final Bus bus;
+    private final BlockingQueue<CatalogService> idle;
+    // Each proxy's request context as built, restored after every use
+    private final Map<CatalogService, Map<String, Object>> initialContexts = new IdentityHashMap<>();
+    private final long borrowTimeoutMillis;
+
+    /**
+     * @param outSecurity signs outgoing requests, or {@code null} for none
+     * @param inSecurity  verifies signed responses, or {@code null} for none
+     */
+    public CatalogClientPool(String address, int size, long connectTimeoutMillis, long receiveTimeoutMillis,
+                             long borrowTimeoutMillis, WSS4JOutInterceptor outSecurity,
+                             WSS4JInInterceptor inSecurity) {
+        if (size < 1) {
+            throw new IllegalArgumentException("Pool size must be at least 1: " + size);
+        }
+        this.bus = BusFactory.newInstance().createBus();
+        this.idle = new ArrayBlockingQueue<>(size);
+        this.borrowTimeoutMillis = borrowTimeoutMillis;
+
+        JaxWsProxyFactoryBean factory = new JaxWsProxyFactoryBean();
+        factory.setBus(bus);
+        factory.setServiceClass(CatalogService.class);
+        factory.setAddress(address);
+        if (outSecurity != null) {
+            factory.getOutInterceptors().add(outSecurity);
+        }
+        if (inSecurity != null) {
+            factory.getInInterceptors().add(inSecurity);
+        }
+        HTTPClientPolicy policy = new HTTPClientPolicy();
+        policy.setConnection(ConnectionType.KEEP_ALIVE);
+        policy.setConnectionTimeout(connectTimeoutMillis);
+        policy.setReceiveTimeout(receiveTimeoutMillis);
+        // Requests are small; a Content-Length lets the server read them in one go
+        policy.setAllowChunking(false);
+
+        for (int i = 0; i < size; i++) {
+            CatalogService proxy = factory.create(CatalogService.class);
+            Client client = ClientProxy.getClient(proxy);
+            ((HTTPConduit) client.getConduit()).setClient(policy);
+            initialContexts.put(proxy, new HashMap<>(((BindingProvider) proxy).getRequestContext()));
+            idle.add(proxy);
+        }
+    }
+
+    /**
+     * Runs {@code call} with a pooled proxy, waiting for one to come free if all
+     * are in use.
+     */
+    public <T> T execute(Function<CatalogService, T> call) {
+        CatalogService proxy = borrow();
+        try {
+            return call.apply(proxy);
+        } finally {
+            Map<String, Object> context = ((BindingProvider) proxy).getRequestContext();
+            context.clear();
+            context.putAll(initialContexts.get(proxy));
+            idle.add(proxy);
+        }
+    }
+
+    public int available() {
+        return idle.size();
+    }
+
+    @Override
+    public void close() {
+        for (CatalogService proxy : idle) {
+            ClientProxy.getClient(proxy).destroy();
+        }
+        idle.clear();
+        bus.shutdown(true);
+    }
+
+    private CatalogService borrow() {
+        CatalogService proxy;
+        try {
+            proxy = idle.poll(borrowTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted waiting for a catalog client", e);
+        }
+        if (proxy == null) {
+            throw new IllegalStateException("No catalog client free within " + borrowTimeoutMillis + " ms");
+        }
+        return proxy;
+    }
+}
@@ -0,0 +1,57 @@
+package com.globalbooks.catalog.client;
+
+import org.apache.cxf.ws.security.wss4j.WSS4JInInterceptor;
+import org.apache.cxf.ws.security.wss4j.WSS4JOutInterceptor;
+import org.apache.wss4j.common.ConfigurationConstants;
+import org.apache.wss4j.common.WSS4JConstants;
+import org.apache.wss4j.common.crypto.Crypto;
+
+import javax.security.auth.callback.CallbackHandler;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * WS-Security interceptors for {@link CatalogClientPool}, matching the catalog
+ * endpoint's UsernameToken + Signature + Timestamp policy. The {@link Crypto} is
+ * passed by reference rather than as a properties file, so one keystore load
+ * serves every proxy and every call.
+ */
+public final class CatalogClientSecurity {
+
+    private static final String ACTIONS = ConfigurationConstants.USERNAME_TOKEN + " "
+            + ConfigurationConstants.SIGNATURE + " " + ConfigurationConstants.TIMESTAMP;
+    private static final String CRYPTO_REF = "catalogClientCrypto";
+
+    private CatalogClientSecurity() {
+    }
+
+    /**
+     * Signs requests as {@code user} with the key of {@code signatureUser} in {@code crypto}.
+     */
+    public static WSS4JOutInterceptor outInterceptor(Crypto crypto, String user, String signatureUser,
+                                                     CallbackHandler passwords) {
+        Map<String, Object> properties = new HashMap<>();
+        properties.put(ConfigurationConstants.ACTION, ACTIONS);
+        properties.put(ConfigurationConstants.PASSWORD_TYPE, WSS4JConstants.PW_TEXT);
+        properties.put(ConfigurationConstants.PW_CALLBACK_REF, passwords);
+        properties.put(ConfigurationConstants.USER, user);
+        properties.put(ConfigurationConstants.SIGNATURE_USER, signatureUser);
+        properties.put(ConfigurationConstants.SIG_PROP_REF_ID, CRYPTO_REF);
+        properties.put(CRYPTO_REF, crypto);
+        properties.put(ConfigurationConstants.SIG_KEY_ID, "DirectReference");
+        return new WSS4JOutInterceptor(properties);
+    }
+
+    /**
+     * Verifies the signed responses the catalog endpoint sends back.
+     */
+    public static WSS4JInInterceptor inInterceptor(Crypto crypto, CallbackHandler passwords) {
+        Map<String, Object> properties = new HashMap<>();
+        properties.put(ConfigurationConstants.ACTION, ACTIONS);
+        properties.put(ConfigurationConstants.PASSWORD_TYPE, WSS4JConstants.PW_TEXT);
+        properties.put(ConfigurationConstants.PW_CALLBACK_REF, passwords);
+        properties.put(ConfigurationConstants.SIG_VER_PROP_REF_ID, CRYPTO_REF);
+        properties.put(CRYPTO_REF, crypto);
+        return new WSS4JInInterceptor(properties);
+    }
+}
@@ -0,0 +1,56 @@
+package com.globalbooks.catalog.client;
+
+import javax.jws.WebMethod;
+import javax.jws.WebParam;
+import javax.jws.WebService;
+import javax.jws.soap.SOAPBinding;
+import java.util.List;
+
+/**
+ * Client-side copy of the catalog service's SOAP interface, with the same
+ * operation, parameter and namespace names so it binds to the same messages.
+ * Keep it in step with {@code com.globalbooks.catalog.CatalogService} in the
+ * catalog service.
+ */
+@WebService(name = "CatalogService",
+           targetNamespace = "http://catalog.globalbooks.com/")
+@SOAPBinding(style = SOAPBinding.Style.DOCUMENT)
+public interface CatalogService {
+
+    @WebMethod(operationName = "searchBooks")
+    List<Book> searchBooks(@WebParam(name = "query") String query,
+                          @WebParam(name = "category") String category);
+
+    @WebMethod(operationName = "getBookById")
+    Book getBookById(@WebParam(name = "bookId") String bookId);
+
+    @WebMethod(operationName = "getBookPrice")
+    double getBookPrice(@WebParam(name = "bookId") String bookId);
+
+    @WebMethod(operationName = "checkAvailability")
+    boolean checkAvailability(@WebParam(name = "bookId") String bookId,
+                             @WebParam(name = "quantity") int quantity);
+
+    @WebMethod(operationName = "getBookPrices")
+    List<BookPrice> getBookPrices(@WebParam(name = "items") List<BookQuantity> items);
+
+    @WebMethod(operationName = "checkAvailabilityBatch")
+    List<BookAvailability> checkAvailabilityBatch(@WebParam(name = "items") List<BookQuantity> items);
+
+    @WebMethod(operationName = "getCategoryFacets")
+    List<CategoryFacet> getCategoryFacets(@WebParam(name = "query") String query);
+
+    @WebMethod(operationName = "suggestBooks")
+    List<BookSuggestion> suggestBooks(@WebParam(name = "query") String query,
+                                      @WebParam(name = "maxResults") int maxResults);
+
+    @WebMethod(operationName = "reserveStock")
+    String reserveStock(@WebParam(name = "bookId") String bookId,
+                        @WebParam(name = "quantity") int quantity);
+
+    @WebMethod(operationName = "confirmReservation")
+    boolean confirmReservation(@WebParam(name = "reservationId") String reservationId);
+
+    @WebMethod(operationName = "releaseReservation")
+    boolean releaseReservation(@WebParam(name = "reservationId") String reservationId);
+}
\ No newline at end of file
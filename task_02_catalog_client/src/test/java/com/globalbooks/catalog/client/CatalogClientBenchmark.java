@@ -0,0 +1,134 @@
+package com.globalbooks.catalog.client;
+
+import com.sun.net.httpserver.HttpServer;
+import org.apache.cxf.Bus;
+import org.apache.cxf.BusFactory;
+import org.apache.cxf.frontend.ClientProxy;
+import org.apache.cxf.jaxws.JaxWsProxyFactoryBean;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Measures the client-side cost of a getBookPrice call made with a proxy built
+ * for that call, as callers do today, against one made through a warmed
+ * {@link CatalogClientPool}. The server is an in-process stub that answers every
+ * request with the same canned response, so the numbers are client overhead plus
+ * a loopback round trip. Run manually, e.g.
+ * {@code java -cp ... CatalogClientBenchmark 2000 8}.
+ */
+public class CatalogClientBenchmark {
+
+    private static final byte[] RESPONSE = ("<soap:Envelope xmlns:soap=\"http://schemas.xmlsoap.org/soap/envelope/\">"
+            + "<soap:Body><ns2:getBookPriceResponse xmlns:ns2=\"http://catalog.globalbooks.com/\">"
+            + "<return>42.5</return></ns2:getBookPriceResponse></soap:Body></soap:Envelope>")
+            .getBytes(StandardCharsets.UTF_8);
+
+    public static void main(String[] args) throws Exception {
+        int calls = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : 8;
+        System.setProperty("http.maxConnections", Integer.toString(Math.max(threads, 5)));
+        // Otherwise the stub's header and body writes meet delayed ACKs and every call takes ~40 ms
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+
+        ExecutorService serverThreads = Executors.newFixedThreadPool(threads);
+        HttpServer server = stubServer(serverThreads);
+        String address = "http://localhost:" + server.getAddress().getPort() + "/catalog";
+        try {
+            Bus bus = BusFactory.newInstance().createBus();
+            try {
+                report("proxy per call", calls / 10, 1, () -> {
+                    JaxWsProxyFactoryBean factory = new JaxWsProxyFactoryBean();
+                    factory.setBus(bus);
+                    factory.setServiceClass(CatalogService.class);
+                    factory.setAddress(address);
+                    CatalogService proxy = factory.create(CatalogService.class);
+                    proxy.getBookPrice("978-1491904244");
+                    ClientProxy.getClient(proxy).destroy();
+                });
+            } finally {
+                bus.shutdown(true);
+            }
+
+            try (CatalogClientPool pool = new CatalogClientPool(address, threads, 5_000, 30_000, 5_000,
+                    null, null)) {
+                report("pooled", calls, 1, () -> pool.execute(catalog -> catalog.getBookPrice("978-1491904244")));
+                report("pooled", calls, threads, () -> pool.execute(catalog -> catalog.getBookPrice("978-1491904244")));
+            }
+        } finally {
+            server.stop(0);
+            serverThreads.shutdown();
+        }
+    }
+
+    private static void report(String mode, int calls, int threads, Call call) throws Exception {
+        // Warm up with as many calls as are measured
+        run(calls, threads, call);
+        long[] nanos = run(calls, threads, call);
+        Arrays.sort(nanos);
+        long total = 0;
+        for (long n : nanos) {
+            total += n;
+        }
+        System.out.printf("%-15s %2d threads  mean %,9.1f us  p50 %,9.1f us  p99 %,9.1f us%n", mode, threads,
+                total / 1000.0 / nanos.length, nanos[nanos.length / 2] / 1000.0,
+                nanos[nanos.length * 99 / 100] / 1000.0);
+    }
+
+    private static long[] run(int calls, int threads, Call call) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<long[]>> results = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                results.add(executor.submit(() -> {
+                    long[] nanos = new long[calls / threads];
+                    for (int i = 0; i < nanos.length; i++) {
+                        long started = System.nanoTime();
+                        call.run();
+                        nanos[i] = System.nanoTime() - started;
+                    }
+                    return nanos;
+                }));
+            }
+            long[] all = new long[0];
+            for (Future<long[]> result : results) {
+                long[] nanos = result.get();
+                int from = all.length;
+                all = Arrays.copyOf(all, from + nanos.length);
+                System.arraycopy(nanos, 0, all, from, nanos.length);
+            }
+            return all;
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static HttpServer stubServer(ExecutorService threads) throws Exception {
+        HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/catalog", exchange -> {
+            try (InputStream in = exchange.getRequestBody()) {
+                in.readAllBytes();
+            }
+            exchange.getResponseHeaders().set("Content-Type", "text/xml; charset=UTF-8");
+            exchange.sendResponseHeaders(200, RESPONSE.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(RESPONSE);
+            }
+        });
+        server.setExecutor(threads);
+        server.start();
+        return server;
+    }
+
+    private interface Call {
+        void run() throws Exception;
+    }
+}
@@ -0,0 +1,116 @@
+package com.globalbooks.catalog.client;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.xml.ws.BindingProvider;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CatalogClientPoolTest {
+
+    private static final String ENVELOPE = "<soap:Envelope xmlns:soap=\"http://schemas.xmlsoap.org/soap/envelope/\">"
+            + "<soap:Body>%s</soap:Body></soap:Envelope>";
+
+    private final List<String> requests = new CopyOnWriteArrayList<>();
+    private HttpServer server;
+    private String address;
+
+    @BeforeEach
+    void startStub() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/catalog", exchange -> {
+            String request;
+            try (InputStream in = exchange.getRequestBody()) {
+                request = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            }
+            requests.add(request);
+            String body = request.contains("getBookPrices")
+                    ? "<ns2:getBookPricesResponse xmlns:ns2=\"http://catalog.globalbooks.com/\"><return>"
+                    + "<ns2:bookId>978-1491904244</ns2:bookId><ns2:quantity>2</ns2:quantity>"
+                    + "<ns2:price>59.99</ns2:price><ns2:subtotal>119.98</ns2:subtotal><ns2:found>true</ns2:found>"
+                    + "</return></ns2:getBookPricesResponse>"
+                    : "<ns2:getBookPriceResponse xmlns:ns2=\"http://catalog.globalbooks.com/\">"
+                    + "<return>42.5</return></ns2:getBookPriceResponse>";
+            byte[] response = String.format(ENVELOPE, body).getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "text/xml; charset=UTF-8");
+            exchange.sendResponseHeaders(200, response.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(response);
+            }
+        });
+        server.start();
+        address = "http://localhost:" + server.getAddress().getPort() + "/catalog";
+    }
+
+    @AfterEach
+    void stopStub() {
+        server.stop(0);
+    }
+
+    @Test
+    void testPooledProxiesSpeakTheCatalogContract() {
+        // Test that the client interface produces and reads the catalog endpoint's messages
+        try (CatalogClientPool pool = new CatalogClientPool(address, 2, 5_000, 5_000, 1_000, null, null)) {
+            double price = pool.execute(catalog -> catalog.getBookPrice("978-1491904244"));
+            List<BookPrice> prices = pool.execute(catalog -> catalog.getBookPrices(
+                    Arrays.asList(new BookQuantity("978-1491904244", 2))));
+
+            assertThat(price).isEqualTo(42.5);
+            assertThat(prices).hasSize(1);
+            assertThat(prices.get(0).getSubtotal()).isEqualTo(119.98);
+            assertThat(prices.get(0).isFound()).isTrue();
+            assertThat(requests.get(0)).contains("getBookPrice xmlns:ns2=\"http://catalog.globalbooks.com/\"")
+                    .contains("<bookId>978-1491904244</bookId>");
+            assertThat(requests.get(1)).contains("<ns2:bookId>978-1491904244</ns2:bookId>");
+            assertThat(pool.available()).isEqualTo(2);
+        }
+    }
+
+    @Test
+    void testRequestContextIsResetForTheNextBorrower() {
+        // Test that what one caller puts in a proxy's request context is gone when the proxy is next borrowed
+        try (CatalogClientPool pool = new CatalogClientPool(address, 1, 5_000, 5_000, 1_000, null, null)) {
+            pool.execute(catalog -> {
+                Map<String, Object> context = ((BindingProvider) catalog).getRequestContext();
+                context.put(BindingProvider.ENDPOINT_ADDRESS_PROPERTY, "http://localhost:1/elsewhere");
+                context.put("javax.xml.ws.client.receiveTimeout", 1);
+                return null;
+            });
+
+            Map<String, Object> next = pool.execute(catalog -> new HashMap<>(
+                    ((BindingProvider) catalog).getRequestContext()));
+            double price = pool.execute(catalog -> catalog.getBookPrice("978-1491904244"));
+
+            assertThat(next).doesNotContainKeys(BindingProvider.ENDPOINT_ADDRESS_PROPERTY,
+                    "javax.xml.ws.client.receiveTimeout");
+            // Back on the pool's address, not the one the first caller set
+            assertThat(price).isEqualTo(42.5);
+            assertThat(requests).hasSize(1);
+        }
+    }
+
+    @Test
+    void testBorrowTimesOutWhenEveryProxyIsInUse() {
+        // Test that a caller waits at most the borrow timeout for a proxy
+        try (CatalogClientPool pool = new CatalogClientPool(address, 1, 5_000, 5_000, 50, null, null)) {
+            assertThatThrownBy(() -> pool.execute(outer -> pool.execute(inner -> 0)))
+                    .isInstanceOf(IllegalStateException.class)
+                    .hasMessageContaining("No catalog client free within 50 ms");
+            assertThat(pool.available()).isEqualTo(1);
+        }
+    }
+}
@@ -1,13 +1,27 @@
 package com.globalbooks.catalog;
 
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.Table;
 import javax.xml.bind.annotation.XmlRootElement;
 import javax.xml.bind.annotation.XmlType;
 
+@Entity
+@Table(name = "books", indexes = {
+    @Index(name = "idx_books_category", columnList = "category")
+})
 @XmlRootElement(name = "book", namespace = "http://catalog.globalbooks.com/")
 @XmlType(propOrder = {"isbn", "title", "author", "category", "price", "stock"})
 public class Book {
+    @Id
+    @Column(length = 20)
     private String isbn;
+
+    @Column(nullable = false)
     private String title;
+
     private String author;
     private String category;
     private double price;
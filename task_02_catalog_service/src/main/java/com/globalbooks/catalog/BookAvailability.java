@@ -0,0 +1,54 @@
+package com.globalbooks.catalog;
+
+import javax.xml.bind.annotation.XmlAccessType;
+import javax.xml.bind.annotation.XmlAccessorType;
+import javax.xml.bind.annotation.XmlElement;
+import javax.xml.bind.annotation.XmlType;
+
+@XmlAccessorType(XmlAccessType.FIELD)
+@XmlType(name = "BookAvailability", propOrder = {
+    "bookId",
+    "quantity",
+    "available"
+})
+public class BookAvailability {
+
+    @XmlElement(namespace = "http://catalog.globalbooks.com/", required = true)
+    protected String bookId;
+    @XmlElement(namespace = "http://catalog.globalbooks.com/")
+    protected int quantity;
+    @XmlElement(namespace = "http://catalog.globalbooks.com/")
+    protected boolean available;
+
+    public BookAvailability() {}
+
+    public BookAvailability(String bookId, int quantity, boolean available) {
+        this.bookId = bookId;
+        this.quantity = quantity;
+        this.available = available;
+    }
+
+    public String getBookId() {
+        return bookId;
+    }
+
+    public void setBookId(String value) {
+        this.bookId = value;
+    }
+
+    public int getQuantity() {
+        return quantity;
+    }
+
+    public void setQuantity(int value) {
+        this.quantity = value;
+    }
+
+    public boolean isAvailable() {
+        return available;
+    }
+
+    public void setAvailable(boolean value) {
+        this.available = value;
+    }
+}
@@ -0,0 +1,78 @@
+package com.globalbooks.catalog;
+
+import javax.xml.bind.annotation.XmlAccessType;
+import javax.xml.bind.annotation.XmlAccessorType;
+import javax.xml.bind.annotation.XmlElement;
+import javax.xml.bind.annotation.XmlType;
+
+@XmlAccessorType(XmlAccessType.FIELD)
+@XmlType(name = "BookPrice", propOrder = {
+    "bookId",
+    "quantity",
+    "price",
+    "subtotal",
+    "found"
+})
+public class BookPrice {
+
+    @XmlElement(namespace = "http://catalog.globalbooks.com/", required = true)
+    protected String bookId;
+    @XmlElement(namespace = "http://catalog.globalbooks.com/")
+    protected int quantity;
+    @XmlElement(namespace = "http://catalog.globalbooks.com/")
+    protected double price;
+    @XmlElement(namespace = "http://catalog.globalbooks.com/")
+    protected double subtotal;
+    @XmlElement(namespace = "http://catalog.globalbooks.com/")
+    protected boolean found;
+
+    public BookPrice() {}
+
+    public BookPrice(String bookId, int quantity, double price, boolean found) {
+        this.bookId = bookId;
+        this.quantity = quantity;
+        this.price = price;
+        this.subtotal = price * quantity;
+        this.found = found;
+    }
+
+    public String getBookId() {
+        return bookId;
+    }
+
+    public void setBookId(String value) {
+        this.bookId = value;
+    }
+
+    public int getQuantity() {
+        return quantity;
+    }
+
+    public void setQuantity(int value) {
+        this.quantity = value;
+    }
+
+    public double getPrice() {
+        return price;
+    }
+
+    public void setPrice(double value) {
+        this.price = value;
+    }
+
+    public double getSubtotal() {
+        return subtotal;
+    }
+
+    public void setSubtotal(double value) {
+        this.subtotal = value;
+    }
+
+    public boolean isFound() {
+        return found;
+    }
+
+    public void setFound(boolean value) {
+        this.found = value;
+    }
+}
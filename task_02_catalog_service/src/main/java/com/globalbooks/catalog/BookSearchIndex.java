@@ -0,0 +1,359 @@
+package com.globalbooks.catalog;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.function.Predicate;
+
+/**
+ * Inverted index over normalized title/author tokens plus a category posting list.
+ * Query tokens are matched as token prefixes and the postings are intersected, so
+ * a search touches only the candidate ISBNs instead of scanning the whole catalog.
+ * The category postings double as facets: their sizes are the live per-category
+ * counts, and counts for a query are intersections with the query's matches.
+ *
+ * Postings and entries are kept in ISBN order, so a page of results after a cursor
+ * is read by walking the smallest posting from that ISBN and stops once the page is
+ * full; deep pages cost no more than the first.
+ */
+public class BookSearchIndex {
+
+    private final NavigableMap<String, Posting> tokenPostings = new ConcurrentSkipListMap<>();
+    private final Map<String, Posting> categoryPostings = new ConcurrentHashMap<>();
+    // Normalized category -> spelling of the first book indexed under it
+    private final Map<String, String> categoryNames = new ConcurrentHashMap<>();
+    private final NavigableMap<String, IndexedBook> entries = new ConcurrentSkipListMap<>();
+
+    public synchronized void index(Book book) {
+        remove(book.getIsbn());
+
+        IndexedBook entry = new IndexedBook(normalize(book.getTitle()),
+                normalize(book.getAuthor()), normalize(book.getCategory()));
+        entries.put(book.getIsbn(), entry);
+
+        for (String token : entry.tokens) {
+            tokenPostings.computeIfAbsent(token, k -> new Posting()).add(book.getIsbn());
+        }
+        if (entry.category != null) {
+            categoryNames.putIfAbsent(entry.category, book.getCategory().trim());
+            categoryPostings.computeIfAbsent(entry.category, k -> new Posting()).add(book.getIsbn());
+        }
+    }
+
+    public synchronized void remove(String isbn) {
+        IndexedBook previous = entries.remove(isbn);
+        if (previous == null) {
+            return;
+        }
+        for (String token : previous.tokens) {
+            removePosting(tokenPostings, token, isbn);
+        }
+        if (previous.category != null) {
+            removePosting(categoryPostings, previous.category, isbn);
+            if (!categoryPostings.containsKey(previous.category)) {
+                categoryNames.remove(previous.category);
+            }
+        }
+    }
+
+    /**
+     * Returns the ISBNs whose title or author contains the query (matched at token
+     * boundaries) and whose category equals the given one, ignoring case.
+     * Null arguments do not constrain the result, and neither does a query without
+     * any letters or digits, since it has no tokens to match.
+     */
+    public Set<String> search(String query, String category) {
+        Set<String> result = new LinkedHashSet<>();
+        forEachMatch(query, category, null, isbn -> {
+            result.add(isbn);
+            return true;
+        });
+        return result;
+    }
+
+    /**
+     * Returns at most {@code limit} ISBNs matching like {@link #search}, in ascending
+     * order and after {@code after} (from the first if null).
+     */
+    public List<String> searchPage(String query, String category, String after, int limit) {
+        List<String> page = new ArrayList<>(Math.min(limit, 1024));
+        if (limit > 0) {
+            forEachMatch(query, category, after, isbn -> {
+                page.add(isbn);
+                return page.size() < limit;
+            });
+        }
+        return page;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Number of titles per category, largest first, among the titles matching the
+     * query; a query without tokens (null, blank or punctuation only) counts the
+     * whole catalog.
+     */
+    public List<CategoryFacet> categoryFacets(String query) {
+        Set<String> matches = tokenize(normalize(query)).isEmpty() ? null : search(query, null);
+
+        List<CategoryFacet> facets = new ArrayList<>();
+        for (Map.Entry<String, Posting> posting : categoryPostings.entrySet()) {
+            int count = matches == null ? posting.getValue().size : intersectionSize(matches, posting.getValue());
+            if (count > 0) {
+                facets.add(new CategoryFacet(categoryNames.getOrDefault(posting.getKey(), posting.getKey()), count));
+            }
+        }
+        facets.sort(Comparator.comparingInt(CategoryFacet::getCount).reversed()
+                .thenComparing(CategoryFacet::getCategory));
+        return facets;
+    }
+
+    /**
+     * Calls {@code visitor} with the matching ISBNs after {@code after} (from the
+     * first if null) in ascending order, until it returns false or they run out.
+     * Each constraint is the union of one or more postings; the smallest is walked
+     * and the others are probed.
+     */
+    private void forEachMatch(String query, String category, String after, Predicate<String> visitor) {
+        String normalizedQuery = normalize(query);
+        List<String> queryTokens = tokenize(normalizedQuery);
+        String normalizedCategory = normalize(category);
+
+        List<List<Posting>> constraints = new ArrayList<>();
+        if (normalizedCategory != null) {
+            Posting posting = categoryPostings.get(normalizedCategory);
+            constraints.add(posting == null ? Collections.emptyList() : Collections.singletonList(posting));
+        }
+        for (String token : queryTokens) {
+            constraints.add(new ArrayList<>(
+                    tokenPostings.subMap(token, true, token + Character.MAX_VALUE, false).values()));
+        }
+
+        if (constraints.isEmpty()) {
+            for (String isbn : after == null ? entries.keySet() : entries.tailMap(after, false).keySet()) {
+                if (!visitor.test(isbn)) {
+                    return;
+                }
+            }
+            return;
+        }
+
+        constraints.sort(Comparator.comparingLong(BookSearchIndex::size));
+        Iterator<String> driver = ascending(constraints.get(0), after);
+        candidates:
+        while (driver.hasNext()) {
+            String isbn = driver.next();
+            for (int i = 1; i < constraints.size(); i++) {
+                if (!contains(constraints.get(i), isbn)) {
+                    continue candidates;
+                }
+            }
+            // Token intersection is a superset for multi-word queries; confirm the phrase
+            if (queryTokens.size() > 1 && !matchesPhrase(isbn, normalizedQuery)) {
+                continue;
+            }
+            if (!visitor.test(isbn)) {
+                return;
+            }
+        }
+    }
+
+    private boolean matchesPhrase(String isbn, String normalizedQuery) {
+        IndexedBook entry = entries.get(isbn);
+        return entry != null && ((entry.title != null && entry.title.contains(normalizedQuery))
+                || (entry.author != null && entry.author.contains(normalizedQuery)));
+    }
+
+    private static int intersectionSize(Set<String> matches, Posting posting) {
+        int count = 0;
+        if (matches.size() <= posting.size) {
+            for (String isbn : matches) {
+                if (posting.isbns.contains(isbn)) {
+                    count++;
+                }
+            }
+        } else {
+            for (String isbn : posting.isbns) {
+                if (matches.contains(isbn)) {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    private static long size(List<Posting> union) {
+        long size = 0;
+        for (Posting posting : union) {
+            size += posting.size;
+        }
+        return size;
+    }
+
+    private static boolean contains(List<Posting> union, String isbn) {
+        for (Posting posting : union) {
+            if (posting.isbns.contains(isbn)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Iterator<String> ascending(List<Posting> union, String after) {
+        if (union.isEmpty()) {
+            return Collections.emptyIterator();
+        }
+        return union.size() == 1 ? union.get(0).tail(after).iterator() : new MergingIterator(union, after);
+    }
+
+    private static void removePosting(Map<String, Posting> postings, String key, String isbn) {
+        postings.computeIfPresent(key, (k, posting) -> {
+            posting.remove(isbn);
+            return posting.size == 0 ? null : posting;
+        });
+    }
+
+    /**
+     * Trims and lower-cases a query, title, author or category the way the index does.
+     */
+    public static String normalize(String value) {
+        return value == null ? null : value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Splits a normalized string into its runs of letters and digits, the tokens
+     * queries are matched against as prefixes.
+     */
+    public static List<String> tokenize(String normalized) {
+        List<String> tokens = new ArrayList<>();
+        if (normalized == null) {
+            return tokens;
+        }
+        int start = -1;
+        for (int i = 0; i <= normalized.length(); i++) {
+            boolean wordChar = i < normalized.length() && Character.isLetterOrDigit(normalized.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                tokens.add(normalized.substring(start, i));
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    private static final class IndexedBook {
+        private final String title;
+        private final String author;
+        private final String category;
+        private final Set<String> tokens = new HashSet<>();
+
+        private IndexedBook(String title, String author, String category) {
+            this.title = title;
+            this.author = author;
+            this.category = category;
+            tokens.addAll(tokenize(title));
+            tokens.addAll(tokenize(author));
+        }
+    }
+
+    /**
+     * ISBNs in ascending order. A skip list counts by walking, so the size is kept
+     * alongside; both change only under the index lock.
+     */
+    private static final class Posting {
+        private final ConcurrentSkipListSet<String> isbns = new ConcurrentSkipListSet<>();
+        private volatile int size;
+
+        private void add(String isbn) {
+            if (isbns.add(isbn)) {
+                size++;
+            }
+        }
+
+        private void remove(String isbn) {
+            if (isbns.remove(isbn)) {
+                size--;
+            }
+        }
+
+        private NavigableSet<String> tail(String after) {
+            return after == null ? isbns : isbns.tailSet(after, false);
+        }
+    }
+
+    /**
+     * Ascending union of several postings, read lazily; an ISBN in more than one of
+     * them comes out once.
+     */
+    private static final class MergingIterator implements Iterator<String> {
+        private final PriorityQueue<Head> heads = new PriorityQueue<>(Comparator.comparing((Head head) -> head.isbn));
+        private String next;
+
+        private MergingIterator(List<Posting> union, String after) {
+            for (Posting posting : union) {
+                Iterator<String> rest = posting.tail(after).iterator();
+                if (rest.hasNext()) {
+                    heads.add(new Head(rest.next(), rest));
+                }
+            }
+            next = advance(null);
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public String next() {
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+            String current = next;
+            next = advance(current);
+            return current;
+        }
+
+        private String advance(String previous) {
+            while (!heads.isEmpty()) {
+                Head head = heads.poll();
+                String isbn = head.isbn;
+                if (head.rest.hasNext()) {
+                    head.isbn = head.rest.next();
+                    heads.add(head);
+                }
+                if (!isbn.equals(previous)) {
+                    return isbn;
+                }
+            }
+            return null;
+        }
+    }
+
+    private static final class Head {
+        private String isbn;
+        private final Iterator<String> rest;
+
+        private Head(String isbn, Iterator<String> rest) {
+            this.isbn = isbn;
+            this.rest = rest;
+        }
+    }
+}
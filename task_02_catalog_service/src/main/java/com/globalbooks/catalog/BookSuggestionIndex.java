@@ -0,0 +1,531 @@
+package com.globalbooks.catalog;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Autocomplete and ranked fuzzy search over title and author terms.
+ *
+ * Terms live in a character trie. Every trie node caches the best {@value #TOP_K}
+ * books in its subtree, so completing a prefix is a walk of at most
+ * {@code prefix.length()} nodes plus a copy of one short list, however many books
+ * share the prefix. Typos are handled by walking the trie with a Damerau-Levenshtein
+ * row per node and pruning branches that are already too far from the query; a
+ * node within the edit budget contributes its cached list with a penalty.
+ *
+ * Each (book, term) pair has a static score: title terms outrank author terms and
+ * earlier words outrank later ones. Ranked search matches every query word as a
+ * whole term within the edit budget and sums the best score per word, so books
+ * matching more of the query rank first.
+ */
+public class BookSuggestionIndex {
+
+    /** Size of the per-node cached list, and so the most suggestions one query returns. */
+    public static final int TOP_K = 16;
+
+    private static final float FUZZY_PENALTY = 1.5f;
+    private static final float PREVIOUS_TOKEN_BONUS = 0.5f;
+    private static final int MIN_FUZZY_LENGTH = 3;
+    private static final int FALLBACK_SCAN_LIMIT = 10_000;
+
+    private static final char[] NO_LABELS = new char[0];
+    private static final Node[] NO_CHILDREN = new Node[0];
+    private static final Candidate[] NO_CANDIDATES = new Candidate[0];
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Node root = new Node();
+    private final Map<String, Entry> entries = new HashMap<>();
+
+    public void index(Book book) {
+        Map<String, Float> terms = new HashMap<>();
+        addTerms(terms, book.getTitle(), 2f);
+        addTerms(terms, book.getAuthor(), 1f);
+
+        lock.writeLock().lock();
+        try {
+            removeLocked(book.getIsbn());
+            String[] termArray = terms.keySet().toArray(new String[0]);
+            entries.put(book.getIsbn(), new Entry(termArray));
+            for (Map.Entry<String, Float> term : terms.entrySet()) {
+                Node node = root;
+                for (int i = 0; i < term.getKey().length(); i++) {
+                    node = node.childOrCreate(term.getKey().charAt(i));
+                    node.offer(book.getIsbn(), term.getValue());
+                }
+                if (node.postings == null) {
+                    node.postings = new HashMap<>(4);
+                }
+                node.postings.put(book.getIsbn(), term.getValue());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(String isbn) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(isbn);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns up to {@code limit} ISBNs whose title or author words complete the
+     * query, best first. The last query word is treated as a prefix and may contain
+     * typos (one edit up to five letters, two beyond); earlier words must match the
+     * start of some word of the same book.
+     */
+    public List<Suggestion> suggest(String query, int limit) {
+        List<String> tokens = BookSearchIndex.tokenize(BookSearchIndex.normalize(query));
+        if (tokens.isEmpty() || limit <= 0) {
+            return new ArrayList<>();
+        }
+        String last = tokens.get(tokens.size() - 1);
+        List<String> previous = tokens.subList(0, tokens.size() - 1);
+
+        lock.readLock().lock();
+        try {
+            Map<String, Float> scores = new HashMap<>();
+            Node exact = find(last);
+            if (exact != null) {
+                collect(exact.top, 0f, scores);
+            }
+            if (last.length() >= MIN_FUZZY_LENGTH) {
+                // Later words filter the candidates, so only a single-word query can bound the walk.
+                // Closer matches are collected first so the bound is high before the wider walk.
+                for (int edits = 1; edits <= maxEdits(last); edits++) {
+                    new Walk(last.toCharArray(), edits, false, scores, previous.isEmpty() ? limit : 0).run(root);
+                }
+            }
+
+            if (!previous.isEmpty()) {
+                applyPreviousTokens(scores, previous);
+                if (scores.size() < limit) {
+                    scanRarestPrevious(scores, previous, last);
+                }
+            }
+
+            return ranked(scores, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Ranks books by how well their title and author words match the query words,
+     * tolerating the same typos as {@link #suggest}. Returns at most {@code limit}.
+     */
+    public List<Suggestion> search(String query, int limit) {
+        List<String> tokens = BookSearchIndex.tokenize(BookSearchIndex.normalize(query));
+        if (tokens.isEmpty() || limit <= 0) {
+            return new ArrayList<>();
+        }
+        lock.readLock().lock();
+        try {
+            Map<String, Float> totals = new HashMap<>();
+            for (String token : tokens) {
+                Map<String, Float> tokenScores = new HashMap<>();
+                if (token.length() < MIN_FUZZY_LENGTH) {
+                    Node node = find(token);
+                    if (node != null && node.postings != null) {
+                        tokenScores.putAll(node.postings);
+                    }
+                } else {
+                    new Walk(token.toCharArray(), maxEdits(token), true, tokenScores, 0).run(root);
+                }
+                tokenScores.forEach((isbn, score) -> totals.merge(isbn, score, Float::sum));
+            }
+            return ranked(totals, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static List<Suggestion> ranked(Map<String, Float> scores, int limit) {
+        List<Suggestion> suggestions = new ArrayList<>(scores.size());
+        scores.forEach((isbn, score) -> suggestions.add(new Suggestion(isbn, score)));
+        suggestions.sort(Comparator.comparingDouble(Suggestion::getScore).reversed()
+                .thenComparing(Suggestion::getIsbn));
+        return suggestions.size() > limit ? new ArrayList<>(suggestions.subList(0, limit)) : suggestions;
+    }
+
+    private static int maxEdits(String token) {
+        return token.length() > 5 ? 2 : 1;
+    }
+
+    private void removeLocked(String isbn) {
+        Entry entry = entries.remove(isbn);
+        if (entry == null) {
+            return;
+        }
+        // Drop every posting first so no path can re-admit the book while tops are rebuilt
+        for (String term : entry.terms) {
+            Node leaf = find(term);
+            if (leaf != null && leaf.postings != null) {
+                leaf.postings.remove(isbn);
+                if (leaf.postings.isEmpty()) {
+                    leaf.postings = null;
+                }
+            }
+        }
+        for (String term : entry.terms) {
+            Node[] path = new Node[term.length() + 1];
+            path[0] = root;
+            for (int i = 0; i < term.length() && path[i] != null; i++) {
+                path[i + 1] = path[i].child(term.charAt(i));
+            }
+            for (int depth = term.length(); depth > 0; depth--) {
+                Node node = path[depth];
+                if (node == null) {
+                    continue;
+                }
+                if (node.postings == null && node.labels.length == 0) {
+                    path[depth - 1].removeChild(term.charAt(depth - 1));
+                } else if (node.topContains(isbn)) {
+                    node.rebuildTop();
+                }
+            }
+        }
+    }
+
+    private Node find(String prefix) {
+        Node node = root;
+        for (int i = 0; i < prefix.length() && node != null; i++) {
+            node = node.child(prefix.charAt(i));
+        }
+        return node;
+    }
+
+    private static void collect(Candidate[] candidates, float penalty, Map<String, Float> scores) {
+        for (Candidate candidate : candidates) {
+            scores.merge(candidate.isbn, candidate.score - penalty, Math::max);
+        }
+    }
+
+    private void applyPreviousTokens(Map<String, Float> scores, List<String> previous) {
+        scores.entrySet().removeIf(score -> {
+            Entry entry = entries.get(score.getKey());
+            return entry == null || !entry.matchesAll(previous);
+        });
+        scores.replaceAll((isbn, score) -> score + PREVIOUS_TOKEN_BONUS * previous.size());
+    }
+
+    /**
+     * The cached top lists only hold the best books per prefix, so a multi-word
+     * query can filter them all away. Fall back to the books carrying the rarest
+     * earlier word and check the last word against their terms.
+     */
+    private void scanRarestPrevious(Map<String, Float> scores, List<String> previous, String last) {
+        Map<String, Float> rarest = null;
+        for (String token : previous) {
+            Node node = find(token);
+            if (node == null || node.postings == null) {
+                return;
+            }
+            if (rarest == null || node.postings.size() < rarest.size()) {
+                rarest = node.postings;
+            }
+        }
+        int scanned = 0;
+        for (Map.Entry<String, Float> posting : rarest.entrySet()) {
+            if (++scanned > FALLBACK_SCAN_LIMIT) {
+                break;
+            }
+            Entry entry = entries.get(posting.getKey());
+            if (entry != null && entry.matches(last) && entry.matchesAll(previous)) {
+                scores.merge(posting.getKey(), posting.getValue() + PREVIOUS_TOKEN_BONUS * previous.size(),
+                        Math::max);
+            }
+        }
+    }
+
+    private static void addTerms(Map<String, Float> terms, String text, float fieldWeight) {
+        List<String> tokens = BookSearchIndex.tokenize(BookSearchIndex.normalize(text));
+        for (int position = 0; position < tokens.size(); position++) {
+            float score = fieldWeight + 1f / (1 + position);
+            terms.merge(tokens.get(position), score, Math::max);
+        }
+    }
+
+    public static final class Suggestion {
+        private final String isbn;
+        private final double score;
+
+        Suggestion(String isbn, double score) {
+            this.isbn = isbn;
+            this.score = score;
+        }
+
+        public String getIsbn() {
+            return isbn;
+        }
+
+        public double getScore() {
+            return score;
+        }
+    }
+
+    private static final class Entry {
+        private final String[] terms;
+
+        private Entry(String[] terms) {
+            this.terms = terms;
+        }
+
+        private boolean matches(String prefix) {
+            for (String term : terms) {
+                if (term.startsWith(prefix)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private boolean matchesAll(List<String> prefixes) {
+            for (String prefix : prefixes) {
+                if (!matches(prefix)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * One walk of the trie keeping an optimal-string-alignment distance row per
+     * node. A node whose row ends within {@code maxEdits} is within the allowed
+     * edits of the query: with {@code wholeTerms} the books whose term ends there
+     * are collected, otherwise the node's cached list for its whole subtree.
+     *
+     * Prefix walks prune twice. A subtree is skipped once an ancestor's list was
+     * collected at a distance nothing below can improve on, since limits never
+     * exceed {@value #TOP_K} and that list already holds the subtree's best books.
+     * With a bound, a subtree is also skipped when its best book, less the
+     * smallest penalty still possible below, cannot displace the current
+     * {@code bound}-th best score; exact matches are collected before the walk so
+     * that score starts high.
+     */
+    private static final class Walk {
+        private final char[] query;
+        private final int maxEdits;
+        private final boolean wholeTerms;
+        private final Map<String, Float> scores;
+        private final int bound;
+        private float threshold = Float.NEGATIVE_INFINITY;
+
+        private Walk(char[] query, int maxEdits, boolean wholeTerms, Map<String, Float> scores, int bound) {
+            this.query = query;
+            this.maxEdits = maxEdits;
+            this.wholeTerms = wholeTerms;
+            this.scores = scores;
+            this.bound = bound;
+            updateThreshold();
+        }
+
+        private void run(Node root) {
+            int[] firstRow = new int[query.length + 1];
+            for (int j = 0; j <= query.length; j++) {
+                firstRow[j] = j;
+            }
+            for (int i = 0; i < root.labels.length; i++) {
+                visit(root.children[i], root.labels[i], (char) 0, firstRow, null, maxEdits + 1);
+            }
+        }
+
+        private void visit(Node node, char label, char previousLabel, int[] previousRow, int[] beforePreviousRow,
+                           int collectedAt) {
+            int columns = query.length + 1;
+            int[] row = new int[columns];
+            row[0] = previousRow[0] + 1;
+            int rowMin = row[0];
+            for (int j = 1; j < columns; j++) {
+                int substitution = previousRow[j - 1] + (query[j - 1] == label ? 0 : 1);
+                int distance = Math.min(Math.min(previousRow[j] + 1, row[j - 1] + 1), substitution);
+                if (beforePreviousRow != null && j > 1 && query[j - 1] == previousLabel && query[j - 2] == label) {
+                    distance = Math.min(distance, beforePreviousRow[j - 2] + 1);
+                }
+                row[j] = distance;
+                rowMin = Math.min(rowMin, distance);
+            }
+            if (rowMin > maxEdits) {
+                return;
+            }
+            int distance = row[query.length];
+
+            if (wholeTerms) {
+                if (distance <= maxEdits && node.postings != null) {
+                    float penalty = distance * FUZZY_PENALTY;
+                    node.postings.forEach((isbn, score) -> scores.merge(isbn, score - penalty, Math::max));
+                }
+            } else {
+                if (node.top.length == 0 || node.top[0].score - rowMin * FUZZY_PENALTY <= threshold) {
+                    return;
+                }
+                if (distance <= maxEdits && distance < collectedAt) {
+                    if (node.top[0].score - distance * FUZZY_PENALTY > threshold) {
+                        collect(node.top, distance * FUZZY_PENALTY, scores);
+                        updateThreshold();
+                    }
+                    collectedAt = distance;
+                }
+                if (rowMin >= collectedAt) {
+                    return;
+                }
+            }
+            for (int i = 0; i < node.labels.length; i++) {
+                visit(node.children[i], node.labels[i], label, row, previousRow, collectedAt);
+            }
+        }
+
+        private void updateThreshold() {
+            if (bound <= 0 || scores.size() < bound) {
+                return;
+            }
+            float[] values = new float[scores.size()];
+            int i = 0;
+            for (float score : scores.values()) {
+                values[i++] = score;
+            }
+            Arrays.sort(values);
+            threshold = values[values.length - bound];
+        }
+    }
+
+    private static final class Candidate {
+        private final String isbn;
+        private final float score;
+
+        private Candidate(String isbn, float score) {
+            this.isbn = isbn;
+            this.score = score;
+        }
+    }
+
+    private static final class Node {
+        private char[] labels = NO_LABELS;
+        private Node[] children = NO_CHILDREN;
+        // Books with a term ending exactly here, with that term's static score
+        private Map<String, Float> postings;
+        // Best TOP_K books anywhere in this subtree, highest score first
+        private Candidate[] top = NO_CANDIDATES;
+
+        private Node child(char label) {
+            int index = Arrays.binarySearch(labels, label);
+            return index >= 0 ? children[index] : null;
+        }
+
+        private Node childOrCreate(char label) {
+            int index = Arrays.binarySearch(labels, label);
+            if (index >= 0) {
+                return children[index];
+            }
+            int insertAt = -index - 1;
+            char[] newLabels = new char[labels.length + 1];
+            Node[] newChildren = new Node[children.length + 1];
+            System.arraycopy(labels, 0, newLabels, 0, insertAt);
+            System.arraycopy(children, 0, newChildren, 0, insertAt);
+            newLabels[insertAt] = label;
+            newChildren[insertAt] = new Node();
+            System.arraycopy(labels, insertAt, newLabels, insertAt + 1, labels.length - insertAt);
+            System.arraycopy(children, insertAt, newChildren, insertAt + 1, children.length - insertAt);
+            labels = newLabels;
+            children = newChildren;
+            return newChildren[insertAt];
+        }
+
+        private void removeChild(char label) {
+            int index = Arrays.binarySearch(labels, label);
+            if (index < 0) {
+                return;
+            }
+            char[] newLabels = new char[labels.length - 1];
+            Node[] newChildren = new Node[children.length - 1];
+            System.arraycopy(labels, 0, newLabels, 0, index);
+            System.arraycopy(children, 0, newChildren, 0, index);
+            System.arraycopy(labels, index + 1, newLabels, index, labels.length - index - 1);
+            System.arraycopy(children, index + 1, newChildren, index, children.length - index - 1);
+            labels = newLabels;
+            children = newChildren;
+        }
+
+        private boolean topContains(String isbn) {
+            for (Candidate candidate : top) {
+                if (candidate.isbn.equals(isbn)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Admits a book into the cached list if it ranks among the best; a book
+         * already listed keeps its higher score.
+         */
+        private void offer(String isbn, float score) {
+            int existing = -1;
+            for (int i = 0; i < top.length; i++) {
+                if (top[i].isbn.equals(isbn)) {
+                    if (top[i].score >= score) {
+                        return;
+                    }
+                    existing = i;
+                    break;
+                }
+            }
+            if (existing < 0 && top.length == TOP_K && top[TOP_K - 1].score >= score) {
+                return;
+            }
+            Candidate[] updated;
+            int from;
+            if (existing >= 0) {
+                // Same length; the book only moves up
+                updated = top;
+                from = existing;
+            } else if (top.length < TOP_K) {
+                updated = Arrays.copyOf(top, top.length + 1);
+                from = top.length;
+            } else {
+                updated = top;
+                from = TOP_K - 1;
+            }
+            int at = from;
+            while (at > 0 && updated[at - 1].score < score) {
+                updated[at] = updated[at - 1];
+                at--;
+            }
+            updated[at] = new Candidate(isbn, score);
+            top = updated;
+        }
+
+        private void rebuildTop() {
+            Map<String, Float> best = new HashMap<>();
+            if (postings != null) {
+                best.putAll(postings);
+            }
+            for (Node child : children) {
+                collect(child.top, 0f, best);
+            }
+            List<Candidate> candidates = new ArrayList<>(best.size());
+            best.forEach((isbn, score) -> candidates.add(new Candidate(isbn, score)));
+            candidates.sort((a, b) -> Float.compare(b.score, a.score));
+            top = candidates.subList(0, Math.min(TOP_K, candidates.size())).toArray(NO_CANDIDATES);
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.globalbooks.catalog;
+
+import com.globalbooks.catalog.api.TrustedCallerInterceptor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+public class CatalogApiConfig implements WebMvcConfigurer {
+
+    @Value("${catalog.api.trusted-networks:127.0.0.0/8,::1/128}")
+    private String[] trustedNetworks;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new TrustedCallerInterceptor(trustedNetworks))
+                .addPathPatterns("/catalog/api/**");
+    }
+}
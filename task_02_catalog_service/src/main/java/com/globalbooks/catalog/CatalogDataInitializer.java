@@ -0,0 +1,26 @@
+package com.globalbooks.catalog;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+@Component
+public class CatalogDataInitializer implements ApplicationRunner {
+
+    @Autowired
+    private CatalogWriter catalog;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!catalog.isEmpty()) {
+            return;
+        }
+        catalog.saveBook(new Book("978-1491904244",
+                "Designing Data-Intensive Applications", "Martin Kleppmann", "Databases", 59.99, 150));
+        catalog.saveBook(new Book("978-0132350884",
+                "Clean Code: A Handbook of Agile Software Craftsmanship", "Robert C. Martin", "Software Engineering", 49.99, 200));
+        catalog.saveBook(new Book("978-0201633610",
+                "Design Patterns: Elements of Reusable Object-Oriented Software", "Erich Gamma", "Software Design", 54.99, 120));
+    }
+}
@@ -1,46 +1,108 @@
 package com.globalbooks.catalog;
 
+import com.globalbooks.catalog.cache.ResponseBytesCache;
+import com.globalbooks.catalog.cache.SingleFlight;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.oxm.jaxb.Jaxb2Marshaller;
+import org.springframework.ws.WebServiceMessage;
+import org.springframework.ws.context.MessageContext;
 import org.springframework.ws.server.endpoint.annotation.Endpoint;
 import org.springframework.ws.server.endpoint.annotation.PayloadRoot;
 import org.springframework.ws.server.endpoint.annotation.RequestPayload;
 import org.springframework.ws.server.endpoint.annotation.ResponsePayload;
+import org.springframework.ws.stream.StreamingWebServiceMessage;
+import org.springframework.xml.transform.TransformerHelper;
 
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Marshaller;
+import javax.xml.namespace.QName;
+import javax.xml.transform.TransformerException;
+import javax.xml.transform.stream.StreamSource;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.util.List;
+import java.util.function.Supplier;
 
 @Endpoint
 public class CatalogEndpoint {
 
     private static final String NAMESPACE_URI = "http://catalog.globalbooks.com/";
+    private static final QName GET_BOOK_BY_ID_RESPONSE = new QName(NAMESPACE_URI, "getBookByIdResponse");
+    private static final QName GET_BOOK_PRICE_RESPONSE = new QName(NAMESPACE_URI, "getBookPriceResponse");
+
+    // Concurrent identical lookups share one service call and one marshalled response
+    private final SingleFlight<String, MarshalledPayload> lookups = new SingleFlight<>();
+    private final TransformerHelper transformerHelper = new TransformerHelper();
 
     @Autowired
     private CatalogService catalogService;
 
+    @Autowired
+    private PagedCatalogSearch pagedCatalogSearch;
+
+    @Autowired
+    private Jaxb2Marshaller jaxb2Marshaller;
+
+    @Autowired
+    private ResponseBytesCache responseCache;
+
+    @Value("${catalog.search.default-page-size:100}")
+    private int defaultPageSize;
+
+    @Value("${catalog.search.max-page-size:1000}")
+    private int maxPageSize;
+
+    @Value("${catalog.suggest.default-size:10}")
+    private int defaultSuggestions;
+
     @PayloadRoot(namespace = NAMESPACE_URI, localPart = "searchBooksRequest")
-    @ResponsePayload
-    public SearchBooksResponse searchBooks(@RequestPayload SearchBooksRequest request) {
-        List<Book> books = catalogService.searchBooks(request.getQuery(), request.getCategory());
-        SearchBooksResponse response = new SearchBooksResponse();
-        response.getBooks().addAll(books);
-        return response;
+    public void searchBooks(@RequestPayload SearchBooksRequest request, MessageContext messageContext) {
+        // Reject a malformed cursor now, before any of the streamed response is written
+        SearchCursor.decode(request.getCursor());
+        Integer requested = request.getMaxResults();
+        int maxResults = requested == null || requested <= 0 ? defaultPageSize : Math.min(requested, maxPageSize);
+
+        WebServiceMessage response = messageContext.getResponse();
+        if (Boolean.TRUE.equals(request.getFuzzy())) {
+            // A ranked page is bounded by maxResults and has no cursor, so it is built in memory
+            SearchBooksResponse searchResponse = new SearchBooksResponse();
+            pagedCatalogSearch.searchBooksRanked(request.getQuery(), request.getCategory(), maxResults,
+                    searchResponse.getBooks()::add);
+            jaxb2Marshaller.marshal(searchResponse, response.getPayloadResult());
+            return;
+        }
+        if (response instanceof StreamingWebServiceMessage) {
+            ((StreamingWebServiceMessage) response).setStreamingPayload(new SearchBooksStreamingPayload(
+                    pagedCatalogSearch, jaxb2Marshaller.getJaxbContext(), request, maxResults));
+            return;
+        }
+
+        // Message factories without streaming support (e.g. SAAJ) get a regular JAXB response
+        SearchBooksResponse searchResponse = new SearchBooksResponse();
+        searchResponse.setNextCursor(pagedCatalogSearch.searchBooks(request.getQuery(), request.getCategory(),
+                request.getCursor(), maxResults, searchResponse.getBooks()::add));
+        jaxb2Marshaller.marshal(searchResponse, response.getPayloadResult());
     }
 
     @PayloadRoot(namespace = NAMESPACE_URI, localPart = "getBookByIdRequest")
-    @ResponsePayload
-    public GetBookByIdResponse getBookById(@RequestPayload GetBookByIdRequest request) {
-        Book book = catalogService.getBookById(request.getBookId());
-        GetBookByIdResponse response = new GetBookByIdResponse();
-        response.setBook(book);
-        return response;
+    public void getBookById(@RequestPayload GetBookByIdRequest request, MessageContext messageContext) {
+        String bookId = request.getBookId();
+        writePayload(messageContext, lookup(GET_BOOK_BY_ID_RESPONSE, bookId, () -> {
+            GetBookByIdResponse response = new GetBookByIdResponse();
+            response.setBook(catalogService.getBookById(bookId));
+            return response;
+        }));
     }
 
     @PayloadRoot(namespace = NAMESPACE_URI, localPart = "getBookPriceRequest")
-    @ResponsePayload
-    public GetBookPriceResponse getBookPrice(@RequestPayload GetBookPriceRequest request) {
-        double price = catalogService.getBookPrice(request.getBookId());
-        GetBookPriceResponse response = new GetBookPriceResponse();
-        response.setPrice(price);
-        return response;
+    public void getBookPrice(@RequestPayload GetBookPriceRequest request, MessageContext messageContext) {
+        String bookId = request.getBookId();
+        writePayload(messageContext, lookup(GET_BOOK_PRICE_RESPONSE, bookId, () -> {
+            GetBookPriceResponse response = new GetBookPriceResponse();
+            response.setPrice(catalogService.getBookPrice(bookId));
+            return response;
+        }));
     }
 
     @PayloadRoot(namespace = NAMESPACE_URI, localPart = "checkAvailabilityRequest")
@@ -51,4 +113,111 @@ public class CatalogEndpoint {
         response.setAvailable(available);
         return response;
     }
-}
\ No newline at end of file
+
+    @PayloadRoot(namespace = NAMESPACE_URI, localPart = "getBookPricesRequest")
+    @ResponsePayload
+    public GetBookPricesResponse getBookPrices(@RequestPayload GetBookPricesRequest request) {
+        List<BookPrice> prices = catalogService.getBookPrices(request.getItems());
+        GetBookPricesResponse response = new GetBookPricesResponse();
+        response.getPrices().addAll(prices);
+        response.setTotalAmount(prices.stream().mapToDouble(BookPrice::getSubtotal).sum());
+        return response;
+    }
+
+    @PayloadRoot(namespace = NAMESPACE_URI, localPart = "getCategoryFacetsRequest")
+    @ResponsePayload
+    public GetCategoryFacetsResponse getCategoryFacets(@RequestPayload GetCategoryFacetsRequest request) {
+        GetCategoryFacetsResponse response = new GetCategoryFacetsResponse();
+        response.getFacets().addAll(catalogService.getCategoryFacets(request.getQuery()));
+        return response;
+    }
+
+    @PayloadRoot(namespace = NAMESPACE_URI, localPart = "suggestBooksRequest")
+    @ResponsePayload
+    public SuggestBooksResponse suggestBooks(@RequestPayload SuggestBooksRequest request) {
+        Integer requested = request.getMaxResults();
+        int maxResults = requested == null || requested <= 0 ? defaultSuggestions : requested;
+        SuggestBooksResponse response = new SuggestBooksResponse();
+        response.getSuggestions().addAll(catalogService.suggestBooks(request.getQuery(), maxResults));
+        return response;
+    }
+
+    @PayloadRoot(namespace = NAMESPACE_URI, localPart = "checkAvailabilityBatchRequest")
+    @ResponsePayload
+    public CheckAvailabilityBatchResponse checkAvailabilityBatch(@RequestPayload CheckAvailabilityBatchRequest request) {
+        List<BookAvailability> results = catalogService.checkAvailabilityBatch(request.getItems());
+        CheckAvailabilityBatchResponse response = new CheckAvailabilityBatchResponse();
+        response.getResults().addAll(results);
+        response.setAllAvailable(results.stream().allMatch(BookAvailability::isAvailable));
+        return response;
+    }
+
+    @PayloadRoot(namespace = NAMESPACE_URI, localPart = "reserveStockRequest")
+    @ResponsePayload
+    public ReserveStockResponse reserveStock(@RequestPayload ReserveStockRequest request) {
+        String reservationId = catalogService.reserveStock(request.getBookId(), request.getQuantity());
+        ReserveStockResponse response = new ReserveStockResponse();
+        response.setReservationId(reservationId);
+        response.setReserved(reservationId != null);
+        return response;
+    }
+
+    @PayloadRoot(namespace = NAMESPACE_URI, localPart = "confirmReservationRequest")
+    @ResponsePayload
+    public ConfirmReservationResponse confirmReservation(@RequestPayload ConfirmReservationRequest request) {
+        boolean confirmed = catalogService.confirmReservation(request.getReservationId());
+        ConfirmReservationResponse response = new ConfirmReservationResponse();
+        response.setConfirmed(confirmed);
+        return response;
+    }
+
+    @PayloadRoot(namespace = NAMESPACE_URI, localPart = "releaseReservationRequest")
+    @ResponsePayload
+    public ReleaseReservationResponse releaseReservation(@RequestPayload ReleaseReservationRequest request) {
+        boolean released = catalogService.releaseReservation(request.getReservationId());
+        ReleaseReservationResponse response = new ReleaseReservationResponse();
+        response.setReleased(released);
+        return response;
+    }
+
+    /**
+     * Serves a per-title read from the response cache. On a miss, concurrent
+     * requests for the same title share one service call and one marshalling, and
+     * the caller that ran it caches the result.
+     */
+    private MarshalledPayload lookup(QName name, String bookId, Supplier<Object> response) {
+        String operation = name.getLocalPart();
+        MarshalledPayload cached = responseCache.getIfPresent(operation, bookId);
+        if (cached != null) {
+            return cached;
+        }
+        return lookups.execute(operation + ":" + bookId,
+                () -> responseCache.get(operation, bookId, () -> marshal(name, response.get())));
+    }
+
+    private MarshalledPayload marshal(QName name, Object response) {
+        ByteArrayOutputStream xml = new ByteArrayOutputStream(512);
+        try {
+            Marshaller marshaller = jaxb2Marshaller.getJaxbContext().createMarshaller();
+            marshaller.setProperty(Marshaller.JAXB_FRAGMENT, Boolean.TRUE);
+            marshaller.marshal(response, xml);
+        } catch (JAXBException e) {
+            throw new IllegalStateException("Could not marshal " + name.getLocalPart(), e);
+        }
+        return new MarshalledPayload(name, xml.toByteArray());
+    }
+
+    private void writePayload(MessageContext messageContext, MarshalledPayload payload) {
+        WebServiceMessage response = messageContext.getResponse();
+        if (response instanceof StreamingWebServiceMessage) {
+            ((StreamingWebServiceMessage) response).setStreamingPayload(payload);
+            return;
+        }
+        try {
+            transformerHelper.transform(new StreamSource(new ByteArrayInputStream(payload.getXml())),
+                    response.getPayloadResult());
+        } catch (TransformerException e) {
+            throw new IllegalStateException("Could not write " + payload.getName().getLocalPart(), e);
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.globalbooks.catalog;
+
+import com.globalbooks.catalog.feed.CatalogChangePublisher;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.amqp.core.TopicExchange;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class CatalogFeedConfig {
+
+    @Bean
+    public TopicExchange catalogChangesExchange(@Value("${catalog.feed.exchange:catalog.changes}") String exchange) {
+        return new TopicExchange(exchange, true, false);
+    }
+
+    @Bean
+    public Jackson2JsonMessageConverter catalogFeedMessageConverter() {
+        return new Jackson2JsonMessageConverter();
+    }
+
+    @Bean
+    public RabbitTemplate rabbitTemplate(ConnectionFactory connectionFactory,
+                                         Jackson2JsonMessageConverter catalogFeedMessageConverter) {
+        RabbitTemplate template = new RabbitTemplate(connectionFactory);
+        template.setMessageConverter(catalogFeedMessageConverter);
+        return template;
+    }
+
+    @Bean(destroyMethod = "shutdown")
+    public CatalogChangePublisher catalogChangePublisher(RabbitTemplate rabbitTemplate,
+                                                         TopicExchange catalogChangesExchange,
+                                                         @Value("${catalog.feed.flush-interval-millis:100}") long flushIntervalMillis,
+                                                         MeterRegistry meterRegistry) {
+        CatalogChangePublisher publisher = new CatalogChangePublisher(rabbitTemplate,
+                catalogChangesExchange.getName(), flushIntervalMillis);
+        FunctionCounter.builder("catalog.feed.published", publisher, CatalogChangePublisher::published)
+                .description("Change events delivered to the catalog change exchange")
+                .register(meterRegistry);
+        FunctionCounter.builder("catalog.feed.failed", publisher, CatalogChangePublisher::failed)
+                .description("Change events that could not be published")
+                .register(meterRegistry);
+        return publisher;
+    }
+}
@@ -0,0 +1,54 @@
+package com.globalbooks.catalog;
+
+import com.globalbooks.catalog.bulk.CatalogImporter;
+import com.globalbooks.catalog.columnar.ColumnarCatalogService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Imports a publisher feed (CSV or JSON) named by {@code catalog.import.file} at
+ * startup, e.g. {@code --catalog.import.file=/feeds/nightly.csv}. With the
+ * columnar store a fresh snapshot is written once the import completes.
+ */
+@Component
+@ConditionalOnProperty(name = "catalog.import.file")
+public class CatalogImportRunner implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(CatalogImportRunner.class);
+
+    @Autowired
+    private CatalogWriter catalog;
+
+    @Value("${catalog.import.file}")
+    private String file;
+
+    @Value("${catalog.import.batch-size:1000}")
+    private int batchSize;
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        Path feed = Paths.get(file);
+        long started = System.nanoTime();
+        CatalogImporter.Result result;
+        try (InputStream in = Files.newInputStream(feed)) {
+            result = new CatalogImporter(catalog, batchSize).importFeed(in, CatalogImporter.readerFor(file));
+        }
+        log.info("Imported {} books from {} in {} ms ({} rows skipped)", result.getImported(), feed,
+                (System.nanoTime() - started) / 1_000_000, result.getRejected());
+
+        if (catalog instanceof ColumnarCatalogService) {
+            ((ColumnarCatalogService) catalog).writeSnapshot();
+        }
+    }
+}
@@ -24,4 +24,27 @@ public interface CatalogService {
     @WebMethod(operationName = "checkAvailability")
     boolean checkAvailability(@WebParam(name = "bookId") String bookId,
                              @WebParam(name = "quantity") int quantity);
+
+    @WebMethod(operationName = "getBookPrices")
+    List<BookPrice> getBookPrices(@WebParam(name = "items") List<BookQuantity> items);
+
+    @WebMethod(operationName = "checkAvailabilityBatch")
+    List<BookAvailability> checkAvailabilityBatch(@WebParam(name = "items") List<BookQuantity> items);
+
+    @WebMethod(operationName = "getCategoryFacets")
+    List<CategoryFacet> getCategoryFacets(@WebParam(name = "query") String query);
+
+    @WebMethod(operationName = "suggestBooks")
+    List<BookSuggestion> suggestBooks(@WebParam(name = "query") String query,
+                                      @WebParam(name = "maxResults") int maxResults);
+
+    @WebMethod(operationName = "reserveStock")
+    String reserveStock(@WebParam(name = "bookId") String bookId,
+                        @WebParam(name = "quantity") int quantity);
+
+    @WebMethod(operationName = "confirmReservation")
+    boolean confirmReservation(@WebParam(name = "reservationId") String reservationId);
+
+    @WebMethod(operationName = "releaseReservation")
+    boolean releaseReservation(@WebParam(name = "reservationId") String reservationId);
 }
\ No newline at end of file
@@ -1,52 +1,347 @@
 package com.globalbooks.catalog;
 
+import com.globalbooks.catalog.cache.BookCache;
+import com.globalbooks.catalog.cache.IsbnBloomFilter;
+import com.globalbooks.catalog.feed.CatalogChangePublisher;
+import com.globalbooks.catalog.pricing.PriceSnapshot;
+import com.globalbooks.catalog.pricing.PriceVersions;
+import com.globalbooks.catalog.repository.BookRepository;
+import com.globalbooks.catalog.reservation.StockReservation;
+import com.globalbooks.catalog.reservation.StockReservationEngine;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import javax.annotation.PostConstruct;
 import javax.jws.WebService;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 @WebService(endpointInterface = "com.globalbooks.catalog.CatalogService",
         serviceName = "CatalogService",
         targetNamespace = "http://catalog.globalbooks.com/")
-public class CatalogServiceImpl implements CatalogService {
+public class CatalogServiceImpl implements CatalogService, CatalogWriter, PagedCatalogSearch, SnapshotPricing {
+
+    private static final int PAGE_LOAD_CHUNK = 256;
+    private static final int LOAD_PAGE_SIZE = 10_000;
+    // Ranked candidates fetched per requested result when a category filter drops some
+    private static final int RANKED_CATEGORY_OVERFETCH = 4;
+
+    private final BookRepository bookRepository;
+    private final BookCache bookCache;
+    private final IsbnBloomFilter knownIsbns;
+    private final PriceVersions priceVersions;
+    private final BookSearchIndex searchIndex = new BookSearchIndex();
+    private final BookSuggestionIndex suggestionIndex = new BookSuggestionIndex();
+    private final StockReservationEngine reservations;
+    private final CatalogChangePublisher changes;
+
+    public CatalogServiceImpl(BookRepository bookRepository, BookCache bookCache, IsbnBloomFilter knownIsbns,
+                              PriceVersions priceVersions, StockReservationEngine reservations,
+                              CatalogChangePublisher changes) {
+        this.bookRepository = bookRepository;
+        this.bookCache = bookCache;
+        this.knownIsbns = knownIsbns;
+        this.priceVersions = priceVersions;
+        this.reservations = reservations;
+        this.changes = changes;
+    }
+
+    /**
+     * Builds the in-memory indexes page by page, so startup never holds more than
+     * one page of entities on the heap.
+     */
+    @PostConstruct
+    public void loadIndexes() {
+        PageRequest pageRequest = PageRequest.of(0, LOAD_PAGE_SIZE, Sort.by("isbn"));
+        Page<Book> page;
+        do {
+            page = bookRepository.findAll(pageRequest);
+            for (Book book : page) {
+                knownIsbns.put(book.getIsbn());
+                searchIndex.index(book);
+                suggestionIndex.index(book);
+                reservations.setStock(book.getIsbn(), book.getStock());
+            }
+            pageRequest = pageRequest.next();
+        } while (page.hasNext());
+    }
 
-    private static final Map<String, Book> bookDatabase = new HashMap<>();
+    /**
+     * Adds or replaces a book, then invalidates its cache entry and re-indexes only
+     * that entry. Callers that mutate a {@link Book} must save it again so the cache
+     * and the search index see the change.
+     */
+    @Override
+    public void saveBook(Book book) {
+        long priceVersion = priceVersions.record(book.getIsbn(),
+                persistedPrices(Collections.singletonList(book.getIsbn())).getOrDefault(book.getIsbn(), Double.NaN),
+                book.getPrice());
+        // Known before it is readable, so the negative cache never hides a stored book
+        knownIsbns.put(book.getIsbn());
+        try {
+            bookRepository.save(book);
+        } catch (RuntimeException e) {
+            priceVersions.abort(book.getIsbn(), priceVersion);
+            throw e;
+        }
+        bookCache.invalidate(book.getIsbn());
+        // Readers now see the new price through the repository
+        priceVersions.markApplied(book.getIsbn(), priceVersion);
+        searchIndex.index(book);
+        suggestionIndex.index(book);
+        reservations.setStock(book.getIsbn(), book.getStock());
+        changes.bookChanged(book.getIsbn(), book.getPrice(), book.getStock());
+    }
+
+    @Override
+    public void saveBooks(List<Book> books) {
+        Map<String, Double> previous = persistedPrices(books.stream().map(Book::getIsbn).collect(Collectors.toList()));
+        long[] priceVersion = new long[books.size()];
+        for (int i = 0; i < books.size(); i++) {
+            Book book = books.get(i);
+            priceVersion[i] = priceVersions.record(book.getIsbn(), previous.getOrDefault(book.getIsbn(), Double.NaN),
+                    book.getPrice());
+        }
+        books.forEach(book -> knownIsbns.put(book.getIsbn()));
+        try {
+            bookRepository.saveAll(books);
+        } catch (RuntimeException e) {
+            for (int i = 0; i < books.size(); i++) {
+                priceVersions.abort(books.get(i).getIsbn(), priceVersion[i]);
+            }
+            throw e;
+        }
+        for (int i = 0; i < books.size(); i++) {
+            Book book = books.get(i);
+            bookCache.invalidate(book.getIsbn());
+            priceVersions.markApplied(book.getIsbn(), priceVersion[i]);
+            searchIndex.index(book);
+            suggestionIndex.index(book);
+            reservations.setStock(book.getIsbn(), book.getStock());
+            changes.bookChanged(book.getIsbn(), book.getPrice(), book.getStock());
+        }
+    }
+
+    @Override
+    public void removeBook(String isbn) {
+        long priceVersion = priceVersions.record(isbn,
+                persistedPrices(Collections.singletonList(isbn)).getOrDefault(isbn, Double.NaN), Double.NaN);
+        try {
+            bookRepository.deleteById(isbn);
+        } catch (RuntimeException e) {
+            priceVersions.abort(isbn, priceVersion);
+            throw e;
+        }
+        bookCache.invalidate(isbn);
+        priceVersions.markApplied(isbn, priceVersion);
+        searchIndex.remove(isbn);
+        suggestionIndex.remove(isbn);
+        reservations.removeStock(isbn);
+        changes.bookRemoved(isbn);
+    }
 
-    static {
-        bookDatabase.put("978-1491904244", new Book("978-1491904244",
-                "Designing Data-Intensive Applications", "Martin Kleppmann", "Databases", 59.99, 150));
-        bookDatabase.put("978-0132350884", new Book("978-0132350884",
-                "Clean Code: A Handbook of Agile Software Craftsmanship", "Robert C. Martin", "Software Engineering", 49.99, 200));
-        bookDatabase.put("978-0201633610", new Book("978-0201633610",
-                "Design Patterns: Elements of Reusable Object-Oriented Software", "Erich Gamma", "Software Design", 54.99, 120));
+    @Override
+    public boolean isEmpty() {
+        return bookRepository.count() == 0;
     }
 
     @Override
     public List<Book> searchBooks(String query, String category) {
-        return bookDatabase.values().stream()
-                .filter(book -> (query == null || book.getTitle().toLowerCase()
-                        .contains(query.toLowerCase()) ||
-                        book.getAuthor().toLowerCase().contains(query.toLowerCase())))
-                .filter(book -> (category == null || book.getCategory()
-                        .equalsIgnoreCase(category)))
+        Set<String> isbns = searchIndex.search(query, category);
+        return new ArrayList<>(bookCache.getAll(isbns, this::loadBooks).values());
+    }
+
+    @Override
+    public String searchBooks(String query, String category, String cursor, int maxResults, Consumer<Book> sink) {
+        String after = SearchCursor.decode(cursor);
+        // One more than the page to learn whether another page follows
+        List<String> isbns = searchIndex.searchPage(query, category, after, maxResults + 1);
+        boolean hasMore = isbns.size() > maxResults;
+        List<String> page = hasMore ? isbns.subList(0, maxResults) : isbns;
+
+        // Load in chunks so only a slice of the page is on the heap at a time
+        for (int from = 0; from < page.size(); from += PAGE_LOAD_CHUNK) {
+            List<String> chunk = page.subList(from, Math.min(from + PAGE_LOAD_CHUNK, page.size()));
+            Map<String, Book> books = bookCache.getAll(chunk, this::loadBooks);
+            for (String isbn : chunk) {
+                Book book = books.get(isbn);
+                if (book != null) {
+                    sink.accept(book);
+                }
+            }
+        }
+        return hasMore ? SearchCursor.encode(page.get(page.size() - 1)) : null;
+    }
+
+    @Override
+    public void searchBooksRanked(String query, String category, int maxResults, Consumer<Book> sink) {
+        String normalizedCategory = BookSearchIndex.normalize(category);
+        int candidates = normalizedCategory == null ? maxResults : maxResults * RANKED_CATEGORY_OVERFETCH;
+        List<String> isbns = suggestionIndex.search(query, candidates).stream()
+                .map(BookSuggestionIndex.Suggestion::getIsbn)
                 .collect(Collectors.toList());
+        Map<String, Book> books = bookCache.getAll(isbns, this::loadBooks);
+
+        int emitted = 0;
+        for (String isbn : isbns) {
+            Book book = books.get(isbn);
+            if (book == null || (normalizedCategory != null
+                    && !normalizedCategory.equals(BookSearchIndex.normalize(book.getCategory())))) {
+                continue;
+            }
+            sink.accept(book);
+            if (++emitted == maxResults) {
+                return;
+            }
+        }
     }
 
     @Override
     public Book getBookById(String bookId) {
-        return bookDatabase.get(bookId);
+        return findBook(bookId);
     }
 
     @Override
     public double getBookPrice(String bookId) {
-        Book book = bookDatabase.get(bookId);
+        Book book = findBook(bookId);
         return book != null ? book.getPrice() : 0.0;
     }
 
     @Override
     public boolean checkAvailability(String bookId, int quantity) {
-        Book book = bookDatabase.get(bookId);
-        return book != null && book.getStock() >= quantity;
+        return reservations.isAvailable(bookId, quantity);
+    }
+
+    @Override
+    public List<BookPrice> getBookPrices(List<BookQuantity> items) {
+        List<String> isbns = items.stream().map(BookQuantity::getBookId).distinct().collect(Collectors.toList());
+        Map<String, Book> books = bookCache.getAll(isbns, this::loadBooks);
+
+        List<BookPrice> prices = new ArrayList<>(items.size());
+        for (BookQuantity item : items) {
+            Book book = books.get(item.getBookId());
+            prices.add(new BookPrice(item.getBookId(), item.getQuantity(),
+                    book != null ? book.getPrice() : 0.0, book != null));
+        }
+        return prices;
+    }
+
+    @Override
+    public PriceSnapshot openPriceSnapshot() {
+        return priceVersions.openSnapshot();
+    }
+
+    @Override
+    public List<BookPrice> getBookPrices(List<BookQuantity> items, long snapshotId) {
+        priceVersions.checkSnapshot(snapshotId);
+        return priceVersions.pricesAt(snapshotId, getBookPrices(items));
+    }
+
+    @Override
+    public List<BookAvailability> checkAvailabilityBatch(List<BookQuantity> items) {
+        // Lines for the same book draw on the same stock, so check their combined quantity
+        Map<String, Integer> requested = new HashMap<>();
+        for (BookQuantity item : items) {
+            requested.merge(item.getBookId(), item.getQuantity(), Integer::sum);
+        }
+
+        List<BookAvailability> results = new ArrayList<>(items.size());
+        for (BookQuantity item : items) {
+            boolean available = reservations.isAvailable(item.getBookId(), requested.get(item.getBookId()));
+            results.add(new BookAvailability(item.getBookId(), item.getQuantity(), available));
+        }
+        return results;
+    }
+
+    @Override
+    public List<CategoryFacet> getCategoryFacets(String query) {
+        return searchIndex.categoryFacets(query);
+    }
+
+    @Override
+    public List<BookSuggestion> suggestBooks(String query, int maxResults) {
+        List<BookSuggestionIndex.Suggestion> matches = suggestionIndex.suggest(query,
+                Math.min(Math.max(maxResults, 1), BookSuggestionIndex.TOP_K));
+        Map<String, Book> books = bookCache.getAll(
+                matches.stream().map(BookSuggestionIndex.Suggestion::getIsbn).collect(Collectors.toList()),
+                this::loadBooks);
+
+        List<BookSuggestion> suggestions = new ArrayList<>(matches.size());
+        for (BookSuggestionIndex.Suggestion match : matches) {
+            Book book = books.get(match.getIsbn());
+            if (book != null) {
+                suggestions.add(new BookSuggestion(book.getIsbn(), book.getTitle(), book.getAuthor(),
+                        match.getScore()));
+            }
+        }
+        return suggestions;
+    }
+
+    @Override
+    public String reserveStock(String bookId, int quantity) {
+        StockReservation reservation = reservations.reserve(bookId, quantity);
+        return reservation != null ? reservation.getReservationId() : null;
+    }
+
+    @Override
+    public boolean confirmReservation(String reservationId) {
+        StockReservation reservation = reservations.getReservation(reservationId);
+        if (reservation == null) {
+            return false;
+        }
+        int onHand = reservations.confirm(reservationId);
+        if (onHand < 0) {
+            return false;
+        }
+        bookRepository.decrementStock(reservation.getIsbn(), reservation.getQuantity());
+        bookCache.invalidate(reservation.getIsbn());
+        changes.stockChanged(reservation.getIsbn(), onHand);
+        return true;
+    }
+
+    @Override
+    public boolean releaseReservation(String reservationId) {
+        return reservations.release(reservationId);
+    }
+
+    private Book findBook(String isbn) {
+        if (!knownIsbns.mightContain(isbn)) {
+            return null;
+        }
+        return bookCache.get(isbn, key -> bookRepository.findById(key).orElse(null));
+    }
+
+    /**
+     * Prices as stored, read past the cache so the recorded previous price never
+     * depends on whether the title happened to be cached.
+     */
+    private Map<String, Double> persistedPrices(List<String> isbns) {
+        List<String> ids = isbns.stream().filter(knownIsbns::mightContain).collect(Collectors.toList());
+        if (ids.isEmpty()) {
+            return new HashMap<>();
+        }
+        return bookRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Book::getIsbn, Book::getPrice, (first, second) -> first));
+    }
+
+    private Map<String, Book> loadBooks(Iterable<? extends String> isbns) {
+        List<String> ids = new ArrayList<>();
+        for (String isbn : isbns) {
+            if (knownIsbns.mightContain(isbn)) {
+                ids.add(isbn);
+            }
+        }
+        if (ids.isEmpty()) {
+            return new HashMap<>();
+        }
+        return bookRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Book::getIsbn, book -> book));
     }
 }
\ No newline at end of file
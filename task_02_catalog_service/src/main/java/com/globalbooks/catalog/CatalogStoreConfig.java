@@ -0,0 +1,72 @@
+package com.globalbooks.catalog;
+
+import com.globalbooks.catalog.cache.BookCache;
+import com.globalbooks.catalog.cache.IsbnBloomFilter;
+import com.globalbooks.catalog.cache.ResponseBytesCache;
+import com.globalbooks.catalog.feed.CatalogChangePublisher;
+import com.globalbooks.catalog.pricing.PriceVersions;
+import com.globalbooks.catalog.reservation.StockReservationEngine;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class CatalogStoreConfig {
+
+    @Bean
+    public BookCache bookCache(@Value("${catalog.cache.maximum-size:10000}") long maximumSize,
+                               MeterRegistry meterRegistry) {
+        BookCache bookCache = new BookCache(maximumSize);
+        // Publishes cache.gets{result=hit|miss}, cache.evictions and cache.size
+        CaffeineCacheMetrics.monitor(meterRegistry, bookCache.nativeCache(), "catalog.books");
+        return bookCache;
+    }
+
+    @Bean
+    public ResponseBytesCache responseBytesCache(@Value("${catalog.response-cache.maximum-titles:20000}") long maximumTitles,
+                                                 CatalogChangePublisher catalogChangePublisher,
+                                                 MeterRegistry meterRegistry) {
+        ResponseBytesCache responseBytesCache = new ResponseBytesCache(maximumTitles);
+        catalogChangePublisher.addListener(responseBytesCache);
+        // Per-response hits; cache.size and cache.evictions below count titles
+        FunctionCounter.builder("catalog.responses.hits", responseBytesCache, ResponseBytesCache::hits)
+                .description("Responses written from pre-marshalled bytes")
+                .register(meterRegistry);
+        FunctionCounter.builder("catalog.responses.misses", responseBytesCache, ResponseBytesCache::misses)
+                .description("Responses that had to be marshalled")
+                .register(meterRegistry);
+        CaffeineCacheMetrics.monitor(meterRegistry, responseBytesCache.nativeCache(), "catalog.responses");
+        return responseBytesCache;
+    }
+
+    @Bean
+    public IsbnBloomFilter knownIsbns(@Value("${catalog.negative-cache.expected-isbns:1000000}") long expectedIsbns,
+                                      @Value("${catalog.negative-cache.false-positive-rate:0.01}") double falsePositiveRate) {
+        return new IsbnBloomFilter(expectedIsbns, falsePositiveRate);
+    }
+
+    @Bean(destroyMethod = "shutdown")
+    public PriceVersions priceVersions(@Value("${catalog.pricing.snapshot-ttl-millis:600000}") long snapshotTtlMillis,
+                                       @Value("${catalog.pricing.compaction-interval-millis:30000}") long compactionIntervalMillis,
+                                       MeterRegistry meterRegistry) {
+        PriceVersions priceVersions = new PriceVersions(snapshotTtlMillis, compactionIntervalMillis);
+        Gauge.builder("catalog.prices.versioned.titles", priceVersions, PriceVersions::versionedTitles)
+                .description("Titles holding price versions for open snapshots")
+                .register(meterRegistry);
+        Gauge.builder("catalog.prices.snapshots", priceVersions, PriceVersions::liveSnapshots)
+                .description("Distinct price snapshots with a live lease")
+                .register(meterRegistry);
+        return priceVersions;
+    }
+
+    @Bean
+    public StockReservationEngine stockReservationEngine(
+            @Value("${catalog.reservation.hold-ttl-millis:600000}") long holdTtlMillis,
+            @Value("${catalog.reservation.sweep-interval-millis:5000}") long sweepIntervalMillis) {
+        return new StockReservationEngine(holdTtlMillis, sweepIntervalMillis);
+    }
+}
@@ -0,0 +1,24 @@
+package com.globalbooks.catalog;
+
+import java.util.List;
+
+/**
+ * Write side of a catalog store. Kept off {@link CatalogService} so it is not
+ * published as a SOAP operation.
+ */
+public interface CatalogWriter {
+
+    void saveBook(Book book);
+
+    /**
+     * Saves a batch of books, e.g. from a bulk import. Stores override this to write
+     * the batch to the repository in one call.
+     */
+    default void saveBooks(List<Book> books) {
+        books.forEach(this::saveBook);
+    }
+
+    void removeBook(String isbn);
+
+    boolean isEmpty();
+}
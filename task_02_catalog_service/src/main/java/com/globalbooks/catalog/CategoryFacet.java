@@ -0,0 +1,42 @@
+package com.globalbooks.catalog;
+
+import javax.xml.bind.annotation.XmlAccessType;
+import javax.xml.bind.annotation.XmlAccessorType;
+import javax.xml.bind.annotation.XmlElement;
+import javax.xml.bind.annotation.XmlType;
+
+@XmlAccessorType(XmlAccessType.FIELD)
+@XmlType(name = "CategoryFacet", propOrder = {
+    "category",
+    "count"
+})
+public class CategoryFacet {
+
+    @XmlElement(namespace = "http://catalog.globalbooks.com/", required = true)
+    protected String category;
+    @XmlElement(namespace = "http://catalog.globalbooks.com/")
+    protected int count;
+
+    public CategoryFacet() {}
+
+    public CategoryFacet(String category, int count) {
+        this.category = category;
+        this.count = count;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public void setCategory(String value) {
+        this.category = value;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public void setCount(int value) {
+        this.count = value;
+    }
+}
@@ -0,0 +1,27 @@
+package com.globalbooks.catalog;
+
+import java.util.ArrayList;
+import java.util.List;
+import javax.xml.bind.annotation.XmlAccessType;
+import javax.xml.bind.annotation.XmlAccessorType;
+import javax.xml.bind.annotation.XmlElement;
+import javax.xml.bind.annotation.XmlRootElement;
+import javax.xml.bind.annotation.XmlType;
+
+@XmlAccessorType(XmlAccessType.FIELD)
+@XmlType(name = "", propOrder = {
+    "items"
+})
+@XmlRootElement(name = "checkAvailabilityBatchRequest", namespace = "http://catalog.globalbooks.com/")
+public class CheckAvailabilityBatchRequest {
+
+    @XmlElement(namespace = "http://catalog.globalbooks.com/")
+    protected List<BookQuantity> items;
+
+    public List<BookQuantity> getItems() {
+        if (items == null) {
+            items = new ArrayList<BookQuantity>();
+        }
+        return this.items;
+    }
+}
@@ -0,0 +1,38 @@
+package com.globalbooks.catalog;
+
+import java.util.ArrayList;
+import java.util.List;
+import javax.xml.bind.annotation.XmlAccessType;
+import javax.xml.bind.annotation.XmlAccessorType;
+import javax.xml.bind.annotation.XmlElement;
+import javax.xml.bind.annotation.XmlRootElement;
+import javax.xml.bind.annotation.XmlType;
+
+@XmlAccessorType(XmlAccessType.FIELD)
+@XmlType(name = "", propOrder = {
+    "results",
+    "allAvailable"
+})
+@XmlRootElement(name = "checkAvailabilityBatchResponse", namespace = "http://catalog.globalbooks.com/")
+public class CheckAvailabilityBatchResponse {
+
+    @XmlElement(namespace = "http://catalog.globalbooks.com/")
+    protected List<BookAvailability> results;
+    @XmlElement(namespace = "http://catalog.globalbooks.com/")
+    protected boolean allAvailable;
+
+    public List<BookAvailability> getResults() {
+        if (results == null) {
+            results = new ArrayList<BookAvailability>();
+        }
+        return this.results;
+    }
+
+    public boolean isAllAvailable() {
+        return allAvailable;
+    }
+
+    public void setAllAvailable(boolean value) {
+        this.allAvailable = value;
+    }
+}
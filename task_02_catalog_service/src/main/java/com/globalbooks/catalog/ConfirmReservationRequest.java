@@ -0,0 +1,26 @@
+package com.globalbooks.catalog;
+
+import javax.xml.bind.annotation.XmlAccessType;
+import javax.xml.bind.annotation.XmlAccessorType;
+import javax.xml.bind.annotation.XmlElement;
+import javax.xml.bind.annotation.XmlRootElement;
+import javax.xml.bind.annotation.XmlType;
+
+@XmlAccessorType(XmlAccessType.FIELD)
+@XmlType(name = "", propOrder = {
+    "reservationId"
+})
+@XmlRootElement(name = "confirmReservationRequest", namespace = "http://catalog.globalbooks.com/")
+public class ConfirmReservationRequest {
+
+    @XmlElement(namespace = "http://catalog.globalbooks.com/", required = true)
+    protected String reservationId;
+
+    public String getReservationId() {
+        return reservationId;
+    }
+
+    public void setReservationId(String value) {
+        this.reservationId = value;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,26 @@
+package com.globalbooks.catalog;
+
+import javax.xml.bind.annotation.XmlAccessType;
+import javax.xml.bind.annotation.XmlAccessorType;
+import javax.xml.bind.annotation.XmlElement;
+import javax.xml.bind.annotation.XmlRootElement;
+import javax.xml.bind.annotation.XmlType;
+
+@XmlAccessorType(XmlAccessType.FIELD)
+@XmlType(name = "", propOrder = {
+    "confirmed"
+})
+@XmlRootElement(name = "confirmReservationResponse", namespace = "http://catalog.globalbooks.com/")
+public class ConfirmReservationResponse {
+
+    @XmlElement(namespace = "http://catalog.globalbooks.com/")
+    protected boolean confirmed;
+
+    public boolean isConfirmed() {
+        return confirmed;
+    }
+
+    public void setConfirmed(boolean value) {
+        this.confirmed = value;
+    }
+}
\ No newline at end of file
@@ -1,12 +1,20 @@
 package com.globalbooks.catalog;
 
 import org.apache.cxf.Bus;
+import org.apache.cxf.feature.FastInfosetFeature;
 import org.apache.cxf.jaxws.EndpointImpl;
+import org.apache.cxf.transport.common.gzip.GZIPFeature;
+import org.apache.cxf.ws.security.SecurityConstants;
+import org.apache.wss4j.common.ext.WSSecurityException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
 import javax.xml.ws.Endpoint;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
 
 @Configuration
 public class CxfConfig {
@@ -17,15 +25,42 @@ public class CxfConfig {
     @Autowired
     private WSSecurityConfig wsSecurityConfig;
 
+    @Value("${catalog.security.mode:dom}")
+    private String securityMode;
+
+    @Value("${catalog.cxf.gzip-threshold:1024}")
+    private int gzipThreshold;
+
     @Bean
-    public Endpoint cxfCatalogEndpoint(CatalogService catalogService) {
+    public Endpoint cxfCatalogEndpoint(CatalogService catalogService) throws WSSecurityException, IOException {
         EndpointImpl endpoint = new EndpointImpl(cxfBus, catalogService);
         endpoint.setAddress("/catalog");
 
         // Add WS-Security interceptors
-        endpoint.getInInterceptors().add(wsSecurityConfig.wss4jInInterceptor());
-        endpoint.getOutInterceptors().add(wsSecurityConfig.wss4jOutInterceptor());
+        if ("streaming".equalsIgnoreCase(securityMode)) {
+            endpoint.getInInterceptors().add(wsSecurityConfig.wss4jStaxInInterceptor());
+            endpoint.getOutInterceptors().add(wsSecurityConfig.wss4jStaxOutInterceptor());
+        } else {
+            endpoint.getInInterceptors().add(wsSecurityConfig.wss4jInInterceptor());
+            endpoint.getOutInterceptors().add(wsSecurityConfig.wss4jOutInterceptor());
+        }
+
+        // Bounded replay caches for UsernameToken nonces and Timestamps, in either mode
+        Map<String, Object> properties = new HashMap<>();
+        properties.put(SecurityConstants.ENABLE_NONCE_CACHE, Boolean.TRUE);
+        properties.put(SecurityConstants.NONCE_CACHE_INSTANCE, wsSecurityConfig.nonceReplayCache());
+        properties.put(SecurityConstants.ENABLE_TIMESTAMP_CACHE, Boolean.TRUE);
+        properties.put(SecurityConstants.TIMESTAMP_CACHE_INSTANCE, wsSecurityConfig.timestampReplayCache());
+        endpoint.setProperties(properties);
+
+        // Negotiated encodings: Fast Infoset only for requests that are FI-encoded or
+        // accept application/fastinfoset, GZIP only for Accept-Encoding: gzip above the
+        // threshold. Plain clients still get uncompressed text/xml.
+        endpoint.getFeatures().add(new FastInfosetFeature());
+        GZIPFeature gzip = new GZIPFeature();
+        gzip.setThreshold(gzipThreshold);
+        endpoint.getFeatures().add(gzip);
 
         return endpoint;
     }
-}
\ No newline at end of file
+}
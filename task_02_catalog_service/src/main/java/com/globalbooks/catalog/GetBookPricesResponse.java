@@ -0,0 +1,38 @@
+package com.globalbooks.catalog;
+
+import java.util.ArrayList;
+import java.util.List;
+import javax.xml.bind.annotation.XmlAccessType;
+import javax.xml.bind.annotation.XmlAccessorType;
+import javax.xml.bind.annotation.XmlElement;
+import javax.xml.bind.annotation.XmlRootElement;
+import javax.xml.bind.annotation.XmlType;
+
+@XmlAccessorType(XmlAccessType.FIELD)
+@XmlType(name = "", propOrder = {
+    "prices",
+    "totalAmount"
+})
+@XmlRootElement(name = "getBookPricesResponse", namespace = "http://catalog.globalbooks.com/")
+public class GetBookPricesResponse {
+
+    @XmlElement(namespace = "http://catalog.globalbooks.com/")
+    protected List<BookPrice> prices;
+    @XmlElement(namespace = "http://catalog.globalbooks.com/")
+    protected double totalAmount;
+
+    public List<BookPrice> getPrices() {
+        if (prices == null) {
+            prices = new ArrayList<BookPrice>();
+        }
+        return this.prices;
+    }
+
+    public double getTotalAmount() {
+        return totalAmount;
+    }
+
+    public void setTotalAmount(double value) {
+        this.totalAmount = value;
+    }
+}
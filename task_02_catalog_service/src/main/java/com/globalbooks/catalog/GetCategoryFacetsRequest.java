@@ -0,0 +1,26 @@
+package com.globalbooks.catalog;
+
+import javax.xml.bind.annotation.XmlAccessType;
+import javax.xml.bind.annotation.XmlAccessorType;
+import javax.xml.bind.annotation.XmlElement;
+import javax.xml.bind.annotation.XmlRootElement;
+import javax.xml.bind.annotation.XmlType;
+
+@XmlAccessorType(XmlAccessType.FIELD)
+@XmlType(name = "", propOrder = {
+    "query"
+})
+@XmlRootElement(name = "getCategoryFacetsRequest", namespace = "http://catalog.globalbooks.com/")
+public class GetCategoryFacetsRequest {
+
+    @XmlElement(namespace = "http://catalog.globalbooks.com/")
+    protected String query;
+
+    public String getQuery() {
+        return query;
+    }
+
+    public void setQuery(String value) {
+        this.query = value;
+    }
+}
@@ -0,0 +1,27 @@
+package com.globalbooks.catalog;
+
+import java.util.ArrayList;
+import java.util.List;
+import javax.xml.bind.annotation.XmlAccessType;
+import javax.xml.bind.annotation.XmlAccessorType;
+import javax.xml.bind.annotation.XmlElement;
+import javax.xml.bind.annotation.XmlRootElement;
+import javax.xml.bind.annotation.XmlType;
+
+@XmlAccessorType(XmlAccessType.FIELD)
+@XmlType(name = "", propOrder = {
+    "facets"
+})
+@XmlRootElement(name = "getCategoryFacetsResponse", namespace = "http://catalog.globalbooks.com/")
+public class GetCategoryFacetsResponse {
+
+    @XmlElement(namespace = "http://catalog.globalbooks.com/")
+    protected List<CategoryFacet> facets;
+
+    public List<CategoryFacet> getFacets() {
+        if (facets == null) {
+            facets = new ArrayList<CategoryFacet>();
+        }
+        return this.facets;
+    }
+}
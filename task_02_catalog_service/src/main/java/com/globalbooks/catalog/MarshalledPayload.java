@@ -0,0 +1,132 @@
+package com.globalbooks.catalog;
+
+import org.springframework.ws.stream.StreamingPayload;
+
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.XMLStreamWriter;
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A response payload that was marshalled once into UTF-8 bytes and can be written
+ * into any number of SOAP bodies. The bytes are parsed once, up front, into a flat
+ * list of elements and text, so writing a body is a straight replay of writer
+ * calls with neither JAXB nor an XML parser involved.
+ */
+public class MarshalledPayload implements StreamingPayload {
+
+    private static final XMLInputFactory INPUT_FACTORY = XMLInputFactory.newInstance();
+    private static final Object END_ELEMENT = new Object();
+
+    private final QName name;
+    private final byte[] xml;
+    // StartElement, END_ELEMENT or character data (String), in document order
+    private final Object[] events;
+
+    public MarshalledPayload(QName name, byte[] xml) {
+        this.name = name;
+        this.xml = xml;
+        try {
+            this.events = parse(xml);
+        } catch (XMLStreamException e) {
+            throw new IllegalArgumentException("Not a well-formed payload for " + name, e);
+        }
+    }
+
+    @Override
+    public QName getName() {
+        return name;
+    }
+
+    public byte[] getXml() {
+        return xml;
+    }
+
+    @Override
+    public void writeTo(XMLStreamWriter writer) throws XMLStreamException {
+        for (Object event : events) {
+            if (event == END_ELEMENT) {
+                writer.writeEndElement();
+            } else if (event instanceof String) {
+                writer.writeCharacters((String) event);
+            } else {
+                ((StartElement) event).writeTo(writer);
+            }
+        }
+    }
+
+    private static Object[] parse(byte[] xml) throws XMLStreamException {
+        List<Object> events = new ArrayList<>();
+        XMLStreamReader reader = INPUT_FACTORY.createXMLStreamReader(new ByteArrayInputStream(xml), "UTF-8");
+        try {
+            StringBuilder text = new StringBuilder();
+            while (reader.hasNext()) {
+                int type = reader.next();
+                if (type == XMLStreamConstants.CHARACTERS || type == XMLStreamConstants.SPACE
+                        || type == XMLStreamConstants.CDATA) {
+                    text.append(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+                    continue;
+                }
+                if (text.length() > 0) {
+                    events.add(text.toString());
+                    text.setLength(0);
+                }
+                if (type == XMLStreamConstants.START_ELEMENT) {
+                    events.add(new StartElement(reader));
+                } else if (type == XMLStreamConstants.END_ELEMENT) {
+                    events.add(END_ELEMENT);
+                }
+            }
+        } finally {
+            reader.close();
+        }
+        return events.toArray();
+    }
+
+    private static String orEmpty(String value) {
+        return value == null ? "" : value;
+    }
+
+    private static final class StartElement {
+        private final String prefix;
+        private final String localName;
+        private final String namespace;
+        // Prefix/URI pairs declared on this element
+        private final String[] namespaces;
+        // Prefix/namespace/local name/value quadruples
+        private final String[] attributes;
+
+        private StartElement(XMLStreamReader reader) {
+            prefix = orEmpty(reader.getPrefix());
+            localName = reader.getLocalName();
+            namespace = orEmpty(reader.getNamespaceURI());
+            namespaces = new String[reader.getNamespaceCount() * 2];
+            for (int i = 0; i < reader.getNamespaceCount(); i++) {
+                namespaces[2 * i] = orEmpty(reader.getNamespacePrefix(i));
+                namespaces[2 * i + 1] = reader.getNamespaceURI(i);
+            }
+            attributes = new String[reader.getAttributeCount() * 4];
+            for (int i = 0; i < reader.getAttributeCount(); i++) {
+                attributes[4 * i] = orEmpty(reader.getAttributePrefix(i));
+                attributes[4 * i + 1] = orEmpty(reader.getAttributeNamespace(i));
+                attributes[4 * i + 2] = reader.getAttributeLocalName(i);
+                attributes[4 * i + 3] = reader.getAttributeValue(i);
+            }
+        }
+
+        private void writeTo(XMLStreamWriter writer) throws XMLStreamException {
+            writer.writeStartElement(prefix, localName, namespace);
+            for (int i = 0; i < namespaces.length; i += 2) {
+                writer.writeNamespace(namespaces[i], namespaces[i + 1]);
+            }
+            for (int i = 0; i < attributes.length; i += 4) {
+                writer.writeAttribute(attributes[i], attributes[i + 1], attributes[i + 2], attributes[i + 3]);
+            }
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.globalbooks.catalog;
+
+import java.util.function.Consumer;
+
+/**
+ * Cursor-paged search that hands each book to a sink as it is read, so callers can
+ * stream a page to the wire without collecting it first.
+ */
+public interface PagedCatalogSearch {
+
+    /**
+     * Emits at most {@code maxResults} books after {@code cursor} in a stable order
+     * and returns the cursor for the next page, or {@code null} when there is none.
+     */
+    String searchBooks(String query, String category, String cursor, int maxResults, Consumer<Book> sink);
+
+    /**
+     * Emits at most {@code maxResults} books ranked by how well their title and
+     * author match the query, tolerating typos. The ranking is not stable across
+     * catalog updates, so there is no cursor.
+     */
+    void searchBooksRanked(String query, String category, int maxResults, Consumer<Book> sink);
+}
\ No newline at end of file
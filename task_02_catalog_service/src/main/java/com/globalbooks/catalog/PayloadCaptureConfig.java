@@ -0,0 +1,63 @@
+package com.globalbooks.catalog;
+
+import com.globalbooks.catalog.logging.CapturedExchange;
+import com.globalbooks.catalog.logging.PayloadCaptureFilter;
+import com.globalbooks.catalog.logging.PayloadCaptureWriter;
+import com.globalbooks.catalog.logging.PayloadRingBuffer;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.Arrays;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@Configuration
+@ConditionalOnProperty(name = "catalog.payload-capture.enabled", havingValue = "true")
+public class PayloadCaptureConfig {
+
+    @Bean
+    public PayloadRingBuffer<CapturedExchange> payloadCaptureBuffer(
+            @Value("${catalog.payload-capture.buffer-capacity:1024}") int capacity,
+            MeterRegistry meterRegistry) {
+        PayloadRingBuffer<CapturedExchange> buffer = new PayloadRingBuffer<>(capacity);
+        FunctionCounter.builder("catalog.payload.capture.dropped", buffer, PayloadRingBuffer::dropped)
+                .description("Sampled exchanges dropped because the capture buffer was full")
+                .register(meterRegistry);
+        return buffer;
+    }
+
+    @Bean(destroyMethod = "shutdown")
+    public PayloadCaptureWriter payloadCaptureWriter(PayloadRingBuffer<CapturedExchange> payloadCaptureBuffer,
+                                                     @Value("${catalog.payload-capture.include-operations:}") String[] include,
+                                                     @Value("${catalog.payload-capture.exclude-operations:}") String[] exclude,
+                                                     MeterRegistry meterRegistry) {
+        PayloadCaptureWriter writer = new PayloadCaptureWriter(payloadCaptureBuffer, toSet(include), toSet(exclude));
+        FunctionCounter.builder("catalog.payload.capture.written", writer, PayloadCaptureWriter::written)
+                .register(meterRegistry);
+        return writer;
+    }
+
+    @Bean
+    public FilterRegistrationBean<PayloadCaptureFilter> payloadCaptureFilter(
+            PayloadRingBuffer<CapturedExchange> payloadCaptureBuffer,
+            @Value("${catalog.payload-capture.sample-rate:0.01}") double sampleRate,
+            @Value("${catalog.payload-capture.max-payload-bytes:4096}") int maxPayloadBytes) {
+        FilterRegistrationBean<PayloadCaptureFilter> registration = new FilterRegistrationBean<>(
+                new PayloadCaptureFilter(payloadCaptureBuffer, sampleRate, maxPayloadBytes));
+        // Spring-WS dispatcher and the CXF servlet
+        registration.addUrlPatterns("/catalog/soap/*", "/services/*");
+        return registration;
+    }
+
+    private static Set<String> toSet(String[] values) {
+        return Arrays.stream(values)
+                .map(String::trim)
+                .filter(value -> !value.isEmpty())
+                .collect(Collectors.toSet());
+    }
+}
@@ -0,0 +1,26 @@
+package com.globalbooks.catalog;
+
+import javax.xml.bind.annotation.XmlAccessType;
+import javax.xml.bind.annotation.XmlAccessorType;
+import javax.xml.bind.annotation.XmlElement;
+import javax.xml.bind.annotation.XmlRootElement;
+import javax.xml.bind.annotation.XmlType;
+
+@XmlAccessorType(XmlAccessType.FIELD)
+@XmlType(name = "", propOrder = {
+    "released"
+})
+@XmlRootElement(name = "releaseReservationResponse", namespace = "http://catalog.globalbooks.com/")
+public class ReleaseReservationResponse {
+
+    @XmlElement(namespace = "http://catalog.globalbooks.com/")
+    protected boolean released;
+
+    public boolean isReleased() {
+        return released;
+    }
+
+    public void setReleased(boolean value) {
+        this.released = value;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,37 @@
+package com.globalbooks.catalog;
+
+import javax.xml.bind.annotation.XmlAccessType;
+import javax.xml.bind.annotation.XmlAccessorType;
+import javax.xml.bind.annotation.XmlElement;
+import javax.xml.bind.annotation.XmlRootElement;
+import javax.xml.bind.annotation.XmlType;
+
+@XmlAccessorType(XmlAccessType.FIELD)
+@XmlType(name = "", propOrder = {
+    "reservationId",
+    "reserved"
+})
+@XmlRootElement(name = "reserveStockResponse", namespace = "http://catalog.globalbooks.com/")
+public class ReserveStockResponse {
+
+    @XmlElement(namespace = "http://catalog.globalbooks.com/")
+    protected String reservationId;
+    @XmlElement(namespace = "http://catalog.globalbooks.com/")
+    protected boolean reserved;
+
+    public String getReservationId() {
+        return reservationId;
+    }
+
+    public void setReservationId(String value) {
+        this.reservationId = value;
+    }
+
+    public boolean isReserved() {
+        return reserved;
+    }
+
+    public void setReserved(boolean value) {
+        this.reserved = value;
+    }
+}
\ No newline at end of file
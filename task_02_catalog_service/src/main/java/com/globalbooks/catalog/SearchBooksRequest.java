@@ -9,7 +9,10 @@ import javax.xml.bind.annotation.XmlType;
 @XmlAccessorType(XmlAccessType.FIELD)
 @XmlType(name = "", propOrder = {
     "query",
-    "category"
+    "category",
+    "maxResults",
+    "cursor",
+    "fuzzy"
 })
 @XmlRootElement(name = "searchBooksRequest", namespace = "http://catalog.globalbooks.com/")
 public class SearchBooksRequest {
@@ -18,6 +21,12 @@ public class SearchBooksRequest {
     protected String query;
     @XmlElement(namespace = "http://catalog.globalbooks.com/")
     protected String category;
+    @XmlElement(namespace = "http://catalog.globalbooks.com/")
+    protected Integer maxResults;
+    @XmlElement(namespace = "http://catalog.globalbooks.com/")
+    protected String cursor;
+    @XmlElement(namespace = "http://catalog.globalbooks.com/")
+    protected Boolean fuzzy;
 
     public String getQuery() {
         return query;
@@ -34,4 +43,28 @@ public class SearchBooksRequest {
     public void setCategory(String value) {
         this.category = value;
     }
+
+    public Integer getMaxResults() {
+        return maxResults;
+    }
+
+    public void setMaxResults(Integer value) {
+        this.maxResults = value;
+    }
+
+    public String getCursor() {
+        return cursor;
+    }
+
+    public void setCursor(String value) {
+        this.cursor = value;
+    }
+
+    public Boolean getFuzzy() {
+        return fuzzy;
+    }
+
+    public void setFuzzy(Boolean value) {
+        this.fuzzy = value;
+    }
 }
\ No newline at end of file
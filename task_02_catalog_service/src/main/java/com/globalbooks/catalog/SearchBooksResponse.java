@@ -10,13 +10,16 @@ import javax.xml.bind.annotation.XmlType;
 
 @XmlAccessorType(XmlAccessType.FIELD)
 @XmlType(name = "", propOrder = {
-    "books"
+    "books",
+    "nextCursor"
 })
 @XmlRootElement(name = "searchBooksResponse", namespace = "http://catalog.globalbooks.com/")
 public class SearchBooksResponse {
 
     @XmlElement(namespace = "http://catalog.globalbooks.com/")
     protected List<Book> books;
+    @XmlElement(namespace = "http://catalog.globalbooks.com/")
+    protected String nextCursor;
 
     public List<Book> getBooks() {
         if (books == null) {
@@ -24,4 +27,12 @@ public class SearchBooksResponse {
         }
         return this.books;
     }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String value) {
+        this.nextCursor = value;
+    }
 }
\ No newline at end of file
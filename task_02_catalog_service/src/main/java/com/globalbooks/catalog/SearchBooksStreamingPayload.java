@@ -0,0 +1,74 @@
+package com.globalbooks.catalog;
+
+import org.springframework.ws.stream.StreamingPayload;
+
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBElement;
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Marshaller;
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+
+/**
+ * Writes a searchBooksResponse straight into the SOAP body with StAX. Each book is
+ * marshalled as a JAXB fragment the moment the store produces it, so neither a
+ * {@code List<Book>} nor a response object tree is ever built.
+ */
+public class SearchBooksStreamingPayload implements StreamingPayload {
+
+    private static final String NAMESPACE_URI = "http://catalog.globalbooks.com/";
+    private static final QName RESPONSE_NAME = new QName(NAMESPACE_URI, "searchBooksResponse");
+    private static final QName BOOKS_NAME = new QName(NAMESPACE_URI, "books");
+
+    private final PagedCatalogSearch catalogSearch;
+    private final JAXBContext jaxbContext;
+    private final SearchBooksRequest request;
+    private final int maxResults;
+
+    public SearchBooksStreamingPayload(PagedCatalogSearch catalogSearch, JAXBContext jaxbContext,
+                                       SearchBooksRequest request, int maxResults) {
+        this.catalogSearch = catalogSearch;
+        this.jaxbContext = jaxbContext;
+        this.request = request;
+        this.maxResults = maxResults;
+    }
+
+    @Override
+    public QName getName() {
+        return RESPONSE_NAME;
+    }
+
+    @Override
+    public void writeTo(XMLStreamWriter writer) throws XMLStreamException {
+        Marshaller marshaller;
+        try {
+            marshaller = jaxbContext.createMarshaller();
+            marshaller.setProperty(Marshaller.JAXB_FRAGMENT, Boolean.TRUE);
+        } catch (JAXBException e) {
+            throw new XMLStreamException("Could not create marshaller", e);
+        }
+
+        writer.writeStartElement("tns", RESPONSE_NAME.getLocalPart(), NAMESPACE_URI);
+        writer.writeNamespace("tns", NAMESPACE_URI);
+        String nextCursor;
+        try {
+            nextCursor = catalogSearch.searchBooks(request.getQuery(), request.getCategory(),
+                    request.getCursor(), maxResults, book -> {
+                        try {
+                            marshaller.marshal(new JAXBElement<>(BOOKS_NAME, Book.class, book), writer);
+                        } catch (JAXBException e) {
+                            throw new IllegalStateException("Could not write book " + book.getIsbn(), e);
+                        }
+                    });
+        } catch (IllegalStateException e) {
+            throw new XMLStreamException(e.getMessage(), e);
+        }
+        if (nextCursor != null) {
+            writer.writeStartElement("tns", "nextCursor", NAMESPACE_URI);
+            writer.writeCharacters(nextCursor);
+            writer.writeEndElement();
+        }
+        writer.writeEndElement();
+    }
+}
@@ -0,0 +1,25 @@
+package com.globalbooks.catalog;
+
+import com.globalbooks.catalog.pricing.PriceSnapshot;
+import com.globalbooks.catalog.pricing.PriceSnapshotExpiredException;
+
+import java.util.List;
+
+/**
+ * Prices read as of a snapshot, so every line of an order is priced from the same
+ * catalog state even while prices are being updated.
+ */
+public interface SnapshotPricing {
+
+    /**
+     * Opens a snapshot of the current prices; it expires after a fixed lease time.
+     */
+    PriceSnapshot openPriceSnapshot();
+
+    /**
+     * Like {@link CatalogService#getBookPrices} but as of {@code snapshotId}.
+     *
+     * @throws PriceSnapshotExpiredException if the snapshot is unknown or has expired
+     */
+    List<BookPrice> getBookPrices(List<BookQuantity> items, long snapshotId);
+}
@@ -0,0 +1,37 @@
+package com.globalbooks.catalog;
+
+import javax.xml.bind.annotation.XmlAccessType;
+import javax.xml.bind.annotation.XmlAccessorType;
+import javax.xml.bind.annotation.XmlElement;
+import javax.xml.bind.annotation.XmlRootElement;
+import javax.xml.bind.annotation.XmlType;
+
+@XmlAccessorType(XmlAccessType.FIELD)
+@XmlType(name = "", propOrder = {
+    "query",
+    "maxResults"
+})
+@XmlRootElement(name = "suggestBooksRequest", namespace = "http://catalog.globalbooks.com/")
+public class SuggestBooksRequest {
+
+    @XmlElement(namespace = "http://catalog.globalbooks.com/", required = true)
+    protected String query;
+    @XmlElement(namespace = "http://catalog.globalbooks.com/")
+    protected Integer maxResults;
+
+    public String getQuery() {
+        return query;
+    }
+
+    public void setQuery(String value) {
+        this.query = value;
+    }
+
+    public Integer getMaxResults() {
+        return maxResults;
+    }
+
+    public void setMaxResults(Integer value) {
+        this.maxResults = value;
+    }
+}
@@ -0,0 +1,27 @@
+package com.globalbooks.catalog;
+
+import java.util.ArrayList;
+import java.util.List;
+import javax.xml.bind.annotation.XmlAccessType;
+import javax.xml.bind.annotation.XmlAccessorType;
+import javax.xml.bind.annotation.XmlElement;
+import javax.xml.bind.annotation.XmlRootElement;
+import javax.xml.bind.annotation.XmlType;
+
+@XmlAccessorType(XmlAccessType.FIELD)
+@XmlType(name = "", propOrder = {
+    "suggestions"
+})
+@XmlRootElement(name = "suggestBooksResponse", namespace = "http://catalog.globalbooks.com/")
+public class SuggestBooksResponse {
+
+    @XmlElement(namespace = "http://catalog.globalbooks.com/")
+    protected List<BookSuggestion> suggestions;
+
+    public List<BookSuggestion> getSuggestions() {
+        if (suggestions == null) {
+            suggestions = new ArrayList<BookSuggestion>();
+        }
+        return this.suggestions;
+    }
+}
@@ -1,20 +1,114 @@
 package com.globalbooks.catalog;
 
+import com.globalbooks.security.CachingMerlin;
+import com.globalbooks.security.TimeBucketedReplayCache;
+import com.globalbooks.security.VerifiedCredentialCache;
 import org.apache.cxf.ws.security.wss4j.WSS4JInInterceptor;
 import org.apache.cxf.ws.security.wss4j.WSS4JOutInterceptor;
+import org.apache.cxf.ws.security.wss4j.WSS4JStaxInInterceptor;
+import org.apache.cxf.ws.security.wss4j.WSS4JStaxOutInterceptor;
 import org.apache.wss4j.common.ConfigurationConstants;
 import org.apache.wss4j.common.WSS4JConstants;
+import org.apache.wss4j.common.crypto.Crypto;
+import org.apache.wss4j.common.crypto.CryptoFactory;
+import org.apache.wss4j.common.ext.WSSecurityException;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.io.IOException;
 import java.util.HashMap;
 import java.util.Map;
 
+/**
+ * WS-Security interceptors for the CXF endpoint. Both modes are driven by the same
+ * property maps, so DOM and streaming enforce the same actions, callback and crypto;
+ * {@code catalog.security.mode} decides which pair {@link CxfConfig} installs.
+ */
 @Configuration
 public class WSSecurityConfig {
 
+    private static final String CRYPTO_PROPERTIES = "server-crypto.properties";
+    private static final String VERIFICATION_CRYPTO_REF = "catalogSignatureVerificationCrypto";
+
+    @Value("${catalog.security.replay-cache.bucket-millis:10000}")
+    private long replayBucketMillis;
+
+    @Value("${catalog.security.replay-cache.default-ttl-millis:360000}")
+    private long replayDefaultTtlMillis;
+
+    @Value("${catalog.security.replay-cache.peak-requests-per-second:1000}")
+    private long replayPeakRequestsPerSecond;
+
+    // Zero sizes the caches from the peak rate
+    @Value("${catalog.security.replay-cache.max-entries:0}")
+    private int replayMaxEntries;
+
+    @Value("${catalog.security.credential-cache.ttl-millis:60000}")
+    private long credentialTtlMillis;
+
+    @Value("${catalog.security.credential-cache.max-entries:10000}")
+    private int credentialMaxEntries;
+
+    @Bean
+    public WSS4JInInterceptor wss4jInInterceptor() throws WSSecurityException, IOException {
+        return new WSS4JInInterceptor(inboundProperties(signatureVerificationCrypto()));
+    }
+
+    @Bean
+    public WSS4JOutInterceptor wss4jOutInterceptor() {
+        return new WSS4JOutInterceptor(outboundProperties());
+    }
+
+    // Streaming (StAX) variants: the security header is processed as the envelope is
+    // read and written, without building a DOM of the whole message
     @Bean
-    public WSS4JInInterceptor wss4jInInterceptor() {
+    public WSS4JStaxInInterceptor wss4jStaxInInterceptor() throws WSSecurityException, IOException {
+        return new WSS4JStaxInInterceptor(inboundProperties(signatureVerificationCrypto()));
+    }
+
+    @Bean
+    public WSS4JStaxOutInterceptor wss4jStaxOutInterceptor() {
+        return new WSS4JStaxOutInterceptor(outboundProperties());
+    }
+
+    // Replay caches are handed to the endpoint by CxfConfig; both modes pick them up there
+    @Bean
+    public TimeBucketedReplayCache nonceReplayCache() {
+        return new TimeBucketedReplayCache("nonce", replayBucketMillis, replayDefaultTtlMillis, replayCapacity());
+    }
+
+    @Bean
+    public TimeBucketedReplayCache timestampReplayCache() {
+        return new TimeBucketedReplayCache("timestamp", replayBucketMillis, replayDefaultTtlMillis, replayCapacity());
+    }
+
+    /**
+     * Each signed request keeps an entry for up to the TTL plus one bucket, and a full
+     * cache rejects every new request, so the capacity has to cover the peak rate over
+     * that whole window.
+     */
+    private int replayCapacity() {
+        if (replayMaxEntries > 0) {
+            return replayMaxEntries;
+        }
+        long window = replayPeakRequestsPerSecond * (replayDefaultTtlMillis + replayBucketMillis) / 1000;
+        return (int) Math.min(Integer.MAX_VALUE, window);
+    }
+
+    @Bean
+    public VerifiedCredentialCache verifiedCredentialCache() {
+        return new VerifiedCredentialCache(credentialTtlMillis, credentialMaxEntries);
+    }
+
+    @Bean
+    public Crypto signatureVerificationCrypto() throws WSSecurityException, IOException {
+        ClassLoader classLoader = WSSecurityConfig.class.getClassLoader();
+        return new CachingMerlin(CryptoFactory.getProperties(CRYPTO_PROPERTIES, classLoader), classLoader,
+                null, verifiedCredentialCache());
+    }
+
+    static Map<String, Object> inboundProperties(Crypto verificationCrypto) {
         Map<String, Object> inProps = new HashMap<>();
 
         // UsernameToken validation
@@ -22,13 +116,16 @@ public class WSSecurityConfig {
                 ConfigurationConstants.SIGNATURE + " " + ConfigurationConstants.TIMESTAMP);
         inProps.put(ConfigurationConstants.PASSWORD_TYPE, WSS4JConstants.PW_TEXT);
         inProps.put(ConfigurationConstants.PW_CALLBACK_CLASS, "com.globalbooks.security.ServerPasswordCallback");
-        inProps.put(ConfigurationConstants.SIG_PROP_FILE, "server-crypto.properties");
+        inProps.put(ConfigurationConstants.SIG_PROP_FILE, CRYPTO_PROPERTIES);
+        // Verification uses a shared crypto instance rather than a properties file, so
+        // trusted certificates are cached across requests in both modes
+        inProps.put(ConfigurationConstants.SIG_VER_PROP_REF_ID, VERIFICATION_CRYPTO_REF);
+        inProps.put(VERIFICATION_CRYPTO_REF, verificationCrypto);
 
-        return new WSS4JInInterceptor(inProps);
+        return inProps;
     }
 
-    @Bean
-    public WSS4JOutInterceptor wss4jOutInterceptor() {
+    static Map<String, Object> outboundProperties() {
         Map<String, Object> outProps = new HashMap<>();
 
         // UsernameToken creation
@@ -37,9 +134,9 @@ public class WSSecurityConfig {
         outProps.put(ConfigurationConstants.PASSWORD_TYPE, WSS4JConstants.PW_TEXT);
         outProps.put(ConfigurationConstants.PW_CALLBACK_CLASS, "com.globalbooks.security.ServerPasswordCallback");
         outProps.put(ConfigurationConstants.USER, "catalog-service");
-        outProps.put(ConfigurationConstants.SIG_PROP_FILE, "server-crypto.properties");
+        outProps.put(ConfigurationConstants.SIG_PROP_FILE, CRYPTO_PROPERTIES);
         outProps.put(ConfigurationConstants.SIG_KEY_ID, "DirectReference");
 
-        return new WSS4JOutInterceptor(outProps);
+        return outProps;
     }
-}
\ No newline at end of file
+}
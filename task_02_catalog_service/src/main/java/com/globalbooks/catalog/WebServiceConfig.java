@@ -1,7 +1,16 @@
 package com.globalbooks.catalog;
 
+import com.globalbooks.catalog.cache.BookCache;
+import com.globalbooks.catalog.cache.IsbnBloomFilter;
+import com.globalbooks.catalog.columnar.ColumnarCatalogService;
+import com.globalbooks.catalog.feed.CatalogChangePublisher;
+import com.globalbooks.catalog.pricing.PriceVersions;
+import com.globalbooks.catalog.repository.BookRepository;
+import com.globalbooks.catalog.reservation.StockReservationEngine;
 import org.apache.cxf.ws.security.wss4j.WSS4JInInterceptor;
 import org.apache.cxf.ws.security.wss4j.WSS4JOutInterceptor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.web.servlet.ServletRegistrationBean;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.annotation.Bean;
@@ -11,11 +20,14 @@ import org.springframework.core.io.ClassPathResource;
 import org.springframework.oxm.jaxb.Jaxb2Marshaller;
 import org.springframework.ws.config.annotation.EnableWs;
 import org.springframework.ws.config.annotation.WsConfigurerAdapter;
+import org.springframework.ws.soap.axiom.AxiomSoapMessageFactory;
 import org.springframework.ws.transport.http.MessageDispatcherServlet;
 import org.springframework.ws.wsdl.wsdl11.DefaultWsdl11Definition;
 import org.springframework.xml.xsd.SimpleXsdSchema;
 import org.springframework.xml.xsd.XsdSchema;
 
+import java.nio.file.Paths;
+
 @EnableWs
 @Configuration
 @Import(WSSecurityConfig.class)
@@ -29,6 +41,17 @@ public class WebServiceConfig extends WsConfigurerAdapter {
         return new ServletRegistrationBean<>(servlet, "/catalog/soap/*");
     }
 
+    /**
+     * Axiom instead of SAAJ so endpoints can stream payloads into the SOAP body;
+     * without payload caching the request is read from the stream only once.
+     */
+    @Bean(name = MessageDispatcherServlet.DEFAULT_MESSAGE_FACTORY_BEAN_NAME)
+    public AxiomSoapMessageFactory messageFactory() {
+        AxiomSoapMessageFactory messageFactory = new AxiomSoapMessageFactory();
+        messageFactory.setPayloadCaching(false);
+        return messageFactory;
+    }
+
     @Bean(name = "catalog")
     public DefaultWsdl11Definition defaultWsdl11Definition(XsdSchema catalogSchema) {
         DefaultWsdl11Definition wsdl11Definition = new DefaultWsdl11Definition();
@@ -52,14 +75,26 @@ public class WebServiceConfig extends WsConfigurerAdapter {
     }
 
     @Bean
-    public CatalogService catalogService() {
-        return new CatalogServiceImpl();
+    @ConditionalOnProperty(name = "catalog.store", havingValue = "jpa", matchIfMissing = true)
+    public CatalogServiceImpl catalogService(BookRepository bookRepository, BookCache bookCache,
+                                             IsbnBloomFilter knownIsbns, PriceVersions priceVersions,
+                                             StockReservationEngine stockReservationEngine,
+                                             CatalogChangePublisher catalogChangePublisher) {
+        return new CatalogServiceImpl(bookRepository, bookCache, knownIsbns, priceVersions, stockReservationEngine,
+                catalogChangePublisher);
     }
 
-    // WS-Security Interceptors Integration
-    @Bean
-    public org.springframework.ws.server.endpoint.interceptor.PayloadLoggingInterceptor payloadLoggingInterceptor() {
-        return new org.springframework.ws.server.endpoint.interceptor.PayloadLoggingInterceptor();
+    @Bean(name = "catalogService", destroyMethod = "shutdown")
+    @ConditionalOnProperty(name = "catalog.store", havingValue = "columnar")
+    public ColumnarCatalogService columnarCatalogService(BookRepository bookRepository,
+                                                         StockReservationEngine stockReservationEngine,
+                                                         CatalogChangePublisher catalogChangePublisher,
+                                                         PriceVersions priceVersions,
+                                                         @Value("${catalog.columnar.expected-size:1000000}") int expectedSize,
+                                                         @Value("${catalog.columnar.snapshot.path:}") String snapshotPath,
+                                                         @Value("${catalog.columnar.snapshot.interval-millis:300000}") long snapshotIntervalMillis) {
+        return new ColumnarCatalogService(bookRepository, stockReservationEngine, catalogChangePublisher,
+                priceVersions, expectedSize, snapshotPath.isEmpty() ? null : Paths.get(snapshotPath), snapshotIntervalMillis);
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,139 @@
+package com.globalbooks.catalog.api;
+
+import com.globalbooks.catalog.Book;
+import com.globalbooks.catalog.BookAvailability;
+import com.globalbooks.catalog.BookPrice;
+import com.globalbooks.catalog.BookQuantity;
+import com.globalbooks.catalog.CatalogService;
+import com.globalbooks.catalog.CheckAvailabilityBatchResponse;
+import com.globalbooks.catalog.GetBookPricesResponse;
+import com.globalbooks.catalog.GetCategoryFacetsResponse;
+import com.globalbooks.catalog.SnapshotPricing;
+import com.globalbooks.catalog.SuggestBooksResponse;
+import com.globalbooks.catalog.pricing.PriceSnapshot;
+import com.globalbooks.catalog.pricing.PriceSnapshotExpiredException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * JSON read API over the same {@link CatalogService} bean as the SOAP endpoints, for
+ * internal callers such as the order orchestration route. It sits outside the CXF and
+ * Spring-WS stacks, so there is no envelope or WS-Security processing; access is
+ * limited to trusted networks by {@link TrustedCallerInterceptor}.
+ */
+@RestController
+@RequestMapping("/catalog/api/books")
+public class CatalogRestController {
+
+    @Autowired
+    private CatalogService catalogService;
+
+    @Autowired
+    private SnapshotPricing snapshotPricing;
+
+    @GetMapping("/facets")
+    public ResponseEntity<GetCategoryFacetsResponse> getCategoryFacets(@RequestParam(required = false) String query) {
+        GetCategoryFacetsResponse response = new GetCategoryFacetsResponse();
+        response.getFacets().addAll(catalogService.getCategoryFacets(query));
+        return new ResponseEntity<>(response, HttpStatus.OK);
+    }
+
+    @GetMapping("/suggest")
+    public ResponseEntity<SuggestBooksResponse> suggestBooks(@RequestParam String query,
+                                                             @RequestParam(defaultValue = "10") int maxResults) {
+        SuggestBooksResponse response = new SuggestBooksResponse();
+        response.getSuggestions().addAll(catalogService.suggestBooks(query, maxResults));
+        return new ResponseEntity<>(response, HttpStatus.OK);
+    }
+
+    @GetMapping("/{isbn}")
+    public ResponseEntity<Book> getBook(@PathVariable String isbn) {
+        Book book = catalogService.getBookById(isbn);
+        if (book != null) {
+            return new ResponseEntity<>(book, HttpStatus.OK);
+        }
+        return new ResponseEntity<>(null, HttpStatus.NOT_FOUND);
+    }
+
+    /**
+     * Opens a price snapshot; pass its id as {@code snapshot} to the price reads
+     * below to price every line of an order from the same catalog state.
+     */
+    @PostMapping("/prices/snapshot")
+    public ResponseEntity<PriceSnapshot> openPriceSnapshot() {
+        return new ResponseEntity<>(snapshotPricing.openPriceSnapshot(), HttpStatus.CREATED);
+    }
+
+    @GetMapping("/{isbn}/price")
+    public ResponseEntity<BookPrice> getPrice(@PathVariable String isbn,
+                                              @RequestParam(defaultValue = "1") int quantity,
+                                              @RequestParam(required = false) Long snapshot) {
+        return priceResponse(isbn, quantity, snapshot);
+    }
+
+    /**
+     * Body form used by the Camel route: {@code {"bookId": "...", "quantity": 2}};
+     * quantity is optional and defaults to one.
+     */
+    @PostMapping("/price")
+    public ResponseEntity<BookPrice> getPrice(@RequestBody BookQuantity request,
+                                              @RequestParam(required = false) Long snapshot) {
+        if (request.getBookId() == null) {
+            return new ResponseEntity<>(null, HttpStatus.BAD_REQUEST);
+        }
+        return priceResponse(request.getBookId(), request.getQuantity(), snapshot);
+    }
+
+    @PostMapping("/prices")
+    public ResponseEntity<GetBookPricesResponse> getPrices(@RequestBody List<BookQuantity> items,
+                                                           @RequestParam(required = false) Long snapshot) {
+        List<BookPrice> prices;
+        try {
+            prices = prices(items, snapshot);
+        } catch (PriceSnapshotExpiredException e) {
+            return new ResponseEntity<>(null, HttpStatus.GONE);
+        }
+        GetBookPricesResponse response = new GetBookPricesResponse();
+        response.getPrices().addAll(prices);
+        response.setTotalAmount(prices.stream().mapToDouble(BookPrice::getSubtotal).sum());
+        return new ResponseEntity<>(response, HttpStatus.OK);
+    }
+
+    @GetMapping("/{isbn}/availability")
+    public ResponseEntity<BookAvailability> checkAvailability(@PathVariable String isbn,
+                                                              @RequestParam(defaultValue = "1") int quantity) {
+        boolean available = catalogService.checkAvailability(isbn, quantity);
+        return new ResponseEntity<>(new BookAvailability(isbn, quantity, available), HttpStatus.OK);
+    }
+
+    @PostMapping("/availability")
+    public ResponseEntity<CheckAvailabilityBatchResponse> checkAvailability(@RequestBody List<BookQuantity> items) {
+        List<BookAvailability> results = catalogService.checkAvailabilityBatch(items);
+        CheckAvailabilityBatchResponse response = new CheckAvailabilityBatchResponse();
+        response.getResults().addAll(results);
+        response.setAllAvailable(results.stream().allMatch(BookAvailability::isAvailable));
+        return new ResponseEntity<>(response, HttpStatus.OK);
+    }
+
+    private ResponseEntity<BookPrice> priceResponse(String isbn, int quantity, Long snapshot) {
+        BookPrice price;
+        try {
+            price = prices(Collections.singletonList(new BookQuantity(isbn, quantity > 0 ? quantity : 1)), snapshot)
+                    .get(0);
+        } catch (PriceSnapshotExpiredException e) {
+            // The snapshot expired; the caller has to start over with a new one
+            return new ResponseEntity<>(null, HttpStatus.GONE);
+        }
+        return new ResponseEntity<>(price, price.isFound() ? HttpStatus.OK : HttpStatus.NOT_FOUND);
+    }
+
+    private List<BookPrice> prices(List<BookQuantity> items, Long snapshot) {
+        return snapshot == null ? catalogService.getBookPrices(items)
+                : snapshotPricing.getBookPrices(items, snapshot);
+    }
+}
@@ -0,0 +1,97 @@
+package com.globalbooks.catalog.api;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Admits only callers whose remote address falls in one of the configured CIDR
+ * ranges (e.g. {@code 10.0.0.0/8}); everyone else gets 403. Addresses are compared
+ * as raw bytes, so no DNS lookups happen on the request path.
+ */
+public class TrustedCallerInterceptor implements HandlerInterceptor {
+
+    private final List<Network> trustedNetworks = new ArrayList<>();
+
+    public TrustedCallerInterceptor(String[] trustedCidrs) {
+        for (String cidr : trustedCidrs) {
+            if (!cidr.trim().isEmpty()) {
+                trustedNetworks.add(Network.parse(cidr.trim()));
+            }
+        }
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler)
+            throws Exception {
+        if (isTrusted(request.getRemoteAddr())) {
+            return true;
+        }
+        response.sendError(HttpStatus.FORBIDDEN.value(), "Caller is not on a trusted network");
+        return false;
+    }
+
+    boolean isTrusted(String remoteAddress) {
+        byte[] address;
+        try {
+            // Remote addresses from the container are literals, so this never resolves
+            address = InetAddress.getByName(remoteAddress).getAddress();
+        } catch (UnknownHostException e) {
+            return false;
+        }
+        for (Network network : trustedNetworks) {
+            if (network.contains(address)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static final class Network {
+        private final byte[] address;
+        private final int prefixLength;
+
+        private Network(byte[] address, int prefixLength) {
+            this.address = address;
+            this.prefixLength = prefixLength;
+        }
+
+        static Network parse(String cidr) {
+            int slash = cidr.indexOf('/');
+            try {
+                byte[] address = InetAddress.getByName(slash < 0 ? cidr : cidr.substring(0, slash)).getAddress();
+                int prefixLength = slash < 0 ? address.length * 8 : Integer.parseInt(cidr.substring(slash + 1));
+                if (prefixLength < 0 || prefixLength > address.length * 8) {
+                    throw new IllegalArgumentException("Invalid prefix length in " + cidr);
+                }
+                return new Network(address, prefixLength);
+            } catch (UnknownHostException | NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid trusted network: " + cidr, e);
+            }
+        }
+
+        boolean contains(byte[] candidate) {
+            if (candidate.length != address.length) {
+                return false;
+            }
+            int fullBytes = prefixLength / 8;
+            for (int i = 0; i < fullBytes; i++) {
+                if (candidate[i] != address[i]) {
+                    return false;
+                }
+            }
+            int remainingBits = prefixLength % 8;
+            if (remainingBits == 0) {
+                return true;
+            }
+            int mask = 0xFF << (8 - remainingBits);
+            return (candidate[fullBytes] & mask) == (address[fullBytes] & mask);
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.globalbooks.catalog.bulk;
+
+import com.globalbooks.catalog.Book;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.function.Consumer;
+
+/**
+ * Streaming parser for a publisher feed. Books are handed to the sink as they are
+ * parsed, so memory use does not depend on the size of the feed.
+ */
+public interface BookFeedReader {
+
+    /**
+     * Parses the feed and passes every valid book to {@code sink}. Rows that cannot
+     * be turned into a book are logged and skipped.
+     *
+     * @return the number of rows skipped
+     */
+    int read(InputStream in, Consumer<Book> sink) throws IOException;
+}
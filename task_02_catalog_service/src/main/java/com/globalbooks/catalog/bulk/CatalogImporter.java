@@ -0,0 +1,69 @@
+package com.globalbooks.catalog.bulk;
+
+import com.globalbooks.catalog.Book;
+import com.globalbooks.catalog.CatalogWriter;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Streams a publisher feed into a {@link CatalogWriter} in fixed-size batches, so
+ * at most one batch of parsed books is held in memory at a time.
+ */
+public class CatalogImporter {
+
+    private final CatalogWriter catalog;
+    private final int batchSize;
+
+    public CatalogImporter(CatalogWriter catalog, int batchSize) {
+        this.catalog = catalog;
+        this.batchSize = batchSize;
+    }
+
+    public Result importFeed(InputStream in, BookFeedReader reader) throws IOException {
+        List<Book> batch = new ArrayList<>(batchSize);
+        long[] imported = {0};
+        int rejected = reader.read(in, book -> {
+            batch.add(book);
+            if (batch.size() == batchSize) {
+                catalog.saveBooks(batch);
+                imported[0] += batch.size();
+                batch.clear();
+            }
+        });
+        if (!batch.isEmpty()) {
+            catalog.saveBooks(batch);
+            imported[0] += batch.size();
+        }
+        return new Result(imported[0], rejected);
+    }
+
+    /**
+     * Picks a reader from the file name: {@code .json}/{@code .ndjson} or CSV otherwise.
+     */
+    public static BookFeedReader readerFor(String fileName) {
+        String name = fileName.toLowerCase(Locale.ROOT);
+        return name.endsWith(".json") || name.endsWith(".ndjson") ? new JsonBookFeedReader() : new CsvBookFeedReader();
+    }
+
+    public static final class Result {
+        private final long imported;
+        private final int rejected;
+
+        Result(long imported, int rejected) {
+            this.imported = imported;
+            this.rejected = rejected;
+        }
+
+        public long getImported() {
+            return imported;
+        }
+
+        public int getRejected() {
+            return rejected;
+        }
+    }
+}
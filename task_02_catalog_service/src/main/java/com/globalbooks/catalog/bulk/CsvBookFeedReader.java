@@ -0,0 +1,136 @@
+package com.globalbooks.catalog.bulk;
+
+import com.globalbooks.catalog.Book;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Consumer;
+
+/**
+ * RFC 4180 CSV feed with a header row naming the columns {@code isbn}, {@code title},
+ * {@code author}, {@code category}, {@code price} and {@code stock} in any order.
+ * Quoted fields may contain commas, doubled quotes and line breaks.
+ */
+public class CsvBookFeedReader implements BookFeedReader {
+
+    private static final Logger log = LoggerFactory.getLogger(CsvBookFeedReader.class);
+    private static final String[] COLUMNS = {"isbn", "title", "author", "category", "price", "stock"};
+
+    @Override
+    public int read(InputStream in, Consumer<Book> sink) throws IOException {
+        Reader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), 1 << 16);
+        List<String> fields = new ArrayList<>(COLUMNS.length);
+        StringBuilder field = new StringBuilder();
+
+        if (!readRecord(reader, fields, field)) {
+            return 0;
+        }
+        int[] positions = columnPositions(fields);
+
+        int rejected = 0;
+        long line = 1;
+        while (readRecord(reader, fields, field)) {
+            line++;
+            if (fields.size() == 1 && fields.get(0).isEmpty()) {
+                continue;
+            }
+            try {
+                sink.accept(toBook(fields, positions));
+            } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+                rejected++;
+                log.warn("Skipping CSV record {}: {}", line, e.getMessage());
+            }
+        }
+        return rejected;
+    }
+
+    private static int[] columnPositions(List<String> header) {
+        int[] positions = new int[COLUMNS.length];
+        for (int i = 0; i < COLUMNS.length; i++) {
+            positions[i] = -1;
+            for (int j = 0; j < header.size(); j++) {
+                if (header.get(j).trim().toLowerCase(Locale.ROOT).equals(COLUMNS[i])) {
+                    positions[i] = j;
+                }
+            }
+        }
+        if (positions[0] < 0 || positions[1] < 0) {
+            throw new IllegalArgumentException("CSV feed header must name at least isbn and title: " + header);
+        }
+        return positions;
+    }
+
+    private static Book toBook(List<String> fields, int[] positions) {
+        String isbn = column(fields, positions[0]);
+        String title = column(fields, positions[1]);
+        if (isbn == null || title == null) {
+            throw new IllegalArgumentException("isbn and title are required");
+        }
+        String price = column(fields, positions[4]);
+        String stock = column(fields, positions[5]);
+        return new Book(isbn, title, column(fields, positions[2]), column(fields, positions[3]),
+                price == null ? 0.0 : Double.parseDouble(price),
+                stock == null ? 0 : Integer.parseInt(stock));
+    }
+
+    private static String column(List<String> fields, int position) {
+        if (position < 0) {
+            return null;
+        }
+        String value = fields.get(position).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    /**
+     * Reads one record into {@code fields}. Returns {@code false} at end of input.
+     */
+    private static boolean readRecord(Reader reader, List<String> fields, StringBuilder field) throws IOException {
+        fields.clear();
+        field.setLength(0);
+        boolean quoted = false;
+        int c = reader.read();
+        if (c < 0) {
+            return false;
+        }
+        while (true) {
+            if (quoted) {
+                if (c < 0) {
+                    throw new IOException("Unterminated quoted field in CSV feed");
+                }
+                if (c == '"') {
+                    reader.mark(1);
+                    int next = reader.read();
+                    if (next == '"') {
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                        reader.reset();
+                    }
+                } else {
+                    field.append((char) c);
+                }
+            } else if (c == '"' && field.length() == 0) {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\n' || c < 0) {
+                break;
+            } else if (c != '\r') {
+                field.append((char) c);
+            }
+            c = reader.read();
+        }
+        fields.add(field.toString());
+        return true;
+    }
+}
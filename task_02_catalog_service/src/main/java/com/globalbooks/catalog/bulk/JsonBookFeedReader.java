@@ -0,0 +1,86 @@
+package com.globalbooks.catalog.bulk;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.globalbooks.catalog.Book;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.function.Consumer;
+
+/**
+ * JSON feed of book objects with the fields {@code isbn}, {@code title},
+ * {@code author}, {@code category}, {@code price} and {@code stock}. Accepts a
+ * top-level array or a sequence of objects (one per line). Parsed token by token
+ * with the Jackson streaming API, so no object tree is built.
+ */
+public class JsonBookFeedReader implements BookFeedReader {
+
+    private static final Logger log = LoggerFactory.getLogger(JsonBookFeedReader.class);
+
+    private final JsonFactory jsonFactory = new JsonFactory();
+
+    @Override
+    public int read(InputStream in, Consumer<Book> sink) throws IOException {
+        int rejected = 0;
+        long record = 0;
+        try (JsonParser parser = jsonFactory.createParser(in)) {
+            JsonToken token = parser.nextToken();
+            boolean array = token == JsonToken.START_ARRAY;
+            if (array) {
+                token = parser.nextToken();
+            }
+            while (token == JsonToken.START_OBJECT) {
+                record++;
+                Book book = readBook(parser);
+                if (book.getIsbn() == null || book.getTitle() == null) {
+                    rejected++;
+                    log.warn("Skipping JSON record {}: isbn and title are required", record);
+                } else {
+                    sink.accept(book);
+                }
+                token = parser.nextToken();
+            }
+            if (array ? token != JsonToken.END_ARRAY : token != null) {
+                throw new IOException("Unexpected " + token + " in JSON feed at record " + record);
+            }
+        }
+        return rejected;
+    }
+
+    private static Book readBook(JsonParser parser) throws IOException {
+        Book book = new Book();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String name = parser.getCurrentName();
+            JsonToken value = parser.nextToken();
+            switch (name) {
+                case "isbn":
+                    book.setIsbn(parser.getValueAsString());
+                    break;
+                case "title":
+                    book.setTitle(parser.getValueAsString());
+                    break;
+                case "author":
+                    book.setAuthor(parser.getValueAsString());
+                    break;
+                case "category":
+                    book.setCategory(parser.getValueAsString());
+                    break;
+                case "price":
+                    book.setPrice(parser.getValueAsDouble());
+                    break;
+                case "stock":
+                    book.setStock(parser.getValueAsInt());
+                    break;
+                default:
+                    if (value.isStructStart()) {
+                        parser.skipChildren();
+                    }
+            }
+        }
+        return book;
+    }
+}
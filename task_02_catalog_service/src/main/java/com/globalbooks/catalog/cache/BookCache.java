@@ -0,0 +1,116 @@
+package com.globalbooks.catalog.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.globalbooks.catalog.Book;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Function;
+
+/**
+ * Size-bounded read-through cache for hot ISBNs. Caffeine's W-TinyLFU policy
+ * admits and evicts by access frequency, so a burst of one-off lookups cannot
+ * flush the popular titles. Unknown ISBNs are not cached; writers invalidate
+ * the entry after the store has been updated.
+ * Readers get their own copy of each {@link Book}, so a caller that changes one
+ * (for instance before saving it) cannot alter what other readers are served.
+ *
+ * A single lookup loads under the entry's lock, which invalidation waits for. A
+ * bulk load holds no lock, so each title it loaded is only cached if the title was
+ * not invalidated while the load ran; otherwise a read from before a write could
+ * be cached after the write's invalidation and served indefinitely.
+ */
+public class BookCache {
+
+    private static final int GENERATION_STRIPES = 1024;
+
+    private final Cache<String, Book> cache;
+    // Bumped before a title is invalidated; bulk loads compare before and after
+    private final AtomicLongArray generations = new AtomicLongArray(GENERATION_STRIPES);
+
+    public BookCache(long maximumSize) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .recordStats()
+                .build();
+    }
+
+    public Book get(String isbn, Function<String, Book> loader) {
+        return copy(cache.get(isbn, loader));
+    }
+
+    public Map<String, Book> getAll(Iterable<String> isbns,
+                                    Function<Iterable<? extends String>, Map<String, Book>> loader) {
+        Map<String, Book> present = cache.getAllPresent(isbns);
+        Set<String> missing = new LinkedHashSet<>();
+        for (String isbn : isbns) {
+            if (!present.containsKey(isbn)) {
+                missing.add(isbn);
+            }
+        }
+        Map<String, Book> loaded = missing.isEmpty() ? present : load(missing, loader);
+
+        Map<String, Book> books = new LinkedHashMap<>();
+        for (String isbn : isbns) {
+            Book book = present.containsKey(isbn) ? present.get(isbn) : loaded.get(isbn);
+            if (book != null) {
+                books.put(isbn, copy(book));
+            }
+        }
+        return books;
+    }
+
+    public void invalidate(String isbn) {
+        generations.incrementAndGet(stripe(isbn));
+        cache.invalidate(isbn);
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    /**
+     * The underlying cache, for metrics. Its values are the shared cached instances
+     * and must not be modified.
+     */
+    public Cache<String, Book> nativeCache() {
+        return cache;
+    }
+
+    private Map<String, Book> load(Set<String> isbns, Function<Iterable<? extends String>, Map<String, Book>> loader) {
+        List<String> keys = new ArrayList<>(isbns);
+        long[] before = new long[keys.size()];
+        for (int i = 0; i < keys.size(); i++) {
+            before[i] = generations.get(stripe(keys.get(i)));
+        }
+        Map<String, Book> loaded = loader.apply(keys);
+        for (int i = 0; i < keys.size(); i++) {
+            String isbn = keys.get(i);
+            Book book = loaded.get(isbn);
+            if (book == null) {
+                continue;
+            }
+            long generation = before[i];
+            // Checked under the entry's lock, which invalidate() also takes after bumping the generation
+            cache.asMap().compute(isbn, (key, current) ->
+                    current != null || generations.get(stripe(key)) != generation ? current : book);
+        }
+        return loaded;
+    }
+
+    private static int stripe(String isbn) {
+        return (isbn.hashCode() & 0x7fffffff) % GENERATION_STRIPES;
+    }
+
+    private static Book copy(Book book) {
+        return book == null ? null : new Book(book.getIsbn(), book.getTitle(), book.getAuthor(),
+                book.getCategory(), book.getPrice(), book.getStock());
+    }
+}
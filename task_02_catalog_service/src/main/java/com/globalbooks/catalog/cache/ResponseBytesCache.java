@@ -0,0 +1,139 @@
+package com.globalbooks.catalog.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.globalbooks.catalog.MarshalledPayload;
+import com.globalbooks.catalog.columnar.IsbnCodec;
+import com.globalbooks.catalog.feed.BookChangeListener;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Marshalled responses of per-title read operations, so a hot title is marshalled
+ * once per change rather than once per request. Entries are grouped by title under
+ * the ISBN-13 key of {@link IsbnCodec}, so every spelling a store may resolve to the
+ * same book (hyphens, ISBN-10) is dropped together when that book changes. Within
+ * a title, responses are keyed by operation and the ISBN exactly as requested.
+ *
+ * Size is bounded by title with Caffeine's W-TinyLFU policy, which keeps the
+ * frequently read titles. A response is only cached if no change to its title was
+ * announced while it was being computed, so a slow read that raced a write cannot
+ * re-insert the old value.
+ */
+public class ResponseBytesCache implements BookChangeListener {
+
+    private static final int GENERATION_STRIPES = 1024;
+
+    private final Cache<String, ConcurrentMap<String, MarshalledPayload>> cache;
+    // Bumped before a title's entries are dropped; loads compare before and after
+    private final AtomicLongArray generations = new AtomicLongArray(GENERATION_STRIPES);
+    private final AtomicLong epoch = new AtomicLong();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public ResponseBytesCache(long maximumTitles) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumTitles)
+                .recordStats()
+                .build();
+    }
+
+    public MarshalledPayload getIfPresent(String operation, String isbn) {
+        if (isbn == null) {
+            return null;
+        }
+        ConcurrentMap<String, MarshalledPayload> responses = cache.getIfPresent(titleKey(isbn));
+        MarshalledPayload payload = responses == null ? null : responses.get(responseKey(operation, isbn));
+        if (payload != null) {
+            hits.increment();
+        }
+        return payload;
+    }
+
+    /**
+     * Returns the cached response, or computes it with {@code loader} and caches it.
+     */
+    public MarshalledPayload get(String operation, String isbn, Supplier<MarshalledPayload> loader) {
+        MarshalledPayload cached = getIfPresent(operation, isbn);
+        if (cached != null) {
+            return cached;
+        }
+        misses.increment();
+        if (isbn == null) {
+            return loader.get();
+        }
+        String title = titleKey(isbn);
+        long generation = generation(title);
+        MarshalledPayload payload = loader.get();
+        // Checked under the entry's lock, which invalidate() also takes after bumping the generation
+        cache.asMap().compute(title, (key, responses) -> {
+            if (generation(title) != generation) {
+                return responses;
+            }
+            ConcurrentMap<String, MarshalledPayload> updated = responses;
+            if (updated == null) {
+                updated = new ConcurrentHashMap<>(4);
+            }
+            updated.put(responseKey(operation, isbn), payload);
+            return updated;
+        });
+        return payload;
+    }
+
+    public void invalidate(String isbn) {
+        String title = titleKey(isbn);
+        generations.incrementAndGet(stripe(title));
+        cache.invalidate(title);
+    }
+
+    public void invalidateAll() {
+        epoch.incrementAndGet();
+        cache.invalidateAll();
+    }
+
+    @Override
+    public void bookChanged(String isbn) {
+        if (isbn != null) {
+            invalidate(isbn);
+        }
+    }
+
+    @Override
+    public void catalogReloaded() {
+        invalidateAll();
+    }
+
+    public long hits() {
+        return hits.sum();
+    }
+
+    public long misses() {
+        return misses.sum();
+    }
+
+    public Cache<String, ConcurrentMap<String, MarshalledPayload>> nativeCache() {
+        return cache;
+    }
+
+    private long generation(String title) {
+        return generations.get(stripe(title)) + epoch.get();
+    }
+
+    private static int stripe(String title) {
+        return (title.hashCode() & 0x7fffffff) % GENERATION_STRIPES;
+    }
+
+    private static String responseKey(String operation, String isbn) {
+        return operation + ':' + isbn;
+    }
+
+    private static String titleKey(String isbn) {
+        long key = IsbnCodec.encode(isbn);
+        return key == IsbnCodec.INVALID ? isbn : Long.toString(key);
+    }
+}
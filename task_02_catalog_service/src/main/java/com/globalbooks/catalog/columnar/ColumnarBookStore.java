@@ -0,0 +1,664 @@
+package com.globalbooks.catalog.columnar;
+
+import com.globalbooks.catalog.Book;
+import com.globalbooks.catalog.BookSearchIndex;
+import com.globalbooks.catalog.CategoryFacet;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.LongPredicate;
+import java.util.function.Supplier;
+
+/**
+ * Column-oriented book storage. Each attribute lives in its own array indexed by
+ * row, ISBN-13 keys are primitive longs resolved through an open-addressing map,
+ * categories are interned to int ids, and titles/authors are kept as UTF-8 byte
+ * arrays without a String wrapper. A book therefore costs a few array slots plus
+ * two byte arrays, instead of a {@link Book}, a map node and a String key.
+ * Each category also keeps a {@link RowBitmap} of its rows, so category filters
+ * and per-category counts do not scan the columns.
+ * Queries match like {@link BookSearchIndex#search}: every query token must start a
+ * word of the title or author, and a multi-word query must also appear as a phrase.
+ * A title stored under another spelling of its ISBN (ISBN-10, no hyphens) keeps
+ * that repository id, and books are returned under it; canonical ids cost nothing.
+ * Reads are optimistic and lock-free unless they race a writer.
+ */
+public class ColumnarBookStore {
+
+    private final StampedLock lock = new StampedLock();
+
+    private LongIntOpenHashMap rowsByIsbn;
+    private long[] isbns;
+    // Repository id of each row when it is not the canonical IsbnCodec.format of its key
+    private String[] repositoryIds;
+    private byte[][] titles;
+    private byte[][] authors;
+    private int[] categoryIds;
+    private double[] prices;
+    private int[] stock;
+    private int rowCount;
+    private int liveCount;
+    private volatile long modifications;
+
+    private final List<String> categoryNames = new ArrayList<>();
+    private final List<RowBitmap> categoryRows = new ArrayList<>();
+    private final Map<String, Integer> categoryIdsByName = new ConcurrentHashMap<>();
+
+    public ColumnarBookStore(int expectedSize) {
+        int capacity = Math.max(expectedSize, 16);
+        rowsByIsbn = new LongIntOpenHashMap(capacity);
+        isbns = new long[capacity];
+        repositoryIds = new String[capacity];
+        titles = new byte[capacity][];
+        authors = new byte[capacity][];
+        categoryIds = new int[capacity];
+        prices = new double[capacity];
+        stock = new int[capacity];
+    }
+
+    /**
+     * Inserts or overwrites a book. Returns {@code false} if its ISBN cannot be
+     * encoded as an ISBN-13 key.
+     */
+    public boolean put(Book book) {
+        long key = IsbnCodec.encode(book.getIsbn());
+        if (key == IsbnCodec.INVALID) {
+            return false;
+        }
+        long stamp = lock.writeLock();
+        try {
+            int row = rowsByIsbn.get(key);
+            int categoryId = internCategory(book.getCategory());
+            if (row < 0) {
+                ensureCapacity(rowCount + 1);
+                row = rowCount++;
+                liveCount++;
+                categoryRows.get(categoryId).add(row);
+            } else if (categoryIds[row] != categoryId) {
+                categoryRows.get(categoryIds[row]).remove(row);
+                categoryRows.get(categoryId).add(row);
+            }
+            isbns[row] = key;
+            repositoryIds[row] = book.getIsbn().equals(IsbnCodec.format(key)) ? null : book.getIsbn();
+            titles[row] = encode(book.getTitle());
+            authors[row] = encode(book.getAuthor());
+            categoryIds[row] = categoryId;
+            prices[row] = book.getPrice();
+            stock[row] = book.getStock();
+            rowsByIsbn.put(key, row);
+            modifications++;
+            return true;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public boolean remove(String isbn) {
+        long key = IsbnCodec.encode(isbn);
+        if (key == IsbnCodec.INVALID) {
+            return false;
+        }
+        long stamp = lock.writeLock();
+        try {
+            int row = rowsByIsbn.remove(key);
+            if (row < 0) {
+                return false;
+            }
+            // Leave a hole; rows are not compacted so row ids stay stable for readers
+            categoryRows.get(categoryIds[row]).remove(row);
+            isbns[row] = 0L;
+            repositoryIds[row] = null;
+            titles[row] = null;
+            authors[row] = null;
+            liveCount--;
+            modifications++;
+            return true;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Overwrites the stock of a known title. Returns {@code false} if the ISBN is
+     * unknown.
+     */
+    public boolean setStock(String isbn, int onHand) {
+        long key = IsbnCodec.encode(isbn);
+        if (key == IsbnCodec.INVALID) {
+            return false;
+        }
+        long stamp = lock.writeLock();
+        try {
+            int row = rowsByIsbn.get(key);
+            if (row < 0) {
+                return false;
+            }
+            stock[row] = onHand;
+            modifications++;
+            return true;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Removes every title whose ISBN-13 key does not satisfy {@code keep}.
+     * Returns the number of titles removed.
+     */
+    public int retainIf(LongPredicate keep) {
+        long stamp = lock.writeLock();
+        try {
+            int removed = 0;
+            for (int row = 0; row < rowCount; row++) {
+                long key = isbns[row];
+                if (key != 0L && !keep.test(key)) {
+                    rowsByIsbn.remove(key);
+                    categoryRows.get(categoryIds[row]).remove(row);
+                    isbns[row] = 0L;
+                    repositoryIds[row] = null;
+                    titles[row] = null;
+                    authors[row] = null;
+                    removed++;
+                }
+            }
+            liveCount -= removed;
+            modifications += removed;
+            return removed;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public Book get(String isbn) {
+        long key = IsbnCodec.encode(isbn);
+        if (key == IsbnCodec.INVALID) {
+            return null;
+        }
+        return read(() -> {
+            int row = rowsByIsbn.get(key);
+            return row < 0 ? null : materialize(row);
+        });
+    }
+
+    /**
+     * Returns the id the title is stored under in the repository, whichever
+     * spelling of its ISBN is passed, or {@code null} when the ISBN is unknown.
+     */
+    public String repositoryId(String isbn) {
+        long key = IsbnCodec.encode(isbn);
+        if (key == IsbnCodec.INVALID) {
+            return null;
+        }
+        return read(() -> {
+            int row = rowsByIsbn.get(key);
+            return row < 0 ? null : repositoryId(row);
+        });
+    }
+
+    /**
+     * Returns the price, or {@code NaN} when the ISBN is unknown.
+     */
+    public double price(String isbn) {
+        long key = IsbnCodec.encode(isbn);
+        if (key == IsbnCodec.INVALID) {
+            return Double.NaN;
+        }
+        return read(() -> {
+            int row = rowsByIsbn.get(key);
+            return row < 0 ? Double.NaN : prices[row];
+        });
+    }
+
+    /**
+     * Returns the stock, or {@code -1} when the ISBN is unknown.
+     */
+    public int stock(String isbn) {
+        long key = IsbnCodec.encode(isbn);
+        if (key == IsbnCodec.INVALID) {
+            return -1;
+        }
+        return read(() -> {
+            int row = rowsByIsbn.get(key);
+            return row < 0 ? -1 : stock[row];
+        });
+    }
+
+    /**
+     * Filters rows by category id and by the query's tokens, matched as prefixes of
+     * title or author words. A query without letters or digits does not constrain
+     * the result. The scan walks primitive columns and does not allocate per row.
+     */
+    public List<Book> search(String query, String category) {
+        List<Book> result = new ArrayList<>();
+        searchPage(query, category, 0, Integer.MAX_VALUE, result);
+        return result;
+    }
+
+    /**
+     * Like {@link #search} but starts at {@code fromRow} and stops after
+     * {@code limit} matches. Returns the row to resume from, or -1 when the scan
+     * reached the end. Row order is stable because rows are never compacted.
+     */
+    public int searchPage(String query, String category, int fromRow, int limit, List<Book> out) {
+        QueryMatcher matcher = QueryMatcher.of(query);
+        int startSize = out.size();
+        return read(() -> {
+            // An optimistic attempt may have been abandoned half way; start over clean
+            out.subList(startSize, out.size()).clear();
+            RowBitmap categoryFilter = null;
+            if (category != null) {
+                Integer id = categoryIdsByName.get(category.toLowerCase(Locale.ROOT));
+                if (id == null) {
+                    return -1;
+                }
+                categoryFilter = categoryRows.get(id);
+            }
+            int matched = 0;
+            // With a category the bitmap yields its rows directly; otherwise walk every row
+            for (int row = nextRow(categoryFilter, fromRow); row >= 0 && row < rowCount;
+                 row = nextRow(categoryFilter, row + 1)) {
+                if (isbns[row] == 0L) {
+                    continue;
+                }
+                if (matcher != null && !matcher.matches(titles[row], authors[row])) {
+                    continue;
+                }
+                if (matched == limit) {
+                    return row;
+                }
+                out.add(materialize(row));
+                matched++;
+            }
+            return -1;
+        });
+    }
+
+    public int size() {
+        return liveCount;
+    }
+
+    /**
+     * Number of titles per category, largest first, for the titles matching the
+     * query as in {@link #search}. Without a query the counts come straight from the
+     * category bitmaps; with one, a single pass over the columns collects the
+     * matching rows into a bitmap that is intersected with each category's rows.
+     * Empty categories are omitted.
+     */
+    public List<CategoryFacet> categoryFacets(String query) {
+        QueryMatcher matcher = QueryMatcher.of(query);
+        return read(() -> {
+            int[] counts = new int[categoryNames.size()];
+            RowBitmap matches = null;
+            if (matcher != null) {
+                matches = new RowBitmap();
+                for (int row = 0; row < rowCount; row++) {
+                    if (isbns[row] != 0L && matcher.matches(titles[row], authors[row])) {
+                        matches.add(row);
+                    }
+                }
+            }
+            for (int id = 0; id < counts.length; id++) {
+                RowBitmap rows = categoryRows.get(id);
+                counts[id] = matches == null ? rows.cardinality() : rows.intersectionCardinality(matches);
+            }
+            List<CategoryFacet> facets = new ArrayList<>();
+            for (int id = 0; id < counts.length; id++) {
+                if (counts[id] > 0) {
+                    facets.add(new CategoryFacet(categoryNames.get(id), counts[id]));
+                }
+            }
+            facets.sort(Comparator.comparingInt(CategoryFacet::getCount).reversed()
+                    .thenComparing(CategoryFacet::getCategory));
+            return facets;
+        });
+    }
+
+    public int categoryCount() {
+        return categoryNames.size();
+    }
+
+    /**
+     * Count of writes applied so far; lets a snapshot writer skip unchanged stores.
+     */
+    public long modifications() {
+        return modifications;
+    }
+
+    /**
+     * Writes every column, the category dictionary and the ISBN hash table in the
+     * layout read by {@link #restore}. Holds the read lock, so writers wait for the
+     * copy but optimistic readers do not.
+     */
+    void writeTo(DataOutput out) throws IOException {
+        long stamp = lock.readLock();
+        try {
+            out.writeInt(rowCount);
+            out.writeInt(liveCount);
+            out.writeInt(categoryNames.size());
+            for (String name : categoryNames) {
+                writeBytes(out, encode(name));
+            }
+            for (int row = 0; row < rowCount; row++) {
+                out.writeLong(isbns[row]);
+            }
+            for (int row = 0; row < rowCount; row++) {
+                out.writeInt(categoryIds[row]);
+            }
+            for (int row = 0; row < rowCount; row++) {
+                out.writeDouble(prices[row]);
+            }
+            for (int row = 0; row < rowCount; row++) {
+                out.writeInt(stock[row]);
+            }
+            for (int row = 0; row < rowCount; row++) {
+                writeBytes(out, titles[row]);
+                writeBytes(out, authors[row]);
+                writeBytes(out, encode(repositoryIds[row]));
+            }
+            rowsByIsbn.writeTo(out);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Replaces the contents of this store with a snapshot written by
+     * {@link #writeTo}. Fixed-width columns are bulk-copied and the hash table is
+     * taken as-is, so only titles and authors are copied row by row.
+     */
+    void restore(ByteBuffer in) {
+        int rows = in.getInt();
+        int live = in.getInt();
+        int categories = in.getInt();
+        List<String> names = new ArrayList<>(categories);
+        for (int i = 0; i < categories; i++) {
+            names.add(decode(readBytes(in)));
+        }
+        int capacity = Math.max(rows, isbns.length);
+        long[] newIsbns = new long[capacity];
+        int[] newCategoryIds = new int[capacity];
+        double[] newPrices = new double[capacity];
+        int[] newStock = new int[capacity];
+        byte[][] newTitles = new byte[capacity][];
+        byte[][] newAuthors = new byte[capacity][];
+        String[] newRepositoryIds = new String[capacity];
+        in.asLongBuffer().get(newIsbns, 0, rows);
+        in.position(in.position() + rows * Long.BYTES);
+        in.asIntBuffer().get(newCategoryIds, 0, rows);
+        in.position(in.position() + rows * Integer.BYTES);
+        in.asDoubleBuffer().get(newPrices, 0, rows);
+        in.position(in.position() + rows * Double.BYTES);
+        in.asIntBuffer().get(newStock, 0, rows);
+        in.position(in.position() + rows * Integer.BYTES);
+        for (int row = 0; row < rows; row++) {
+            newTitles[row] = readBytes(in);
+            newAuthors[row] = readBytes(in);
+            newRepositoryIds[row] = decode(readBytes(in));
+        }
+        LongIntOpenHashMap newRows = LongIntOpenHashMap.readFrom(in);
+
+        long stamp = lock.writeLock();
+        try {
+            isbns = newIsbns;
+            repositoryIds = newRepositoryIds;
+            categoryIds = newCategoryIds;
+            prices = newPrices;
+            stock = newStock;
+            titles = newTitles;
+            authors = newAuthors;
+            rowsByIsbn = newRows;
+            rowCount = rows;
+            liveCount = live;
+            categoryNames.clear();
+            categoryIdsByName.clear();
+            categoryRows.clear();
+            for (String name : names) {
+                categoryIdsByName.put(name.toLowerCase(Locale.ROOT), categoryNames.size());
+                categoryNames.add(name);
+                categoryRows.add(new RowBitmap());
+            }
+            // Bitmaps are derived from the category column rather than stored in the snapshot
+            for (int row = 0; row < rows; row++) {
+                if (newIsbns[row] != 0L) {
+                    categoryRows.get(newCategoryIds[row]).add(row);
+                }
+            }
+            modifications++;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    private Book materialize(int row) {
+        return new Book(repositoryId(row), decode(titles[row]), decode(authors[row]),
+                categoryNames.get(categoryIds[row]), prices[row], stock[row]);
+    }
+
+    private String repositoryId(int row) {
+        String id = repositoryIds[row];
+        return id != null ? id : IsbnCodec.format(isbns[row]);
+    }
+
+    private <T> T read(Supplier<T> reader) {
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0L) {
+            try {
+                T result = reader.get();
+                if (lock.validate(stamp)) {
+                    return result;
+                }
+            } catch (RuntimeException inconsistentRead) {
+                // A writer moved the arrays underneath us; retry under the read lock
+            }
+        }
+        stamp = lock.readLock();
+        try {
+            return reader.get();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    private int internCategory(String category) {
+        String name = category == null ? "" : category;
+        return categoryIdsByName.computeIfAbsent(name.toLowerCase(Locale.ROOT), k -> {
+            categoryNames.add(name);
+            categoryRows.add(new RowBitmap());
+            return categoryNames.size() - 1;
+        });
+    }
+
+    private static int nextRow(RowBitmap filter, int fromRow) {
+        if (filter == null) {
+            return Math.max(fromRow, 0);
+        }
+        return filter.nextRow(fromRow);
+    }
+
+    private void ensureCapacity(int required) {
+        if (required <= isbns.length) {
+            return;
+        }
+        int capacity = Math.max(required, isbns.length + (isbns.length >> 1));
+        isbns = Arrays.copyOf(isbns, capacity);
+        repositoryIds = Arrays.copyOf(repositoryIds, capacity);
+        titles = Arrays.copyOf(titles, capacity);
+        authors = Arrays.copyOf(authors, capacity);
+        categoryIds = Arrays.copyOf(categoryIds, capacity);
+        prices = Arrays.copyOf(prices, capacity);
+        stock = Arrays.copyOf(stock, capacity);
+    }
+
+    private static void writeBytes(DataOutput out, byte[] value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        out.writeInt(value.length);
+        out.write(value);
+    }
+
+    private static byte[] readBytes(ByteBuffer in) {
+        int length = in.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] value = new byte[length];
+        in.get(value);
+        return value;
+    }
+
+    private static byte[] encode(String value) {
+        return value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String decode(byte[] value) {
+        return value == null ? null : new String(value, StandardCharsets.UTF_8);
+    }
+
+    private static boolean isAscii(byte[] value) {
+        for (byte b : value) {
+            if (b < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean containsIgnoreCase(byte[] haystack, byte[] lowerNeedle, boolean asciiNeedle, String query) {
+        if (haystack == null) {
+            return false;
+        }
+        if (!asciiNeedle) {
+            String text = decode(haystack);
+            int max = text.length() - query.length();
+            for (int i = 0; i <= max; i++) {
+                if (text.regionMatches(true, i, query, 0, query.length())) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        // UTF-8 continuation bytes are all >= 0x80, so an ASCII needle can be matched
+        // byte-by-byte without decoding the haystack
+        int max = haystack.length - lowerNeedle.length;
+        outer:
+        for (int i = 0; i <= max; i++) {
+            for (int j = 0; j < lowerNeedle.length; j++) {
+                byte b = haystack[i + j];
+                if (b >= 'A' && b <= 'Z') {
+                    b += 'a' - 'A';
+                }
+                if (b != lowerNeedle[j]) {
+                    continue outer;
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * A query reduced to its tokens and phrase, matched against UTF-8 columns. ASCII
+     * tokens are compared byte by byte; anything else falls back to decoding.
+     */
+    private static final class QueryMatcher {
+        private final String phrase;
+        private final byte[] lowerPhrase;
+        private final boolean asciiPhrase;
+        private final String[] tokens;
+        private final byte[][] lowerTokens;
+        private final boolean[] asciiTokens;
+
+        private QueryMatcher(String phrase, List<String> tokens) {
+            this.phrase = phrase;
+            this.lowerPhrase = encode(phrase);
+            this.asciiPhrase = isAscii(lowerPhrase);
+            this.tokens = tokens.toArray(new String[0]);
+            this.lowerTokens = new byte[this.tokens.length][];
+            this.asciiTokens = new boolean[this.tokens.length];
+            for (int i = 0; i < this.tokens.length; i++) {
+                lowerTokens[i] = encode(this.tokens[i]);
+                asciiTokens[i] = isAscii(lowerTokens[i]);
+            }
+        }
+
+        /**
+         * Returns null for a query that does not constrain the result: null, blank,
+         * or without any letters or digits.
+         */
+        static QueryMatcher of(String query) {
+            String normalized = BookSearchIndex.normalize(query);
+            List<String> tokens = BookSearchIndex.tokenize(normalized);
+            return tokens.isEmpty() ? null : new QueryMatcher(normalized, tokens);
+        }
+
+        boolean matches(byte[] title, byte[] author) {
+            for (int i = 0; i < tokens.length; i++) {
+                if (!startsWord(title, i) && !startsWord(author, i)) {
+                    return false;
+                }
+            }
+            // Token matches are a superset for multi-word queries; confirm the phrase
+            return tokens.length == 1
+                    || containsIgnoreCase(title, lowerPhrase, asciiPhrase, phrase)
+                    || containsIgnoreCase(author, lowerPhrase, asciiPhrase, phrase);
+        }
+
+        private boolean startsWord(byte[] haystack, int tokenIndex) {
+            if (haystack == null) {
+                return false;
+            }
+            byte[] token = lowerTokens[tokenIndex];
+            if (!asciiTokens[tokenIndex]) {
+                return startsWord(decode(haystack), tokens[tokenIndex]);
+            }
+            int max = haystack.length - token.length;
+            outer:
+            for (int i = 0; i <= max; i++) {
+                for (int j = 0; j < token.length; j++) {
+                    byte b = haystack[i + j];
+                    if (b >= 'A' && b <= 'Z') {
+                        b += 'a' - 'A';
+                    }
+                    if (b != token[j]) {
+                        continue outer;
+                    }
+                }
+                if (i == 0) {
+                    return true;
+                }
+                byte previous = haystack[i - 1];
+                if (previous < 0) {
+                    // Preceded by a multi-byte character, which may be a letter
+                    return startsWord(decode(haystack), tokens[tokenIndex]);
+                }
+                if (!Character.isLetterOrDigit(previous)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private static boolean startsWord(String text, String token) {
+            int max = text.length() - token.length();
+            for (int i = 0; i <= max; i++) {
+                if (text.regionMatches(true, i, token, 0, token.length())
+                        && (i == 0 || !Character.isLetterOrDigit(text.charAt(i - 1)))) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,505 @@
+package com.globalbooks.catalog.columnar;
+
+import com.globalbooks.catalog.Book;
+import com.globalbooks.catalog.BookAvailability;
+import com.globalbooks.catalog.BookPrice;
+import com.globalbooks.catalog.BookQuantity;
+import com.globalbooks.catalog.BookSuggestion;
+import com.globalbooks.catalog.BookSuggestionIndex;
+import com.globalbooks.catalog.CatalogService;
+import com.globalbooks.catalog.CatalogWriter;
+import com.globalbooks.catalog.CategoryFacet;
+import com.globalbooks.catalog.PagedCatalogSearch;
+import com.globalbooks.catalog.SearchCursor;
+import com.globalbooks.catalog.SnapshotPricing;
+import com.globalbooks.catalog.feed.CatalogChangePublisher;
+import com.globalbooks.catalog.pricing.PriceSnapshot;
+import com.globalbooks.catalog.pricing.PriceVersions;
+import com.globalbooks.catalog.repository.BookRepository;
+import com.globalbooks.catalog.reservation.StockReservation;
+import com.globalbooks.catalog.reservation.StockReservationEngine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import javax.annotation.PostConstruct;
+import javax.jws.WebService;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * {@link CatalogService} backed by a {@link ColumnarBookStore} for catalogs too
+ * large to hold as one {@link Book} object per title. The whole catalog is loaded
+ * from the repository in pages at startup; writes go to the repository first.
+ * Only titles that see reservations get a counter in the reservation engine.
+ *
+ * When a snapshot path is configured the store is written to a
+ * {@link ColumnarSnapshot} periodically and on shutdown. On the next start the
+ * snapshot is mapped and served from immediately, while a background pass
+ * reconciles it with the repository. The suggestion index is not part of the
+ * snapshot; it is rebuilt by that pass, so suggestions fill in as it runs.
+ */
+@WebService(endpointInterface = "com.globalbooks.catalog.CatalogService",
+        serviceName = "CatalogService",
+        targetNamespace = "http://catalog.globalbooks.com/")
+public class ColumnarCatalogService implements CatalogService, CatalogWriter, PagedCatalogSearch, SnapshotPricing {
+
+    private static final Logger log = LoggerFactory.getLogger(ColumnarCatalogService.class);
+    private static final int LOAD_PAGE_SIZE = 10_000;
+    // Ranked candidates fetched per requested result when a category filter drops some
+    private static final int RANKED_CATEGORY_OVERFETCH = 4;
+
+    private final BookRepository bookRepository;
+    private final StockReservationEngine reservations;
+    private final CatalogChangePublisher changes;
+    private final PriceVersions priceVersions;
+    private final ColumnarBookStore store;
+    private final BookSuggestionIndex suggestionIndex = new BookSuggestionIndex();
+    private final Path snapshotPath;
+    private final long snapshotIntervalMillis;
+    private final ScheduledExecutorService snapshotExecutor;
+
+    // ISBNs written by this service while a reconcile pass runs; the pass leaves them alone
+    private final Set<String> touchedWhileReconciling = new HashSet<>();
+    private boolean reconciling;
+    private long snapshotModifications = -1;
+
+    public ColumnarCatalogService(BookRepository bookRepository, StockReservationEngine reservations,
+                                  CatalogChangePublisher changes, PriceVersions priceVersions, int expectedSize) {
+        this(bookRepository, reservations, changes, priceVersions, expectedSize, null, 0L);
+    }
+
+    public ColumnarCatalogService(BookRepository bookRepository, StockReservationEngine reservations,
+                                  CatalogChangePublisher changes, PriceVersions priceVersions, int expectedSize,
+                                  Path snapshotPath, long snapshotIntervalMillis) {
+        this.bookRepository = bookRepository;
+        this.reservations = reservations;
+        this.changes = changes;
+        this.priceVersions = priceVersions;
+        this.store = new ColumnarBookStore(expectedSize);
+        this.snapshotPath = snapshotPath;
+        this.snapshotIntervalMillis = snapshotIntervalMillis;
+        this.snapshotExecutor = snapshotPath == null ? null : Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "catalog-snapshot");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PostConstruct
+    public void load() {
+        if (snapshotPath == null) {
+            forEachPersisted(this::putLoaded);
+            return;
+        }
+        if (!restoreSnapshot()) {
+            forEachPersisted(this::putLoaded);
+        }
+        if (snapshotIntervalMillis > 0) {
+            snapshotExecutor.scheduleWithFixedDelay(this::writeSnapshotQuietly,
+                    snapshotIntervalMillis, snapshotIntervalMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Writes the store to the snapshot file if it changed since the last write.
+     * Returns {@code false} if nothing was written.
+     */
+    public synchronized boolean writeSnapshot() throws IOException {
+        long modifications = store.modifications();
+        if (snapshotPath == null || modifications == snapshotModifications) {
+            return false;
+        }
+        long started = System.nanoTime();
+        ColumnarSnapshot.write(store, snapshotPath);
+        snapshotModifications = modifications;
+        log.info("Wrote catalog snapshot of {} books to {} in {} ms", store.size(), snapshotPath,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+        return true;
+    }
+
+    public void shutdown() {
+        if (snapshotExecutor == null) {
+            return;
+        }
+        snapshotExecutor.shutdownNow();
+        writeSnapshotQuietly();
+    }
+
+    @Override
+    public void saveBook(Book book) {
+        markTouched(book.getIsbn());
+        long priceVersion = priceVersions.record(book.getIsbn(), store.price(book.getIsbn()), book.getPrice());
+        try {
+            bookRepository.save(book);
+        } catch (RuntimeException e) {
+            priceVersions.abort(book.getIsbn(), priceVersion);
+            throw e;
+        }
+        store.put(book);
+        priceVersions.markApplied(book.getIsbn(), priceVersion);
+        suggestionIndex.index(book);
+        String key = canonicalIsbn(book.getIsbn());
+        if (key != null && reservations.isTracked(key)) {
+            reservations.setStock(key, book.getStock());
+        }
+        changes.bookChanged(book.getIsbn(), book.getPrice(), book.getStock());
+    }
+
+    @Override
+    public void saveBooks(List<Book> books) {
+        long[] priceVersion = new long[books.size()];
+        for (int i = 0; i < books.size(); i++) {
+            Book book = books.get(i);
+            markTouched(book.getIsbn());
+            priceVersion[i] = priceVersions.record(book.getIsbn(), store.price(book.getIsbn()), book.getPrice());
+        }
+        try {
+            bookRepository.saveAll(books);
+        } catch (RuntimeException e) {
+            for (int i = 0; i < books.size(); i++) {
+                priceVersions.abort(books.get(i).getIsbn(), priceVersion[i]);
+            }
+            throw e;
+        }
+        for (int i = 0; i < books.size(); i++) {
+            Book book = books.get(i);
+            store.put(book);
+            priceVersions.markApplied(book.getIsbn(), priceVersion[i]);
+            suggestionIndex.index(book);
+            String key = canonicalIsbn(book.getIsbn());
+            if (key != null && reservations.isTracked(key)) {
+                reservations.setStock(key, book.getStock());
+            }
+            changes.bookChanged(book.getIsbn(), book.getPrice(), book.getStock());
+        }
+    }
+
+    @Override
+    public void removeBook(String isbn) {
+        // Delete and announce the row the title is actually stored under
+        String storedId = store.repositoryId(isbn);
+        String id = storedId != null ? storedId : isbn;
+        markTouched(id);
+        long priceVersion = priceVersions.record(id, store.price(id), Double.NaN);
+        try {
+            bookRepository.deleteById(id);
+        } catch (RuntimeException e) {
+            priceVersions.abort(id, priceVersion);
+            throw e;
+        }
+        store.remove(id);
+        priceVersions.markApplied(id, priceVersion);
+        suggestionIndex.remove(id);
+        String key = canonicalIsbn(id);
+        if (key != null) {
+            suggestionIndex.remove(key);
+            reservations.removeStock(key);
+        }
+        changes.bookRemoved(id);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return bookRepository.count() == 0;
+    }
+
+    public int size() {
+        return store.size();
+    }
+
+    @Override
+    public List<Book> searchBooks(String query, String category) {
+        List<Book> books = store.search(query, category);
+        books.forEach(this::applyTrackedStock);
+        return books;
+    }
+
+    @Override
+    public String searchBooks(String query, String category, String cursor, int maxResults, Consumer<Book> sink) {
+        String position = SearchCursor.decode(cursor);
+        int fromRow;
+        try {
+            fromRow = position == null ? 0 : Integer.parseInt(position);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid search cursor: " + cursor);
+        }
+        List<Book> page = new ArrayList<>(Math.min(maxResults, 1024));
+        int nextRow = store.searchPage(query, category, fromRow, maxResults, page);
+        for (Book book : page) {
+            applyTrackedStock(book);
+            sink.accept(book);
+        }
+        return nextRow < 0 ? null : SearchCursor.encode(Integer.toString(nextRow));
+    }
+
+    @Override
+    public void searchBooksRanked(String query, String category, int maxResults, Consumer<Book> sink) {
+        String normalizedCategory = category == null ? null : category.trim().toLowerCase(Locale.ROOT);
+        int candidates = normalizedCategory == null ? maxResults : maxResults * RANKED_CATEGORY_OVERFETCH;
+        int emitted = 0;
+        for (BookSuggestionIndex.Suggestion match : suggestionIndex.search(query, candidates)) {
+            Book book = store.get(match.getIsbn());
+            if (book == null || (normalizedCategory != null && (book.getCategory() == null
+                    || !normalizedCategory.equals(book.getCategory().trim().toLowerCase(Locale.ROOT))))) {
+                continue;
+            }
+            applyTrackedStock(book);
+            sink.accept(book);
+            if (++emitted == maxResults) {
+                return;
+            }
+        }
+    }
+
+    @Override
+    public Book getBookById(String bookId) {
+        Book book = store.get(bookId);
+        if (book != null) {
+            applyTrackedStock(book);
+        }
+        return book;
+    }
+
+    @Override
+    public double getBookPrice(String bookId) {
+        double price = store.price(bookId);
+        return Double.isNaN(price) ? 0.0 : price;
+    }
+
+    @Override
+    public boolean checkAvailability(String bookId, int quantity) {
+        return availableStock(bookId) >= quantity;
+    }
+
+    @Override
+    public List<BookPrice> getBookPrices(List<BookQuantity> items) {
+        List<BookPrice> prices = new ArrayList<>(items.size());
+        for (BookQuantity item : items) {
+            double price = store.price(item.getBookId());
+            boolean found = !Double.isNaN(price);
+            prices.add(new BookPrice(item.getBookId(), item.getQuantity(), found ? price : 0.0, found));
+        }
+        return prices;
+    }
+
+    @Override
+    public PriceSnapshot openPriceSnapshot() {
+        return priceVersions.openSnapshot();
+    }
+
+    @Override
+    public List<BookPrice> getBookPrices(List<BookQuantity> items, long snapshotId) {
+        priceVersions.checkSnapshot(snapshotId);
+        return priceVersions.pricesAt(snapshotId, getBookPrices(items));
+    }
+
+    @Override
+    public List<BookAvailability> checkAvailabilityBatch(List<BookQuantity> items) {
+        Map<String, Integer> requested = new HashMap<>();
+        for (BookQuantity item : items) {
+            requested.merge(item.getBookId(), item.getQuantity(), Integer::sum);
+        }
+
+        List<BookAvailability> results = new ArrayList<>(items.size());
+        for (BookQuantity item : items) {
+            boolean available = availableStock(item.getBookId()) >= requested.get(item.getBookId());
+            results.add(new BookAvailability(item.getBookId(), item.getQuantity(), available));
+        }
+        return results;
+    }
+
+    @Override
+    public List<CategoryFacet> getCategoryFacets(String query) {
+        return store.categoryFacets(query);
+    }
+
+    @Override
+    public List<BookSuggestion> suggestBooks(String query, int maxResults) {
+        List<BookSuggestionIndex.Suggestion> matches = suggestionIndex.suggest(query,
+                Math.min(Math.max(maxResults, 1), BookSuggestionIndex.TOP_K));
+        List<BookSuggestion> suggestions = new ArrayList<>(matches.size());
+        for (BookSuggestionIndex.Suggestion match : matches) {
+            Book book = store.get(match.getIsbn());
+            if (book != null) {
+                suggestions.add(new BookSuggestion(book.getIsbn(), book.getTitle(), book.getAuthor(),
+                        match.getScore()));
+            }
+        }
+        return suggestions;
+    }
+
+    @Override
+    public String reserveStock(String bookId, int quantity) {
+        String key = canonicalIsbn(bookId);
+        int stock = store.stock(bookId);
+        if (key == null || stock < 0) {
+            return null;
+        }
+        reservations.trackIfAbsent(key, stock);
+        StockReservation reservation = reservations.reserve(key, quantity);
+        return reservation != null ? reservation.getReservationId() : null;
+    }
+
+    @Override
+    public boolean confirmReservation(String reservationId) {
+        StockReservation reservation = reservations.getReservation(reservationId);
+        if (reservation == null) {
+            return false;
+        }
+        int onHand = reservations.confirm(reservationId);
+        if (onHand < 0) {
+            return false;
+        }
+        // Reservations are keyed by canonical ISBN; the repository row may use another spelling
+        String storedId = store.repositoryId(reservation.getIsbn());
+        String id = storedId != null ? storedId : reservation.getIsbn();
+        markTouched(id);
+        bookRepository.decrementStock(id, reservation.getQuantity());
+        store.setStock(id, onHand);
+        changes.stockChanged(id, onHand);
+        return true;
+    }
+
+    @Override
+    public boolean releaseReservation(String reservationId) {
+        return reservations.release(reservationId);
+    }
+
+    private boolean restoreSnapshot() {
+        if (!Files.isRegularFile(snapshotPath)) {
+            return false;
+        }
+        long started = System.nanoTime();
+        long writtenAt;
+        try {
+            writtenAt = ColumnarSnapshot.read(snapshotPath, store);
+        } catch (IOException e) {
+            log.warn("Ignoring catalog snapshot {}: {}", snapshotPath, e.getMessage());
+            return false;
+        }
+        snapshotModifications = store.modifications();
+        log.info("Restored {} books from catalog snapshot {} (written at {}) in {} ms", store.size(),
+                snapshotPath, writtenAt, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+
+        synchronized (touchedWhileReconciling) {
+            reconciling = true;
+        }
+        snapshotExecutor.execute(this::reconcile);
+        return true;
+    }
+
+    /**
+     * Brings a restored snapshot in line with the repository: re-applies every
+     * persisted book and drops titles deleted since the snapshot was written.
+     */
+    private void reconcile() {
+        long started = System.nanoTime();
+        LongIntOpenHashMap persisted = new LongIntOpenHashMap(store.size());
+        try {
+            forEachPersisted(book -> {
+                long key = IsbnCodec.encode(book.getIsbn());
+                if (key == IsbnCodec.INVALID) {
+                    return;
+                }
+                persisted.put(key, 1);
+                // Check and apply atomically so a concurrent saveBook cannot be overwritten
+                synchronized (touchedWhileReconciling) {
+                    if (!touchedWhileReconciling.contains(IsbnCodec.format(key))) {
+                        // The snapshot may predate a price change; version it like any other
+                        long priceVersion = priceVersions.record(book.getIsbn(), store.price(book.getIsbn()),
+                                book.getPrice());
+                        store.put(book);
+                        priceVersions.markApplied(book.getIsbn(), priceVersion);
+                        suggestionIndex.index(book);
+                    }
+                }
+            });
+            synchronized (touchedWhileReconciling) {
+                int removed = store.retainIf(key -> persisted.get(key) >= 0
+                        || touchedWhileReconciling.contains(IsbnCodec.format(key)));
+                log.info("Reconciled catalog snapshot with the repository in {} ms; {} stale books removed",
+                        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started), removed);
+            }
+        } catch (RuntimeException e) {
+            log.error("Catalog snapshot reconcile failed; serving the snapshot as restored", e);
+        } finally {
+            synchronized (touchedWhileReconciling) {
+                reconciling = false;
+                touchedWhileReconciling.clear();
+            }
+            // Titles re-read from the repository were not announced one by one
+            changes.catalogReloaded();
+        }
+    }
+
+    private void putLoaded(Book book) {
+        store.put(book);
+        suggestionIndex.index(book);
+    }
+
+    private void markTouched(String isbn) {
+        String key = canonicalIsbn(isbn);
+        if (key == null) {
+            return;
+        }
+        synchronized (touchedWhileReconciling) {
+            if (reconciling) {
+                touchedWhileReconciling.add(key);
+            }
+        }
+    }
+
+    private void forEachPersisted(Consumer<Book> action) {
+        PageRequest pageRequest = PageRequest.of(0, LOAD_PAGE_SIZE, Sort.by("isbn"));
+        Page<Book> page;
+        do {
+            page = bookRepository.findAll(pageRequest);
+            page.forEach(action);
+            pageRequest = pageRequest.next();
+        } while (page.hasNext());
+    }
+
+    private void writeSnapshotQuietly() {
+        try {
+            writeSnapshot();
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not write catalog snapshot {}: {}", snapshotPath, e.getMessage());
+        }
+    }
+
+    private int availableStock(String isbn) {
+        String key = canonicalIsbn(isbn);
+        if (key != null && reservations.isTracked(key)) {
+            return reservations.available(key);
+        }
+        return store.stock(isbn);
+    }
+
+    private static String canonicalIsbn(String isbn) {
+        long key = IsbnCodec.encode(isbn);
+        return key == IsbnCodec.INVALID ? null : IsbnCodec.format(key);
+    }
+
+    private void applyTrackedStock(Book book) {
+        // Once a title has seen reservations, the engine's on-hand count is authoritative
+        String key = canonicalIsbn(book.getIsbn());
+        if (key != null && reservations.isTracked(key)) {
+            book.setStock(reservations.onHand(key));
+        }
+    }
+}
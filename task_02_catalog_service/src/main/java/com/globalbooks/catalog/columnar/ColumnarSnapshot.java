@@ -0,0 +1,95 @@
+package com.globalbooks.catalog.columnar;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Binary snapshot of a {@link ColumnarBookStore}: a header, the store's columns
+ * and ISBN hash table as written by {@link ColumnarBookStore#writeTo}, and a CRC32
+ * trailer. Snapshots are written to a temporary file and moved into place, and
+ * are read back through a read-only memory mapping so fixed-width columns are
+ * bulk-copied straight from the page cache.
+ */
+public final class ColumnarSnapshot {
+
+    private static final int MAGIC = 0x47424353; // "GBCS"
+    private static final int FORMAT_VERSION = 2;
+    private static final int HEADER_BYTES = Integer.BYTES * 2 + Long.BYTES;
+
+    private ColumnarSnapshot() {}
+
+    /**
+     * Writes the store to {@code target}, replacing any previous snapshot atomically.
+     */
+    public static void write(ColumnarBookStore store, Path target) throws IOException {
+        Path directory = target.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temp = Files.createTempFile(directory, target.getFileName().toString(), ".tmp");
+        try {
+            CRC32 crc = new CRC32();
+            try (OutputStream file = Files.newOutputStream(temp)) {
+                DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                        new CheckedOutputStream(file, crc), 1 << 16));
+                out.writeInt(MAGIC);
+                out.writeInt(FORMAT_VERSION);
+                out.writeLong(System.currentTimeMillis());
+                store.writeTo(out);
+                out.flush();
+                // The trailer itself is not part of the checksum
+                new DataOutputStream(file).writeLong(crc.getValue());
+            }
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Loads the snapshot at {@code source} into {@code store}, replacing its contents.
+     * Returns the time the snapshot was written, in epoch milliseconds.
+     *
+     * @throws IOException if the file cannot be read or fails validation
+     */
+    public static long read(Path source, ColumnarBookStore store) throws IOException {
+        try (FileChannel channel = FileChannel.open(source, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_BYTES + Long.BYTES || size > Integer.MAX_VALUE) {
+                throw new IOException("Not a catalog snapshot: " + source);
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+
+            long expectedCrc = buffer.getLong((int) size - Long.BYTES);
+            buffer.limit((int) size - Long.BYTES);
+            CRC32 crc = new CRC32();
+            crc.update(buffer.duplicate());
+            if (expectedCrc != crc.getValue()) {
+                throw new IOException("Checksum mismatch in catalog snapshot " + source);
+            }
+
+            if (buffer.getInt() != MAGIC) {
+                throw new IOException("Not a catalog snapshot: " + source);
+            }
+            int version = buffer.getInt();
+            if (version != FORMAT_VERSION) {
+                throw new IOException("Unsupported catalog snapshot version " + version + ": " + source);
+            }
+            long writtenAt = buffer.getLong();
+            try {
+                store.restore(buffer);
+            } catch (RuntimeException e) {
+                throw new IOException("Corrupt catalog snapshot " + source, e);
+            }
+            return writtenAt;
+        }
+    }
+}
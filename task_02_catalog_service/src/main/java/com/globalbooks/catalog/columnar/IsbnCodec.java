@@ -0,0 +1,73 @@
+package com.globalbooks.catalog.columnar;
+
+/**
+ * Encodes ISBNs as primitive {@code long} keys. ISBN-10 values are converted to
+ * their ISBN-13 form so both spellings of a title map to the same key.
+ */
+public final class IsbnCodec {
+
+    public static final long INVALID = -1L;
+
+    private IsbnCodec() {}
+
+    public static long encode(String isbn) {
+        if (isbn == null) {
+            return INVALID;
+        }
+        char[] digits = new char[13];
+        int length = 0;
+        boolean checkX = false;
+        for (int i = 0; i < isbn.length(); i++) {
+            char c = isbn.charAt(i);
+            if (c == '-' || c == ' ') {
+                continue;
+            }
+            if (c == 'X' || c == 'x') {
+                // Only valid as an ISBN-10 check digit, i.e. the tenth and last character
+                if (length != 9) {
+                    return INVALID;
+                }
+                checkX = true;
+            } else if (c < '0' || c > '9') {
+                return INVALID;
+            }
+            if (length == 13) {
+                return INVALID;
+            }
+            digits[length++] = c;
+        }
+
+        if (length == 10) {
+            return isbn10To13(digits);
+        }
+        if (length != 13 || checkX) {
+            return INVALID;
+        }
+        long key = 0;
+        for (int i = 0; i < 13; i++) {
+            key = key * 10 + (digits[i] - '0');
+        }
+        // 0 is the empty-slot marker of LongIntOpenHashMap
+        return key == 0 ? INVALID : key;
+    }
+
+    /**
+     * Formats a key the way the catalog stores ISBNs, e.g. {@code 978-1491904244}.
+     */
+    public static String format(long key) {
+        String digits = Long.toString(key);
+        return digits.substring(0, 3) + "-" + digits.substring(3);
+    }
+
+    private static long isbn10To13(char[] digits) {
+        long key = 978;
+        int sum = 9 + 7 * 3 + 8;
+        for (int i = 0; i < 9; i++) {
+            int digit = digits[i] - '0';
+            key = key * 10 + digit;
+            sum += (i % 2 == 0 ? 3 : 1) * digit;
+        }
+        int check = (10 - (sum % 10)) % 10;
+        return key * 10 + check;
+    }
+}
@@ -0,0 +1,176 @@
+package com.globalbooks.catalog.columnar;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Open-addressing {@code long -> int} map with linear probing. Keys and values live
+ * in two flat primitive arrays, so an entry costs 12 bytes of table space instead
+ * of a boxed key, a boxed value and a node object. Key {@code 0} marks an empty
+ * slot and cannot be stored: {@link #put} rejects it and lookups report it absent.
+ * Not thread-safe; callers guard writes.
+ */
+public class LongIntOpenHashMap {
+
+    private static final long EMPTY = 0L;
+    private static final float LOAD_FACTOR = 0.6f;
+
+    private long[] keys;
+    private int[] values;
+    private int mask;
+    private int size;
+    private int resizeThreshold;
+
+    public LongIntOpenHashMap(int expectedSize) {
+        int capacity = tableSizeFor((int) Math.ceil(Math.max(expectedSize, 16) / LOAD_FACTOR));
+        allocate(capacity);
+    }
+
+    public int get(long key) {
+        if (key == EMPTY) {
+            return -1;
+        }
+        long[] table = keys;
+        int slotMask = mask;
+        int slot = mix(key) & slotMask;
+        while (true) {
+            long existing = table[slot];
+            if (existing == key) {
+                return values[slot];
+            }
+            if (existing == EMPTY) {
+                return -1;
+            }
+            slot = (slot + 1) & slotMask;
+        }
+    }
+
+    public void put(long key, int value) {
+        if (key == EMPTY) {
+            throw new IllegalArgumentException("Key 0 is reserved");
+        }
+        int slot = mix(key) & mask;
+        while (keys[slot] != EMPTY) {
+            if (keys[slot] == key) {
+                values[slot] = value;
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+        values[slot] = value;
+        keys[slot] = key;
+        if (++size > resizeThreshold) {
+            rehash(keys.length << 1);
+        }
+    }
+
+    public int remove(long key) {
+        if (key == EMPTY) {
+            return -1;
+        }
+        int slot = mix(key) & mask;
+        while (keys[slot] != key) {
+            if (keys[slot] == EMPTY) {
+                return -1;
+            }
+            slot = (slot + 1) & mask;
+        }
+        int removed = values[slot];
+        shiftBack(slot);
+        size--;
+        return removed;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long tableBytes() {
+        return (long) keys.length * (Long.BYTES + Integer.BYTES);
+    }
+
+    /**
+     * Writes the raw table (capacity, size, keys, values) so it can be restored
+     * without rehashing.
+     */
+    void writeTo(DataOutput out) throws IOException {
+        out.writeInt(keys.length);
+        out.writeInt(size);
+        for (long key : keys) {
+            out.writeLong(key);
+        }
+        for (int value : values) {
+            out.writeInt(value);
+        }
+    }
+
+    static LongIntOpenHashMap readFrom(ByteBuffer in) {
+        int capacity = in.getInt();
+        if (Integer.bitCount(capacity) != 1) {
+            throw new IllegalStateException("Corrupt table capacity " + capacity);
+        }
+        LongIntOpenHashMap map = new LongIntOpenHashMap(16);
+        map.allocate(capacity);
+        map.size = in.getInt();
+        in.asLongBuffer().get(map.keys);
+        in.position(in.position() + capacity * Long.BYTES);
+        in.asIntBuffer().get(map.values);
+        in.position(in.position() + capacity * Integer.BYTES);
+        return map;
+    }
+
+    private void shiftBack(int gap) {
+        // Backward-shift deletion keeps probe chains intact without tombstones
+        int slot = gap;
+        while (true) {
+            slot = (slot + 1) & mask;
+            long key = keys[slot];
+            if (key == EMPTY) {
+                keys[gap] = EMPTY;
+                return;
+            }
+            int home = mix(key) & mask;
+            boolean movable = gap <= slot ? (home <= gap || home > slot) : (home <= gap && home > slot);
+            if (movable) {
+                keys[gap] = key;
+                values[gap] = values[slot];
+                gap = slot;
+            }
+        }
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(capacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            long key = oldKeys[i];
+            if (key != EMPTY) {
+                int slot = mix(key) & mask;
+                while (keys[slot] != EMPTY) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = key;
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new int[capacity];
+        mask = capacity - 1;
+        resizeThreshold = (int) (capacity * LOAD_FACTOR);
+    }
+
+    private static int mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    private static int tableSizeFor(int n) {
+        int capacity = Integer.highestOneBit(Math.max(n - 1, 1)) << 1;
+        return Math.max(capacity, 16);
+    }
+}
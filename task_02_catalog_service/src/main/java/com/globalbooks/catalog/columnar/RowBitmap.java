@@ -0,0 +1,237 @@
+package com.globalbooks.catalog.columnar;
+
+import java.util.Arrays;
+
+/**
+ * Compressed set of row ids in the style of a Roaring bitmap. Rows are split into
+ * chunks of 65,536; a chunk holding at most 4,096 rows is a sorted {@code char}
+ * array (two bytes per row), a denser chunk is a 1,024-word bitset (8 KB), and an
+ * empty chunk costs nothing. Cardinality is maintained on every update, so counts
+ * are O(1). Not thread-safe; callers guard writes.
+ */
+public class RowBitmap {
+
+    private static final int CHUNK_SHIFT = 16;
+    private static final int ARRAY_MAX = 4096;
+    private static final int BITMAP_WORDS = 1 << (CHUNK_SHIFT - 6);
+
+    // Per chunk exactly one of arrays[i] / bitmaps[i] is set, or neither when empty
+    private char[][] arrays = new char[0][];
+    private long[][] bitmaps = new long[0][];
+    private int[] counts = new int[0];
+    private int cardinality;
+
+    /**
+     * Adds a row. Returns {@code false} if it was already present.
+     */
+    public boolean add(int row) {
+        int chunk = row >>> CHUNK_SHIFT;
+        char low = (char) row;
+        ensureChunk(chunk);
+        long[] bitmap = bitmaps[chunk];
+        if (bitmap != null) {
+            long mask = 1L << low;
+            if ((bitmap[low >>> 6] & mask) != 0) {
+                return false;
+            }
+            bitmap[low >>> 6] |= mask;
+        } else {
+            char[] array = arrays[chunk];
+            int count = counts[chunk];
+            int index = array == null ? -1 : Arrays.binarySearch(array, 0, count, low);
+            if (index >= 0) {
+                return false;
+            }
+            if (count == ARRAY_MAX) {
+                bitmap = toBitmap(array, count);
+                bitmap[low >>> 6] |= 1L << low;
+                bitmaps[chunk] = bitmap;
+                arrays[chunk] = null;
+            } else {
+                int insertAt = -index - 1;
+                if (array == null || count == array.length) {
+                    array = Arrays.copyOf(array == null ? new char[0] : array,
+                            Math.min(Math.max(4, count << 1), ARRAY_MAX));
+                    arrays[chunk] = array;
+                }
+                System.arraycopy(array, insertAt, array, insertAt + 1, count - insertAt);
+                array[insertAt] = low;
+            }
+        }
+        counts[chunk]++;
+        cardinality++;
+        return true;
+    }
+
+    /**
+     * Removes a row. Returns {@code false} if it was not present.
+     */
+    public boolean remove(int row) {
+        int chunk = row >>> CHUNK_SHIFT;
+        if (chunk >= counts.length || counts[chunk] == 0) {
+            return false;
+        }
+        char low = (char) row;
+        long[] bitmap = bitmaps[chunk];
+        if (bitmap != null) {
+            long mask = 1L << low;
+            if ((bitmap[low >>> 6] & mask) == 0) {
+                return false;
+            }
+            bitmap[low >>> 6] &= ~mask;
+        } else {
+            char[] array = arrays[chunk];
+            int count = counts[chunk];
+            int index = Arrays.binarySearch(array, 0, count, low);
+            if (index < 0) {
+                return false;
+            }
+            System.arraycopy(array, index + 1, array, index, count - index - 1);
+        }
+        cardinality--;
+        if (--counts[chunk] == 0) {
+            arrays[chunk] = null;
+            bitmaps[chunk] = null;
+        } else if (bitmap != null && counts[chunk] <= ARRAY_MAX / 2) {
+            // Convert back well below the threshold so add/remove at the boundary does not thrash
+            arrays[chunk] = toArray(bitmap, counts[chunk]);
+            bitmaps[chunk] = null;
+        }
+        return true;
+    }
+
+    public boolean contains(int row) {
+        int chunk = row >>> CHUNK_SHIFT;
+        if (chunk >= counts.length || counts[chunk] == 0) {
+            return false;
+        }
+        char low = (char) row;
+        long[] bitmap = bitmaps[chunk];
+        if (bitmap != null) {
+            return (bitmap[low >>> 6] & (1L << low)) != 0;
+        }
+        return Arrays.binarySearch(arrays[chunk], 0, counts[chunk], low) >= 0;
+    }
+
+    public int cardinality() {
+        return cardinality;
+    }
+
+    /**
+     * Number of rows present in both this set and {@code other}, computed chunk by
+     * chunk without materializing the intersection.
+     */
+    public int intersectionCardinality(RowBitmap other) {
+        int count = 0;
+        int chunks = Math.min(counts.length, other.counts.length);
+        for (int chunk = 0; chunk < chunks; chunk++) {
+            if (counts[chunk] == 0 || other.counts[chunk] == 0) {
+                continue;
+            }
+            long[] bitmap = bitmaps[chunk];
+            long[] otherBitmap = other.bitmaps[chunk];
+            if (bitmap != null && otherBitmap != null) {
+                for (int word = 0; word < BITMAP_WORDS; word++) {
+                    count += Long.bitCount(bitmap[word] & otherBitmap[word]);
+                }
+            } else if (bitmap != null || otherBitmap != null) {
+                long[] dense = bitmap != null ? bitmap : otherBitmap;
+                char[] sparse = bitmap != null ? other.arrays[chunk] : arrays[chunk];
+                int sparseCount = bitmap != null ? other.counts[chunk] : counts[chunk];
+                for (int i = 0; i < sparseCount; i++) {
+                    if ((dense[sparse[i] >>> 6] & (1L << sparse[i])) != 0) {
+                        count++;
+                    }
+                }
+            } else {
+                // Merge two sorted arrays
+                char[] left = arrays[chunk];
+                char[] right = other.arrays[chunk];
+                int i = 0;
+                int j = 0;
+                while (i < counts[chunk] && j < other.counts[chunk]) {
+                    if (left[i] < right[j]) {
+                        i++;
+                    } else if (left[i] > right[j]) {
+                        j++;
+                    } else {
+                        count++;
+                        i++;
+                        j++;
+                    }
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Returns the smallest row {@code >= fromRow} in the set, or -1 if there is none.
+     */
+    public int nextRow(int fromRow) {
+        if (fromRow < 0) {
+            fromRow = 0;
+        }
+        for (int chunk = fromRow >>> CHUNK_SHIFT; chunk < counts.length; chunk++) {
+            if (counts[chunk] == 0) {
+                continue;
+            }
+            int base = chunk << CHUNK_SHIFT;
+            int fromLow = (fromRow >>> CHUNK_SHIFT) == chunk ? fromRow & 0xFFFF : 0;
+            long[] bitmap = bitmaps[chunk];
+            if (bitmap != null) {
+                int word = fromLow >>> 6;
+                long bits = bitmap[word] & (-1L << fromLow);
+                while (true) {
+                    if (bits != 0) {
+                        return base + (word << 6) + Long.numberOfTrailingZeros(bits);
+                    }
+                    if (++word == BITMAP_WORDS) {
+                        break;
+                    }
+                    bits = bitmap[word];
+                }
+            } else {
+                int index = Arrays.binarySearch(arrays[chunk], 0, counts[chunk], (char) fromLow);
+                if (index < 0) {
+                    index = -index - 1;
+                }
+                if (index < counts[chunk]) {
+                    return base + arrays[chunk][index];
+                }
+            }
+        }
+        return -1;
+    }
+
+    private void ensureChunk(int chunk) {
+        if (chunk < counts.length) {
+            return;
+        }
+        int size = Math.max(chunk + 1, counts.length + (counts.length >> 1));
+        arrays = Arrays.copyOf(arrays, size);
+        bitmaps = Arrays.copyOf(bitmaps, size);
+        counts = Arrays.copyOf(counts, size);
+    }
+
+    private static long[] toBitmap(char[] array, int count) {
+        long[] bitmap = new long[BITMAP_WORDS];
+        for (int i = 0; i < count; i++) {
+            bitmap[array[i] >>> 6] |= 1L << array[i];
+        }
+        return bitmap;
+    }
+
+    private static char[] toArray(long[] bitmap, int count) {
+        char[] array = new char[count];
+        int index = 0;
+        for (int word = 0; word < BITMAP_WORDS; word++) {
+            long bits = bitmap[word];
+            while (bits != 0) {
+                array[index++] = (char) ((word << 6) + Long.numberOfTrailingZeros(bits));
+                bits &= bits - 1;
+            }
+        }
+        return array;
+    }
+}
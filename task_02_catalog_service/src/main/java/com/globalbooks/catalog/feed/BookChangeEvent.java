@@ -0,0 +1,93 @@
+package com.globalbooks.catalog.feed;
+
+/**
+ * Compact delta for one title on the catalog change feed. {@code price} and
+ * {@code stock} are null when that field did not change; {@code version} increases
+ * monotonically per publisher so consumers can discard out-of-order deltas.
+ */
+public class BookChangeEvent {
+
+    private String isbn;
+    private Double price;
+    private Integer stock;
+    private boolean removed;
+    private long version;
+
+    public BookChangeEvent() {}
+
+    public BookChangeEvent(String isbn, Double price, Integer stock, boolean removed, long version) {
+        this.isbn = isbn;
+        this.price = price;
+        this.stock = stock;
+        this.removed = removed;
+        this.version = version;
+    }
+
+    /**
+     * Combines this pending delta with a newer one for the same title, keeping the
+     * newest value of each field.
+     */
+    BookChangeEvent merge(BookChangeEvent newer) {
+        if (newer.removed) {
+            return newer;
+        }
+        return new BookChangeEvent(isbn,
+                newer.price != null ? newer.price : (removed ? null : price),
+                newer.stock != null ? newer.stock : (removed ? null : stock),
+                false, newer.version);
+    }
+
+    /**
+     * Topic routing key: {@code book.removed}, {@code book.price}, {@code book.stock}
+     * or {@code book.updated} when both changed.
+     */
+    public String routingKey() {
+        if (removed) {
+            return "book.removed";
+        }
+        if (price != null && stock != null) {
+            return "book.updated";
+        }
+        return price != null ? "book.price" : "book.stock";
+    }
+
+    public String getIsbn() {
+        return isbn;
+    }
+
+    public void setIsbn(String isbn) {
+        this.isbn = isbn;
+    }
+
+    public Double getPrice() {
+        return price;
+    }
+
+    public void setPrice(Double price) {
+        this.price = price;
+    }
+
+    public Integer getStock() {
+        return stock;
+    }
+
+    public void setStock(Integer stock) {
+        this.stock = stock;
+    }
+
+    public boolean isRemoved() {
+        return removed;
+    }
+
+    public void setRemoved(boolean removed) {
+        this.removed = removed;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+}
@@ -0,0 +1,17 @@
+package com.globalbooks.catalog.feed;
+
+/**
+ * In-process hook for caches derived from catalog data. Called synchronously on
+ * the writing thread once the store has applied the change, before the change is
+ * queued for the exchange.
+ */
+public interface BookChangeListener {
+
+    void bookChanged(String isbn);
+
+    /**
+     * Any number of titles may have changed without individual notifications, e.g.
+     * after a restored snapshot was reconciled with the repository.
+     */
+    void catalogReloaded();
+}
@@ -0,0 +1,123 @@
+package com.globalbooks.catalog.feed;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.core.AmqpTemplate;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Publishes price and stock deltas to the catalog change exchange. Changes are
+ * recorded in a pending map keyed by ISBN and flushed by a background thread, so
+ * request threads never wait on the broker and a burst of updates to one title is
+ * coalesced into a single event carrying the latest values. The pending map holds
+ * at most one entry per title. Local {@link BookChangeListener}s are told about
+ * each change immediately, on the writing thread.
+ */
+public class CatalogChangePublisher {
+
+    private static final Logger log = LoggerFactory.getLogger(CatalogChangePublisher.class);
+
+    private final AmqpTemplate amqpTemplate;
+    private final String exchange;
+    private final Map<String, BookChangeEvent> pending = new ConcurrentHashMap<>();
+    private final List<BookChangeListener> listeners = new CopyOnWriteArrayList<>();
+    // Seeded from the clock so versions keep increasing across restarts
+    private final AtomicLong version = new AtomicLong(System.currentTimeMillis() * 1000);
+    private final AtomicLong published = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final ScheduledExecutorService flushExecutor;
+
+    public CatalogChangePublisher(AmqpTemplate amqpTemplate, String exchange, long flushIntervalMillis) {
+        this.amqpTemplate = amqpTemplate;
+        this.exchange = exchange;
+        this.flushExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "catalog-change-publisher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flushExecutor.scheduleWithFixedDelay(this::flush, flushIntervalMillis, flushIntervalMillis,
+                TimeUnit.MILLISECONDS);
+    }
+
+    public void bookChanged(String isbn, double price, int stock) {
+        record(new BookChangeEvent(isbn, price, stock, false, version.incrementAndGet()));
+    }
+
+    public void stockChanged(String isbn, int stock) {
+        record(new BookChangeEvent(isbn, null, stock, false, version.incrementAndGet()));
+    }
+
+    public void bookRemoved(String isbn) {
+        record(new BookChangeEvent(isbn, null, null, true, version.incrementAndGet()));
+    }
+
+    /**
+     * Tells local listeners that titles changed wholesale; nothing is published.
+     */
+    public void catalogReloaded() {
+        listeners.forEach(BookChangeListener::catalogReloaded);
+    }
+
+    public void addListener(BookChangeListener listener) {
+        listeners.add(listener);
+    }
+
+    public long published() {
+        return published.get();
+    }
+
+    public long failed() {
+        return failed.get();
+    }
+
+    public int pending() {
+        return pending.size();
+    }
+
+    public void shutdown() {
+        flushExecutor.shutdown();
+        try {
+            flushExecutor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+    }
+
+    private void record(BookChangeEvent event) {
+        for (BookChangeListener listener : listeners) {
+            listener.bookChanged(event.getIsbn());
+        }
+        pending.merge(event.getIsbn(), event, BookChangeEvent::merge);
+    }
+
+    void flush() {
+        Iterator<Map.Entry<String, BookChangeEvent>> it = pending.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<String, BookChangeEvent> entry = it.next();
+            BookChangeEvent event = entry.getValue();
+            // Only take the entry out if no newer change was merged into it meanwhile
+            if (!pending.remove(entry.getKey(), event)) {
+                continue;
+            }
+            try {
+                amqpTemplate.convertAndSend(exchange, event.routingKey(), event);
+                published.incrementAndGet();
+            } catch (AmqpException e) {
+                // Consumers bound their staleness, so a lost delta is corrected by their refresh
+                failed.incrementAndGet();
+                log.warn("Could not publish catalog change for {}: {}", event.getIsbn(), e.getMessage());
+            }
+        }
+    }
+}
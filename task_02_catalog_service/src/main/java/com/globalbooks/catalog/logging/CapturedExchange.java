@@ -0,0 +1,109 @@
+package com.globalbooks.catalog.logging;
+
+/**
+ * One sampled request/response pair: the raw bytes of each SOAP Body, truncated to
+ * the capture limit, and the operation named by the request Body. Everything beyond
+ * copying the bytes (decoding, filtering, formatting) is left to the background
+ * writer.
+ */
+public class CapturedExchange {
+
+    private final long timestamp;
+    private final String path;
+    private final String operation;
+    private final String requestContentType;
+    private final String requestEncoding;
+    private final byte[] request;
+    private final boolean requestTruncated;
+    private final long requestLength;
+    private final int status;
+    private final String responseContentType;
+    private final String responseEncoding;
+    private final byte[] response;
+    private final boolean responseTruncated;
+    private final long responseLength;
+    private final long durationNanos;
+
+    public CapturedExchange(long timestamp, String path, String operation,
+                            String requestContentType, String requestEncoding,
+                            byte[] request, boolean requestTruncated, long requestLength,
+                            int status, String responseContentType, String responseEncoding,
+                            byte[] response, boolean responseTruncated, long responseLength, long durationNanos) {
+        this.timestamp = timestamp;
+        this.path = path;
+        this.operation = operation;
+        this.requestContentType = requestContentType;
+        this.requestEncoding = requestEncoding;
+        this.request = request;
+        this.requestTruncated = requestTruncated;
+        this.requestLength = requestLength;
+        this.status = status;
+        this.responseContentType = responseContentType;
+        this.responseEncoding = responseEncoding;
+        this.response = response;
+        this.responseTruncated = responseTruncated;
+        this.responseLength = responseLength;
+        this.durationNanos = durationNanos;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    /** Local name of the request Body's first element, or null if it had none. */
+    public String getOperation() {
+        return operation;
+    }
+
+    public String getRequestContentType() {
+        return requestContentType;
+    }
+
+    public String getRequestEncoding() {
+        return requestEncoding;
+    }
+
+    public byte[] getRequest() {
+        return request;
+    }
+
+    public boolean isRequestTruncated() {
+        return requestTruncated;
+    }
+
+    public long getRequestLength() {
+        return requestLength;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    public String getResponseContentType() {
+        return responseContentType;
+    }
+
+    public String getResponseEncoding() {
+        return responseEncoding;
+    }
+
+    public byte[] getResponse() {
+        return response;
+    }
+
+    public boolean isResponseTruncated() {
+        return responseTruncated;
+    }
+
+    public long getResponseLength() {
+        return responseLength;
+    }
+
+    public long getDurationNanos() {
+        return durationNanos;
+    }
+}
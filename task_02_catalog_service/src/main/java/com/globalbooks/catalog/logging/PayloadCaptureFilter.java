@@ -0,0 +1,187 @@
+package com.globalbooks.catalog.logging;
+
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ReadListener;
+import javax.servlet.ServletException;
+import javax.servlet.ServletInputStream;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletRequestWrapper;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Samples SOAP exchanges at the servlet layer and hands them to a
+ * {@link PayloadRingBuffer}. The request thread only tees the first bytes of each
+ * SOAP Body into a bounded buffer and does one non-blocking offer; if the buffer is
+ * full the exchange is dropped. SOAP headers are never captured, so credentials in
+ * the WS-Security header do not reach the log. Working on the raw streams keeps the message
+ * factories free to stream (the Axiom factory reads the request only once).
+ */
+public class PayloadCaptureFilter extends OncePerRequestFilter {
+
+    private final PayloadRingBuffer<CapturedExchange> buffer;
+    private final double sampleRate;
+    private final int maxPayloadBytes;
+
+    public PayloadCaptureFilter(PayloadRingBuffer<CapturedExchange> buffer, double sampleRate, int maxPayloadBytes) {
+        this.buffer = buffer;
+        this.sampleRate = sampleRate;
+        this.maxPayloadBytes = maxPayloadBytes;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        if (sampleRate <= 0 || ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        long start = System.nanoTime();
+        CapturingRequest capturingRequest = new CapturingRequest(request, new SoapBodyCapture(maxPayloadBytes));
+        CapturingResponse capturingResponse = new CapturingResponse(response, new SoapBodyCapture(maxPayloadBytes));
+        try {
+            chain.doFilter(capturingRequest, capturingResponse);
+        } finally {
+            SoapBodyCapture requestCapture = capturingRequest.capture;
+            SoapBodyCapture responseCapture = capturingResponse.capture;
+            buffer.offer(new CapturedExchange(System.currentTimeMillis(), request.getRequestURI(),
+                    requestCapture.operation(), request.getContentType(), request.getHeader("Content-Encoding"),
+                    requestCapture.toByteArray(), requestCapture.truncated(), requestCapture.total(),
+                    response.getStatus(), response.getContentType(), response.getHeader("Content-Encoding"),
+                    responseCapture.toByteArray(), responseCapture.truncated(), responseCapture.total(),
+                    System.nanoTime() - start));
+        }
+    }
+
+    private static final class CapturingRequest extends HttpServletRequestWrapper {
+
+        private final SoapBodyCapture capture;
+        private ServletInputStream inputStream;
+
+        private CapturingRequest(HttpServletRequest request, SoapBodyCapture capture) {
+            super(request);
+            this.capture = capture;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() throws IOException {
+            if (inputStream == null) {
+                inputStream = new TeeInputStream(super.getInputStream(), capture);
+            }
+            return inputStream;
+        }
+    }
+
+    private static final class CapturingResponse extends HttpServletResponseWrapper {
+
+        private final SoapBodyCapture capture;
+        private ServletOutputStream outputStream;
+
+        private CapturingResponse(HttpServletResponse response, SoapBodyCapture capture) {
+            super(response);
+            this.capture = capture;
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            if (outputStream == null) {
+                outputStream = new TeeOutputStream(super.getOutputStream(), capture);
+            }
+            return outputStream;
+        }
+    }
+
+    private static final class TeeInputStream extends ServletInputStream {
+
+        private final ServletInputStream delegate;
+        private final SoapBodyCapture capture;
+
+        private TeeInputStream(ServletInputStream delegate, SoapBodyCapture capture) {
+            this.delegate = delegate;
+            this.capture = capture;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = delegate.read();
+            if (b >= 0) {
+                capture.write(b);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) throws IOException {
+            int read = delegate.read(bytes, offset, length);
+            if (read > 0) {
+                capture.write(bytes, offset, read);
+            }
+            return read;
+        }
+
+        @Override
+        public boolean isFinished() {
+            return delegate.isFinished();
+        }
+
+        @Override
+        public boolean isReady() {
+            return delegate.isReady();
+        }
+
+        @Override
+        public void setReadListener(ReadListener readListener) {
+            delegate.setReadListener(readListener);
+        }
+    }
+
+    private static final class TeeOutputStream extends ServletOutputStream {
+
+        private final ServletOutputStream delegate;
+        private final SoapBodyCapture capture;
+
+        private TeeOutputStream(ServletOutputStream delegate, SoapBodyCapture capture) {
+            this.delegate = delegate;
+            this.capture = capture;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            delegate.write(b);
+            capture.write(b);
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+            delegate.write(bytes, offset, length);
+            capture.write(bytes, offset, length);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            delegate.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            delegate.close();
+        }
+
+        @Override
+        public boolean isReady() {
+            return delegate.isReady();
+        }
+
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+            delegate.setWriteListener(writeListener);
+        }
+    }
+}
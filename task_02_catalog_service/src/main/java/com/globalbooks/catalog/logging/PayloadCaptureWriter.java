@@ -0,0 +1,108 @@
+package com.globalbooks.catalog.logging;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Background thread that drains captured exchanges, applies the operation filters
+ * and logs the SOAP bodies. All of the formatting cost lands here instead of on
+ * request threads.
+ */
+public class PayloadCaptureWriter {
+
+    private static final Logger log = LoggerFactory.getLogger("com.globalbooks.catalog.payload");
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private final PayloadRingBuffer<CapturedExchange> buffer;
+    private final Set<String> includedOperations;
+    private final Set<String> excludedOperations;
+    private final AtomicLong written = new AtomicLong();
+    private final Thread thread;
+    private volatile boolean running = true;
+
+    /**
+     * @param includedOperations payload root names to log; empty logs every operation
+     * @param excludedOperations payload root names never to log
+     */
+    public PayloadCaptureWriter(PayloadRingBuffer<CapturedExchange> buffer,
+                                Set<String> includedOperations, Set<String> excludedOperations) {
+        this.buffer = buffer;
+        this.includedOperations = includedOperations;
+        this.excludedOperations = excludedOperations;
+        this.thread = new Thread(this::drain, "payload-capture-writer");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    public long written() {
+        return written.get();
+    }
+
+    public void shutdown() {
+        running = false;
+        LockSupport.unpark(thread);
+        try {
+            thread.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void drain() {
+        while (running) {
+            CapturedExchange exchange = buffer.poll();
+            if (exchange == null) {
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+                continue;
+            }
+            write(exchange);
+        }
+        // Flush whatever was captured before shutdown
+        for (CapturedExchange exchange = buffer.poll(); exchange != null; exchange = buffer.poll()) {
+            write(exchange);
+        }
+    }
+
+    private void write(CapturedExchange exchange) {
+        try {
+            String operation = exchange.getOperation() == null ? "unknown" : exchange.getOperation();
+            if (!includedOperations.isEmpty() && !includedOperations.contains(operation)) {
+                return;
+            }
+            if (excludedOperations.contains(operation)) {
+                return;
+            }
+            log.info("{} {} status={} {}ms\n> {}\n< {}", operation, exchange.getPath(), exchange.getStatus(),
+                    TimeUnit.NANOSECONDS.toMillis(exchange.getDurationNanos()),
+                    describe(exchange.getRequest(), exchange.isRequestTruncated(), exchange.getRequestLength(),
+                            isBinary(exchange.getRequestContentType(), exchange.getRequestEncoding())),
+                    describe(exchange.getResponse(), exchange.isResponseTruncated(), exchange.getResponseLength(),
+                            isBinary(exchange.getResponseContentType(), exchange.getResponseEncoding())));
+            written.incrementAndGet();
+        } catch (RuntimeException e) {
+            log.warn("Could not write captured payload for {}", exchange.getPath(), e);
+        }
+    }
+
+    private static boolean isBinary(String contentType, String contentEncoding) {
+        return (contentEncoding != null && !"identity".equalsIgnoreCase(contentEncoding))
+                || (contentType != null && contentType.contains("fastinfoset"));
+    }
+
+    private static String describe(byte[] body, boolean truncated, long length, boolean binary) {
+        if (binary) {
+            return "[" + length + " bytes, binary]";
+        }
+        if (body.length == 0) {
+            return "[" + length + " bytes, no SOAP body]";
+        }
+        String text = new String(body, StandardCharsets.UTF_8);
+        return truncated ? text + "... [truncated, " + length + " bytes]" : text;
+    }
+}
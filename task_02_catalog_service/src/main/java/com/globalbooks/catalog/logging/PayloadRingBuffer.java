@@ -0,0 +1,83 @@
+package com.globalbooks.catalog.logging;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded, lock-free multi-producer/single-consumer ring buffer. Each slot carries a
+ * sequence number telling producers whether it is free and the consumer whether it
+ * is published, so request threads only ever do a CAS on the tail. When the buffer
+ * is full {@link #offer} fails immediately and the item is counted as dropped.
+ */
+public class PayloadRingBuffer<T> {
+
+    private final int mask;
+    private final AtomicReferenceArray<T> items;
+    private final AtomicLongArray sequences;
+    private final AtomicLong tail = new AtomicLong();
+    private final LongAdder dropped = new LongAdder();
+
+    // Only touched by the single consumer thread
+    private long head;
+
+    public PayloadRingBuffer(int capacity) {
+        if (capacity < 2 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Capacity must be a power of two: " + capacity);
+        }
+        this.mask = capacity - 1;
+        this.items = new AtomicReferenceArray<>(capacity);
+        this.sequences = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    public boolean offer(T item) {
+        long position;
+        int index;
+        while (true) {
+            position = tail.get();
+            index = (int) (position & mask);
+            long available = sequences.get(index) - position;
+            if (available == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    break;
+                }
+            } else if (available < 0) {
+                // The consumer has not freed this slot yet: full
+                dropped.increment();
+                return false;
+            }
+            // Another producer claimed this position first; retry with the new tail
+        }
+        items.set(index, item);
+        sequences.set(index, position + 1);
+        return true;
+    }
+
+    /**
+     * Takes the oldest published item, or returns null if there is none.
+     * Must only be called from the single consumer thread.
+     */
+    public T poll() {
+        int index = (int) (head & mask);
+        if (sequences.get(index) != head + 1) {
+            return null;
+        }
+        T item = items.get(index);
+        items.set(index, null);
+        sequences.set(index, head + mask + 1);
+        head++;
+        return item;
+    }
+
+    public int capacity() {
+        return mask + 1;
+    }
+
+    public long dropped() {
+        return dropped.sum();
+    }
+}
@@ -0,0 +1,174 @@
+package com.globalbooks.catalog.logging;
+
+import java.util.Arrays;
+
+/**
+ * Scans a SOAP message as it is written and keeps only the content of its Body,
+ * up to {@code limit} bytes, so headers (the WS-Security UsernameToken among them)
+ * are never copied. The name of the first element in the Body is recorded however
+ * long the header is, and every byte is counted.
+ *
+ * The scan is a byte-level state machine over the markup, not an XML parser: it
+ * only needs tag names, which are ASCII in every message this service handles.
+ */
+class SoapBodyCapture {
+
+    private static final int MAX_NAME = 128;
+
+    private enum State { TEXT, NAME, ATTRIBUTES, DECLARATION, COMMENT, DONE }
+
+    private final byte[] buffer;
+    private final StringBuilder name = new StringBuilder();
+    private State state = State.TEXT;
+    private boolean endTag;
+    private boolean bodyStartTag;
+    private boolean inBody;
+    private boolean truncated;
+    private char quote;
+    private char previous;
+    private int dashes;
+    // Size of the capture before the '<' of the current tag, to drop the Body end tag
+    private int tagStart;
+    private String operation;
+    private int size;
+    private long total;
+
+    SoapBodyCapture(int limit) {
+        this.buffer = new byte[limit];
+    }
+
+    void write(int b) {
+        total++;
+        if (state != State.DONE) {
+            scan((char) (b & 0xff));
+        }
+    }
+
+    void write(byte[] bytes, int offset, int length) {
+        total += length;
+        for (int i = offset; i < offset + length && state != State.DONE; i++) {
+            scan((char) (bytes[i] & 0xff));
+        }
+    }
+
+    byte[] toByteArray() {
+        return Arrays.copyOf(buffer, size);
+    }
+
+    long total() {
+        return total;
+    }
+
+    /** Local name of the first element in the Body, or null if none was seen. */
+    String operation() {
+        return operation;
+    }
+
+    boolean truncated() {
+        return truncated;
+    }
+
+    private void scan(char c) {
+        if (inBody) {
+            if (c == '<') {
+                tagStart = size;
+            }
+            if (size < buffer.length) {
+                buffer[size++] = (byte) c;
+            } else {
+                truncated = true;
+                if (operation != null) {
+                    // Nothing left to learn from the rest of the stream
+                    state = State.DONE;
+                    return;
+                }
+            }
+        }
+        switch (state) {
+            case TEXT:
+                if (c == '<') {
+                    name.setLength(0);
+                    endTag = false;
+                    state = State.NAME;
+                }
+                break;
+            case NAME:
+                if (name.length() == 0 && c == '/' && !endTag) {
+                    endTag = true;
+                } else if (name.length() == 0 && (c == '!' || c == '?')) {
+                    dashes = 0;
+                    state = State.DECLARATION;
+                } else if (c == '>' || c == '/' || Character.isWhitespace(c)) {
+                    tagName();
+                    if (state == State.DONE) {
+                        break;
+                    }
+                    state = State.ATTRIBUTES;
+                    previous = c;
+                    if (c == '>') {
+                        tagEnd();
+                    }
+                } else if (name.length() < MAX_NAME) {
+                    name.append(c);
+                }
+                break;
+            case ATTRIBUTES:
+                if (quote != 0) {
+                    if (c == quote) {
+                        quote = 0;
+                    }
+                } else if (c == '"' || c == '\'') {
+                    quote = c;
+                } else if (c == '>') {
+                    tagEnd();
+                }
+                previous = c;
+                break;
+            case DECLARATION:
+                // "<!--" opens a comment, which may itself contain '>'
+                if (c == '-' && ++dashes == 2) {
+                    dashes = 0;
+                    state = State.COMMENT;
+                } else if (c == '>') {
+                    state = State.TEXT;
+                } else if (c != '-') {
+                    dashes = 0;
+                }
+                break;
+            case COMMENT:
+                if (c == '-') {
+                    dashes++;
+                } else if (c == '>' && dashes >= 2) {
+                    state = State.TEXT;
+                } else {
+                    dashes = 0;
+                }
+                break;
+            default:
+                break;
+        }
+    }
+
+    private void tagName() {
+        int colon = name.indexOf(":");
+        String localName = colon < 0 ? name.toString() : name.substring(colon + 1);
+        if (!inBody) {
+            bodyStartTag = !endTag && "Body".equals(localName);
+        } else if (endTag && "Body".equals(localName)) {
+            size = tagStart;
+            inBody = false;
+            state = State.DONE;
+        } else if (!endTag && operation == null) {
+            operation = localName;
+        }
+    }
+
+    private void tagEnd() {
+        state = State.TEXT;
+        if (bodyStartTag) {
+            bodyStartTag = false;
+            // <soap:Body/> has no content
+            inBody = previous != '/';
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.globalbooks.catalog.pricing;
+
+/**
+ * A price snapshot lease: prices read with {@code snapshotId} until
+ * {@code expiresAt} (epoch millis) are those in effect when it was opened.
+ */
+public class PriceSnapshot {
+
+    private long snapshotId;
+    private long expiresAt;
+
+    public PriceSnapshot() {}
+
+    public PriceSnapshot(long snapshotId, long expiresAt) {
+        this.snapshotId = snapshotId;
+        this.expiresAt = expiresAt;
+    }
+
+    public long getSnapshotId() {
+        return snapshotId;
+    }
+
+    public void setSnapshotId(long snapshotId) {
+        this.snapshotId = snapshotId;
+    }
+
+    public long getExpiresAt() {
+        return expiresAt;
+    }
+
+    public void setExpiresAt(long expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+}
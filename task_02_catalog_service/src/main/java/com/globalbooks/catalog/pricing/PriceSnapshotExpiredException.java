@@ -0,0 +1,19 @@
+package com.globalbooks.catalog.pricing;
+
+/**
+ * Thrown when prices are read with a snapshot id that was never opened or whose
+ * lease has ended; the caller has to open a new snapshot and start over.
+ */
+public class PriceSnapshotExpiredException extends RuntimeException {
+
+    private final long snapshotId;
+
+    public PriceSnapshotExpiredException(long snapshotId) {
+        super("Unknown or expired price snapshot: " + snapshotId);
+        this.snapshotId = snapshotId;
+    }
+
+    public long getSnapshotId() {
+        return snapshotId;
+    }
+}
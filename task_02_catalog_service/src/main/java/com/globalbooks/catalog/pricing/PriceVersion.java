@@ -0,0 +1,76 @@
+package com.globalbooks.catalog.pricing;
+
+/**
+ * One immutable price of a title, effective from {@code effectiveAt} until the
+ * next version. Versions are linked newest first; the oldest link is the price
+ * the title had before its first recorded change, with version zero.
+ */
+public final class PriceVersion {
+
+    private final long version;
+    private final long effectiveAt;
+    private final double price;
+    private final PriceVersion previous;
+
+    PriceVersion(long version, long effectiveAt, double price, PriceVersion previous) {
+        this.version = version;
+        this.effectiveAt = effectiveAt;
+        this.price = price;
+        this.previous = previous;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public long getEffectiveAt() {
+        return effectiveAt;
+    }
+
+    /**
+     * The price, or {@code NaN} while the title did not exist.
+     */
+    public double getPrice() {
+        return price;
+    }
+
+    public PriceVersion getPrevious() {
+        return previous;
+    }
+
+    /**
+     * Returns this history without the versions no snapshot at or after
+     * {@code watermark} can reach, copying the links that are kept if any are
+     * dropped, or this history itself if none are. The price before the oldest
+     * kept version stays as a version-zero link, so that version can still be
+     * withdrawn with {@link #without}.
+     */
+    PriceVersion truncate(long watermark) {
+        if (version <= watermark) {
+            if (previous == null || previous.previous == null) {
+                return this;
+            }
+            return new PriceVersion(version, effectiveAt, price, new PriceVersion(0L, 0L, previous.price, null));
+        }
+        if (previous == null) {
+            return this;
+        }
+        PriceVersion truncated = previous.truncate(watermark);
+        return truncated == previous ? this : new PriceVersion(version, effectiveAt, price, truncated);
+    }
+
+    /**
+     * Returns this history without {@code withdrawn}, so snapshots that reached it
+     * resolve the version before it, or this history itself if it has no such version.
+     */
+    PriceVersion without(long withdrawn) {
+        if (version == withdrawn && previous != null) {
+            return previous;
+        }
+        if (previous == null) {
+            return this;
+        }
+        PriceVersion kept = previous.without(withdrawn);
+        return kept == previous ? this : new PriceVersion(version, effectiveAt, price, kept);
+    }
+}
@@ -0,0 +1,233 @@
+package com.globalbooks.catalog.pricing;
+
+import com.globalbooks.catalog.BookPrice;
+import com.globalbooks.catalog.columnar.IsbnCodec;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Immutable price versions for the titles whose price changed recently, so a
+ * reader holding a snapshot id sees every title at the price it had when the
+ * snapshot was opened, however many updates land in between.
+ *
+ * The store keeps serving the current price and stays the authority for titles
+ * without versions here. A writer records the change before it updates the store
+ * and marks it applied once the store write has completed, or aborts it if the
+ * write fails, so every version left here is one the store holds or is about to
+ * hold; a snapshot reader reads
+ * the store first and then the versions, so whichever way the two race the reader
+ * resolves the same price. Versions get their numbers from
+ * one clock under a short lock that never covers the store write, and snapshot ids
+ * are read from the same clock.
+ *
+ * Snapshots are leases that expire a fixed time after they are opened; reads do
+ * not renew them. A background pass drops versions no live snapshot can reach, and
+ * a whole history once its newest version has been marked applied, so memory is
+ * bounded by the price changes made while the oldest live snapshot was open. A
+ * history whose write is still running is kept: without it the store's older
+ * price would show through.
+ */
+public class PriceVersions {
+
+    private final ConcurrentMap<String, PriceVersion> histories = new ConcurrentHashMap<>();
+    // Highest version per title whose store write has completed
+    private final ConcurrentMap<String, Long> appliedVersions = new ConcurrentHashMap<>();
+    // Snapshot id to the wall-clock time its lease ends; opens of the same id share one entry
+    private final ConcurrentMap<Long, Long> leases = new ConcurrentHashMap<>();
+    private final Object clockLock = new Object();
+    private final long snapshotTtlMillis;
+    private final ScheduledExecutorService compactionExecutor;
+
+    // Seeded from the clock so snapshot ids from before a restart read as expired
+    private volatile long latest = System.currentTimeMillis() * 1000;
+    // Snapshots older than this may have lost versions
+    private volatile long horizon = latest;
+
+    public PriceVersions(long snapshotTtlMillis, long compactionIntervalMillis) {
+        this.snapshotTtlMillis = snapshotTtlMillis;
+        this.compactionExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "price-version-compactor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        compactionExecutor.scheduleWithFixedDelay(this::compact, compactionIntervalMillis,
+                compactionIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Records a price change; call it before the store is updated and pass the
+     * result to {@link #markApplied} once the store write has completed.
+     * {@code previous} is the price the store holds now and is only used if the
+     * title has no versions yet. {@code NaN} stands for a title that does not
+     * exist (yet). Returns the new version, or 0 if the price did not change.
+     */
+    public long record(String isbn, double previous, double price) {
+        if (isbn == null || (Double.isNaN(previous) && Double.isNaN(price)) || previous == price) {
+            return 0L;
+        }
+        String title = titleKey(isbn);
+        long effectiveAt = System.currentTimeMillis();
+        synchronized (clockLock) {
+            long version = latest + 1;
+            histories.compute(title, (key, history) -> new PriceVersion(version, effectiveAt, price,
+                    history != null ? history : new PriceVersion(0L, 0L, previous, null)));
+            latest = version;
+            return version;
+        }
+    }
+
+    /**
+     * Marks the store write of {@code version} as completed, so the title's history
+     * can be dropped once no snapshot needs it. A version of 0 is ignored.
+     */
+    public void markApplied(String isbn, long version) {
+        if (isbn != null && version > 0L) {
+            appliedVersions.merge(titleKey(isbn), version, Math::max);
+        }
+    }
+
+    /**
+     * Withdraws {@code version} after its store write failed, so no snapshot
+     * resolves a price the store never held. Snapshots that already read it see
+     * the price before it from now on. A version of 0 is ignored.
+     */
+    public void abort(String isbn, long version) {
+        if (isbn == null || version <= 0L) {
+            return;
+        }
+        histories.computeIfPresent(titleKey(isbn), (key, history) -> {
+            PriceVersion kept = history.without(version);
+            // Only the price before the first change is left, which is what the store holds
+            return kept.getVersion() == 0L ? null : kept;
+        });
+    }
+
+    /**
+     * Opens a snapshot of the prices as they are now, valid for the lease time.
+     */
+    public PriceSnapshot openSnapshot() {
+        long expiresAt = System.currentTimeMillis() + snapshotTtlMillis;
+        synchronized (clockLock) {
+            long snapshotId = latest;
+            leases.merge(snapshotId, expiresAt, Math::max);
+            return new PriceSnapshot(snapshotId, expiresAt);
+        }
+    }
+
+    /**
+     * Returns the price as of {@code snapshotId}, given the price the store holds
+     * now; read the store before calling this. Returns {@code NaN} if the title did
+     * not exist at the snapshot.
+     *
+     * @throws PriceSnapshotExpiredException if the snapshot is unknown or has expired
+     */
+    public double priceAt(String isbn, long snapshotId, double current) {
+        checkSnapshot(snapshotId);
+        return resolve(isbn, snapshotId, current);
+    }
+
+    /**
+     * Re-prices lines just read from the store as of {@code snapshotId}.
+     *
+     * @throws PriceSnapshotExpiredException if the snapshot is unknown or has expired
+     */
+    public List<BookPrice> pricesAt(long snapshotId, List<BookPrice> current) {
+        checkSnapshot(snapshotId);
+        List<BookPrice> prices = new ArrayList<>(current.size());
+        for (BookPrice line : current) {
+            double price = resolve(line.getBookId(), snapshotId, line.isFound() ? line.getPrice() : Double.NaN);
+            boolean found = !Double.isNaN(price);
+            prices.add(new BookPrice(line.getBookId(), line.getQuantity(), found ? price : 0.0, found));
+        }
+        return prices;
+    }
+
+    /**
+     * @throws PriceSnapshotExpiredException unless {@code snapshotId} was opened here
+     *         and its lease has not ended
+     */
+    public void checkSnapshot(long snapshotId) {
+        Long expiresAt = leases.get(snapshotId);
+        if (expiresAt == null || expiresAt <= System.currentTimeMillis() || snapshotId < horizon) {
+            throw new PriceSnapshotExpiredException(snapshotId);
+        }
+    }
+
+    private double resolve(String isbn, long snapshotId, double current) {
+        PriceVersion version = isbn == null ? null : histories.get(titleKey(isbn));
+        if (version == null) {
+            return current;
+        }
+        while (version != null && version.getVersion() > snapshotId) {
+            version = version.getPrevious();
+        }
+        if (version == null) {
+            // The lease ended and was compacted between the check and the walk
+            throw new PriceSnapshotExpiredException(snapshotId);
+        }
+        return version.getPrice();
+    }
+
+    /**
+     * Titles that currently have versions.
+     */
+    public int versionedTitles() {
+        return histories.size();
+    }
+
+    public int liveSnapshots() {
+        return leases.size();
+    }
+
+    public void shutdown() {
+        compactionExecutor.shutdownNow();
+    }
+
+    void compact() {
+        long now = System.currentTimeMillis();
+        leases.values().removeIf(expiresAt -> expiresAt <= now);
+
+        long watermark;
+        synchronized (clockLock) {
+            // Under the clock lock so a snapshot being opened is either counted or newer than the watermark
+            watermark = latest;
+            for (Long snapshotId : leases.keySet()) {
+                watermark = Math.min(watermark, snapshotId);
+            }
+            horizon = watermark;
+        }
+
+        Iterator<Map.Entry<String, PriceVersion>> it = histories.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<String, PriceVersion> entry = it.next();
+            PriceVersion head = entry.getValue();
+            Long applied = appliedVersions.get(entry.getKey());
+            if (head.getVersion() <= watermark && applied != null && applied >= head.getVersion()) {
+                // No snapshot needs an older price and the store holds this one
+                if (histories.remove(entry.getKey(), head)) {
+                    // A newer version marked meanwhile keeps its mark for its own history
+                    appliedVersions.remove(entry.getKey(), applied);
+                }
+            } else {
+                PriceVersion trimmed = head.truncate(watermark);
+                if (trimmed != head) {
+                    // Fails if a record() got in first; the next pass trims that history
+                    histories.replace(entry.getKey(), head, trimmed);
+                }
+            }
+        }
+    }
+
+    private static String titleKey(String isbn) {
+        long key = IsbnCodec.encode(isbn);
+        return key == IsbnCodec.INVALID ? isbn : Long.toString(key);
+    }
+}
@@ -0,0 +1,18 @@
+package com.globalbooks.catalog.repository;
+
+import com.globalbooks.catalog.Book;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+@Repository
+public interface BookRepository extends JpaRepository<Book, String> {
+
+    @Transactional
+    @Modifying
+    @Query("update Book b set b.stock = b.stock - :quantity where b.isbn = :isbn")
+    int decrementStock(@Param("isbn") String isbn, @Param("quantity") int quantity);
+}
@@ -0,0 +1,8 @@
+package com.globalbooks.catalog.reservation;
+
+public enum ReservationStatus {
+    HELD,
+    CONFIRMED,
+    RELEASED,
+    EXPIRED
+}
@@ -0,0 +1,41 @@
+package com.globalbooks.catalog.reservation;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * A hold on stock for one ISBN. The status only moves forward from HELD, and only
+ * the thread that wins that transition may give the quantity back or sell it.
+ */
+public class StockReservation {
+
+    private final String reservationId;
+    private final String isbn;
+    private final int quantity;
+    private final long expiresAtMillis;
+    private final AtomicReference<ReservationStatus> status = new AtomicReference<>(ReservationStatus.HELD);
+
+    StockReservation(String reservationId, String isbn, int quantity, long expiresAtMillis) {
+        this.reservationId = reservationId;
+        this.isbn = isbn;
+        this.quantity = quantity;
+        this.expiresAtMillis = expiresAtMillis;
+    }
+
+    boolean transition(ReservationStatus target) {
+        return status.compareAndSet(ReservationStatus.HELD, target);
+    }
+
+    boolean isExpired(long nowMillis) {
+        return nowMillis >= expiresAtMillis;
+    }
+
+    public String getReservationId() { return reservationId; }
+
+    public String getIsbn() { return isbn; }
+
+    public int getQuantity() { return quantity; }
+
+    public long getExpiresAtMillis() { return expiresAtMillis; }
+
+    public ReservationStatus getStatus() { return status.get(); }
+}
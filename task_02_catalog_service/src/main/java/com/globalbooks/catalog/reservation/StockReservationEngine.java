@@ -0,0 +1,205 @@
+package com.globalbooks.catalog.reservation;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free stock reservations. Each ISBN has its own pair of atomic counters:
+ * {@code onHand} is physical stock and {@code available} is what can still be
+ * promised (on hand minus outstanding holds). Reserving is a CAS loop on
+ * {@code available}, so concurrent orders on a hot title never oversell and
+ * never queue behind a lock. Holds that are neither confirmed nor released
+ * within their TTL are returned to {@code available} by a background sweep.
+ */
+public class StockReservationEngine {
+
+    private final Map<String, StockCounter> counters = new ConcurrentHashMap<>();
+    private final Map<String, StockReservation> holds = new ConcurrentHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+    private final long holdTtlMillis;
+    private final ScheduledExecutorService expiryExecutor;
+
+    public StockReservationEngine(long holdTtlMillis, long sweepIntervalMillis) {
+        this.holdTtlMillis = holdTtlMillis;
+        this.expiryExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "stock-reservation-expiry");
+            thread.setDaemon(true);
+            return thread;
+        });
+        expiryExecutor.scheduleWithFixedDelay(this::expireHolds,
+                sweepIntervalMillis, sweepIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Sets the physical stock for an ISBN (initial load or restock). Outstanding
+     * holds stay in place; only the difference is applied to {@code available}.
+     */
+    public void setStock(String isbn, int stock) {
+        StockCounter counter = counters.computeIfAbsent(isbn, k -> new StockCounter(0));
+        int previous = counter.onHand.getAndSet(stock);
+        counter.available.addAndGet(stock - previous);
+    }
+
+    /**
+     * Starts tracking an ISBN with the given stock unless it is already tracked.
+     * Lets stores with their own stock column track only titles that see orders.
+     */
+    public void trackIfAbsent(String isbn, int stock) {
+        counters.computeIfAbsent(isbn, k -> new StockCounter(stock));
+    }
+
+    public boolean isTracked(String isbn) {
+        return counters.containsKey(isbn);
+    }
+
+    /**
+     * Stops tracking an ISBN and releases its outstanding holds, so none of them
+     * can be confirmed against a title that is gone or that is added again later.
+     */
+    public void removeStock(String isbn) {
+        StockCounter counter = counters.remove(isbn);
+        if (counter == null) {
+            return;
+        }
+        counter.removed = true;
+        for (StockReservation reservation : holds.values()) {
+            if (reservation.getIsbn().equals(isbn) && reservation.transition(ReservationStatus.RELEASED)) {
+                holds.remove(reservation.getReservationId());
+            }
+        }
+    }
+
+    /**
+     * Holds {@code quantity} units and returns the reservation, or {@code null}
+     * when the ISBN is unknown or not enough stock is left to promise.
+     */
+    public StockReservation reserve(String isbn, int quantity) {
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("Quantity must be positive");
+        }
+        StockCounter counter = counters.get(isbn);
+        if (counter == null || !counter.tryAcquire(quantity)) {
+            return null;
+        }
+        String reservationId = "RSV-" + sequence.incrementAndGet();
+        StockReservation reservation = new StockReservation(reservationId, isbn, quantity,
+                System.currentTimeMillis() + holdTtlMillis);
+        holds.put(reservationId, reservation);
+        if (counter.removed) {
+            // Raced removeStock, whose sweep may have missed this hold
+            if (reservation.transition(ReservationStatus.RELEASED)) {
+                holds.remove(reservationId);
+            }
+            return null;
+        }
+        return reservation;
+    }
+
+    /**
+     * Turns a hold into a sale and returns the new on-hand stock, or -1 when the
+     * hold is unknown, already settled or has expired.
+     */
+    public int confirm(String reservationId) {
+        StockReservation reservation = holds.get(reservationId);
+        if (reservation == null) {
+            return -1;
+        }
+        if (reservation.isExpired(System.currentTimeMillis())) {
+            expire(reservation);
+            return -1;
+        }
+        if (!reservation.transition(ReservationStatus.CONFIRMED)) {
+            return -1;
+        }
+        holds.remove(reservationId);
+        StockCounter counter = counters.get(reservation.getIsbn());
+        return counter == null ? -1 : counter.onHand.addAndGet(-reservation.getQuantity());
+    }
+
+    public boolean release(String reservationId) {
+        StockReservation reservation = holds.get(reservationId);
+        return reservation != null && settle(reservation, ReservationStatus.RELEASED);
+    }
+
+    public boolean isAvailable(String isbn, int quantity) {
+        StockCounter counter = counters.get(isbn);
+        return counter != null && counter.available.get() >= quantity;
+    }
+
+    public int available(String isbn) {
+        StockCounter counter = counters.get(isbn);
+        return counter == null ? 0 : counter.available.get();
+    }
+
+    public int onHand(String isbn) {
+        StockCounter counter = counters.get(isbn);
+        return counter == null ? 0 : counter.onHand.get();
+    }
+
+    public StockReservation getReservation(String reservationId) {
+        return holds.get(reservationId);
+    }
+
+    public int outstandingHolds() {
+        return holds.size();
+    }
+
+    public void shutdown() {
+        expiryExecutor.shutdownNow();
+    }
+
+    void expireHolds() {
+        long now = System.currentTimeMillis();
+        Iterator<StockReservation> iterator = holds.values().iterator();
+        while (iterator.hasNext()) {
+            StockReservation reservation = iterator.next();
+            if (reservation.isExpired(now)) {
+                expire(reservation);
+            }
+        }
+    }
+
+    private void expire(StockReservation reservation) {
+        settle(reservation, ReservationStatus.EXPIRED);
+    }
+
+    private boolean settle(StockReservation reservation, ReservationStatus outcome) {
+        if (!reservation.transition(outcome)) {
+            return false;
+        }
+        holds.remove(reservation.getReservationId());
+        StockCounter counter = counters.get(reservation.getIsbn());
+        if (counter != null) {
+            counter.available.addAndGet(reservation.getQuantity());
+        }
+        return true;
+    }
+
+    private static final class StockCounter {
+        private final AtomicInteger onHand;
+        private final AtomicInteger available;
+        private volatile boolean removed;
+
+        private StockCounter(int stock) {
+            this.onHand = new AtomicInteger(stock);
+            this.available = new AtomicInteger(stock);
+        }
+
+        private boolean tryAcquire(int quantity) {
+            int current = available.get();
+            while (current >= quantity) {
+                if (available.compareAndSet(current, current - quantity)) {
+                    return true;
+                }
+                current = available.get();
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.globalbooks.security;
+
+import org.apache.wss4j.common.crypto.Merlin;
+import org.apache.wss4j.common.crypto.PasswordEncryptor;
+import org.apache.wss4j.common.ext.WSSecurityException;
+
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.cert.CertificateEncodingException;
+import java.security.cert.X509Certificate;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Properties;
+import java.util.regex.Pattern;
+
+/**
+ * Merlin keystore crypto whose certificate trust checks go through a
+ * {@link VerifiedCredentialCache}. Used for signature verification in both the DOM
+ * and the streaming WS-Security modes. Revocation-checked validations are never cached.
+ */
+public class CachingMerlin extends Merlin {
+
+    private final VerifiedCredentialCache verifiedCredentials;
+
+    public CachingMerlin(Properties properties, ClassLoader loader, PasswordEncryptor passwordEncryptor,
+                         VerifiedCredentialCache verifiedCredentials) throws WSSecurityException, IOException {
+        super(properties, loader, passwordEncryptor);
+        this.verifiedCredentials = verifiedCredentials;
+    }
+
+    @Override
+    public void verifyTrust(X509Certificate[] certs, boolean enableRevocation,
+                            Collection<Pattern> subjectCertConstraints,
+                            Collection<Pattern> issuerCertConstraints) throws WSSecurityException {
+        String key = enableRevocation || certs == null || certs.length == 0
+                ? null : cacheKey(certs, subjectCertConstraints, issuerCertConstraints);
+        if (key != null && verifiedCredentials.isVerified(key)) {
+            return;
+        }
+
+        super.verifyTrust(certs, enableRevocation, subjectCertConstraints, issuerCertConstraints);
+
+        if (key != null) {
+            long notAfter = Long.MAX_VALUE;
+            for (X509Certificate cert : certs) {
+                notAfter = Math.min(notAfter, cert.getNotAfter().getTime());
+            }
+            verifiedCredentials.markVerified(key, notAfter);
+        }
+    }
+
+    private static String cacheKey(X509Certificate[] certs, Collection<Pattern> subjectCertConstraints,
+                                   Collection<Pattern> issuerCertConstraints) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (X509Certificate cert : certs) {
+                digest.update(cert.getEncoded());
+            }
+            return Base64.getEncoder().encodeToString(digest.digest())
+                    + '|' + subjectCertConstraints + '|' + issuerCertConstraints;
+        } catch (CertificateEncodingException | NoSuchAlgorithmException e) {
+            // Not cacheable; fall back to a full validation every time
+            return null;
+        }
+    }
+}
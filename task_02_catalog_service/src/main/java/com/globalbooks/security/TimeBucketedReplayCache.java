@@ -0,0 +1,163 @@
+package com.globalbooks.security;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.apache.wss4j.common.cache.ReplayCache;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Nonce/timestamp replay cache for WSS4J. Identifiers are grouped into buckets by
+ * expiry time, so expired entries are dropped a whole bucket at a time instead of
+ * being scanned individually.
+ *
+ * The cache never holds more than {@code maxEntries} and fails closed when full:
+ * live entries are never evicted, since forgetting one would let its message be
+ * replayed. Instead {@link #contains} reports every identifier it cannot record
+ * as seen, so WSS4J rejects the security header as a replay, and the rejection
+ * is counted. Capacity frees up as buckets expire.
+ */
+public class TimeBucketedReplayCache implements ReplayCache, MeterBinder {
+
+    private final String name;
+    private final long bucketMillis;
+    private final long defaultTtlMillis;
+    private final int maxEntries;
+
+    // Writes (add, purge) are serialized on this; contains() only reads expiries
+    private final TreeMap<Long, List<String>> buckets = new TreeMap<>();
+    private final Map<String, Long> expiries = new ConcurrentHashMap<>();
+
+    private final AtomicLong replaysDetected = new AtomicLong();
+    private final AtomicLong expiredEvictions = new AtomicLong();
+    private final AtomicLong rejectedWhenFull = new AtomicLong();
+
+    public TimeBucketedReplayCache(String name, long bucketMillis, long defaultTtlMillis, int maxEntries) {
+        if (bucketMillis <= 0 || defaultTtlMillis <= 0 || maxEntries <= 0) {
+            throw new IllegalArgumentException("Bucket width, TTL and capacity must be positive");
+        }
+        this.name = name;
+        this.bucketMillis = bucketMillis;
+        this.defaultTtlMillis = defaultTtlMillis;
+        this.maxEntries = maxEntries;
+    }
+
+    @Override
+    public void add(String identifier) {
+        add(identifier, Instant.ofEpochMilli(System.currentTimeMillis() + defaultTtlMillis));
+    }
+
+    @Override
+    public void add(String identifier, Instant expiry) {
+        long now = System.currentTimeMillis();
+        long expiresAt = expiry == null ? now + defaultTtlMillis : expiry.toEpochMilli();
+        if (expiresAt <= now) {
+            // Already outside its validity window; the timestamp check rejects it anyway
+            return;
+        }
+
+        synchronized (buckets) {
+            purgeExpired(now);
+            if (expiries.containsKey(identifier)) {
+                return;
+            }
+            if (expiries.size() >= maxEntries) {
+                // contains() already turned this away; a caller that skipped it gets nothing stored
+                return;
+            }
+            expiries.put(identifier, expiresAt);
+            buckets.computeIfAbsent(expiresAt / bucketMillis, k -> new ArrayList<>()).add(identifier);
+        }
+    }
+
+    /**
+     * Returns {@code true} for an identifier seen within its validity window, and
+     * for any new identifier while the cache is full, so the caller rejects it.
+     */
+    @Override
+    public boolean contains(String identifier) {
+        long now = System.currentTimeMillis();
+        Long expiresAt = expiries.get(identifier);
+        if (expiresAt != null && expiresAt > now) {
+            replaysDetected.incrementAndGet();
+            return true;
+        }
+        if (expiries.size() >= maxEntries && isFull(now)) {
+            rejectedWhenFull.incrementAndGet();
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public void close() {
+        synchronized (buckets) {
+            buckets.clear();
+            expiries.clear();
+        }
+    }
+
+    public int size() {
+        return expiries.size();
+    }
+
+    public long replaysDetected() {
+        return replaysDetected.get();
+    }
+
+    public long expiredEvictions() {
+        return expiredEvictions.get();
+    }
+
+    public long rejectedWhenFull() {
+        return rejectedWhenFull.get();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("catalog.security.replay.cache.size", this, TimeBucketedReplayCache::size)
+                .tag("cache", name)
+                .register(registry);
+        FunctionCounter.builder("catalog.security.replay.cache.replays", this, TimeBucketedReplayCache::replaysDetected)
+                .tag("cache", name)
+                .register(registry);
+        FunctionCounter.builder("catalog.security.replay.cache.evictions", this, TimeBucketedReplayCache::expiredEvictions)
+                .tag("cache", name)
+                .tag("cause", "expired")
+                .register(registry);
+        FunctionCounter.builder("catalog.security.replay.cache.rejected", this, TimeBucketedReplayCache::rejectedWhenFull)
+                .description("Security headers rejected because the replay cache was full")
+                .tag("cache", name)
+                .register(registry);
+    }
+
+    private boolean isFull(long now) {
+        synchronized (buckets) {
+            purgeExpired(now);
+            return expiries.size() >= maxEntries;
+        }
+    }
+
+    private void purgeExpired(long now) {
+        // A bucket is only dropped once every expiry it can hold has passed
+        long currentBucket = now / bucketMillis;
+        while (!buckets.isEmpty() && buckets.firstKey() < currentBucket) {
+            expiredEvictions.addAndGet(evict(buckets.pollFirstEntry().getValue()));
+        }
+    }
+
+    private int evict(List<String> identifiers) {
+        for (String identifier : identifiers) {
+            expiries.remove(identifier);
+        }
+        return identifiers.size();
+    }
+}
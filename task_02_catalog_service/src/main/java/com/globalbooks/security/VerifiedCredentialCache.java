@@ -0,0 +1,94 @@
+package com.globalbooks.security;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Remembers credentials that passed trust validation for a short time, so a caller
+ * presenting the same certificate again skips the certificate path validation.
+ * Bounded: when full, expired entries are purged and, if that is not enough, the
+ * new result is simply not cached.
+ */
+public class VerifiedCredentialCache implements MeterBinder {
+
+    private final long ttlMillis;
+    private final int maxEntries;
+    private final Map<String, Long> verifiedUntil = new ConcurrentHashMap<>();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public VerifiedCredentialCache(long ttlMillis, int maxEntries) {
+        if (ttlMillis <= 0 || maxEntries <= 0) {
+            throw new IllegalArgumentException("TTL and capacity must be positive");
+        }
+        this.ttlMillis = ttlMillis;
+        this.maxEntries = maxEntries;
+    }
+
+    public boolean isVerified(String key) {
+        Long until = verifiedUntil.get(key);
+        if (until != null && until > System.currentTimeMillis()) {
+            hits.incrementAndGet();
+            return true;
+        }
+        if (until != null) {
+            verifiedUntil.remove(key, until);
+        }
+        misses.incrementAndGet();
+        return false;
+    }
+
+    /**
+     * Caches a successful verification until the TTL elapses or {@code notAfterMillis}
+     * (e.g. the certificate's expiry), whichever comes first.
+     */
+    public void markVerified(String key, long notAfterMillis) {
+        long now = System.currentTimeMillis();
+        long until = Math.min(now + ttlMillis, notAfterMillis);
+        if (until <= now) {
+            return;
+        }
+        if (verifiedUntil.size() >= maxEntries) {
+            verifiedUntil.values().removeIf(expiry -> expiry <= now);
+            if (verifiedUntil.size() >= maxEntries) {
+                return;
+            }
+        }
+        verifiedUntil.put(key, until);
+    }
+
+    public void invalidateAll() {
+        verifiedUntil.clear();
+    }
+
+    public int size() {
+        return verifiedUntil.size();
+    }
+
+    public long hits() {
+        return hits.get();
+    }
+
+    public long misses() {
+        return misses.get();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("catalog.security.credential.cache.size", this, VerifiedCredentialCache::size)
+                .register(registry);
+        FunctionCounter.builder("catalog.security.credential.cache.requests", this, VerifiedCredentialCache::hits)
+                .tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder("catalog.security.credential.cache.requests", this, VerifiedCredentialCache::misses)
+                .tag("result", "miss")
+                .register(registry);
+    }
+}
@@ -0,0 +1,104 @@
+package com.globalbooks.catalog;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BookSearchIndexTest {
+
+    private static BookSearchIndex sampleIndex() {
+        BookSearchIndex index = new BookSearchIndex();
+        index.index(new Book("978-0201633610", "Design Patterns", "Erich Gamma", "Software Design", 54.99, 120));
+        index.index(new Book("978-1491904244", "Designing Data-Intensive Applications", "Martin Kleppmann",
+                "Databases", 59.99, 150));
+        index.index(new Book("978-0132350884", "Clean Code", "Robert C. Martin", "Software Engineering", 49.99, 200));
+        index.index(new Book("978-0321125217", "Domain-Driven Design", "Eric Evans", "Software Design", 64.99, 80));
+        return index;
+    }
+
+    @Test
+    void testTokensMatchAsPrefixesAndAllMustMatch() {
+        // Test that each query token matches a word prefix and multi-token queries are ANDed as a phrase
+        BookSearchIndex index = sampleIndex();
+
+        assertThat(index.search("desig", null))
+                .containsExactlyInAnyOrder("978-0201633610", "978-1491904244", "978-0321125217");
+        // Inside a word is not a word start
+        assertThat(index.search("sign", null)).isEmpty();
+        assertThat(index.search("MARTIN", null)).containsExactlyInAnyOrder("978-1491904244", "978-0132350884");
+        assertThat(index.search("robert martin", null)).isEmpty();
+        assertThat(index.search("c. martin", null)).containsExactly("978-0132350884");
+        assertThat(index.search("domain-driven", null)).containsExactly("978-0321125217");
+        assertThat(index.search("design gamma", null)).isEmpty();
+    }
+
+    @Test
+    void testCategoryFilterAndFacets() {
+        // Test that the category filter ignores case and facets count the query's matches per category
+        BookSearchIndex index = sampleIndex();
+
+        assertThat(index.search(null, "software design")).containsExactlyInAnyOrder("978-0201633610", "978-0321125217");
+        assertThat(index.search("design", " SOFTWARE DESIGN ")).hasSize(2);
+        assertThat(index.search("clean", "Databases")).isEmpty();
+        assertThat(index.search(null, "poetry")).isEmpty();
+
+        List<CategoryFacet> facets = index.categoryFacets("desig");
+        assertThat(facets).extracting(CategoryFacet::getCategory).containsExactly("Software Design", "Databases");
+        assertThat(facets).extracting(CategoryFacet::getCount).containsExactly(2, 1);
+        assertThat(index.categoryFacets(null)).extracting(CategoryFacet::getCount).containsExactly(2, 1, 1);
+    }
+
+    @Test
+    void testReindexAndRemoveUpdatePostings() {
+        // Test that re-indexing replaces old tokens and category, and removal drops the book everywhere
+        BookSearchIndex index = sampleIndex();
+
+        index.index(new Book("978-0132350884", "Clean Architecture", "Robert C. Martin", "Software Design",
+                39.99, 10));
+        assertThat(index.search("code", null)).isEmpty();
+        assertThat(index.search("architecture", "software design")).containsExactly("978-0132350884");
+        assertThat(index.categoryFacets(null)).extracting(CategoryFacet::getCategory)
+                .containsExactly("Software Design", "Databases");
+
+        index.remove("978-0132350884");
+        index.remove("978-0000000000");
+        assertThat(index.size()).isEqualTo(3);
+        assertThat(index.search("martin", null)).containsExactly("978-1491904244");
+        assertThat(index.categoryFacets(null)).extracting(CategoryFacet::getCount).containsExactly(2, 1);
+    }
+
+    @Test
+    void testQueriesWithoutTokensDoNotConstrain() {
+        // Test that blank and punctuation-only queries behave like no query at all
+        BookSearchIndex index = sampleIndex();
+
+        assertThat(index.search("", null)).hasSize(4);
+        assertThat(index.search("  ", null)).hasSize(4);
+        assertThat(index.search("--", null)).hasSize(4);
+        assertThat(index.search("?!", "software design")).containsExactlyInAnyOrder("978-0201633610", "978-0321125217");
+        assertThat(index.categoryFacets("...")).extracting(CategoryFacet::getCount).containsExactly(2, 1, 1);
+    }
+
+    @Test
+    void testSearchPageWalksInIsbnOrderAfterCursor() {
+        // Test that pages come in ISBN order from just after the cursor, each title once across prefix matches
+        BookSearchIndex index = sampleIndex();
+        index.index(new Book("978-0596007126", "Head First Design Patterns", "Eric Freeman", "Software Design",
+                39.99, 60));
+
+        // "design", "designing" and "patterns" postings all feed the prefix "des"
+        assertThat(index.searchPage("des", null, null, 10))
+                .containsExactly("978-0201633610", "978-0321125217", "978-0596007126", "978-1491904244");
+        assertThat(index.searchPage("des", null, "978-0321125217", 2))
+                .containsExactly("978-0596007126", "978-1491904244");
+        assertThat(index.searchPage("des", null, "978-1491904244", 2)).isEmpty();
+        assertThat(index.searchPage("design", "software design", "978-0201633610", 10))
+                .containsExactly("978-0321125217", "978-0596007126");
+        assertThat(index.searchPage(null, null, "978-0321125217", 2))
+                .containsExactly("978-0596007126", "978-1491904244");
+        assertThat(index.searchPage("design patterns", null, null, 10))
+                .containsExactly("978-0201633610", "978-0596007126");
+    }
+}
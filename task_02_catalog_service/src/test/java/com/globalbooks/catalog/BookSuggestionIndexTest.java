@@ -0,0 +1,86 @@
+package com.globalbooks.catalog;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BookSuggestionIndexTest {
+
+    private static List<String> isbns(List<BookSuggestionIndex.Suggestion> suggestions) {
+        return suggestions.stream().map(BookSuggestionIndex.Suggestion::getIsbn).collect(Collectors.toList());
+    }
+
+    private static BookSuggestionIndex sampleIndex() {
+        BookSuggestionIndex index = new BookSuggestionIndex();
+        index.index(new Book("978-0201633610", "Design Patterns", "Erich Gamma", "Software Design", 54.99, 120));
+        index.index(new Book("978-1491904244", "Designing Data-Intensive Applications", "Martin Kleppmann",
+                "Databases", 59.99, 150));
+        index.index(new Book("978-0132350884", "Clean Code", "Robert C. Martin", "Software Engineering", 49.99, 200));
+        index.index(new Book("978-0321125217", "Domain-Driven Design", "Eric Evans", "Software Design", 64.99, 80));
+        return index;
+    }
+
+    @Test
+    void testPrefixRanksTitleStartsFirstAndToleratesTypos() {
+        // Test that a leading title word outranks a later one and that one typo still completes
+        BookSuggestionIndex index = sampleIndex();
+
+        assertThat(isbns(index.suggest("desig", 10)))
+                .startsWith("978-0201633610", "978-1491904244")
+                .contains("978-0321125217");
+        assertThat(isbns(index.suggest("dezign", 10))).contains("978-0201633610", "978-0321125217");
+        assertThat(isbns(index.suggest("kleppman", 10))).containsExactly("978-1491904244");
+        assertThat(index.suggest("zzzzzz", 10)).isEmpty();
+    }
+
+    @Test
+    void testEarlierWordsNarrowSuggestions() {
+        // Test that every word but the last must prefix-match the same book
+        BookSuggestionIndex index = sampleIndex();
+
+        assertThat(isbns(index.suggest("martin cl", 10))).containsExactly("978-0132350884");
+        assertThat(isbns(index.suggest("domain des", 10))).containsExactly("978-0321125217");
+    }
+
+    @Test
+    void testRemoveAndReindexUpdateCachedTopLists() {
+        // Test that removed and renamed books leave every trie node's top list
+        BookSuggestionIndex index = sampleIndex();
+        index.remove("978-0201633610");
+        index.index(new Book("978-0321125217", "Tackling Complexity", "Eric Evans", "Software Design", 64.99, 80));
+
+        assertThat(isbns(index.suggest("design", 10))).containsExactly("978-1491904244");
+        assertThat(isbns(index.suggest("tack", 10))).containsExactly("978-0321125217");
+        assertThat(index.size()).isEqualTo(3);
+    }
+
+    @Test
+    void testTopListsHoldBestBooksBeyondCapacity() {
+        // Test that a prefix shared by more books than a node caches still returns the best ones
+        BookSuggestionIndex index = new BookSuggestionIndex();
+        for (int i = 0; i < 100; i++) {
+            index.index(new Book(String.format("isbn-%03d", i), "Series Volume " + i, "Author " + i,
+                    "Fiction", 10, 1));
+        }
+        index.index(new Book("isbn-best", "Volume One", "Someone", "Fiction", 10, 1));
+
+        List<BookSuggestionIndex.Suggestion> suggestions = index.suggest("vol", BookSuggestionIndex.TOP_K);
+        assertThat(suggestions).hasSize(BookSuggestionIndex.TOP_K);
+        assertThat(suggestions.get(0).getIsbn()).isEqualTo("isbn-best");
+    }
+
+    @Test
+    void testRankedSearchSumsWholeWordMatches() {
+        // Test that misspelled whole words match and books matching more words rank first
+        BookSuggestionIndex index = sampleIndex();
+
+        assertThat(isbns(index.search("desgin patterns", 10)))
+                .startsWith("978-0201633610")
+                .contains("978-0321125217")
+                .doesNotContain("978-1491904244");
+        assertThat(isbns(index.search("martin", 10))).containsExactlyInAnyOrder("978-0132350884", "978-1491904244");
+    }
+}
@@ -0,0 +1,129 @@
+package com.globalbooks.catalog;
+
+import com.sun.xml.fastinfoset.stax.StAXDocumentParser;
+import com.sun.xml.fastinfoset.stax.StAXDocumentSerializer;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.XMLStreamWriter;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Compares the wire size and client-side parse time of a searchBooksResponse
+ * envelope as plain XML, GZIP, Fast Infoset and Fast Infoset + GZIP, i.e. the
+ * encodings the CXF endpoint can negotiate. Run manually, e.g.
+ * {@code java -cp ... CatalogEncodingBenchmark 1000}.
+ */
+public class CatalogEncodingBenchmark {
+
+    private static final String SOAP_NS = "http://schemas.xmlsoap.org/soap/envelope/";
+    private static final String CATALOG_NS = "http://catalog.globalbooks.com/";
+    private static final String[] CATEGORIES = {
+        "Databases", "Software Engineering", "Software Design", "Fiction", "History"
+    };
+    private static final int ROUNDS = 200;
+    private static final XMLInputFactory INPUT_FACTORY = XMLInputFactory.newInstance();
+
+    public static void main(String[] args) throws Exception {
+        int books = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+
+        byte[] xml = serialize(books, false);
+        byte[] fi = serialize(books, true);
+
+        report("xml", xml, false, false);
+        report("xml+gzip", gzip(xml), false, true);
+        report("fi", fi, true, false);
+        report("fi+gzip", gzip(fi), true, true);
+    }
+
+    private static byte[] serialize(int books, boolean fastInfoset) throws XMLStreamException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        XMLStreamWriter writer;
+        if (fastInfoset) {
+            StAXDocumentSerializer serializer = new StAXDocumentSerializer();
+            serializer.setOutputStream(out);
+            writer = serializer;
+        } else {
+            writer = XMLOutputFactory.newInstance().createXMLStreamWriter(out, "UTF-8");
+        }
+        writer.writeStartDocument("UTF-8", "1.0");
+        writer.writeStartElement("soap", "Envelope", SOAP_NS);
+        writer.writeNamespace("soap", SOAP_NS);
+        writer.writeStartElement("soap", "Body", SOAP_NS);
+        writer.writeStartElement("tns", "searchBooksResponse", CATALOG_NS);
+        writer.writeNamespace("tns", CATALOG_NS);
+        for (int i = 0; i < books; i++) {
+            writer.writeStartElement("tns", "books", CATALOG_NS);
+            element(writer, "isbn", String.format("978-%010d", i));
+            element(writer, "title", "Title " + i);
+            element(writer, "author", "Author " + (i % 5_000));
+            element(writer, "category", CATEGORIES[i % CATEGORIES.length]);
+            element(writer, "price", String.valueOf(10 + (i % 90) + 0.99));
+            element(writer, "stock", String.valueOf(i % 500));
+            writer.writeEndElement();
+        }
+        writer.writeEndElement();
+        writer.writeEndElement();
+        writer.writeEndElement();
+        writer.writeEndDocument();
+        writer.close();
+        return out.toByteArray();
+    }
+
+    private static void element(XMLStreamWriter writer, String name, String value) throws XMLStreamException {
+        writer.writeStartElement("tns", name, CATALOG_NS);
+        writer.writeCharacters(value);
+        writer.writeEndElement();
+    }
+
+    private static void report(String encoding, byte[] payload, boolean fastInfoset, boolean gzipped)
+            throws IOException, XMLStreamException {
+        for (int i = 0; i < ROUNDS; i++) {
+            parse(payload, fastInfoset, gzipped);
+        }
+        long start = System.nanoTime();
+        long events = 0;
+        for (int i = 0; i < ROUNDS; i++) {
+            events += parse(payload, fastInfoset, gzipped);
+        }
+        double micros = (System.nanoTime() - start) / 1_000.0 / ROUNDS;
+        System.out.printf("%-9s %,10d bytes  %,10.1f us/parse  (%d events)%n",
+                encoding, payload.length, micros, events / ROUNDS);
+    }
+
+    private static int parse(byte[] payload, boolean fastInfoset, boolean gzipped)
+            throws IOException, XMLStreamException {
+        InputStream in = new ByteArrayInputStream(payload);
+        if (gzipped) {
+            in = new GZIPInputStream(in);
+        }
+        XMLStreamReader reader;
+        if (fastInfoset) {
+            reader = new StAXDocumentParser(in);
+        } else {
+            reader = INPUT_FACTORY.createXMLStreamReader(in);
+        }
+        int events = 0;
+        while (reader.hasNext()) {
+            reader.next();
+            events++;
+        }
+        reader.close();
+        return events;
+    }
+
+    private static byte[] gzip(byte[] payload) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(payload);
+        }
+        return out.toByteArray();
+    }
+}
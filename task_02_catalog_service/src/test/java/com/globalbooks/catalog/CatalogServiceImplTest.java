@@ -0,0 +1,142 @@
+package com.globalbooks.catalog;
+
+import com.globalbooks.catalog.cache.BookCache;
+import com.globalbooks.catalog.cache.IsbnBloomFilter;
+import com.globalbooks.catalog.feed.CatalogChangePublisher;
+import com.globalbooks.catalog.pricing.PriceVersions;
+import com.globalbooks.catalog.repository.BookRepository;
+import com.globalbooks.catalog.reservation.StockReservationEngine;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.core.AmqpTemplate;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class CatalogServiceImplTest {
+
+    private static final String ISBN = "978-0132350884";
+
+    private final BookRepository bookRepository = mock(BookRepository.class);
+    private final PriceVersions priceVersions = new PriceVersions(60_000, Long.MAX_VALUE / 2);
+    private final StockReservationEngine reservations = new StockReservationEngine(60_000, Long.MAX_VALUE / 2);
+    private final CatalogChangePublisher changes = new CatalogChangePublisher(mock(AmqpTemplate.class),
+            "catalog.changes", Long.MAX_VALUE / 2);
+    private final CatalogServiceImpl catalogService = new CatalogServiceImpl(bookRepository, new BookCache(100),
+            new IsbnBloomFilter(1000, 0.01), priceVersions, reservations, changes);
+
+    @AfterEach
+    void shutdown() {
+        priceVersions.shutdown();
+        reservations.shutdown();
+        changes.shutdown();
+    }
+
+    @Test
+    void testFailedSaveLeavesSnapshotsAtStoredPrice() {
+        // Test that a price whose repository write failed is never served from a snapshot
+        Book stored = new Book(ISBN, "Clean Code", "Robert C. Martin", "Software Engineering", 40.0, 10);
+        when(bookRepository.findAllById(anyIterable())).thenReturn(Collections.singletonList(stored));
+        catalogService.saveBook(stored);
+
+        when(bookRepository.save(any(Book.class))).thenThrow(new DataAccessResourceFailureException("down"));
+        when(bookRepository.saveAll(anyList())).thenThrow(new DataAccessResourceFailureException("down"));
+        Book repriced = new Book(ISBN, "Clean Code", "Robert C. Martin", "Software Engineering", 45.0, 10);
+        assertThatThrownBy(() -> catalogService.saveBook(repriced))
+                .isInstanceOf(DataAccessResourceFailureException.class);
+        assertThatThrownBy(() -> catalogService.saveBooks(Collections.singletonList(repriced)))
+                .isInstanceOf(DataAccessResourceFailureException.class);
+
+        long snapshot = catalogService.openPriceSnapshot().getSnapshotId();
+        List<BookPrice> prices = catalogService.getBookPrices(
+                Collections.singletonList(new BookQuantity(ISBN, 1)), snapshot);
+
+        assertThat(prices).singleElement().extracting(BookPrice::getPrice).isEqualTo(40.0);
+    }
+
+    @Test
+    void testBookPricesFollowLineOrderAndFlagUnknownBooks() {
+        // Test that every line is priced in request order, repeats included, and unknown books are not found
+        Book stored = new Book(ISBN, "Clean Code", "Robert C. Martin", "Software Engineering", 40.0, 10);
+        when(bookRepository.findAllById(anyIterable())).thenReturn(Collections.singletonList(stored));
+        catalogService.saveBook(stored);
+
+        List<BookPrice> prices = catalogService.getBookPrices(Arrays.asList(new BookQuantity(ISBN, 2),
+                new BookQuantity("978-0000000000", 1), new BookQuantity(ISBN, 3)));
+
+        assertThat(prices).extracting(BookPrice::getBookId)
+                .containsExactly(ISBN, "978-0000000000", ISBN);
+        assertThat(prices).extracting(BookPrice::getSubtotal).containsExactly(80.0, 0.0, 120.0);
+        assertThat(prices).extracting(BookPrice::isFound).containsExactly(true, false, true);
+    }
+
+    @Test
+    void testBatchAvailabilityChecksCombinedQuantityPerBook() {
+        // Test that lines for the same book are checked against its stock together, and unknown books are unavailable
+        Book stored = new Book(ISBN, "Clean Code", "Robert C. Martin", "Software Engineering", 40.0, 5);
+        when(bookRepository.findAllById(anyIterable())).thenReturn(Collections.singletonList(stored));
+        catalogService.saveBook(stored);
+
+        List<BookAvailability> separate = catalogService.checkAvailabilityBatch(
+                Arrays.asList(new BookQuantity(ISBN, 3), new BookQuantity("978-0000000000", 1)));
+        assertThat(separate).extracting(BookAvailability::isAvailable).containsExactly(true, false);
+
+        // Three and three fit one at a time but not together
+        List<BookAvailability> combined = catalogService.checkAvailabilityBatch(
+                Arrays.asList(new BookQuantity(ISBN, 3), new BookQuantity(ISBN, 3)));
+        assertThat(combined).extracting(BookAvailability::getQuantity).containsExactly(3, 3);
+        assertThat(combined).extracting(BookAvailability::isAvailable).containsExactly(false, false);
+
+        assertThat(catalogService.checkAvailabilityBatch(
+                Arrays.asList(new BookQuantity(ISBN, 2), new BookQuantity(ISBN, 3))))
+                .extracting(BookAvailability::isAvailable).containsExactly(true, true);
+    }
+
+    @Test
+    void testCursorPagesEndWithoutNextCursor() {
+        // Test that paging follows ISBN order, hands out a cursor only while more follow and rejects bad cursors
+        List<Book> books = Arrays.asList(
+                new Book("978-0201633610", "Design Patterns", "Erich Gamma", "Software Design", 54.99, 120),
+                new Book("978-0321125217", "Domain-Driven Design", "Eric Evans", "Software Design", 64.99, 80),
+                new Book("978-0596007126", "Head First Design Patterns", "Eric Freeman", "Software Design", 39.99, 60));
+        when(bookRepository.findAllById(anyIterable())).thenAnswer(invocation -> {
+            List<Book> found = new ArrayList<>();
+            Iterable<String> ids = invocation.getArgument(0);
+            ids.forEach(id -> books.stream().filter(book -> book.getIsbn().equals(id)).forEach(found::add));
+            return found;
+        });
+        catalogService.saveBooks(books);
+
+        List<String> seen = new ArrayList<>();
+        String cursor = catalogService.searchBooks("design", "software design", null, 2,
+                book -> seen.add(book.getIsbn()));
+        assertThat(seen).containsExactly("978-0201633610", "978-0321125217");
+        assertThat(SearchCursor.decode(cursor)).isEqualTo("978-0321125217");
+
+        cursor = catalogService.searchBooks("design", "software design", cursor, 2, book -> seen.add(book.getIsbn()));
+        assertThat(seen).endsWith("978-0596007126");
+        assertThat(cursor).isNull();
+
+        // A page that ends exactly on the last match has nothing after it either
+        seen.clear();
+        assertThat(catalogService.searchBooks("design", null, null, 3, book -> seen.add(book.getIsbn()))).isNull();
+        assertThat(seen).hasSize(3);
+
+        assertThatThrownBy(() -> catalogService.searchBooks("design", null, "not base64!", 2, book -> { }))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Invalid search cursor");
+        assertThat(SearchCursor.decode(SearchCursor.encode("978-0321125217"))).isEqualTo("978-0321125217");
+        assertThat(SearchCursor.decode(" ")).isNull();
+    }
+}
@@ -0,0 +1,50 @@
+package com.globalbooks.catalog;
+
+import org.junit.jupiter.api.Test;
+import org.w3c.dom.Document;
+import org.xml.sax.InputSource;
+
+import javax.xml.namespace.QName;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamWriter;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MarshalledPayloadTest {
+
+    @Test
+    void testReplaysIntoAnyNumberOfBodies() throws Exception {
+        // Test that the stored fragment is written out unchanged, namespaces and escaped text included
+        String fragment = "<ns2:getBookByIdResponse xmlns:ns2=\"http://catalog.globalbooks.com/\">"
+                + "<ns2:book><ns2:isbn>978-0132350884</ns2:isbn>"
+                + "<ns2:title>Clean Code: A &lt;Handbook&gt; &amp; more</ns2:title></ns2:book>"
+                + "</ns2:getBookByIdResponse>";
+        MarshalledPayload payload = new MarshalledPayload(
+                new QName("http://catalog.globalbooks.com/", "getBookByIdResponse"),
+                fragment.getBytes(StandardCharsets.UTF_8));
+
+        for (int i = 0; i < 2; i++) {
+            StringWriter body = new StringWriter();
+            XMLStreamWriter writer = XMLOutputFactory.newInstance().createXMLStreamWriter(body);
+            payload.writeTo(writer);
+            writer.flush();
+            // Writers differ in which characters they escape, so compare what the XML means
+            Document written = parse(body.toString());
+            assertThat(written.isEqualNode(parse(fragment))).as(body.toString()).isTrue();
+            assertThat(written.getElementsByTagNameNS("http://catalog.globalbooks.com/", "title")
+                    .item(0).getTextContent()).isEqualTo("Clean Code: A <Handbook> & more");
+        }
+    }
+
+    private static Document parse(String xml) throws Exception {
+        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+        factory.setNamespaceAware(true);
+        Document document = factory.newDocumentBuilder().parse(new InputSource(new StringReader(xml)));
+        document.normalizeDocument();
+        return document;
+    }
+}
@@ -0,0 +1,83 @@
+package com.globalbooks.catalog;
+
+import org.junit.jupiter.api.Test;
+import org.w3c.dom.Document;
+import org.w3c.dom.NodeList;
+import org.xml.sax.InputSource;
+
+import javax.xml.bind.JAXBContext;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamWriter;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SearchBooksStreamingPayloadTest {
+
+    private final List<Book> catalog = Arrays.asList(
+            new Book("978-0132350884", "Clean Code", "Robert C. Martin", "Software Engineering", 49.99, 200),
+            new Book("978-0201633610", "Design Patterns", "Erich Gamma", "Software Design", 54.99, 120),
+            new Book("978-0321125217", "Domain-Driven Design", "Eric Evans", "Software Design", 64.99, 80));
+
+    // Pages through the list by index, the way the stores hand out opaque positions
+    private final PagedCatalogSearch search = new PagedCatalogSearch() {
+        @Override
+        public String searchBooks(String query, String category, String cursor, int maxResults,
+                                  Consumer<Book> sink) {
+            String position = SearchCursor.decode(cursor);
+            int from = position == null ? 0 : Integer.parseInt(position);
+            int to = Math.min(from + maxResults, catalog.size());
+            catalog.subList(from, to).forEach(sink);
+            return to < catalog.size() ? SearchCursor.encode(Integer.toString(to)) : null;
+        }
+
+        @Override
+        public void searchBooksRanked(String query, String category, int maxResults,
+                                      Consumer<Book> sink) {
+            throw new UnsupportedOperationException();
+        }
+    };
+
+    @Test
+    void testWritesBooksAndCursorOnlyWhileMoreFollow() throws Exception {
+        // Test that each page is written as books plus a nextCursor, and the last page has no cursor
+        Document first = write(new SearchBooksRequest(), 2);
+        assertThat(first.getDocumentElement().getLocalName()).isEqualTo("searchBooksResponse");
+        assertThat(texts(first, "isbn")).containsExactly("978-0132350884", "978-0201633610");
+        assertThat(texts(first, "title")).containsExactly("Clean Code", "Design Patterns");
+        List<String> cursor = texts(first, "nextCursor");
+        assertThat(cursor).hasSize(1);
+
+        SearchBooksRequest next = new SearchBooksRequest();
+        next.setCursor(cursor.get(0));
+        Document last = write(next, 2);
+        assertThat(texts(last, "isbn")).containsExactly("978-0321125217");
+        assertThat(texts(last, "nextCursor")).isEmpty();
+    }
+
+    private Document write(SearchBooksRequest request, int maxResults) throws Exception {
+        StringWriter body = new StringWriter();
+        XMLStreamWriter writer = XMLOutputFactory.newInstance().createXMLStreamWriter(body);
+        new SearchBooksStreamingPayload(search, JAXBContext.newInstance(Book.class), request, maxResults)
+                .writeTo(writer);
+        writer.flush();
+        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+        factory.setNamespaceAware(true);
+        return factory.newDocumentBuilder().parse(new InputSource(new StringReader(body.toString())));
+    }
+
+    // Book fields are unqualified, the response wrapper and nextCursor are in the catalog namespace
+    private static List<String> texts(Document document, String localName) {
+        NodeList nodes = document.getElementsByTagNameNS("*", localName);
+        String[] texts = new String[nodes.getLength()];
+        for (int i = 0; i < texts.length; i++) {
+            texts[i] = nodes.item(i).getTextContent();
+        }
+        return Arrays.asList(texts);
+    }
+}
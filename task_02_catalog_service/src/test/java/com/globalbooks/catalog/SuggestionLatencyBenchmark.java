@@ -0,0 +1,90 @@
+package com.globalbooks.catalog;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Measures {@link BookSuggestionIndex#suggest} latency over a synthetic catalog
+ * whose titles and authors are drawn from a Zipf-like vocabulary, for prefix
+ * queries of each length with and without a typo. Run manually, e.g.
+ * {@code java -Xmx4g -cp ... SuggestionLatencyBenchmark 1000000}.
+ */
+public class SuggestionLatencyBenchmark {
+
+    private static final int VOCABULARY = 50_000;
+    private static final int QUERIES = 20_000;
+    private static final String LETTERS = "etaoinshrdlcumwfgypbvkjxqz";
+
+    public static void main(String[] args) {
+        int books = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        Random random = new Random(42);
+        String[] words = new String[VOCABULARY];
+        for (int i = 0; i < words.length; i++) {
+            words[i] = word(random, 3 + random.nextInt(8));
+        }
+
+        BookSuggestionIndex index = new BookSuggestionIndex();
+        long started = System.nanoTime();
+        for (int i = 0; i < books; i++) {
+            index.index(new Book("isbn-" + i, phrase(random, words, 2 + random.nextInt(4)),
+                    phrase(random, words, 2), "Fiction", 10, 1));
+        }
+        System.out.printf("indexed %,d books in %,d ms%n", books, (System.nanoTime() - started) / 1_000_000);
+
+        for (int length = 1; length <= 8; length++) {
+            report(index, random, words, length, false);
+            if (length >= 3) {
+                report(index, random, words, length, true);
+            }
+        }
+    }
+
+    private static void report(BookSuggestionIndex index, Random random, String[] words, int length, boolean typo) {
+        String[] queries = new String[QUERIES];
+        for (int i = 0; i < queries.length; i++) {
+            String word = zipf(random, words);
+            String prefix = word.substring(0, Math.min(length, word.length()));
+            if (typo) {
+                char[] chars = prefix.toCharArray();
+                chars[random.nextInt(chars.length)] = LETTERS.charAt(random.nextInt(LETTERS.length()));
+                prefix = new String(chars);
+            }
+            queries[i] = prefix;
+        }
+        for (String query : queries) {
+            index.suggest(query, 10);
+        }
+
+        long[] nanos = new long[queries.length];
+        for (int i = 0; i < queries.length; i++) {
+            long started = System.nanoTime();
+            index.suggest(queries[i], 10);
+            nanos[i] = System.nanoTime() - started;
+        }
+        Arrays.sort(nanos);
+        System.out.printf("prefix %d%-6s p50 %,7.1f us  p99 %,8.1f us%n", length, typo ? " typo" : "",
+                nanos[nanos.length / 2] / 1000.0, nanos[nanos.length * 99 / 100] / 1000.0);
+    }
+
+    private static String phrase(Random random, String[] words, int count) {
+        StringBuilder phrase = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            phrase.append(i == 0 ? "" : " ").append(zipf(random, words));
+        }
+        return phrase.toString();
+    }
+
+    private static String zipf(Random random, String[] words) {
+        // Cubing a uniform draw skews picks towards the front of the vocabulary
+        double u = random.nextDouble();
+        return words[(int) (u * u * u * words.length)];
+    }
+
+    private static String word(Random random, int length) {
+        char[] chars = new char[length];
+        for (int i = 0; i < length; i++) {
+            chars[i] = LETTERS.charAt((int) (Math.pow(random.nextDouble(), 2) * LETTERS.length()));
+        }
+        return new String(chars);
+    }
+}
@@ -0,0 +1,164 @@
+package com.globalbooks.catalog;
+
+import com.globalbooks.security.ServerPasswordCallback;
+import org.apache.wss4j.common.crypto.Crypto;
+import org.apache.wss4j.common.crypto.CryptoFactory;
+import org.apache.wss4j.dom.WSConstants;
+import org.apache.wss4j.dom.engine.WSSecurityEngine;
+import org.apache.wss4j.dom.handler.RequestData;
+import org.apache.wss4j.dom.message.WSSecHeader;
+import org.apache.wss4j.dom.message.WSSecSignature;
+import org.apache.wss4j.dom.message.WSSecTimestamp;
+import org.apache.wss4j.dom.message.WSSecUsernameToken;
+import org.apache.wss4j.stax.ext.WSSSecurityProperties;
+import org.apache.wss4j.stax.setup.ConfigurationConverter;
+import org.apache.wss4j.stax.setup.InboundWSSec;
+import org.apache.wss4j.stax.setup.WSSec;
+import org.w3c.dom.Document;
+
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.stream.StreamResult;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compares inbound WS-Security processing of signed UsernameToken + Timestamp
+ * requests in DOM mode (parse the envelope, then WSS4J's DOM engine) against
+ * streaming mode (WSS4J StAX, configured from {@link WSSecurityConfig#inboundProperties(Crypto)}).
+ * Each mode gets its own freshly signed messages so replay detection is not tripped.
+ * Run manually with src/main/resources on the classpath, e.g.
+ * {@code java -cp ... WSSecurityModeBenchmark 5000 50}.
+ */
+public class WSSecurityModeBenchmark {
+
+    private static final String SOAP_NS = "http://schemas.xmlsoap.org/soap/envelope/";
+    private static final String CATALOG_NS = "http://catalog.globalbooks.com/";
+
+    public static void main(String[] args) throws Exception {
+        int requests = args.length > 0 ? Integer.parseInt(args[0]) : 5000;
+        int items = args.length > 1 ? Integer.parseInt(args[1]) : 50;
+
+        Crypto crypto = CryptoFactory.getInstance("server-crypto.properties");
+        String envelope = envelope(items);
+
+        run("dom", signedMessages(crypto, envelope, requests), crypto);
+        run("streaming", signedMessages(crypto, envelope, requests), crypto);
+    }
+
+    private static void run(String mode, List<byte[]> messages, Crypto crypto) throws Exception {
+        InboundProcessor processor = "dom".equals(mode) ? domProcessor(crypto) : streamingProcessor(crypto);
+
+        // First half warms up, second half is measured
+        int half = messages.size() / 2;
+        for (int i = 0; i < half; i++) {
+            processor.process(messages.get(i));
+        }
+
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+        long allocatedBefore = threads.getThreadAllocatedBytes(thread);
+        long start = System.nanoTime();
+        for (int i = half; i < messages.size(); i++) {
+            processor.process(messages.get(i));
+        }
+        long elapsed = System.nanoTime() - start;
+        long allocated = threads.getThreadAllocatedBytes(thread) - allocatedBefore;
+
+        int measured = messages.size() - half;
+        double seconds = elapsed / 1e9;
+        System.out.printf("%-10s %,8d req  %,9.0f req/s  %,9d bytes/req  %,8.1f MB/s allocated  (%,d byte messages)%n",
+                mode, measured, measured / seconds, allocated / measured,
+                allocated / seconds / (1024 * 1024), messages.get(0).length);
+    }
+
+    private static InboundProcessor domProcessor(Crypto crypto) throws Exception {
+        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+        factory.setNamespaceAware(true);
+        DocumentBuilder builder = factory.newDocumentBuilder();
+        WSSecurityEngine engine = new WSSecurityEngine();
+        return message -> {
+            Document document = builder.parse(new ByteArrayInputStream(message));
+            RequestData data = new RequestData();
+            data.setCallbackHandler(new ServerPasswordCallback());
+            data.setSigVerCrypto(crypto);
+            engine.processSecurityHeader(document, data);
+        };
+    }
+
+    private static InboundProcessor streamingProcessor(Crypto crypto) throws Exception {
+        WSSSecurityProperties properties = ConfigurationConverter.convert(WSSecurityConfig.inboundProperties(crypto));
+        properties.setCallbackHandler(new ServerPasswordCallback());
+        InboundWSSec inbound = WSSec.getInboundWSSec(properties);
+        XMLInputFactory inputFactory = XMLInputFactory.newInstance();
+        return message -> {
+            XMLStreamReader reader = inbound.processInMessage(
+                    inputFactory.createXMLStreamReader(new ByteArrayInputStream(message)));
+            while (reader.hasNext()) {
+                reader.next();
+            }
+            reader.close();
+        };
+    }
+
+    private static List<byte[]> signedMessages(Crypto crypto, String envelope, int count) throws Exception {
+        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+        factory.setNamespaceAware(true);
+        DocumentBuilder builder = factory.newDocumentBuilder();
+        TransformerFactory transformerFactory = TransformerFactory.newInstance();
+
+        List<byte[]> messages = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Document document = builder.parse(new ByteArrayInputStream(envelope.getBytes(StandardCharsets.UTF_8)));
+            WSSecHeader header = new WSSecHeader(document);
+            header.insertSecurityHeader();
+
+            WSSecTimestamp timestamp = new WSSecTimestamp(header);
+            timestamp.setTimeToLive(3600);
+            timestamp.build();
+
+            WSSecUsernameToken usernameToken = new WSSecUsernameToken(header);
+            usernameToken.setPasswordType(WSConstants.PASSWORD_TEXT);
+            usernameToken.setUserInfo("client", "client123");
+            usernameToken.addNonce();
+            usernameToken.addCreated();
+            usernameToken.build();
+
+            WSSecSignature signature = new WSSecSignature(header);
+            signature.setUserInfo("server", "storepass");
+            signature.setKeyIdentifierType(WSConstants.BST_DIRECT_REFERENCE);
+            signature.build(crypto);
+
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            transformerFactory.newTransformer().transform(new DOMSource(document), new StreamResult(out));
+            messages.add(out.toByteArray());
+        }
+        return messages;
+    }
+
+    private static String envelope(int items) {
+        StringBuilder body = new StringBuilder();
+        body.append("<soap:Envelope xmlns:soap=\"").append(SOAP_NS).append("\">")
+                .append("<soap:Header/><soap:Body>")
+                .append("<tns:getBookPricesRequest xmlns:tns=\"").append(CATALOG_NS).append("\">");
+        for (int i = 0; i < items; i++) {
+            body.append("<tns:items><tns:bookId>")
+                    .append(String.format("978-%010d", i))
+                    .append("</tns:bookId><tns:quantity>").append(1 + i % 5).append("</tns:quantity></tns:items>");
+        }
+        body.append("</tns:getBookPricesRequest></soap:Body></soap:Envelope>");
+        return body.toString();
+    }
+
+    private interface InboundProcessor {
+        void process(byte[] message) throws Exception;
+    }
+}
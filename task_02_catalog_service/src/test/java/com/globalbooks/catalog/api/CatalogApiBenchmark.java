@@ -0,0 +1,114 @@
+package com.globalbooks.catalog.api;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.globalbooks.catalog.BookPrice;
+import com.globalbooks.catalog.BookQuantity;
+import com.globalbooks.catalog.GetBookPriceRequest;
+import com.globalbooks.catalog.GetBookPriceResponse;
+
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.Marshaller;
+import javax.xml.bind.Unmarshaller;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.XMLStreamWriter;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Compares the per-request message handling cost of a single price lookup through
+ * the JSON API (Jackson read + write) against the SOAP path without security
+ * (envelope parse, JAXB unmarshal, JAXB marshal into an envelope). The catalog
+ * lookup itself is the same bean in both cases and is left out. WS-Security adds
+ * the cost measured by WSSecurityModeBenchmark on top of the SOAP figure.
+ * Run manually, e.g. {@code java -cp ... CatalogApiBenchmark 200000}.
+ */
+public class CatalogApiBenchmark {
+
+    private static final String SOAP_NS = "http://schemas.xmlsoap.org/soap/envelope/";
+    private static final String CATALOG_NS = "http://catalog.globalbooks.com/";
+    private static final String ISBN = "978-0134685991";
+
+    private static volatile Object sink;
+
+    public static void main(String[] args) throws Exception {
+        int requests = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+
+        ObjectMapper objectMapper = new ObjectMapper();
+        byte[] jsonRequest = ("{\"bookId\":\"" + ISBN + "\"}").getBytes(StandardCharsets.UTF_8);
+
+        JAXBContext jaxbContext = JAXBContext.newInstance(GetBookPriceRequest.class, GetBookPriceResponse.class);
+        XMLInputFactory inputFactory = XMLInputFactory.newInstance();
+        XMLOutputFactory outputFactory = XMLOutputFactory.newInstance();
+        byte[] soapRequest = ("<soap:Envelope xmlns:soap=\"" + SOAP_NS + "\"><soap:Header/><soap:Body>"
+                + "<tns:getBookPriceRequest xmlns:tns=\"" + CATALOG_NS + "\"><tns:bookId>" + ISBN
+                + "</tns:bookId></tns:getBookPriceRequest></soap:Body></soap:Envelope>")
+                .getBytes(StandardCharsets.UTF_8);
+
+        Handler json = () -> {
+            BookQuantity request = objectMapper.readValue(jsonRequest, BookQuantity.class);
+            BookPrice price = new BookPrice(request.getBookId(), 1, 47.99, true);
+            return objectMapper.writeValueAsBytes(price);
+        };
+
+        Handler soap = () -> {
+            XMLStreamReader reader = inputFactory.createXMLStreamReader(new ByteArrayInputStream(soapRequest));
+            while (!(reader.next() == XMLStreamConstants.START_ELEMENT && "getBookPriceRequest".equals(reader.getLocalName()))) {
+                // Skip Envelope, Header and Body
+            }
+            Unmarshaller unmarshaller = jaxbContext.createUnmarshaller();
+            GetBookPriceRequest request = (GetBookPriceRequest) unmarshaller.unmarshal(reader);
+            GetBookPriceResponse response = new GetBookPriceResponse();
+            response.setPrice(request.getBookId() != null ? 47.99 : 0.0);
+
+            ByteArrayOutputStream out = new ByteArrayOutputStream(512);
+            XMLStreamWriter writer = outputFactory.createXMLStreamWriter(out, "UTF-8");
+            writer.writeStartDocument();
+            writer.writeStartElement("soap", "Envelope", SOAP_NS);
+            writer.writeNamespace("soap", SOAP_NS);
+            writer.writeStartElement("soap", "Body", SOAP_NS);
+            Marshaller marshaller = jaxbContext.createMarshaller();
+            marshaller.setProperty(Marshaller.JAXB_FRAGMENT, Boolean.TRUE);
+            marshaller.marshal(response, writer);
+            writer.writeEndElement();
+            writer.writeEndElement();
+            writer.writeEndDocument();
+            writer.close();
+            return out.toByteArray();
+        };
+
+        run("json", json, requests, jsonRequest.length);
+        run("soap", soap, requests, soapRequest.length);
+    }
+
+    private static void run(String path, Handler handler, int requests, int requestBytes) throws Exception {
+        for (int i = 0; i < requests; i++) {
+            sink = handler.handle();
+        }
+
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+        long allocatedBefore = threads.getThreadAllocatedBytes(thread);
+        long start = System.nanoTime();
+        int responseBytes = 0;
+        for (int i = 0; i < requests; i++) {
+            byte[] response = handler.handle();
+            responseBytes = response.length;
+            sink = response;
+        }
+        long elapsed = System.nanoTime() - start;
+        long allocated = threads.getThreadAllocatedBytes(thread) - allocatedBefore;
+
+        System.out.printf("%-5s %,10.0f req/s  %,7.2f us/req  %,7d bytes allocated/req  (%d bytes in, %d bytes out)%n",
+                path, requests / (elapsed / 1e9), elapsed / 1e3 / requests, allocated / requests,
+                requestBytes, responseBytes);
+    }
+
+    private interface Handler {
+        byte[] handle() throws Exception;
+    }
+}
@@ -0,0 +1,84 @@
+package com.globalbooks.catalog.api;
+
+import com.globalbooks.catalog.BookAvailability;
+import com.globalbooks.catalog.BookPrice;
+import com.globalbooks.catalog.BookQuantity;
+import com.globalbooks.catalog.CatalogService;
+import com.globalbooks.catalog.CheckAvailabilityBatchResponse;
+import com.globalbooks.catalog.GetBookPricesResponse;
+import com.globalbooks.catalog.SnapshotPricing;
+import com.globalbooks.catalog.pricing.PriceSnapshotExpiredException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class CatalogRestControllerTest {
+
+    private final CatalogService catalogService = mock(CatalogService.class);
+    private final SnapshotPricing snapshotPricing = mock(SnapshotPricing.class);
+    private final CatalogRestController controller = new CatalogRestController();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(controller, "catalogService", catalogService);
+        ReflectionTestUtils.setField(controller, "snapshotPricing", snapshotPricing);
+    }
+
+    @Test
+    void testPricesTotalCoversFoundLinesOnly() {
+        // Test that the batch total adds up the line subtotals, with unknown books contributing nothing
+        List<BookQuantity> items = Arrays.asList(new BookQuantity("978-0132350884", 2),
+                new BookQuantity("978-0000000000", 1), new BookQuantity("978-0201633610", 1));
+        when(catalogService.getBookPrices(items)).thenReturn(Arrays.asList(
+                new BookPrice("978-0132350884", 2, 40.0, true),
+                new BookPrice("978-0000000000", 1, 0.0, false),
+                new BookPrice("978-0201633610", 1, 54.5, true)));
+
+        ResponseEntity<GetBookPricesResponse> response = controller.getPrices(items, null);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody().getPrices()).extracting(BookPrice::isFound).containsExactly(true, false, true);
+        assertThat(response.getBody().getTotalAmount()).isEqualTo(134.5);
+    }
+
+    @Test
+    void testExpiredSnapshotAnswersGone() {
+        // Test that pricing against an expired snapshot tells the caller to start over
+        when(snapshotPricing.getBookPrices(anyList(), anyLong())).thenThrow(new PriceSnapshotExpiredException(7L));
+
+        ResponseEntity<GetBookPricesResponse> response = controller.getPrices(
+                Arrays.asList(new BookQuantity("978-0132350884", 1)), 7L);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.GONE);
+    }
+
+    @Test
+    void testAllAvailableOnlyWhenEveryLineIs() {
+        // Test that one unavailable line makes the whole batch unavailable
+        List<BookQuantity> items = Arrays.asList(new BookQuantity("978-0132350884", 2),
+                new BookQuantity("978-0000000000", 1));
+        when(catalogService.checkAvailabilityBatch(items)).thenReturn(Arrays.asList(
+                new BookAvailability("978-0132350884", 2, true), new BookAvailability("978-0000000000", 1, false)));
+        List<BookQuantity> available = Arrays.asList(new BookQuantity("978-0132350884", 2));
+        when(catalogService.checkAvailabilityBatch(available)).thenReturn(Arrays.asList(
+                new BookAvailability("978-0132350884", 2, true)));
+
+        CheckAvailabilityBatchResponse partial = controller.checkAvailability(items).getBody();
+        CheckAvailabilityBatchResponse whole = controller.checkAvailability(available).getBody();
+
+        assertThat(partial.getResults()).hasSize(2);
+        assertThat(partial.isAllAvailable()).isFalse();
+        assertThat(whole.isAllAvailable()).isTrue();
+    }
+}
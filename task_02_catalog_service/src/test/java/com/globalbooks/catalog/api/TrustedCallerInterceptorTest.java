@@ -0,0 +1,22 @@
+package com.globalbooks.catalog.api;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TrustedCallerInterceptorTest {
+
+    @Test
+    void testOnlyAddressesInsideTrustedRangesAreAdmitted() {
+        // Test that CIDR matching honours partial-byte prefixes and address families
+        TrustedCallerInterceptor interceptor = new TrustedCallerInterceptor(
+                new String[] {"127.0.0.0/8", "172.16.0.0/12", "::1/128", " "});
+
+        assertThat(interceptor.isTrusted("127.0.0.1")).isTrue();
+        assertThat(interceptor.isTrusted("172.31.255.254")).isTrue();
+        assertThat(interceptor.isTrusted("172.32.0.1")).isFalse();
+        assertThat(interceptor.isTrusted("192.168.1.10")).isFalse();
+        assertThat(interceptor.isTrusted("0:0:0:0:0:0:0:1")).isTrue();
+        assertThat(interceptor.isTrusted("2001:db8::1")).isFalse();
+    }
+}
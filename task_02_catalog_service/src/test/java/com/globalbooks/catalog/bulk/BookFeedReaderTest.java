@@ -0,0 +1,57 @@
+package com.globalbooks.catalog.bulk;
+
+import com.globalbooks.catalog.Book;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BookFeedReaderTest {
+
+    @Test
+    void testCsvFeedHandlesQuotingAndSkipsBadRows() throws IOException {
+        // Test quoted commas, doubled quotes, embedded newlines and a non-numeric price
+        String csv = "stock,isbn,title,author,category,price\r\n"
+                + "150,978-1491904244,\"Designing Data-Intensive Applications\",Martin Kleppmann,Databases,59.99\r\n"
+                + "200,978-0132350884,\"Clean Code: A \"\"Handbook\"\"\",\"Martin, Robert C.\",Software Engineering,49.99\n"
+                + "1,978-0000000000,\"Two\nLines\",Someone,Fiction,not-a-price\n"
+                + "\n"
+                + "120,978-0201633610,Design Patterns,Erich Gamma,Software Design,54.99";
+        List<Book> books = new ArrayList<>();
+        int rejected = new CsvBookFeedReader().read(stream(csv), books::add);
+
+        assertThat(rejected).isEqualTo(1);
+        assertThat(books).hasSize(3);
+        assertThat(books.get(1).getTitle()).isEqualTo("Clean Code: A \"Handbook\"");
+        assertThat(books.get(1).getAuthor()).isEqualTo("Martin, Robert C.");
+        assertThat(books.get(2).getStock()).isEqualTo(120);
+        assertThat(books.get(2).getPrice()).isEqualTo(54.99);
+    }
+
+    @Test
+    void testJsonFeedAcceptsArrayAndObjectSequence() throws IOException {
+        // Test both layouts and that unknown nested fields are skipped
+        String array = "[{\"isbn\":\"978-1491904244\",\"title\":\"DDIA\",\"price\":59.99,\"stock\":150,"
+                + "\"extra\":{\"a\":[1,2]}},{\"title\":\"No ISBN\"}]";
+        String lines = "{\"isbn\":\"978-0132350884\",\"title\":\"Clean Code\",\"price\":49.99}\n"
+                + "{\"isbn\":\"978-0201633610\",\"title\":\"Design Patterns\",\"stock\":120}\n";
+
+        List<Book> books = new ArrayList<>();
+        assertThat(new JsonBookFeedReader().read(stream(array), books::add)).isEqualTo(1);
+        assertThat(new JsonBookFeedReader().read(stream(lines), books::add)).isZero();
+
+        assertThat(books).hasSize(3);
+        assertThat(books.get(0).getStock()).isEqualTo(150);
+        assertThat(books.get(1).getPrice()).isEqualTo(49.99);
+        assertThat(books.get(2).getStock()).isEqualTo(120);
+    }
+
+    private static ByteArrayInputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
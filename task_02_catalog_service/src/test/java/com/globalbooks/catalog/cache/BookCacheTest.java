@@ -0,0 +1,113 @@
+package com.globalbooks.catalog.cache;
+
+import com.globalbooks.catalog.Book;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BookCacheTest {
+
+    private final Map<String, Book> store = new HashMap<>();
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private final Function<String, Book> loader = isbn -> {
+        loads.incrementAndGet();
+        return store.get(isbn);
+    };
+
+    private final Function<Iterable<? extends String>, Map<String, Book>> bulkLoader = isbns -> {
+        Map<String, Book> found = new HashMap<>();
+        for (String isbn : isbns) {
+            loads.incrementAndGet();
+            if (store.containsKey(isbn)) {
+                found.put(isbn, store.get(isbn));
+            }
+        }
+        return found;
+    };
+
+    @Test
+    void testHitsMissesAndInvalidation() {
+        // Test that repeat reads hit, unknown ISBNs are not cached and invalidation reloads
+        store.put("978-0132350884", new Book("978-0132350884", "Clean Code", "Robert C. Martin",
+                "Software Engineering", 49.99, 200));
+        BookCache cache = new BookCache(100);
+
+        assertThat(cache.get("978-0132350884", loader).getPrice()).isEqualTo(49.99);
+        assertThat(cache.get("978-0132350884", loader).getPrice()).isEqualTo(49.99);
+        assertThat(loads.get()).isEqualTo(1);
+        assertThat(cache.stats().hitCount()).isEqualTo(1);
+
+        assertThat(cache.get("978-0000000000", loader)).isNull();
+        assertThat(cache.get("978-0000000000", loader)).isNull();
+        assertThat(loads.get()).isEqualTo(3);
+
+        store.get("978-0132350884").setPrice(39.99);
+        cache.invalidate("978-0132350884");
+        assertThat(cache.get("978-0132350884", loader).getPrice()).isEqualTo(39.99);
+        assertThat(loads.get()).isEqualTo(4);
+    }
+
+    @Test
+    void testBulkReadsLoadOnlyMissingTitles() {
+        // Test that getAll serves cached titles and loads the rest in one call
+        store.put("978-0132350884", new Book("978-0132350884", "Clean Code", "Robert C. Martin",
+                "Software Engineering", 49.99, 200));
+        store.put("978-0201633610", new Book("978-0201633610", "Design Patterns", "Erich Gamma",
+                "Software Design", 54.99, 120));
+        BookCache cache = new BookCache(100);
+        cache.get("978-0132350884", loader);
+
+        Map<String, Book> books = cache.getAll(
+                Arrays.asList("978-0132350884", "978-0201633610", "978-0000000000"), bulkLoader);
+
+        assertThat(books).containsOnlyKeys("978-0132350884", "978-0201633610");
+        // One single load, then the two titles that were not cached
+        assertThat(loads.get()).isEqualTo(3);
+    }
+
+    @Test
+    void testReadersCannotModifyCachedBooks() {
+        // Test that changing a returned book does not change what the next reader gets
+        store.put("978-0132350884", new Book("978-0132350884", "Clean Code", "Robert C. Martin",
+                "Software Engineering", 49.99, 200));
+        BookCache cache = new BookCache(100);
+
+        Book first = cache.get("978-0132350884", loader);
+        first.setPrice(0.01);
+        cache.getAll(Arrays.asList("978-0132350884"), bulkLoader).get("978-0132350884").setStock(0);
+
+        Book second = cache.get("978-0132350884", loader);
+        assertThat(second).isNotSameAs(first);
+        assertThat(second.getPrice()).isEqualTo(49.99);
+        assertThat(second.getStock()).isEqualTo(200);
+        assertThat(loads.get()).isEqualTo(1);
+    }
+
+    @Test
+    void testBulkLoadRacingInvalidationIsNotCached() {
+        // Test that a bulk read from before a write is not cached after the write invalidated the title
+        store.put("978-0132350884", new Book("978-0132350884", "Clean Code", "Robert C. Martin",
+                "Software Engineering", 49.99, 200));
+        BookCache cache = new BookCache(100);
+
+        Map<String, Book> stale = cache.getAll(Arrays.asList("978-0132350884"), isbns -> {
+            Map<String, Book> read = bulkLoader.apply(isbns);
+            // The write commits and invalidates while this load is still in flight
+            store.put("978-0132350884", new Book("978-0132350884", "Clean Code", "Robert C. Martin",
+                    "Software Engineering", 39.99, 199));
+            cache.invalidate("978-0132350884");
+            return read;
+        });
+
+        assertThat(stale.get("978-0132350884").getPrice()).isEqualTo(49.99);
+        assertThat(cache.get("978-0132350884", loader).getPrice()).isEqualTo(39.99);
+        assertThat(loads.get()).isEqualTo(2);
+    }
+}
@@ -0,0 +1,30 @@
+package com.globalbooks.catalog.cache;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IsbnBloomFilterTest {
+
+    @Test
+    void testNoFalseNegativesAndBoundedFalsePositives() {
+        // Test that every added ISBN is reported and unknown ones rarely slip through
+        int size = 100_000;
+        IsbnBloomFilter filter = new IsbnBloomFilter(size, 0.01);
+        for (int i = 0; i < size; i++) {
+            filter.put("978-" + (1_000_000_000L + i));
+        }
+
+        for (int i = 0; i < size; i++) {
+            assertThat(filter.mightContain("978-" + (1_000_000_000L + i))).isTrue();
+        }
+        int falsePositives = 0;
+        for (int i = 0; i < size; i++) {
+            if (filter.mightContain("979-" + (1_000_000_000L + i))) {
+                falsePositives++;
+            }
+        }
+        assertThat(falsePositives).isLessThan(size * 2 / 100);
+        assertThat(filter.mightContain(null)).isFalse();
+    }
+}
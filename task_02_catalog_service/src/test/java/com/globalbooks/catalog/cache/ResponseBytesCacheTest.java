@@ -0,0 +1,58 @@
+package com.globalbooks.catalog.cache;
+
+import com.globalbooks.catalog.MarshalledPayload;
+import org.junit.jupiter.api.Test;
+
+import javax.xml.namespace.QName;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ResponseBytesCacheTest {
+
+    private static final QName NAME = new QName("http://catalog.globalbooks.com/", "getBookPriceResponse");
+
+    private static MarshalledPayload payload(String price) {
+        return new MarshalledPayload(NAME, ("<price>" + price + "</price>").getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testChangeDropsEverySpellingOfTheTitle() {
+        // Test that a change announced under the stored ISBN drops responses cached under other spellings
+        ResponseBytesCache cache = new ResponseBytesCache(100);
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.get("getBookPrice", "978-0201633610", () -> payload("54.99" + loads.incrementAndGet()));
+        cache.get("getBookPrice", "0201633612", () -> payload("54.99" + loads.incrementAndGet()));
+        cache.get("getBookById", "978-0201633610", () -> payload("book" + loads.incrementAndGet()));
+        assertThat(cache.get("getBookPrice", "978-0201633610", () -> payload("unused"))).isNotNull();
+        assertThat(loads.get()).isEqualTo(3);
+        assertThat(cache.hits()).isEqualTo(1);
+
+        cache.bookChanged("9780201633610");
+
+        assertThat(cache.getIfPresent("getBookPrice", "978-0201633610")).isNull();
+        assertThat(cache.getIfPresent("getBookPrice", "0201633612")).isNull();
+        assertThat(cache.getIfPresent("getBookById", "978-0201633610")).isNull();
+    }
+
+    @Test
+    void testLoadRacingAChangeIsNotCached() {
+        // Test that a response computed while its title changed is returned but not kept
+        ResponseBytesCache cache = new ResponseBytesCache(100);
+
+        MarshalledPayload stale = cache.get("getBookPrice", "978-1491904244", () -> {
+            cache.bookChanged("978-1491904244");
+            return payload("59.99");
+        });
+
+        assertThat(stale).isNotNull();
+        assertThat(cache.getIfPresent("getBookPrice", "978-1491904244")).isNull();
+        cache.get("getBookPrice", "978-1491904244", () -> payload("49.99"));
+        assertThat(cache.getIfPresent("getBookPrice", "978-1491904244")).isNotNull();
+
+        cache.catalogReloaded();
+        assertThat(cache.getIfPresent("getBookPrice", "978-1491904244")).isNull();
+    }
+}
@@ -0,0 +1,73 @@
+package com.globalbooks.catalog.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SingleFlightTest {
+
+    private static final int THREADS = 16;
+
+    @Test
+    void testConcurrentCallsShareOneExecution() throws Exception {
+        // Test that callers arriving while the work runs get its result instead of running it again
+        SingleFlight<String, String> flight = new SingleFlight<>();
+        AtomicInteger runs = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                results.add(pool.submit(() -> flight.execute("978-1491904244", () -> {
+                    runs.incrementAndGet();
+                    await(release);
+                    return "book";
+                })));
+            }
+            while (flight.executed() + flight.shared() < THREADS) {
+                Thread.sleep(1);
+            }
+            release.countDown();
+            for (Future<String> result : results) {
+                assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("book");
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertThat(runs.get()).isEqualTo(1);
+        assertThat(flight.shared()).isEqualTo(THREADS - 1);
+        // Nothing is retained once the call has completed
+        assertThat(flight.execute("978-1491904244", () -> "again")).isEqualTo("again");
+    }
+
+    @Test
+    void testFailureIsSharedAndNotRetained() {
+        // Test that a failing call propagates its exception and the next call runs afresh
+        SingleFlight<String, String> flight = new SingleFlight<>();
+
+        assertThatThrownBy(() -> flight.execute("isbn", () -> {
+            throw new IllegalStateException("store down");
+        })).isInstanceOf(IllegalStateException.class);
+        assertThat(flight.execute("isbn", () -> "recovered")).isEqualTo("recovered");
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.globalbooks.catalog.columnar;
+
+import com.globalbooks.catalog.Book;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Compares retained heap of the columnar store against the original
+ * {@code HashMap<String, Book>} layout. Run manually, one layout per JVM so the
+ * two do not share the heap, e.g.
+ * {@code java -Xmx8g -cp ... CatalogFootprintBenchmark 10000000 columnar}.
+ */
+public class CatalogFootprintBenchmark {
+
+    private static final String[] CATEGORIES = {
+        "Databases", "Software Engineering", "Software Design", "Fiction", "History",
+        "Science", "Children", "Travel", "Cooking", "Biography"
+    };
+
+    private static volatile Object retained;
+
+    public static void main(String[] args) {
+        int books = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        String layout = args.length > 1 ? args[1] : "columnar";
+
+        long baseline = usedHeap();
+        if ("hashmap".equals(layout)) {
+            Map<String, Book> map = new HashMap<>();
+            for (int i = 0; i < books; i++) {
+                Book book = book(i);
+                map.put(book.getIsbn(), book);
+            }
+            retained = map;
+        } else {
+            ColumnarBookStore store = new ColumnarBookStore(books);
+            for (int i = 0; i < books; i++) {
+                store.put(book(i));
+            }
+            retained = store;
+        }
+        long used = usedHeap() - baseline;
+
+        System.out.printf("%-8s %,12d books  %,10d MB  %,6d bytes/book%n",
+                layout, books, used / (1024 * 1024), used / books);
+    }
+
+    private static Book book(int i) {
+        String isbn = IsbnCodec.format(9_780_000_000_000L + i);
+        return new Book(isbn, "Title " + i, "Author " + (i % 50_000),
+                CATEGORIES[i % CATEGORIES.length], 10 + (i % 90), i % 500);
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
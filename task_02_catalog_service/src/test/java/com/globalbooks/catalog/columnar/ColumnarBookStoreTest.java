@@ -0,0 +1,187 @@
+package com.globalbooks.catalog.columnar;
+
+import com.globalbooks.catalog.Book;
+import com.globalbooks.catalog.CategoryFacet;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ColumnarBookStoreTest {
+
+    @Test
+    void testIsbn10And13EncodeToSameKey() {
+        // Test that both spellings of an ISBN resolve to one primitive key
+        assertThat(IsbnCodec.encode("0-13-235088-2")).isEqualTo(IsbnCodec.encode("978-0132350884"));
+        assertThat(IsbnCodec.format(IsbnCodec.encode("9780132350884"))).isEqualTo("978-0132350884");
+        assertThat(IsbnCodec.encode("INVALID-BOOK")).isEqualTo(IsbnCodec.INVALID);
+    }
+
+    @Test
+    void testCheckDigitXOnlyEndsAnIsbn10() {
+        // Test that 'X' is accepted as the ISBN-10 check digit and rejected anywhere else
+        assertThat(IsbnCodec.encode("0-8044-2957-X")).isEqualTo(IsbnCodec.encode("978-0804429573"));
+        assertThat(IsbnCodec.encode("080442957x")).isEqualTo(IsbnCodec.encode("978-0804429573"));
+        assertThat(IsbnCodec.encode("978080442X573")).isEqualTo(IsbnCodec.INVALID);
+        assertThat(IsbnCodec.encode("978-0804429-X")).isEqualTo(IsbnCodec.INVALID);
+        assertThat(IsbnCodec.encode("08044295X7")).isEqualTo(IsbnCodec.INVALID);
+        assertThat(IsbnCodec.encode("0000000000000")).isEqualTo(IsbnCodec.INVALID);
+    }
+
+    @Test
+    void testOpenAddressingMapTreatsKeyZeroAsAbsent() {
+        // Test that the empty-slot marker is never found, removed or stored
+        LongIntOpenHashMap map = new LongIntOpenHashMap(16);
+        assertThat(map.get(0L)).isEqualTo(-1);
+        assertThat(map.remove(0L)).isEqualTo(-1);
+        assertThat(map.size()).isZero();
+
+        for (long key = 1; key <= 100; key++) {
+            map.put(key, (int) key);
+        }
+        assertThat(map.get(0L)).isEqualTo(-1);
+        assertThat(map.remove(0L)).isEqualTo(-1);
+        assertThat(map.size()).isEqualTo(100);
+        for (long key = 1; key <= 100; key++) {
+            assertThat(map.get(key)).isEqualTo((int) key);
+        }
+        assertThatThrownBy(() -> map.put(0L, 1)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void testOpenAddressingMapMatchesHashMap() {
+        // Test put/get/remove against a reference map across several resizes
+        LongIntOpenHashMap map = new LongIntOpenHashMap(16);
+        Map<Long, Integer> reference = new HashMap<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 200_000; i++) {
+            long key = 9_780_000_000_000L + random.nextInt(50_000);
+            if (random.nextInt(4) == 0) {
+                Integer expected = reference.remove(key);
+                assertThat(map.remove(key)).isEqualTo(expected == null ? -1 : expected);
+            } else {
+                map.put(key, i);
+                reference.put(key, i);
+            }
+        }
+        assertThat(map.size()).isEqualTo(reference.size());
+        for (Map.Entry<Long, Integer> entry : reference.entrySet()) {
+            assertThat(map.get(entry.getKey())).isEqualTo(entry.getValue());
+        }
+    }
+
+    @Test
+    void testKeepsRepositoryIdOfNonCanonicalSpellings() {
+        // Test that a title stored under an ISBN-10 id is returned and resolved under that id
+        ColumnarBookStore store = new ColumnarBookStore(16);
+        store.put(new Book("0132350882", "Clean Code", "Robert C. Martin", "Software Engineering", 49.99, 10));
+        store.put(new Book("978-1491904244", "Designing Data-Intensive Applications",
+                "Martin Kleppmann", "Databases", 59.99, 150));
+
+        assertThat(store.repositoryId("978-0132350884")).isEqualTo("0132350882");
+        assertThat(store.repositoryId("0-13-235088-2")).isEqualTo("0132350882");
+        assertThat(store.get("9780132350884").getIsbn()).isEqualTo("0132350882");
+        assertThat(store.repositoryId("9781491904244")).isEqualTo("978-1491904244");
+        assertThat(store.repositoryId("978-0201633610")).isNull();
+
+        // Re-saving under the canonical id moves the row to it
+        store.put(new Book("978-0132350884", "Clean Code", "Robert C. Martin", "Software Engineering", 49.99, 10));
+        assertThat(store.repositoryId("0132350882")).isEqualTo("978-0132350884");
+    }
+
+    @Test
+    void testStoreLookupSearchAndOverwrite() {
+        // Test that columns round-trip a book and that overwrites reuse the row
+        ColumnarBookStore store = new ColumnarBookStore(2);
+        store.put(new Book("978-1491904244", "Designing Data-Intensive Applications",
+                "Martin Kleppmann", "Databases", 59.99, 150));
+        store.put(new Book("978-0132350884", "Clean Code", "Robert C. Martin",
+                "Software Engineering", 49.99, 200));
+        store.put(new Book("978-0201633610", "Design Patterns", "Erich Gamma",
+                "Software Design", 54.99, 120));
+
+        Book book = store.get("9781491904244");
+        assertThat(book.getTitle()).isEqualTo("Designing Data-Intensive Applications");
+        assertThat(book.getCategory()).isEqualTo("Databases");
+        assertThat(store.price("978-0132350884")).isEqualTo(49.99);
+        assertThat(store.search("martin", null)).hasSize(2);
+        assertThat(store.search(null, "software design")).hasSize(1);
+
+        store.put(new Book("978-0465026562", "G\u00f6del, Escher, Bach", "Douglas Hofstadter",
+                "Science", 24.99, 30));
+        assertThat(store.search("G\u00d6DEL", null)).hasSize(1);
+        assertThat(store.search("escher", "science")).hasSize(1);
+
+        store.put(new Book("978-0132350884", "Clean Code", "Robert C. Martin",
+                "Software Engineering", 39.99, 10));
+        assertThat(store.size()).isEqualTo(4);
+        assertThat(store.stock("978-0132350884")).isEqualTo(10);
+
+        assertThat(store.remove("978-0132350884")).isTrue();
+        assertThat(store.get("978-0132350884")).isNull();
+        assertThat(store.search("martin", null)).hasSize(1);
+    }
+
+    @Test
+    void testCategoryFacetsAndFilterFollowWrites() {
+        // Test that category bitmaps track inserts, category changes and removals
+        ColumnarBookStore store = new ColumnarBookStore(4);
+        store.put(new Book("978-1491904244", "Designing Data-Intensive Applications",
+                "Martin Kleppmann", "Databases", 59.99, 150));
+        store.put(new Book("978-0132350884", "Clean Code", "Robert C. Martin",
+                "Software Engineering", 49.99, 200));
+        store.put(new Book("978-0201633610", "Design Patterns", "Erich Gamma",
+                "Software Engineering", 54.99, 120));
+
+        List<CategoryFacet> facets = store.categoryFacets(null);
+        assertThat(facets).hasSize(2);
+        assertThat(facets.get(0).getCategory()).isEqualTo("Software Engineering");
+        assertThat(facets.get(0).getCount()).isEqualTo(2);
+        assertThat(store.categoryFacets("design")).hasSize(2);
+
+        store.put(new Book("978-0201633610", "Design Patterns", "Erich Gamma",
+                "Software Design", 54.99, 120));
+        store.remove("978-0132350884");
+        assertThat(store.search(null, "software engineering")).isEmpty();
+        assertThat(store.search(null, "SOFTWARE DESIGN")).hasSize(1);
+        assertThat(store.categoryFacets(null)).hasSize(2);
+    }
+
+    @Test
+    void testQueriesMatchTokenPrefixesLikeSearchIndex() {
+        // Test that search and facets share BookSearchIndex's token-prefix semantics
+        ColumnarBookStore store = new ColumnarBookStore(4);
+        store.put(new Book("978-1491904244", "Designing Data-Intensive Applications",
+                "Martin Kleppmann", "Databases", 59.99, 150));
+        store.put(new Book("978-0132350884", "Clean Code", "Robert C. Martin",
+                "Software Engineering", 49.99, 200));
+        store.put(new Book("978-0201633610", "Design Patterns", "Erich Gamma",
+                "Software Design", 54.99, 120));
+        store.put(new Book("978-0465026562", "G\u00f6del, Escher, Bach", "Douglas Hofstadter",
+                "Science", 24.99, 30));
+
+        // "sign" is inside "Design" but starts no word
+        assertThat(store.search("sign", null)).isEmpty();
+        assertThat(store.categoryFacets("sign")).isEmpty();
+        assertThat(store.search("designing data", null)).hasSize(1);
+        assertThat(store.search("martin klepp", null)).hasSize(1);
+        assertThat(store.search("kleppmann martin", null)).isEmpty();
+        assertThat(store.search("esch", null)).hasSize(1);
+        // A word after a non-ASCII letter is not a word start
+        assertThat(store.search("del", null)).isEmpty();
+
+        List<CategoryFacet> facets = store.categoryFacets("martin");
+        assertThat(facets).extracting(CategoryFacet::getCategory)
+                .containsExactly("Databases", "Software Engineering");
+
+        // Punctuation-only queries do not constrain the result
+        assertThat(store.search("--", null)).hasSize(4);
+        assertThat(store.categoryFacets("?")).usingRecursiveFieldByFieldElementComparator()
+                .isEqualTo(store.categoryFacets(null));
+    }
+}
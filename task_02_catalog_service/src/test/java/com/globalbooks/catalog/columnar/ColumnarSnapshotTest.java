@@ -0,0 +1,69 @@
+package com.globalbooks.catalog.columnar;
+
+import com.globalbooks.catalog.Book;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ColumnarSnapshotTest {
+
+    @Test
+    void testSnapshotRoundTripsColumnsHolesAndIndex() throws IOException {
+        // Test that a restored store answers lookups and searches like the original
+        ColumnarBookStore store = new ColumnarBookStore(16);
+        for (int i = 0; i < 1000; i++) {
+            store.put(new Book(IsbnCodec.format(9_780_000_000_000L + i), "Title " + i, "Author " + (i % 7),
+                    i % 2 == 0 ? "Databases" : "Fiction", 10 + i, i));
+        }
+        store.remove(IsbnCodec.format(9_780_000_000_005L));
+        store.put(new Book("0-201-63361-2", "Design Patterns", "Erich Gamma", "Software Engineering", 54.99, 3));
+        Path file = Files.createTempFile("catalog", ".snapshot");
+        try {
+            ColumnarSnapshot.write(store, file);
+
+            ColumnarBookStore restored = new ColumnarBookStore(16);
+            ColumnarSnapshot.read(file, restored);
+            assertThat(restored.size()).isEqualTo(1000);
+            assertThat(restored.get("978-0201633610").getIsbn()).isEqualTo("0-201-63361-2");
+            assertThat(restored.get(IsbnCodec.format(9_780_000_000_005L))).isNull();
+            Book book = restored.get(IsbnCodec.format(9_780_000_000_042L));
+            assertThat(book.getTitle()).isEqualTo("Title 42");
+            assertThat(book.getPrice()).isEqualTo(52.0);
+            assertThat(book.getStock()).isEqualTo(42);
+            assertThat(restored.search(null, "fiction")).hasSize(499);
+
+            // The restored store keeps accepting writes
+            restored.put(new Book("978-0132350884", "Clean Code", "Robert C. Martin", "Software Engineering", 49.99, 200));
+            assertThat(restored.price("978-0132350884")).isEqualTo(49.99);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    void testCorruptSnapshotIsRejected() throws IOException {
+        // Test that a flipped byte fails the checksum instead of loading garbage
+        ColumnarBookStore store = new ColumnarBookStore(16);
+        store.put(new Book("978-1491904244", "Designing Data-Intensive Applications",
+                "Martin Kleppmann", "Databases", 59.99, 150));
+        Path file = Files.createTempFile("catalog", ".snapshot");
+        try {
+            ColumnarSnapshot.write(store, file);
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                channel.write(ByteBuffer.wrap(new byte[] {0x7f}), 40);
+            }
+            assertThatThrownBy(() -> ColumnarSnapshot.read(file, new ColumnarBookStore(16)))
+                    .isInstanceOf(IOException.class);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.globalbooks.catalog.columnar;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.BitSet;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RowBitmapTest {
+
+    @Test
+    void testBitmapMatchesBitSetAcrossContainerConversions() {
+        // Test add/remove/contains/nextRow against BitSet while chunks switch between array and bitset form
+        RowBitmap bitmap = new RowBitmap();
+        BitSet reference = new BitSet();
+        Random random = new Random(7);
+        for (int i = 0; i < 300_000; i++) {
+            // Chunk 0 is dense, chunk 3 sparse, so both container kinds are exercised
+            int row = random.nextBoolean() ? random.nextInt(10_000) : (3 << 16) + random.nextInt(60_000);
+            if (random.nextInt(3) == 0) {
+                assertThat(bitmap.remove(row)).isEqualTo(reference.get(row));
+                reference.clear(row);
+            } else {
+                assertThat(bitmap.add(row)).isEqualTo(!reference.get(row));
+                reference.set(row);
+            }
+        }
+        assertThat(bitmap.cardinality()).isEqualTo(reference.cardinality());
+        for (int row = reference.nextSetBit(0); row >= 0; row = reference.nextSetBit(row + 1)) {
+            assertThat(bitmap.contains(row)).isTrue();
+            assertThat(bitmap.nextRow(row)).isEqualTo(row);
+        }
+        assertThat(bitmap.nextRow(20_000)).isEqualTo(reference.nextSetBit(20_000));
+        assertThat(bitmap.nextRow(4 << 16)).isEqualTo(-1);
+    }
+
+    @Test
+    void testIntersectionCardinalityAcrossContainerKinds() {
+        // Test intersection counts for bitset/bitset, bitset/array and array/array chunk pairs
+        RowBitmap left = new RowBitmap();
+        RowBitmap right = new RowBitmap();
+        BitSet leftReference = new BitSet();
+        BitSet rightReference = new BitSet();
+        Random random = new Random(11);
+        for (int i = 0; i < 20_000; i++) {
+            // Chunk 0 dense on both sides, chunk 1 dense on the left only, chunk 2 sparse on both
+            int dense = random.nextInt(8_000);
+            int mixed = (1 << 16) + random.nextInt(8_000);
+            int sparse = (2 << 16) + random.nextInt(60_000);
+            left.add(dense);
+            left.add(mixed);
+            leftReference.set(dense);
+            leftReference.set(mixed);
+            if (i % 2 == 0) {
+                int other = random.nextInt(8_000);
+                right.add(other);
+                rightReference.set(other);
+            }
+            if (i % 10 == 0) {
+                int other = (1 << 16) + random.nextInt(8_000);
+                right.add(other);
+                rightReference.set(other);
+                left.add(sparse);
+                leftReference.set(sparse);
+                int otherSparse = (2 << 16) + random.nextInt(60_000);
+                right.add(otherSparse);
+                rightReference.set(otherSparse);
+            }
+        }
+        BitSet intersection = (BitSet) leftReference.clone();
+        intersection.and(rightReference);
+
+        assertThat(left.intersectionCardinality(right)).isEqualTo(intersection.cardinality());
+        assertThat(right.intersectionCardinality(left)).isEqualTo(intersection.cardinality());
+        assertThat(left.intersectionCardinality(new RowBitmap())).isZero();
+    }
+}
@@ -0,0 +1,177 @@
+package com.globalbooks.catalog.feed;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.AmqpConnectException;
+import org.springframework.amqp.core.AmqpTemplate;
+
+import java.net.ConnectException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+
+class CatalogChangePublisherTest {
+
+    private final AmqpTemplate amqpTemplate = mock(AmqpTemplate.class);
+    // Routing key and event of every send, in order
+    private final List<String> routingKeys = new CopyOnWriteArrayList<>();
+    private final List<BookChangeEvent> sent = new CopyOnWriteArrayList<>();
+    private CatalogChangePublisher publisher;
+
+    @BeforeEach
+    void setUp() {
+        doAnswer(invocation -> {
+            routingKeys.add(invocation.getArgument(1));
+            sent.add(invocation.getArgument(2));
+            return null;
+        }).when(amqpTemplate).convertAndSend(eq("catalog.changes"), anyString(), any(Object.class));
+        // Flushes are driven by the tests, not the background thread
+        publisher = new CatalogChangePublisher(amqpTemplate, "catalog.changes", Long.MAX_VALUE / 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        publisher.shutdown();
+    }
+
+    @Test
+    void testBurstForOneTitleIsCoalesced() {
+        // Test that several changes to one title before a flush go out as one event with the latest values
+        publisher.bookChanged("978-0132350884", 49.99, 200);
+        publisher.stockChanged("978-0132350884", 199);
+        publisher.bookChanged("978-0132350884", 44.99, 198);
+        publisher.stockChanged("978-0201633610", 120);
+        assertThat(publisher.pending()).isEqualTo(2);
+
+        publisher.flush();
+
+        assertThat(sent).hasSize(2);
+        BookChangeEvent coalesced = eventFor("978-0132350884");
+        assertThat(coalesced.getPrice()).isEqualTo(44.99);
+        assertThat(coalesced.getStock()).isEqualTo(198);
+        // Carries the version of its last change, the one just before the other title's
+        assertThat(coalesced.getVersion()).isEqualTo(eventFor("978-0201633610").getVersion() - 1);
+        assertThat(routingKeys).containsExactlyInAnyOrder("book.updated", "book.stock");
+        assertThat(publisher.pending()).isZero();
+        assertThat(publisher.published()).isEqualTo(2);
+    }
+
+    @Test
+    void testRemovalAndReAddMerge() {
+        // Test that a removal wins over earlier changes and a re-add does not revive fields from before it
+        publisher.bookChanged("978-0132350884", 49.99, 200);
+        publisher.bookRemoved("978-0132350884");
+        publisher.flush();
+        assertThat(routingKeys).containsExactly("book.removed");
+        assertThat(sent.get(0).getPrice()).isNull();
+
+        publisher.bookChanged("978-0201633610", 54.99, 120);
+        publisher.bookRemoved("978-0201633610");
+        publisher.stockChanged("978-0201633610", 5);
+        publisher.flush();
+
+        BookChangeEvent readded = sent.get(1);
+        assertThat(readded.isRemoved()).isFalse();
+        assertThat(readded.getPrice()).isNull();
+        assertThat(readded.getStock()).isEqualTo(5);
+        assertThat(routingKeys.get(1)).isEqualTo("book.stock");
+    }
+
+    @Test
+    void testFailedSendIsCountedAndNotRetried() {
+        // Test that a broker failure is counted and the delta dropped, leaving consumers to refresh
+        doThrow(new AmqpConnectException(new ConnectException("refused")))
+                .when(amqpTemplate).convertAndSend(eq("catalog.changes"), anyString(), any(Object.class));
+        publisher.bookChanged("978-0132350884", 49.99, 200);
+
+        publisher.flush();
+
+        assertThat(publisher.failed()).isEqualTo(1);
+        assertThat(publisher.published()).isZero();
+        assertThat(publisher.pending()).isZero();
+    }
+
+    @Test
+    void testChangesMergedDuringFlushAreNotLost() throws Exception {
+        // Test that racing writers and flushes publish every title's final values, each change at most once
+        String[] isbns = {"978-0132350884", "978-0201633610", "978-0596009205", "978-1491904244"};
+        int writers = 4;
+        int changesPerWriter = 5_000;
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(writers);
+        List<Thread> threads = new ArrayList<>();
+        for (int w = 0; w < writers; w++) {
+            int writer = w;
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                    for (int i = 1; i <= changesPerWriter; i++) {
+                        publisher.stockChanged(isbns[(writer + i) % isbns.length], i);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        AtomicBoolean flushing = new AtomicBoolean(true);
+        Thread flusher = new Thread(() -> {
+            while (flushing.get()) {
+                publisher.flush();
+            }
+        });
+        flusher.start();
+
+        start.countDown();
+        assertThat(done.await(30, TimeUnit.SECONDS)).isTrue();
+        flushing.set(false);
+        flusher.join();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        // A final value written after the flusher's last pass is still pending
+        publisher.bookChanged(isbns[0], 10.0, -1);
+        publisher.flush();
+
+        assertThat(publisher.pending()).isZero();
+        Map<String, Long> lastVersion = new ConcurrentHashMap<>();
+        for (BookChangeEvent event : sent) {
+            Long previous = lastVersion.put(event.getIsbn(), event.getVersion());
+            // Versions per title only move forward, so no event went out twice or out of order
+            assertThat(previous == null || previous < event.getVersion()).isTrue();
+        }
+        assertThat(lastVersion).containsOnlyKeys(isbns);
+        assertThat(eventFor(isbns[0]).getStock()).isEqualTo(-1);
+        assertThat(eventFor(isbns[0]).getPrice()).isEqualTo(10.0);
+        assertThat(publisher.published()).isEqualTo(sent.size());
+    }
+
+    // The last event sent for the title
+    private BookChangeEvent eventFor(String isbn) {
+        BookChangeEvent last = null;
+        for (BookChangeEvent event : sent) {
+            if (event.getIsbn().equals(isbn)) {
+                last = event;
+            }
+        }
+        assertThat(last).isNotNull();
+        return last;
+    }
+}
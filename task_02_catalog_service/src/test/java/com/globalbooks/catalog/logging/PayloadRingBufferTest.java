@@ -0,0 +1,99 @@
+package com.globalbooks.catalog.logging;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PayloadRingBufferTest {
+
+    @Test
+    void testFullBufferDropsInsteadOfBlocking() {
+        // Test that offers beyond capacity fail immediately and are counted
+        PayloadRingBuffer<Integer> buffer = new PayloadRingBuffer<>(4);
+        for (int i = 0; i < 4; i++) {
+            assertThat(buffer.offer(i)).isTrue();
+        }
+        assertThat(buffer.offer(4)).isFalse();
+        assertThat(buffer.offer(5)).isFalse();
+        assertThat(buffer.dropped()).isEqualTo(2);
+
+        assertThat(buffer.poll()).isEqualTo(0);
+        assertThat(buffer.offer(6)).isTrue();
+        assertThat(buffer.poll()).isEqualTo(1);
+        assertThat(buffer.poll()).isEqualTo(2);
+        assertThat(buffer.poll()).isEqualTo(3);
+        assertThat(buffer.poll()).isEqualTo(6);
+        assertThat(buffer.poll()).isNull();
+    }
+
+    @Test
+    void testConcurrentProducersLoseNothingThatWasAccepted() throws Exception {
+        // Test that every accepted item is consumed exactly once under producer contention
+        int producers = 8;
+        int perProducer = 100_000;
+        PayloadRingBuffer<Integer> buffer = new PayloadRingBuffer<>(1024);
+        ExecutorService executor = Executors.newFixedThreadPool(producers);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Integer>> accepted = new ArrayList<>();
+        try {
+            for (int p = 0; p < producers; p++) {
+                int base = p * perProducer;
+                accepted.add(executor.submit(() -> {
+                    start.await();
+                    int count = 0;
+                    for (int i = 0; i < perProducer; i++) {
+                        if (buffer.offer(base + i)) {
+                            count++;
+                        }
+                    }
+                    return count;
+                }));
+            }
+
+            boolean[] seen = new boolean[producers * perProducer];
+            int consumed = 0;
+            start.countDown();
+            while (!allDone(accepted)) {
+                consumed += drain(buffer, seen);
+            }
+            consumed += drain(buffer, seen);
+
+            int acceptedTotal = 0;
+            for (Future<Integer> future : accepted) {
+                acceptedTotal += future.get();
+            }
+            assertThat(consumed).isEqualTo(acceptedTotal);
+            assertThat(acceptedTotal + buffer.dropped()).isEqualTo((long) producers * perProducer);
+        } finally {
+            executor.shutdownNow();
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+        }
+    }
+
+    private static int drain(PayloadRingBuffer<Integer> buffer, boolean[] seen) {
+        int consumed = 0;
+        for (Integer item = buffer.poll(); item != null; item = buffer.poll()) {
+            assertThat(seen[item]).isFalse();
+            seen[item] = true;
+            consumed++;
+        }
+        return consumed;
+    }
+
+    private static boolean allDone(List<Future<Integer>> futures) {
+        for (Future<Integer> future : futures) {
+            if (!future.isDone()) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,93 @@
+package com.globalbooks.catalog.logging;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SoapBodyCaptureTest {
+
+    private static final String SECURITY_HEADER = "<soapenv:Header>"
+            + "<wsse:Security xmlns:wsse=\"http://docs.oasis-open.org/wss/2004/01/oasis-200401-wss-wssecurity-secext-1.0.xsd\">"
+            + "<wsse:UsernameToken><wsse:Username>admin</wsse:Username>"
+            + "<wsse:Password Type=\"...#PasswordText\">s3cret</wsse:Password>"
+            + "</wsse:UsernameToken></wsse:Security></soapenv:Header>";
+
+    @Test
+    void testCapturesOnlyTheBodyContent() {
+        // Test that the Security header is skipped and the Body wrapper and envelope end are not kept
+        String message = envelope(SECURITY_HEADER, "<cat:searchBooksRequest><cat:query>java</cat:query></cat:searchBooksRequest>");
+        SoapBodyCapture capture = capture(message, 4096);
+
+        assertThat(text(capture)).isEqualTo("<cat:searchBooksRequest><cat:query>java</cat:query></cat:searchBooksRequest>");
+        assertThat(text(capture)).doesNotContain("s3cret").doesNotContain("Security");
+        assertThat(capture.operation()).isEqualTo("searchBooksRequest");
+        assertThat(capture.truncated()).isFalse();
+        assertThat(capture.total()).isEqualTo(message.length());
+    }
+
+    @Test
+    void testFindsOperationBehindHeaderLongerThanLimit() {
+        // Test that a header filling more than the limit no longer hides the operation
+        String padding = "<!-- " + String.join("", Collections.nCopies(600, "padding ")) + "-> -->";
+        String message = envelope(SECURITY_HEADER + padding, "<cat:getBookRequest isbn=\"a>b\"><cat:isbn>1</cat:isbn></cat:getBookRequest>");
+        SoapBodyCapture capture = capture(message, 64);
+
+        assertThat(capture.operation()).isEqualTo("getBookRequest");
+        assertThat(text(capture)).startsWith("<cat:getBookRequest").hasSize(64);
+        assertThat(capture.truncated()).isTrue();
+        assertThat(capture.total()).isEqualTo(message.length());
+    }
+
+    @Test
+    void testSplitWritesGiveTheSameCapture() {
+        // Test that the scan carries its state across writes of any size
+        String message = envelope(SECURITY_HEADER, "<ns2:getBookResponse xmlns:ns2=\"urn:x\"/>");
+        byte[] bytes = message.getBytes(StandardCharsets.UTF_8);
+        SoapBodyCapture capture = new SoapBodyCapture(4096);
+        for (int i = 0; i < bytes.length; i += 3) {
+            if (i % 2 == 0) {
+                capture.write(bytes, i, Math.min(3, bytes.length - i));
+            } else {
+                for (int j = i; j < Math.min(i + 3, bytes.length); j++) {
+                    capture.write(bytes[j]);
+                }
+            }
+        }
+
+        assertThat(text(capture)).isEqualTo("<ns2:getBookResponse xmlns:ns2=\"urn:x\"/>");
+        assertThat(capture.operation()).isEqualTo("getBookResponse");
+    }
+
+    @Test
+    void testNonSoapPayloadCapturesNothing() {
+        // Test that a payload without a SOAP Body keeps no bytes and names no operation
+        SoapBodyCapture capture = capture("<definitions><types/></definitions>", 4096);
+        assertThat(capture.toByteArray()).isEmpty();
+        assertThat(capture.operation()).isNull();
+
+        SoapBodyCapture empty = capture(envelope(SECURITY_HEADER, "").replace("<soapenv:Body></soapenv:Body>",
+                "<soapenv:Body/>"), 4096);
+        assertThat(empty.toByteArray()).isEmpty();
+        assertThat(empty.operation()).isNull();
+    }
+
+    private static String envelope(String header, String body) {
+        return "<?xml version=\"1.0\" encoding=\"UTF-8\"?>"
+                + "<soapenv:Envelope xmlns:soapenv=\"http://schemas.xmlsoap.org/soap/envelope/\" xmlns:cat=\"http://catalog.globalbooks.com/\">"
+                + header + "<soapenv:Body>" + body + "</soapenv:Body></soapenv:Envelope>";
+    }
+
+    private static SoapBodyCapture capture(String message, int limit) {
+        SoapBodyCapture capture = new SoapBodyCapture(limit);
+        byte[] bytes = message.getBytes(StandardCharsets.UTF_8);
+        capture.write(bytes, 0, bytes.length);
+        return capture;
+    }
+
+    private static String text(SoapBodyCapture capture) {
+        return new String(capture.toByteArray(), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,155 @@
+package com.globalbooks.catalog.pricing;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PriceVersionsTest {
+
+    private static final String ISBN = "978-1491904244";
+
+    // Compaction is driven by the tests, not the background thread
+    private final PriceVersions versions = new PriceVersions(60_000, Long.MAX_VALUE / 2);
+
+    @AfterEach
+    void shutdown() {
+        versions.shutdown();
+    }
+
+    @Test
+    void testSnapshotKeepsPriceAcrossUpdates() {
+        // Test that a snapshot reads the price it was opened at while later snapshots see the updates
+        long before = versions.openSnapshot().getSnapshotId();
+        versions.record(ISBN, 40.0, 45.0);
+        long between = versions.openSnapshot().getSnapshotId();
+        versions.record("9781491904244", 45.0, 50.0);
+        versions.record("978-0134685991", Double.NaN, 30.0);
+
+        assertThat(versions.priceAt(ISBN, before, 50.0)).isEqualTo(40.0);
+        assertThat(versions.priceAt(ISBN, between, 50.0)).isEqualTo(45.0);
+        assertThat(versions.priceAt(ISBN, versions.openSnapshot().getSnapshotId(), 50.0)).isEqualTo(50.0);
+        // Added after the snapshot, so it did not exist yet
+        assertThat(versions.priceAt("978-0134685991", before, 30.0)).isNaN();
+        // Never changed, so the store's price stands
+        assertThat(versions.priceAt("978-0596009205", before, 12.5)).isEqualTo(12.5);
+    }
+
+    @Test
+    void testRecordBeforeStoreWriteResolvesNewPrice() {
+        // Test that a snapshot opened after a change sees it even if the store still has the old price
+        versions.record(ISBN, 40.0, 45.0);
+        long snapshot = versions.openSnapshot().getSnapshotId();
+
+        assertThat(versions.priceAt(ISBN, snapshot, 40.0)).isEqualTo(45.0);
+    }
+
+    @Test
+    void testCompactionKeepsVersionsOfLiveSnapshots() {
+        // Test that compaction only drops versions no live snapshot can reach
+        versions.record(ISBN, 40.0, 45.0);
+        long live = versions.openSnapshot().getSnapshotId();
+        versions.record(ISBN, 45.0, 50.0);
+        versions.record(ISBN, 50.0, 55.0);
+
+        versions.compact();
+        versions.compact();
+
+        assertThat(versions.priceAt(ISBN, live, 55.0)).isEqualTo(45.0);
+        assertThat(versions.versionedTitles()).isEqualTo(1);
+    }
+
+    @Test
+    void testCompactionDropsAppliedHistoriesAndExpiredSnapshots() {
+        // Test that a history goes once its write is marked applied and no snapshot needs it
+        PriceVersions shortLeases = new PriceVersions(0, Long.MAX_VALUE / 2);
+        try {
+            long expired = shortLeases.openSnapshot().getSnapshotId();
+            long version = shortLeases.record(ISBN, 40.0, 45.0);
+
+            shortLeases.compact();
+            shortLeases.compact();
+            // However many passes run, the store may still hold 40.0 until the write is marked
+            assertThat(shortLeases.versionedTitles()).isEqualTo(1);
+
+            shortLeases.markApplied("9781491904244", version);
+            shortLeases.compact();
+
+            assertThat(shortLeases.versionedTitles()).isZero();
+            assertThat(shortLeases.liveSnapshots()).isZero();
+            assertThatThrownBy(() -> shortLeases.priceAt(ISBN, expired, 45.0))
+                    .isInstanceOf(PriceSnapshotExpiredException.class);
+        } finally {
+            shortLeases.shutdown();
+        }
+    }
+
+    @Test
+    void testOlderAppliedMarkKeepsNewerHistory() {
+        // Test that applying one write does not release the history of a later, unfinished one
+        long first = versions.record(ISBN, 40.0, 45.0);
+        versions.record(ISBN, 45.0, 50.0);
+        versions.markApplied(ISBN, first);
+        versions.compact();
+
+        // The store may still hold 45.0, so a new snapshot must keep resolving 50.0
+        long snapshot = versions.openSnapshot().getSnapshotId();
+        assertThat(versions.priceAt(ISBN, snapshot, 45.0)).isEqualTo(50.0);
+        assertThat(versions.record(ISBN, 50.0, 50.0)).isZero();
+    }
+
+    @Test
+    void testAbortedVersionIsWithdrawn() {
+        // Test that a version whose store write failed stops resolving, even for snapshots that saw it
+        long applied = versions.record(ISBN, 40.0, 45.0);
+        versions.markApplied(ISBN, applied);
+        long failed = versions.record(ISBN, 45.0, 50.0);
+        long sawFailed = versions.openSnapshot().getSnapshotId();
+        long later = versions.record(ISBN, 45.0, 55.0);
+
+        versions.abort(ISBN, failed);
+
+        assertThat(versions.priceAt(ISBN, sawFailed, 45.0)).isEqualTo(45.0);
+        assertThat(versions.priceAt(ISBN, versions.openSnapshot().getSnapshotId(), 45.0)).isEqualTo(55.0);
+
+        versions.abort(ISBN, later);
+        versions.abort(ISBN, applied);
+        // Nothing left but the price before the first change, which the store holds
+        assertThat(versions.versionedTitles()).isZero();
+    }
+
+    @Test
+    void testAbortAfterCompactionKeepsPriceBefore() {
+        // Test that a version trimmed to the oldest kept link can still be withdrawn
+        long failed = versions.record(ISBN, 40.0, 45.0);
+        versions.compact();
+        long snapshot = versions.openSnapshot().getSnapshotId();
+
+        versions.abort(ISBN, failed);
+
+        assertThat(versions.priceAt(ISBN, snapshot, 40.0)).isEqualTo(40.0);
+        assertThat(versions.versionedTitles()).isZero();
+    }
+
+    @Test
+    void testOnlyOpenedLiveSnapshotsAreAccepted() {
+        // Test that ids never opened and leases that ended are rejected before any compaction runs
+        long opened = versions.openSnapshot().getSnapshotId();
+        versions.record(ISBN, 40.0, 45.0);
+        long unopened = opened + 1;
+
+        assertThat(versions.priceAt(ISBN, opened, 45.0)).isEqualTo(40.0);
+        assertThatThrownBy(() -> versions.priceAt(ISBN, unopened, 45.0))
+                .isInstanceOf(PriceSnapshotExpiredException.class);
+
+        PriceVersions shortLeases = new PriceVersions(0, Long.MAX_VALUE / 2);
+        try {
+            long expired = shortLeases.openSnapshot().getSnapshotId();
+            assertThatThrownBy(() -> shortLeases.checkSnapshot(expired))
+                    .isInstanceOf(PriceSnapshotExpiredException.class);
+        } finally {
+            shortLeases.shutdown();
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.globalbooks.catalog.reservation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Measures reserve + confirm/release throughput when every thread hammers the same
+ * title, the worst case for the CAS loop. Run manually, e.g.
+ * {@code java -cp ... StockReservationBenchmark 16 50000}.
+ */
+public class StockReservationBenchmark {
+
+    private static final String HOT_ISBN = "978-1491904244";
+
+    public static void main(String[] args) throws Exception {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : 16;
+        int opsPerThread = args.length > 1 ? Integer.parseInt(args[1]) : 50_000;
+
+        StockReservationEngine engine = new StockReservationEngine(60_000, 60_000);
+        try {
+            // Warm up, then measure
+            run(engine, threads, opsPerThread / 10);
+            long started = System.nanoTime();
+            int sold = run(engine, threads, opsPerThread);
+            long elapsedNanos = System.nanoTime() - started;
+
+            System.out.printf("hot-title reservations: %d threads, %,.0f reservations/sec, %,d confirmed%n",
+                    threads, (double) threads * opsPerThread / (elapsedNanos / 1_000_000_000.0), sold);
+        } finally {
+            engine.shutdown();
+        }
+    }
+
+    private static int run(StockReservationEngine engine, int threads, int opsPerThread) throws Exception {
+        engine.setStock(HOT_ISBN, threads * opsPerThread);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch startSignal = new CountDownLatch(1);
+        List<Future<Integer>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            futures.add(executor.submit(() -> {
+                startSignal.await();
+                int confirmed = 0;
+                for (int i = 0; i < opsPerThread; i++) {
+                    StockReservation reservation = engine.reserve(HOT_ISBN, 1);
+                    if (reservation == null) {
+                        continue;
+                    }
+                    if (reservation.getReservationId().hashCode() % 2 == 0) {
+                        confirmed += engine.confirm(reservation.getReservationId()) >= 0 ? 1 : 0;
+                    } else {
+                        engine.release(reservation.getReservationId());
+                    }
+                }
+                return confirmed;
+            }));
+        }
+        startSignal.countDown();
+        int sold = 0;
+        for (Future<Integer> future : futures) {
+            sold += future.get();
+        }
+        executor.shutdown();
+        return sold;
+    }
+}
@@ -0,0 +1,162 @@
+package com.globalbooks.catalog.reservation;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StockReservationEngineContentionTest {
+
+    private static final String HOT_ISBN = "978-1491904244";
+    private static final int THREADS = 16;
+
+    private StockReservationEngine engine;
+
+    @AfterEach
+    void tearDown() {
+        if (engine != null) {
+            engine.shutdown();
+        }
+    }
+
+    @Test
+    void testHotTitleNeverOversells() throws Exception {
+        // Test that racing reservations on one title never promise more than the stock
+        engine = new StockReservationEngine(60_000, 60_000);
+        engine.setStock(HOT_ISBN, 10_000);
+
+        List<Integer> wins = runConcurrently(20_000, () -> engine.reserve(HOT_ISBN, 1) != null ? 1 : 0);
+
+        assertThat(wins.stream().mapToInt(Integer::intValue).sum()).isEqualTo(10_000);
+        assertThat(engine.available(HOT_ISBN)).isZero();
+        assertThat(engine.onHand(HOT_ISBN)).isEqualTo(10_000);
+    }
+
+    @Test
+    void testConcurrentConfirmAndReleaseKeepCountersConsistent() throws Exception {
+        // Test that racing reserve + confirm/release on one title leaves no holds and exact stock
+        engine = new StockReservationEngine(60_000, 60_000);
+        int stock = 100_000;
+        engine.setStock(HOT_ISBN, stock);
+
+        List<Integer> confirmed = runConcurrently(5_000, () -> {
+            StockReservation reservation = engine.reserve(HOT_ISBN, 1);
+            if (reservation == null) {
+                return 0;
+            }
+            if (reservation.getReservationId().hashCode() % 2 == 0) {
+                return engine.confirm(reservation.getReservationId()) >= 0 ? 1 : 0;
+            }
+            engine.release(reservation.getReservationId());
+            return 0;
+        });
+
+        int sold = confirmed.stream().mapToInt(Integer::intValue).sum();
+        assertThat(engine.outstandingHolds()).isZero();
+        assertThat(engine.onHand(HOT_ISBN)).isEqualTo(stock - sold);
+        assertThat(engine.available(HOT_ISBN)).isEqualTo(stock - sold);
+    }
+
+    @Test
+    void testRemovingTitleReleasesItsHolds() throws Exception {
+        // Test that holds on a removed title cannot be confirmed, even after the title comes back
+        engine = new StockReservationEngine(60_000, 60_000);
+        engine.setStock(HOT_ISBN, 10);
+        engine.setStock("978-0132350884", 10);
+        StockReservation hold = engine.reserve(HOT_ISBN, 4);
+        StockReservation other = engine.reserve("978-0132350884", 2);
+
+        engine.removeStock(HOT_ISBN);
+
+        assertThat(hold.getStatus()).isEqualTo(ReservationStatus.RELEASED);
+        assertThat(engine.getReservation(hold.getReservationId())).isNull();
+        assertThat(engine.outstandingHolds()).isEqualTo(1);
+        engine.setStock(HOT_ISBN, 10);
+        assertThat(engine.confirm(hold.getReservationId())).isEqualTo(-1);
+        assertThat(engine.available(HOT_ISBN)).isEqualTo(10);
+        assertThat(engine.confirm(other.getReservationId())).isEqualTo(8);
+    }
+
+    @Test
+    void testRemoveRacingReservationsLeavesNoHolds() throws Exception {
+        // Test that reservations racing a removal are either released by it or refused
+        engine = new StockReservationEngine(60_000, 60_000);
+        for (int round = 0; round < 200; round++) {
+            engine.setStock(HOT_ISBN, 1_000_000);
+            CountDownLatch started = new CountDownLatch(1);
+            ExecutorService executor = Executors.newFixedThreadPool(4);
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                futures.add(executor.submit(() -> {
+                    started.await();
+                    for (int i = 0; i < 200; i++) {
+                        engine.reserve(HOT_ISBN, 1);
+                    }
+                    return null;
+                }));
+            }
+            started.countDown();
+            engine.removeStock(HOT_ISBN);
+            for (Future<?> future : futures) {
+                future.get(10, TimeUnit.SECONDS);
+            }
+            executor.shutdown();
+
+            assertThat(engine.outstandingHolds()).isZero();
+        }
+    }
+
+    @Test
+    void testExpiredHoldsReturnStock() throws Exception {
+        // Test that holds past their TTL are swept back into available stock
+        engine = new StockReservationEngine(50, 20);
+        engine.setStock(HOT_ISBN, 5);
+
+        StockReservation reservation = engine.reserve(HOT_ISBN, 5);
+        assertThat(reservation).isNotNull();
+        assertThat(engine.isAvailable(HOT_ISBN, 1)).isFalse();
+
+        long deadline = System.currentTimeMillis() + 2_000;
+        while (engine.available(HOT_ISBN) < 5 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+
+        assertThat(engine.available(HOT_ISBN)).isEqualTo(5);
+        assertThat(reservation.getStatus()).isEqualTo(ReservationStatus.EXPIRED);
+        assertThat(engine.confirm(reservation.getReservationId())).isEqualTo(-1);
+    }
+
+    private List<Integer> runConcurrently(int iterationsPerThread, Callable<Integer> operation)
+            throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch startSignal = new CountDownLatch(1);
+        List<Future<Integer>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            futures.add(executor.submit(() -> {
+                startSignal.await();
+                int total = 0;
+                for (int i = 0; i < iterationsPerThread; i++) {
+                    total += operation.call();
+                }
+                return total;
+            }));
+        }
+        startSignal.countDown();
+
+        List<Integer> results = new ArrayList<>();
+        for (Future<Integer> future : futures) {
+            results.add(future.get(60, TimeUnit.SECONDS));
+        }
+        executor.shutdown();
+        return results;
+    }
+}
@@ -0,0 +1,77 @@
+package com.globalbooks.security;
+
+import org.apache.wss4j.common.crypto.CryptoFactory;
+import org.apache.wss4j.common.ext.WSSecurityException;
+import org.junit.jupiter.api.Test;
+
+import java.io.InputStream;
+import java.security.cert.CertificateFactory;
+import java.security.cert.X509Certificate;
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CachingMerlinTest {
+
+    @Test
+    void testTrustedCertificateIsValidatedOnce() throws Exception {
+        // Test that a second trust check for the same certificate is answered from the cache
+        VerifiedCredentialCache cache = new VerifiedCredentialCache(60_000, 100);
+        CachingMerlin crypto = crypto(cache);
+        X509Certificate[] certs = {serverCertificate()};
+
+        crypto.verifyTrust(certs, false, Collections.emptyList(), Collections.emptyList());
+        crypto.verifyTrust(certs, false, Collections.emptyList(), Collections.emptyList());
+
+        assertThat(cache.size()).isEqualTo(1);
+        assertThat(cache.misses()).isEqualTo(1);
+        assertThat(cache.hits()).isEqualTo(1);
+    }
+
+    @Test
+    void testRevocationCheckedValidationBypassesTheCache() throws Exception {
+        // Test that a revocation check is never answered from, nor added to, the cache
+        VerifiedCredentialCache cache = new VerifiedCredentialCache(60_000, 100);
+        CachingMerlin crypto = crypto(cache);
+        X509Certificate[] certs = {serverCertificate()};
+        crypto.verifyTrust(certs, false, Collections.emptyList(), Collections.emptyList());
+
+        // No CRL is configured, so only a real validation can fail here
+        assertThatThrownBy(() -> crypto.verifyTrust(certs, true, Collections.emptyList(), Collections.emptyList()))
+                .isInstanceOf(WSSecurityException.class);
+        assertThat(cache.hits()).isZero();
+        assertThat(cache.size()).isEqualTo(1);
+    }
+
+    @Test
+    void testFailedValidationIsNotCached() throws Exception {
+        // Test that a certificate the truststore does not vouch for is rejected every time
+        VerifiedCredentialCache cache = new VerifiedCredentialCache(60_000, 100);
+        CachingMerlin crypto = crypto(cache);
+        X509Certificate[] certs = {certificate("untrusted-caller.crt")};
+
+        for (int i = 0; i < 2; i++) {
+            assertThatThrownBy(() -> crypto.verifyTrust(certs, false, Collections.emptyList(), Collections.emptyList()))
+                    .isInstanceOf(WSSecurityException.class);
+        }
+        assertThat(cache.size()).isZero();
+        assertThat(cache.hits()).isZero();
+    }
+
+    private static CachingMerlin crypto(VerifiedCredentialCache cache) throws Exception {
+        ClassLoader classLoader = CachingMerlinTest.class.getClassLoader();
+        return new CachingMerlin(CryptoFactory.getProperties("server-crypto.properties", classLoader), classLoader,
+                null, cache);
+    }
+
+    private static X509Certificate serverCertificate() throws Exception {
+        return certificate("server.crt");
+    }
+
+    private static X509Certificate certificate(String resource) throws Exception {
+        try (InputStream in = CachingMerlinTest.class.getClassLoader().getResourceAsStream(resource)) {
+            return (X509Certificate) CertificateFactory.getInstance("X.509").generateCertificate(in);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.globalbooks.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TimeBucketedReplayCacheTest {
+
+    @Test
+    void testReplayedNonceIsDetectedUntilItExpires() throws Exception {
+        // Test that a nonce is reported as seen within its window and forgotten after it
+        TimeBucketedReplayCache cache = new TimeBucketedReplayCache("nonce", 10, 60_000, 100);
+
+        cache.add("nonce-1", Instant.now().plusMillis(50));
+        assertThat(cache.contains("nonce-1")).isTrue();
+        assertThat(cache.contains("nonce-2")).isFalse();
+
+        Thread.sleep(80);
+        assertThat(cache.contains("nonce-1")).isFalse();
+
+        // The next write purges the expired bucket
+        cache.add("nonce-2");
+        assertThat(cache.size()).isEqualTo(1);
+        assertThat(cache.expiredEvictions()).isEqualTo(1);
+        assertThat(cache.replaysDetected()).isEqualTo(1);
+    }
+
+    @Test
+    void testFullCacheRejectsNewIdentifiersInsteadOfEvicting() throws Exception {
+        // Test that a flood of distinct nonces is turned away and counted while every tracked nonce stays tracked
+        TimeBucketedReplayCache cache = new TimeBucketedReplayCache("nonce", 10, 60_000, 1_000);
+        long now = System.currentTimeMillis();
+
+        int accepted = 0;
+        for (int i = 0; i < 5_000; i++) {
+            // The order WSS4J uses: check, then record
+            String nonce = "nonce-" + i;
+            if (!cache.contains(nonce)) {
+                cache.add(nonce, Instant.ofEpochMilli(now + (i < 500 ? 100 : 60_000)));
+                accepted++;
+            }
+            assertThat(cache.size()).isLessThanOrEqualTo(1_000);
+        }
+
+        assertThat(accepted).isEqualTo(1_000);
+        assertThat(cache.rejectedWhenFull()).isEqualTo(4_000);
+        assertThat(cache.replaysDetected()).isZero();
+        // Nothing accepted was forgotten, so none of it can be replayed
+        assertThat(cache.contains("nonce-0")).isTrue();
+        assertThat(cache.contains("nonce-999")).isTrue();
+        assertThat(cache.replaysDetected()).isEqualTo(2);
+        // A caller that records without checking gets nothing stored either
+        cache.add("nonce-late");
+        assertThat(cache.size()).isEqualTo(1_000);
+
+        // Capacity comes back as buckets expire
+        Thread.sleep(150);
+        assertThat(cache.contains("nonce-new")).isFalse();
+        cache.add("nonce-new");
+        assertThat(cache.contains("nonce-new")).isTrue();
+        assertThat(cache.size()).isEqualTo(501);
+    }
+}
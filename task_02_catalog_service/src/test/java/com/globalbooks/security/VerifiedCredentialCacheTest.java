@@ -0,0 +1,59 @@
+package com.globalbooks.security;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class VerifiedCredentialCacheTest {
+
+    @Test
+    void testVerificationIsRememberedForTheTtl() throws Exception {
+        // Test that a verified credential hits until its TTL elapses and then misses again
+        VerifiedCredentialCache cache = new VerifiedCredentialCache(50, 100);
+
+        assertThat(cache.isVerified("cert-a")).isFalse();
+        cache.markVerified("cert-a", Long.MAX_VALUE);
+        assertThat(cache.isVerified("cert-a")).isTrue();
+        assertThat(cache.isVerified("cert-b")).isFalse();
+
+        Thread.sleep(80);
+        assertThat(cache.isVerified("cert-a")).isFalse();
+        assertThat(cache.size()).isZero();
+        assertThat(cache.hits()).isEqualTo(1);
+        assertThat(cache.misses()).isEqualTo(3);
+    }
+
+    @Test
+    void testCertificateExpiryCapsTheTtl() throws Exception {
+        // Test that a certificate expiring before the TTL ends the cached verification with it
+        VerifiedCredentialCache cache = new VerifiedCredentialCache(60_000, 100);
+        long now = System.currentTimeMillis();
+
+        cache.markVerified("expiring", now + 50);
+        cache.markVerified("expired", now - 1);
+        assertThat(cache.isVerified("expiring")).isTrue();
+        assertThat(cache.isVerified("expired")).isFalse();
+
+        Thread.sleep(80);
+        assertThat(cache.isVerified("expiring")).isFalse();
+    }
+
+    @Test
+    void testFullCacheStopsCachingUntilEntriesExpire() throws Exception {
+        // Test that the cache never grows past its capacity and reuses expired slots
+        VerifiedCredentialCache cache = new VerifiedCredentialCache(60_000, 2);
+        long now = System.currentTimeMillis();
+
+        cache.markVerified("short", now + 50);
+        cache.markVerified("long", Long.MAX_VALUE);
+        cache.markVerified("overflow", Long.MAX_VALUE);
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(cache.isVerified("overflow")).isFalse();
+
+        Thread.sleep(80);
+        cache.markVerified("overflow", Long.MAX_VALUE);
+        assertThat(cache.isVerified("overflow")).isTrue();
+        assertThat(cache.isVerified("long")).isTrue();
+        assertThat(cache.size()).isEqualTo(2);
+    }
+}
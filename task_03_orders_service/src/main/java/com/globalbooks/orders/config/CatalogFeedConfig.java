@@ -0,0 +1,27 @@
+package com.globalbooks.orders.config;
+
+import com.globalbooks.orders.integration.CatalogPriceNearCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+public class CatalogFeedConfig {
+
+    @Bean
+    public CatalogPriceNearCache catalogPriceNearCache(
+            RestTemplateBuilder restTemplateBuilder,
+            @Value("${catalog.url:http://localhost:8081}") String catalogUrl,
+            @Value("${catalog.near-cache.max-staleness-millis:30000}") long maxStalenessMillis,
+            @Value("${catalog.near-cache.max-entries:10000}") int maxEntries) {
+        return new CatalogPriceNearCache(
+            restTemplateBuilder
+                .setConnectTimeout(Duration.ofSeconds(2))
+                .setReadTimeout(Duration.ofSeconds(5))
+                .build(),
+            catalogUrl, maxStalenessMillis, maxEntries);
+    }
+}
@@ -0,0 +1,25 @@
+package com.globalbooks.orders.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.globalbooks.orders.service.OrderExporter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@Configuration
+public class OrderExportConfig {
+
+    @Bean
+    public OrderExporter orderExporter(
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            ObjectMapper objectMapper,
+            @Value("${orders.export.fetch-size:500}") int fetchSize) {
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        return new OrderExporter(jdbcTemplate, readOnly, objectMapper.getFactory(), fetchSize);
+    }
+}
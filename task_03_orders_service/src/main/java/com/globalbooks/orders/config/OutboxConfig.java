@@ -0,0 +1,28 @@
+package com.globalbooks.orders.config;
+
+import com.globalbooks.orders.integration.ConfirmingPublisher;
+import com.globalbooks.orders.integration.OutboxRelay;
+import com.globalbooks.orders.repository.OutboxEventRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@Configuration
+@EnableScheduling
+public class OutboxConfig {
+
+    @Bean
+    public OutboxRelay outboxRelay(
+            OutboxEventRepository outboxEventRepository,
+            ConfirmingPublisher confirmingPublisher,
+            PlatformTransactionManager transactionManager,
+            @Value("${orders.outbox.batch-size:200}") int batchSize,
+            @Value("${orders.outbox.batch-timeout-millis:30000}") long batchTimeoutMillis,
+            @Value("${orders.outbox.max-backoff-millis:60000}") long maxBackoffMillis) {
+        return new OutboxRelay(outboxEventRepository, confirmingPublisher,
+            new TransactionTemplate(transactionManager), batchSize, batchTimeoutMillis, maxBackoffMillis);
+    }
+}
@@ -1,11 +1,13 @@
 package com.globalbooks.orders.config;
 
+import com.globalbooks.orders.integration.ConfirmingPublisher;
 import org.springframework.amqp.core.*;
 import org.springframework.amqp.rabbit.annotation.EnableRabbit;
 import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
 import org.springframework.amqp.rabbit.connection.ConnectionFactory;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -109,16 +111,21 @@ public class RabbitMQConfig {
         RabbitTemplate template = new RabbitTemplate(connectionFactory);
         template.setMessageConverter(messageConverter());
         template.setMandatory(true); // Ensure messages are routed
-        template.setConfirmCallback((correlationData, ack, cause) -> {
-            if (ack) {
-                System.out.println("Message sent successfully");
-            } else {
-                System.err.println("Message send failed: " + cause);
-            }
-        });
         return template;
     }
 
+    // Sets the template's confirm callback and tracks every publish until it is confirmed
+    @Bean(destroyMethod = "shutdown")
+    public ConfirmingPublisher confirmingPublisher(
+            RabbitTemplate rabbitTemplate,
+            @Value("${orders.publisher.max-in-flight:1000}") int maxInFlight,
+            @Value("${orders.publisher.max-retries:3}") int maxRetries,
+            @Value("${orders.publisher.acquire-timeout-millis:5000}") long acquireTimeoutMillis,
+            @Value("${orders.publisher.confirm-timeout-millis:5000}") long confirmTimeoutMillis) {
+        return new ConfirmingPublisher(rabbitTemplate, maxInFlight, maxRetries,
+            acquireTimeoutMillis, confirmTimeoutMillis);
+    }
+
     // Listener Container Factory
     @Bean
     public SimpleRabbitListenerContainerFactory rabbitListenerContainerFactory(
@@ -1,14 +1,21 @@
 package com.globalbooks.orders.controller;
 
 import com.globalbooks.orders.model.Order;
+import com.globalbooks.orders.model.OrderPage;
+import com.globalbooks.orders.model.OrderStatus;
+import com.globalbooks.orders.service.OrderExporter;
 import com.globalbooks.orders.service.OrderService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.WebAsyncTask;
 
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
-import java.util.List;
+import java.time.LocalDateTime;
 
 @RestController
 @RequestMapping("/api/v1/orders")
@@ -18,14 +25,17 @@ public class OrderController {
     @Autowired
     private OrderService orderService;
 
+    @Autowired
+    private OrderExporter orderExporter;
+
+    @Value("${orders.export.timeout-millis:3600000}")
+    private long exportTimeoutMillis;
+
+    // Invalid orders and unknown books are 400s and a catalog outage a 503, via GlobalExceptionHandler
     @PostMapping
     public ResponseEntity<Order> createOrder(@Valid @RequestBody Order order) {
-        try {
-            Order createdOrder = orderService.createOrder(order);
-            return new ResponseEntity<>(createdOrder, HttpStatus.CREATED);
-        } catch (Exception e) {
-            return new ResponseEntity<>(null, HttpStatus.BAD_REQUEST);
-        }
+        Order createdOrder = orderService.createOrder(order);
+        return new ResponseEntity<>(createdOrder, HttpStatus.CREATED);
     }
 
     @GetMapping("/{orderId}")
@@ -43,11 +53,30 @@ public class OrderController {
     }
 
     @GetMapping
-    public ResponseEntity<List<Order>> getAllOrders(
+    public ResponseEntity<OrderPage> getAllOrders(
             @RequestParam(required = false) String customerId,
-            @RequestParam(required = false) String status) {
-        List<Order> orders = orderService.getOrders(customerId, status);
-        return new ResponseEntity<>(orders, HttpStatus.OK);
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String pageToken,
+            @RequestParam(required = false) Integer limit) {
+        OrderPage page = orderService.getOrders(customerId, status, pageToken, limit);
+        return new ResponseEntity<>(page, HttpStatus.OK);
+    }
+
+    // Streams every matching order as one JSON line; bounds are ISO date-times, from inclusive, to exclusive.
+    // The dump runs as an async task with its own timeout, so only this endpoint may run for an hour.
+    @GetMapping(value = "/export", produces = "application/x-ndjson")
+    public WebAsyncTask<Void> exportOrders(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String status,
+            HttpServletResponse response) {
+        // Parsed up front so a bad status is a 400 rather than a broken stream
+        OrderStatus orderStatus = status != null ? OrderStatus.valueOf(status.toUpperCase()) : null;
+        return new WebAsyncTask<>(exportTimeoutMillis, () -> {
+            response.setContentType("application/x-ndjson");
+            orderExporter.export(from, to, orderStatus, response.getOutputStream());
+            return null;
+        });
     }
 
     @PutMapping("/{orderId}/status")
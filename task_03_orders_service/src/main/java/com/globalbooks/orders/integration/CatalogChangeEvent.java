@@ -0,0 +1,39 @@
+package com.globalbooks.orders.integration;
+
+/**
+ * Price/stock delta received from the catalog change feed. {@code price} and
+ * {@code stock} are null when that field did not change.
+ */
+public class CatalogChangeEvent {
+    private String isbn;
+    private Double price;
+    private Integer stock;
+    private boolean removed;
+    private long version;
+
+    public CatalogChangeEvent() {}
+
+    public CatalogChangeEvent(String isbn, Double price, Integer stock, boolean removed, long version) {
+        this.isbn = isbn;
+        this.price = price;
+        this.stock = stock;
+        this.removed = removed;
+        this.version = version;
+    }
+
+    // Getters and setters
+    public String getIsbn() { return isbn; }
+    public void setIsbn(String isbn) { this.isbn = isbn; }
+
+    public Double getPrice() { return price; }
+    public void setPrice(Double price) { this.price = price; }
+
+    public Integer getStock() { return stock; }
+    public void setStock(Integer stock) { this.stock = stock; }
+
+    public boolean isRemoved() { return removed; }
+    public void setRemoved(boolean removed) { this.removed = removed; }
+
+    public long getVersion() { return version; }
+    public void setVersion(long version) { this.version = version; }
+}
@@ -0,0 +1,34 @@
+package com.globalbooks.orders.integration;
+
+import org.springframework.amqp.core.ExchangeTypes;
+import org.springframework.amqp.rabbit.annotation.Exchange;
+import org.springframework.amqp.rabbit.annotation.Queue;
+import org.springframework.amqp.rabbit.annotation.QueueBinding;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.amqp.rabbit.listener.AsyncConsumerStartedEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+@Component
+public class CatalogChangeListener {
+
+    @Autowired
+    private CatalogPriceNearCache catalogPriceNearCache;
+
+    // Each instance gets its own auto-delete queue so every node sees every delta
+    @RabbitListener(id = "catalogChangeListener", bindings = @QueueBinding(
+        value = @Queue,
+        exchange = @Exchange(value = "${catalog.feed.exchange:catalog.changes}", type = ExchangeTypes.TOPIC),
+        key = "book.#"
+    ))
+    public void onCatalogChange(CatalogChangeEvent event) {
+        catalogPriceNearCache.apply(event);
+    }
+
+    @EventListener
+    public void onConsumerStarted(AsyncConsumerStartedEvent event) {
+        // Deltas published while the consumer was down are lost; start from a clean cache
+        catalogPriceNearCache.invalidateAll();
+    }
+}
@@ -0,0 +1,148 @@
+package com.globalbooks.orders.integration;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Local copy of catalog prices kept current by the catalog change feed.
+ *
+ * Entries are created on first lookup from the catalog JSON API and then updated
+ * in place by feed deltas; deltas for titles that were never looked up are ignored,
+ * so the cache only holds what this service actually prices. An entry is served
+ * for at most {@code maxStalenessMillis} after it was last confirmed by a delta or
+ * a fetch, which bounds how long a lost or delayed event can go unnoticed.
+ */
+public class CatalogPriceNearCache {
+
+    private final RestTemplate restTemplate;
+    private final String catalogUrl;
+    private final long maxStalenessMillis;
+    private final int maxEntries;
+    private final LongSupplier clock;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public CatalogPriceNearCache(RestTemplate restTemplate, String catalogUrl,
+                                 long maxStalenessMillis, int maxEntries) {
+        this(restTemplate, catalogUrl, maxStalenessMillis, maxEntries, System::currentTimeMillis);
+    }
+
+    CatalogPriceNearCache(RestTemplate restTemplate, String catalogUrl,
+                          long maxStalenessMillis, int maxEntries, LongSupplier clock) {
+        this.restTemplate = restTemplate;
+        this.catalogUrl = catalogUrl;
+        this.maxStalenessMillis = maxStalenessMillis;
+        this.maxEntries = maxEntries;
+        this.clock = clock;
+    }
+
+    /**
+     * Returns the unit price of the title, or null if the catalog does not know it.
+     */
+    public Double getPrice(String isbn) {
+        Entry entry = entries.get(isbn);
+        long now = clock.getAsLong();
+        if (entry != null && entry.price != null && now - entry.confirmedAt <= maxStalenessMillis) {
+            hits.incrementAndGet();
+            return entry.price;
+        }
+        misses.incrementAndGet();
+
+        Double price = fetchPrice(isbn);
+        if (price != null && (entries.size() < maxEntries || entries.containsKey(isbn))) {
+            long version = entry != null ? entry.version : 0L;
+            // A delta applied while the fetch was in flight wins over the fetched value
+            entries.merge(isbn, new Entry(price, version, now),
+                    (current, fetched) -> current.version > version ? current : fetched);
+        }
+        return price;
+    }
+
+    /**
+     * Applies one feed delta. Deltas older than the cached entry are discarded.
+     */
+    public void apply(CatalogChangeEvent event) {
+        if (event.getIsbn() == null) {
+            return;
+        }
+        long now = clock.getAsLong();
+        entries.computeIfPresent(event.getIsbn(), (isbn, current) -> {
+            if (event.getVersion() <= current.version) {
+                return current;
+            }
+            if (event.isRemoved()) {
+                return null;
+            }
+            Double price = event.getPrice() != null ? event.getPrice() : current.price;
+            return new Entry(price, event.getVersion(), now);
+        });
+    }
+
+    /**
+     * Drops every entry, e.g. after the feed consumer reconnects and may have
+     * missed deltas.
+     */
+    public void invalidateAll() {
+        entries.clear();
+    }
+
+    public long hits() {
+        return hits.get();
+    }
+
+    public long misses() {
+        return misses.get();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private Double fetchPrice(String isbn) {
+        try {
+            BookPrice price = restTemplate.getForObject(catalogUrl + "/catalog/api/books/{isbn}/price",
+                    BookPrice.class, isbn);
+            return price != null && price.isFound() ? price.getPrice() : null;
+        } catch (HttpClientErrorException.NotFound e) {
+            return null;
+        }
+    }
+
+    private static final class Entry {
+        private final Double price;
+        private final long version;
+        private final long confirmedAt;
+
+        private Entry(Double price, long version, long confirmedAt) {
+            this.price = price;
+            this.version = version;
+            this.confirmedAt = confirmedAt;
+        }
+    }
+
+    // Response body of the catalog price endpoint
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class BookPrice {
+        private String bookId;
+        private double price;
+        private boolean found;
+
+        public BookPrice() {}
+
+        public String getBookId() { return bookId; }
+        public void setBookId(String bookId) { this.bookId = bookId; }
+
+        public double getPrice() { return price; }
+        public void setPrice(double price) { this.price = price; }
+
+        public boolean isFound() { return found; }
+        public void setFound(boolean found) { this.found = found; }
+    }
+}
@@ -0,0 +1,197 @@
+package com.globalbooks.orders.integration;
+
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.AmqpTimeoutException;
+import org.springframework.amqp.core.ReturnedMessage;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Publishes through a {@link RabbitTemplate} with correlated publisher confirms,
+ * keeping at most {@code maxInFlight} messages unconfirmed at a time.
+ *
+ * Every message gets its own {@link CorrelationData} and a future that completes
+ * when the broker acks it. A full window blocks the caller for up to
+ * {@code acquireTimeoutMillis} and then fails the publish, so a slow broker pushes
+ * back on producers instead of piling up unconfirmed messages. Nacks, send
+ * failures and confirms that do not arrive within {@code confirmTimeoutMillis} are
+ * retried with backoff, keeping their slot, up to {@code maxRetries} times.
+ * A message returned as unroutable fails straight away, since sending it again
+ * would not route it either.
+ *
+ * This bean owns the template's confirm callback; a template supports only one.
+ */
+public class ConfirmingPublisher {
+
+    private final RabbitTemplate rabbitTemplate;
+    private final Semaphore window;
+    private final int maxRetries;
+    private final long acquireTimeoutMillis;
+    private final long confirmTimeoutNanos;
+    // Correlation id of the attempt in flight to its message
+    private final ConcurrentMap<String, Pending> pending = new ConcurrentHashMap<>();
+    // Retries are never sent from the connection thread that delivers the confirm
+    private final ScheduledExecutorService retryExecutor;
+    private final AtomicLong confirmed = new AtomicLong();
+    private final AtomicLong retried = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+
+    public ConfirmingPublisher(RabbitTemplate rabbitTemplate, int maxInFlight, int maxRetries,
+                               long acquireTimeoutMillis, long confirmTimeoutMillis) {
+        this.rabbitTemplate = rabbitTemplate;
+        this.window = new Semaphore(maxInFlight);
+        this.maxRetries = maxRetries;
+        this.acquireTimeoutMillis = acquireTimeoutMillis;
+        this.confirmTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(confirmTimeoutMillis);
+        this.retryExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "rabbit-confirm-retry");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long sweepMillis = Math.max(100, confirmTimeoutMillis / 4);
+        retryExecutor.scheduleWithFixedDelay(this::expireUnconfirmed, sweepMillis, sweepMillis, TimeUnit.MILLISECONDS);
+        rabbitTemplate.setConfirmCallback(this::confirm);
+    }
+
+    /**
+     * Publishes {@code payload} and returns a future completed once the broker has
+     * confirmed it, or completed exceptionally once it has run out of retries.
+     *
+     * @throws AmqpTimeoutException if the window stayed full for the acquire timeout
+     */
+    public CompletableFuture<Void> publish(String exchange, String routingKey, Object payload, String messageId) {
+        try {
+            if (!window.tryAcquire(acquireTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                throw new AmqpTimeoutException("Publisher confirm window full for " + acquireTimeoutMillis
+                    + " ms; " + pending.size() + " messages unconfirmed");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AmqpException("Interrupted waiting for the publisher confirm window", e);
+        }
+        Pending message = new Pending(exchange, routingKey, payload, messageId);
+        send(message);
+        return message.future;
+    }
+
+    public int inFlight() {
+        return pending.size();
+    }
+
+    public long confirmed() {
+        return confirmed.get();
+    }
+
+    public long retried() {
+        return retried.get();
+    }
+
+    public long failed() {
+        return failed.get();
+    }
+
+    public void shutdown() {
+        retryExecutor.shutdownNow();
+    }
+
+    private void send(Pending message) {
+        String correlationId = message.messageId + "#" + message.attempt;
+        // Registered first: the confirm can arrive before convertAndSend returns
+        message.sentAt = System.nanoTime();
+        pending.put(correlationId, message);
+        try {
+            rabbitTemplate.convertAndSend(message.exchange, message.routingKey, message.payload, amqpMessage -> {
+                amqpMessage.getMessageProperties().setMessageId(message.messageId);
+                return amqpMessage;
+            }, new CorrelationData(correlationId));
+        } catch (AmqpException e) {
+            if (pending.remove(correlationId, message)) {
+                retryOrFail(message, e.getMessage());
+            }
+        }
+    }
+
+    private void confirm(CorrelationData correlation, boolean ack, String cause) {
+        if (correlation == null) {
+            return;
+        }
+        Pending message = pending.remove(correlation.getId());
+        if (message == null) {
+            // Already timed out and retried
+            return;
+        }
+        ReturnedMessage returned = correlation.getReturned();
+        if (ack && returned == null) {
+            confirmed.incrementAndGet();
+            window.release();
+            message.future.complete(null);
+        } else if (ack) {
+            fail(message, "unroutable (" + returned.getReplyCode() + " " + returned.getReplyText() + ")");
+        } else {
+            retryOrFail(message, cause);
+        }
+    }
+
+    private void expireUnconfirmed() {
+        long now = System.nanoTime();
+        Iterator<Map.Entry<String, Pending>> it = pending.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<String, Pending> entry = it.next();
+            Pending message = entry.getValue();
+            if (now - message.sentAt > confirmTimeoutNanos && pending.remove(entry.getKey(), message)) {
+                retryOrFail(message, "no confirm within " + TimeUnit.NANOSECONDS.toMillis(confirmTimeoutNanos) + " ms");
+            }
+        }
+    }
+
+    private void retryOrFail(Pending message, String cause) {
+        if (message.attempt >= maxRetries) {
+            fail(message, cause);
+            return;
+        }
+        message.attempt++;
+        retried.incrementAndGet();
+        long backoffMillis = Math.min(1000, 50L << message.attempt);
+        try {
+            retryExecutor.schedule(() -> send(message), backoffMillis, TimeUnit.MILLISECONDS);
+        } catch (RuntimeException e) {
+            // Shut down
+            fail(message, cause);
+        }
+    }
+
+    private void fail(Pending message, String cause) {
+        failed.incrementAndGet();
+        window.release();
+        message.future.completeExceptionally(new AmqpException("Publish of " + message.messageId
+            + " failed after " + (message.attempt + 1) + " attempt(s): " + cause));
+    }
+
+    private static final class Pending {
+        private final String exchange;
+        private final String routingKey;
+        private final Object payload;
+        private final String messageId;
+        private final CompletableFuture<Void> future = new CompletableFuture<>();
+        private volatile int attempt;
+        private volatile long sentAt;
+
+        private Pending(String exchange, String routingKey, Object payload, String messageId) {
+            this.exchange = exchange;
+            this.routingKey = routingKey;
+            this.payload = payload;
+            this.messageId = messageId;
+        }
+    }
+}
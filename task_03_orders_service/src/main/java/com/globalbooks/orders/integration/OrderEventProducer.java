@@ -1,61 +1,61 @@
 package com.globalbooks.orders.integration;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.globalbooks.orders.model.Order;
-import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import com.globalbooks.orders.model.OutboxEvent;
+import com.globalbooks.orders.repository.OutboxEventRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
-
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Stages order events in the outbox. Nothing is sent to the broker here: the
+ * events are rows written in the caller's transaction, so they exist exactly when
+ * the order does, and {@link OutboxRelay} publishes them afterwards.
+ */
 @Component
 public class OrderEventProducer {
 
     @Autowired
-    private RabbitTemplate rabbitTemplate;
+    private OutboxEventRepository outboxEventRepository;
 
     @Autowired
     private ObjectMapper objectMapper;
 
-    private static final String ORDERS_EXCHANGE = "orders.exchange";
+    static final String ORDERS_EXCHANGE = "orders.exchange";
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void stagePaymentRequired(Order order) {
+        PaymentRequiredEvent event = new PaymentRequiredEvent(
+            order.getId().toString(),
+            order.getCustomerId(),
+            order.getTotalAmount(),
+            "CREDIT_CARD" // Default payment method
+        );
+        stage(order, "order.payment.required", event);
+    }
 
-    public void publishPaymentRequired(Order order) {
-        try {
-            PaymentRequiredEvent event = new PaymentRequiredEvent(
-                order.getId().toString(),
-                order.getCustomerId(),
-                order.getTotalAmount(),
-                "CREDIT_CARD" // Default payment method
-            );
-
-            String message = objectMapper.writeValueAsString(event);
-            rabbitTemplate.convertAndSend(
-                ORDERS_EXCHANGE,
-                "order.payment.required",
-                message
-            );
-            System.out.println("Published payment required event for order: " + order.getId());
-        } catch (Exception e) {
-            System.err.println("Failed to publish payment event: " + e.getMessage());
-        }
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void stageShippingRequired(Order order) {
+        ShippingRequiredEvent event = new ShippingRequiredEvent(
+            order.getId().toString(),
+            order.getShippingAddress(),
+            order.getItems()
+        );
+        stage(order, "order.shipping.required", event);
     }
 
-    public void publishShippingRequired(Order order) {
+    private void stage(Order order, String routingKey, Object event) {
+        String message;
         try {
-            ShippingRequiredEvent event = new ShippingRequiredEvent(
-                order.getId().toString(),
-                order.getShippingAddress(),
-                order.getItems()
-            );
-
-            String message = objectMapper.writeValueAsString(event);
-            rabbitTemplate.convertAndSend(
-                ORDERS_EXCHANGE,
-                "order.shipping.required",
-                message
-            );
-            System.out.println("Published shipping required event for order: " + order.getId());
-        } catch (Exception e) {
-            System.err.println("Failed to publish shipping event: " + e.getMessage());
+            message = objectMapper.writeValueAsString(event);
+        } catch (JsonProcessingException e) {
+            // Rolls the order back with it rather than losing the event
+            throw new IllegalStateException("Cannot serialize " + routingKey + " event for order " + order.getId(), e);
         }
+        outboxEventRepository.save(new OutboxEvent(order.getId(), ORDERS_EXCHANGE, routingKey, message));
     }
 
     // Event classes
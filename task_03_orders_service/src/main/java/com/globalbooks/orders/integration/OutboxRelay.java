@@ -0,0 +1,159 @@
+package com.globalbooks.orders.integration;
+
+import com.globalbooks.orders.model.OutboxEvent;
+import com.globalbooks.orders.repository.OutboxEventRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.AmqpException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Publishes outbox events to RabbitMQ in batches and deletes them once the broker
+ * has confirmed them, so order creation never waits on the broker and no event is
+ * lost to a failed send.
+ *
+ * A batch is locked and claimed in one short transaction: its events are pushed
+ * out of the due range for twice the batch timeout, so no other relay picks them
+ * up, and the row locks are released at once. The batch is then published as a
+ * whole through the {@link ConfirmingPublisher} with no transaction or connection
+ * held, and only then awaited, so its confirms come back as one pipeline rather
+ * than one round trip per event. A second short transaction deletes the confirmed
+ * events and reschedules the rest with exponential backoff. A relay that dies
+ * mid-batch leaves its claimed events to be picked up once the claim runs out.
+ *
+ * Delivery is at least once: an event whose confirm was lost is sent again, and
+ * carries its outbox id as message id so consumers can drop the duplicate.
+ * Skipping rows another relay has locked relies on SKIP LOCKED, which only the
+ * PostgreSQL dialect provides; see {@link OutboxEventRepository#lockDue}.
+ */
+public class OutboxRelay {
+
+    private static final Logger log = LoggerFactory.getLogger(OutboxRelay.class);
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final ConfirmingPublisher publisher;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final long batchTimeoutMillis;
+    private final long maxBackoffMillis;
+    private final AtomicLong relayed = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+
+    public OutboxRelay(OutboxEventRepository outboxEventRepository, ConfirmingPublisher publisher,
+                       TransactionTemplate transactionTemplate, int batchSize,
+                       long batchTimeoutMillis, long maxBackoffMillis) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.publisher = publisher;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+        this.batchTimeoutMillis = batchTimeoutMillis;
+        this.maxBackoffMillis = maxBackoffMillis;
+    }
+
+    @Scheduled(fixedDelayString = "${orders.outbox.poll-interval-millis:200}")
+    public void drain() {
+        // Keep going while batches come back full and clean; a failure waits for the next poll
+        int published;
+        do {
+            published = relayBatch();
+        } while (published == batchSize);
+    }
+
+    /**
+     * Claims, publishes and settles one batch, and returns how many events were
+     * published if all of them were, or 0 if any has to be retried. Must not be
+     * called inside a transaction, which would hold the row locks while publishing.
+     */
+    int relayBatch() {
+        List<OutboxEvent> batch = transactionTemplate.execute(status -> claimBatch());
+        if (batch == null || batch.isEmpty()) {
+            return 0;
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(batchTimeoutMillis);
+        List<CompletableFuture<Void>> confirms = new ArrayList<>(batch.size());
+        for (OutboxEvent event : batch) {
+            CompletableFuture<Void> confirm;
+            try {
+                // Blocks while the publisher's confirm window is full
+                confirm = publisher.publish(event.getExchange(), event.getRoutingKey(), event.getPayload(),
+                    "order-outbox-" + event.getId());
+            } catch (AmqpException e) {
+                confirm = new CompletableFuture<>();
+                confirm.completeExceptionally(e);
+            }
+            confirms.add(confirm);
+        }
+
+        List<Long> delivered = new ArrayList<>(batch.size());
+        List<OutboxEvent> undelivered = new ArrayList<>();
+        for (int i = 0; i < batch.size(); i++) {
+            OutboxEvent event = batch.get(i);
+            if (confirmed(confirms.get(i), deadline)) {
+                delivered.add(event.getId());
+            } else {
+                undelivered.add(event);
+            }
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!delivered.isEmpty()) {
+                outboxEventRepository.deleteAllByIdInBatch(delivered);
+            }
+            undelivered.forEach(this::retryLater);
+        });
+        relayed.addAndGet(delivered.size());
+        failed.addAndGet(batch.size() - delivered.size());
+        return delivered.size() == batch.size() ? batch.size() : 0;
+    }
+
+    public long relayed() {
+        return relayed.get();
+    }
+
+    public long failed() {
+        return failed.get();
+    }
+
+    private List<OutboxEvent> claimBatch() {
+        LocalDateTime now = LocalDateTime.now();
+        List<OutboxEvent> batch = outboxEventRepository.lockDue(now, PageRequest.of(0, batchSize));
+        if (!batch.isEmpty()) {
+            List<Long> ids = new ArrayList<>(batch.size());
+            batch.forEach(event -> ids.add(event.getId()));
+            outboxEventRepository.claim(ids, now.plusNanos(TimeUnit.MILLISECONDS.toNanos(2 * batchTimeoutMillis)));
+        }
+        return batch;
+    }
+
+    private static boolean confirmed(CompletableFuture<Void> confirm, long deadline) {
+        try {
+            confirm.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            return true;
+        } catch (TimeoutException | ExecutionException e) {
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private void retryLater(OutboxEvent event) {
+        int attempts = event.getAttempts() + 1;
+        long backoffMillis = Math.min(maxBackoffMillis, 1000L << Math.min(attempts - 1, 20));
+        outboxEventRepository.reschedule(event.getId(), attempts,
+            LocalDateTime.now().plusNanos(TimeUnit.MILLISECONDS.toNanos(backoffMillis)));
+        log.warn("Outbox event {} for order {} not confirmed, attempt {}; retrying in {} ms",
+            event.getId(), event.getOrderId(), attempts, backoffMillis);
+    }
+}
@@ -1,12 +1,20 @@
 package com.globalbooks.orders.model;
 
 import com.fasterxml.jackson.annotation.JsonFormat;
+import org.hibernate.annotations.BatchSize;
+
 import javax.persistence.*;
 import java.time.LocalDateTime;
 import java.util.List;
 
 @Entity
-@Table(name = "orders")
+@Table(name = "orders", indexes = {
+    // Keyset pagination walks (createdAt, orderId), optionally within a customer and/or status
+    @Index(name = "idx_orders_created", columnList = "createdAt, orderId"),
+    @Index(name = "idx_orders_customer_created", columnList = "customerId, createdAt, orderId"),
+    @Index(name = "idx_orders_status_created", columnList = "status, createdAt, orderId"),
+    @Index(name = "idx_orders_customer_status_created", columnList = "customerId, status, createdAt, orderId")
+})
 public class Order {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -15,7 +23,9 @@ public class Order {
     @Column(nullable = false)
     private String customerId;
 
+    // Paths without a fetch join load the items of up to 100 orders per query
     @OneToMany(mappedBy = "order", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
+    @BatchSize(size = 100)
     private List<OrderItem> items;
 
     @Column(nullable = false)
@@ -25,6 +35,7 @@ public class Order {
     private OrderStatus status;
 
     @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
+    @Column(nullable = false)
     private LocalDateTime createdAt;
 
     @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
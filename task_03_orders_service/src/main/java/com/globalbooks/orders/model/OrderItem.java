@@ -19,8 +19,9 @@ public class OrderItem {
     @Column(nullable = false)
     private int quantity;
 
+    // Null in a create request means "price it from the catalog"; always set once stored
     @Column(nullable = false)
-    private double unitPrice;
+    private Double unitPrice;
 
     @Column(nullable = false)
     private double subtotal;
@@ -54,8 +55,8 @@ public class OrderItem {
     public int getQuantity() { return quantity; }
     public void setQuantity(int quantity) { this.quantity = quantity; }
 
-    public double getUnitPrice() { return unitPrice; }
-    public void setUnitPrice(double unitPrice) { this.unitPrice = unitPrice; }
+    public Double getUnitPrice() { return unitPrice; }
+    public void setUnitPrice(Double unitPrice) { this.unitPrice = unitPrice; }
 
     public double getSubtotal() { return subtotal; }
     public void setSubtotal(double subtotal) { this.subtotal = subtotal; }
@@ -0,0 +1,24 @@
+package com.globalbooks.orders.model;
+
+import java.util.List;
+
+/**
+ * One page of an order listing. {@code nextPageToken} is null on the last page.
+ */
+public class OrderPage {
+    private final List<Order> orders;
+    private final int pageSize;
+    private final String nextPageToken;
+
+    public OrderPage(List<Order> orders, int pageSize, String nextPageToken) {
+        this.orders = orders;
+        this.pageSize = pageSize;
+        this.nextPageToken = nextPageToken;
+    }
+
+    public List<Order> getOrders() { return orders; }
+
+    public int getPageSize() { return pageSize; }
+
+    public String getNextPageToken() { return nextPageToken; }
+}
@@ -2,14 +2,57 @@ package com.globalbooks.orders.repository;
 
 import com.globalbooks.orders.model.Order;
 import com.globalbooks.orders.model.OrderStatus;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.QueryHint;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface OrderRepository extends JpaRepository<Order, Long> {
-    List<Order> findByCustomerId(String customerId);
-    List<Order> findByStatus(OrderStatus status);
-    List<Order> findByCustomerIdAndStatus(String customerId, OrderStatus status);
-}
\ No newline at end of file
+
+    // Read paths that serialize items load them in the same query. The distinct only
+    // drops the duplicate roots of the join; it is not passed through to the SQL.
+    @Query("select distinct o from Order o left join fetch o.items where o.orderId = :orderId")
+    @QueryHints(@QueryHint(name = "hibernate.query.passDistinctThrough", value = "false"))
+    Optional<Order> findWithItemsByOrderId(@Param("orderId") Long orderId);
+
+    @Query("select distinct o from Order o left join fetch o.items where o.orderId in :orderIds"
+        + " order by o.createdAt, o.orderId")
+    @QueryHints(@QueryHint(name = "hibernate.query.passDistinctThrough", value = "false"))
+    List<Order> findWithItemsByOrderIdIn(@Param("orderIds") Collection<Long> orderIds);
+
+    // Keyset pages: ids of the orders after (createdAt, orderId), in that order. Pass an
+    // unsorted Pageable for the limit; each query is served by the matching index.
+    @Query("select o.orderId from Order o where o.createdAt > :createdAt"
+        + " or (o.createdAt = :createdAt and o.orderId > :orderId) order by o.createdAt, o.orderId")
+    List<Long> findPageIdsAfter(@Param("createdAt") LocalDateTime createdAt,
+                                @Param("orderId") Long orderId, Pageable page);
+
+    @Query("select o.orderId from Order o where o.customerId = :customerId and (o.createdAt > :createdAt"
+        + " or (o.createdAt = :createdAt and o.orderId > :orderId)) order by o.createdAt, o.orderId")
+    List<Long> findPageIdsByCustomerIdAfter(@Param("customerId") String customerId,
+                                            @Param("createdAt") LocalDateTime createdAt,
+                                            @Param("orderId") Long orderId, Pageable page);
+
+    @Query("select o.orderId from Order o where o.status = :status and (o.createdAt > :createdAt"
+        + " or (o.createdAt = :createdAt and o.orderId > :orderId)) order by o.createdAt, o.orderId")
+    List<Long> findPageIdsByStatusAfter(@Param("status") OrderStatus status,
+                                        @Param("createdAt") LocalDateTime createdAt,
+                                        @Param("orderId") Long orderId, Pageable page);
+
+    @Query("select o.orderId from Order o where o.customerId = :customerId and o.status = :status"
+        + " and (o.createdAt > :createdAt or (o.createdAt = :createdAt and o.orderId > :orderId))"
+        + " order by o.createdAt, o.orderId")
+    List<Long> findPageIdsByCustomerIdAndStatusAfter(@Param("customerId") String customerId,
+                                                     @Param("status") OrderStatus status,
+                                                     @Param("createdAt") LocalDateTime createdAt,
+                                                     @Param("orderId") Long orderId, Pageable page);
+}
@@ -0,0 +1,38 @@
+package com.globalbooks.orders.repository;
+
+import com.globalbooks.orders.model.OutboxEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.LockModeType;
+import javax.persistence.QueryHint;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    // Oldest due events first. Lock timeout -2 is Hibernate's SKIP LOCKED: on PostgreSQL rows
+    // another relay holds are skipped rather than waited for. H2Dialect has no SKIP LOCKED and
+    // ignores the hint, so on H2 a second relay waits for the first one's claim to commit.
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "javax.persistence.lock.timeout", value = "-2"))
+    @Query("select e from OutboxEvent e where e.nextAttemptAt <= :now order by e.id")
+    List<OutboxEvent> lockDue(@Param("now") LocalDateTime now, Pageable page);
+
+    // Pushes events out of the due range while a relay publishes them
+    @Modifying
+    @Query("update OutboxEvent e set e.nextAttemptAt = :until where e.id in :ids")
+    int claim(@Param("ids") List<Long> ids, @Param("until") LocalDateTime until);
+
+    @Modifying
+    @Query("update OutboxEvent e set e.attempts = :attempts, e.nextAttemptAt = :nextAttemptAt where e.id = :id")
+    int reschedule(@Param("id") Long id, @Param("attempts") int attempts,
+                   @Param("nextAttemptAt") LocalDateTime nextAttemptAt);
+}
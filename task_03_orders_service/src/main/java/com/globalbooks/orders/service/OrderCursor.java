@@ -0,0 +1,56 @@
+package com.globalbooks.orders.service;
+
+import com.globalbooks.orders.model.Order;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Position in the (createdAt, orderId) order of the orders table, handed to
+ * clients as an opaque page token. A page holds the orders strictly after it.
+ */
+public final class OrderCursor {
+
+    // Before any order; createdAt is always set when an order is created
+    public static final OrderCursor START = new OrderCursor(LocalDateTime.of(1970, 1, 1, 0, 0), 0L);
+
+    private final LocalDateTime createdAt;
+    private final Long orderId;
+
+    public OrderCursor(LocalDateTime createdAt, Long orderId) {
+        this.createdAt = createdAt;
+        this.orderId = orderId;
+    }
+
+    public static OrderCursor after(Order order) {
+        return new OrderCursor(order.getCreatedAt(), order.getOrderId());
+    }
+
+    /**
+     * @throws IllegalArgumentException if the token was not produced by {@link #toToken()}
+     */
+    public static OrderCursor fromToken(String token) {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = decoded.indexOf('|');
+            if (separator >= 0) {
+                return new OrderCursor(LocalDateTime.parse(decoded.substring(0, separator)),
+                    Long.valueOf(decoded.substring(separator + 1)));
+            }
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid page token: " + token, e);
+        }
+        throw new IllegalArgumentException("Invalid page token: " + token);
+    }
+
+    public String toToken() {
+        String cursor = createdAt + "|" + orderId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(cursor.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+
+    public Long getOrderId() { return orderId; }
+}
@@ -0,0 +1,168 @@
+package com.globalbooks.orders.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.globalbooks.orders.model.OrderStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Writes orders with their items as newline-delimited JSON, one order per line,
+ * straight from a forward-only JDBC cursor. Each row is written as it is read and
+ * nothing is collected, so memory stays flat however many orders match.
+ *
+ * Orders and items come from one join ordered by (createdAt, orderId), so the
+ * rows of an order are adjacent and an order's line is complete as soon as the
+ * next order starts. The query runs in a read-only transaction because some
+ * drivers (PostgreSQL) only honour the fetch size with auto-commit off.
+ */
+public class OrderExporter {
+
+    private static final String SELECT = "select o.order_id, o.customer_id, o.total_amount, o.status,"
+        + " o.created_at, o.updated_at, o.shipping_address,"
+        + " i.id as item_id, i.book_id, i.book_title, i.quantity, i.unit_price, i.subtotal"
+        + " from orders o left join order_items i on i.order_id = o.order_id";
+    // Same format as the @JsonFormat on Order
+    private static final DateTimeFormatter TIMESTAMP = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final JsonFactory jsonFactory;
+    private final int fetchSize;
+
+    public OrderExporter(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                         JsonFactory jsonFactory, int fetchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.jsonFactory = jsonFactory;
+        this.fetchSize = fetchSize;
+    }
+
+    /**
+     * Writes the orders created in [{@code from}, {@code to}) with the given status;
+     * null leaves a bound open. Returns the number of orders written.
+     */
+    public long export(LocalDateTime from, LocalDateTime to, OrderStatus status, OutputStream out) throws IOException {
+        StringBuilder sql = new StringBuilder(SELECT);
+        List<Object> args = new ArrayList<>();
+        String clause = " where ";
+        if (from != null) {
+            sql.append(clause).append("o.created_at >= ?");
+            args.add(Timestamp.valueOf(from));
+            clause = " and ";
+        }
+        if (to != null) {
+            sql.append(clause).append("o.created_at < ?");
+            args.add(Timestamp.valueOf(to));
+            clause = " and ";
+        }
+        if (status != null) {
+            sql.append(clause).append("o.status = ?");
+            args.add(status.name());
+        }
+        sql.append(" order by o.created_at, o.order_id, i.id");
+
+        JsonGenerator json = jsonFactory.createGenerator(out);
+        // Lines are separated explicitly; no separator between root values
+        json.setRootValueSeparator(null);
+        NdjsonWriter writer = new NdjsonWriter(json);
+        try {
+            transactionTemplate.executeWithoutResult(tx -> jdbcTemplate.query(connection -> {
+                PreparedStatement statement = connection.prepareStatement(sql.toString(),
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                statement.setFetchSize(fetchSize);
+                for (int i = 0; i < args.size(); i++) {
+                    statement.setObject(i + 1, args.get(i));
+                }
+                return statement;
+            }, writer));
+            writer.finish();
+        } catch (UncheckedIOException e) {
+            // The client went away or the socket failed; stop reading rows
+            throw e.getCause();
+        }
+        json.flush();
+        return writer.orders;
+    }
+
+    private static final class NdjsonWriter implements RowCallbackHandler {
+        private final JsonGenerator json;
+        private Long currentOrderId;
+        private long orders;
+
+        private NdjsonWriter(JsonGenerator json) {
+            this.json = json;
+        }
+
+        @Override
+        public void processRow(ResultSet rs) throws SQLException {
+            try {
+                long orderId = rs.getLong("order_id");
+                if (currentOrderId == null || currentOrderId != orderId) {
+                    endOrder();
+                    startOrder(rs, orderId);
+                }
+                long itemId = rs.getLong("item_id");
+                if (!rs.wasNull()) {
+                    json.writeStartObject();
+                    json.writeNumberField("id", itemId);
+                    json.writeStringField("bookId", rs.getString("book_id"));
+                    json.writeStringField("bookTitle", rs.getString("book_title"));
+                    json.writeNumberField("quantity", rs.getInt("quantity"));
+                    json.writeNumberField("unitPrice", rs.getDouble("unit_price"));
+                    json.writeNumberField("subtotal", rs.getDouble("subtotal"));
+                    json.writeEndObject();
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private void startOrder(ResultSet rs, long orderId) throws SQLException, IOException {
+            currentOrderId = orderId;
+            json.writeStartObject();
+            json.writeNumberField("orderId", orderId);
+            json.writeStringField("customerId", rs.getString("customer_id"));
+            json.writeNumberField("totalAmount", rs.getDouble("total_amount"));
+            json.writeStringField("status", rs.getString("status"));
+            json.writeStringField("createdAt", format(rs.getTimestamp("created_at")));
+            json.writeStringField("updatedAt", format(rs.getTimestamp("updated_at")));
+            json.writeStringField("shippingAddress", rs.getString("shipping_address"));
+            json.writeArrayFieldStart("items");
+        }
+
+        private void endOrder() throws IOException {
+            if (currentOrderId != null) {
+                json.writeEndArray();
+                json.writeEndObject();
+                json.writeRaw('\n');
+                orders++;
+            }
+        }
+
+        private void finish() {
+            try {
+                endOrder();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private static String format(Timestamp timestamp) {
+            return timestamp == null ? null : timestamp.toLocalDateTime().format(TIMESTAMP);
+        }
+    }
+}
@@ -1,14 +1,22 @@
 package com.globalbooks.orders.service;
 
+import com.globalbooks.orders.integration.CatalogPriceNearCache;
 import com.globalbooks.orders.integration.OrderEventProducer;
 import com.globalbooks.orders.model.Order;
 import com.globalbooks.orders.model.OrderItem;
+import com.globalbooks.orders.model.OrderPage;
 import com.globalbooks.orders.model.OrderStatus;
 import com.globalbooks.orders.repository.OrderRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
+import java.util.Collections;
 import java.util.List;
 
 @Service
@@ -20,6 +28,26 @@ public class OrderService {
     @Autowired
     private OrderEventProducer orderEventProducer;
 
+    @Autowired
+    private CatalogPriceNearCache catalogPriceNearCache;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${orders.page.default-size:50}")
+    private int defaultPageSize;
+
+    @Value("${orders.page.max-size:500}")
+    private int maxPageSize;
+
+    /**
+     * Prices the lines sent without a {@code unitPrice} from the catalog, then stores
+     * the order and stages its events in one transaction. The catalog is called
+     * before that transaction opens, so no connection is held across the lookups.
+     *
+     * @throws IllegalArgumentException if the order is invalid or names a book the catalog does not know
+     * @throws org.springframework.web.client.RestClientException if the catalog cannot be reached
+     */
     public Order createOrder(Order order) {
         if (order == null || order.getCustomerId() == null || order.getCustomerId().trim().isEmpty()) {
             throw new IllegalArgumentException("Order and customerId cannot be null or empty");
@@ -31,6 +59,14 @@ public class OrderService {
                 if (item == null || item.getBookId() == null || item.getBookTitle() == null) {
                     throw new IllegalArgumentException("OrderItem and its bookId/bookTitle cannot be null");
                 }
+                if (item.getUnitPrice() == null) {
+                    // Price omitted by the caller; use the catalog's current price
+                    Double price = catalogPriceNearCache.getPrice(item.getBookId());
+                    if (price == null) {
+                        throw new IllegalArgumentException("Unknown book: " + item.getBookId());
+                    }
+                    item.setUnitPrice(price);
+                }
                 item.setOrder(order);
                 item.setSubtotal(item.getQuantity() * item.getUnitPrice());
             }
@@ -49,34 +85,64 @@ public class OrderService {
         order.setUpdatedAt(LocalDateTime.now());
         order.setStatus(OrderStatus.PENDING);
 
-        Order savedOrder = orderRepository.save(order);
+        return transactionTemplate.execute(status -> {
+            Order savedOrder = orderRepository.save(order);
 
-        // Publish events for payment and shipping processing
-        try {
-            orderEventProducer.publishPaymentRequired(savedOrder);
-            orderEventProducer.publishShippingRequired(savedOrder);
-        } catch (Exception e) {
-            // Log error but don't fail the order creation
-            System.err.println("Failed to publish order events: " + e.getMessage());
-        }
+            // Committed with the order; the outbox relay publishes them to the broker
+            orderEventProducer.stagePaymentRequired(savedOrder);
+            orderEventProducer.stageShippingRequired(savedOrder);
 
-        return savedOrder;
+            return savedOrder;
+        });
     }
 
+    // Orders returned to callers are serialized with their items, so fetch them together
+    @Transactional(readOnly = true)
     public Order getOrderById(Long orderId) {
-        return orderRepository.findById(orderId).orElse(null);
+        return orderRepository.findWithItemsByOrderId(orderId).orElse(null);
     }
 
-    public List<Order> getOrders(String customerId, String status) {
+    /**
+     * Returns the orders after {@code pageToken} (from the start if null) in
+     * (createdAt, orderId) order, optionally filtered by customer and/or status.
+     * Each page costs one index range scan for its ids and one query for the orders
+     * with their items, however deep into the table it is.
+     */
+    @Transactional(readOnly = true)
+    public OrderPage getOrders(String customerId, String status, String pageToken, Integer limit) {
+        int pageSize = limit != null ? limit : defaultPageSize;
+        if (pageSize < 1 || pageSize > maxPageSize) {
+            throw new IllegalArgumentException("limit must be between 1 and " + maxPageSize);
+        }
+        OrderCursor after = pageToken != null ? OrderCursor.fromToken(pageToken) : OrderCursor.START;
+        // One more than the page to learn whether another page follows
+        Pageable page = PageRequest.of(0, pageSize + 1);
+
+        List<Long> orderIds;
         if (customerId != null && status != null) {
-            return orderRepository.findByCustomerIdAndStatus(
-                customerId, OrderStatus.valueOf(status.toUpperCase()));
+            orderIds = orderRepository.findPageIdsByCustomerIdAndStatusAfter(customerId,
+                OrderStatus.valueOf(status.toUpperCase()), after.getCreatedAt(), after.getOrderId(), page);
         } else if (customerId != null) {
-            return orderRepository.findByCustomerId(customerId);
+            orderIds = orderRepository.findPageIdsByCustomerIdAfter(customerId,
+                after.getCreatedAt(), after.getOrderId(), page);
         } else if (status != null) {
-            return orderRepository.findByStatus(OrderStatus.valueOf(status.toUpperCase()));
+            orderIds = orderRepository.findPageIdsByStatusAfter(OrderStatus.valueOf(status.toUpperCase()),
+                after.getCreatedAt(), after.getOrderId(), page);
+        } else {
+            orderIds = orderRepository.findPageIdsAfter(after.getCreatedAt(), after.getOrderId(), page);
+        }
+
+        boolean more = orderIds.size() > pageSize;
+        if (more) {
+            orderIds = orderIds.subList(0, pageSize);
         }
-        return orderRepository.findAll();
+        List<Order> orders = orderIds.isEmpty()
+            ? Collections.emptyList()
+            : orderRepository.findWithItemsByOrderIdIn(orderIds);
+        String nextPageToken = more && !orders.isEmpty()
+            ? OrderCursor.after(orders.get(orders.size() - 1)).toToken()
+            : null;
+        return new OrderPage(orders, pageSize, nextPageToken);
     }
 
     public Order updateOrderStatus(Long orderId, String status) {
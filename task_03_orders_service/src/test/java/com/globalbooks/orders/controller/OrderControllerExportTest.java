@@ -0,0 +1,54 @@
+package com.globalbooks.orders.controller;
+
+import com.globalbooks.orders.model.OrderStatus;
+import com.globalbooks.orders.service.OrderExporter;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class OrderControllerExportTest {
+
+    @Test
+    void testExportRunsWithItsOwnAsyncTimeout() throws Exception {
+        // Test that the export streams the exporter's output under the export timeout, not the global one
+        OrderExporter exporter = mock(OrderExporter.class);
+        doAnswer(invocation -> {
+            invocation.<OutputStream>getArgument(3).write("{\"orderId\":1}\n".getBytes(StandardCharsets.UTF_8));
+            return 1L;
+        }).when(exporter).export(eq(LocalDateTime.of(2024, 3, 1, 0, 0)), isNull(), eq(OrderStatus.PENDING), any());
+        OrderController controller = new OrderController();
+        ReflectionTestUtils.setField(controller, "orderExporter", exporter);
+        ReflectionTestUtils.setField(controller, "exportTimeoutMillis", 3_600_000L);
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(controller).build();
+
+        MvcResult result = mockMvc.perform(get("/api/v1/orders/export")
+                .param("from", "2024-03-01T00:00:00")
+                .param("status", "pending"))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+        assertThat(result.getRequest().getAsyncContext().getTimeout()).isEqualTo(3_600_000L);
+
+        mockMvc.perform(asyncDispatch(result))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType("application/x-ndjson"))
+            .andExpect(content().string("{\"orderId\":1}\n"));
+    }
+}
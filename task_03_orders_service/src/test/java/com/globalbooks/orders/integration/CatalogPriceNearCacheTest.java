@@ -0,0 +1,147 @@
+package com.globalbooks.orders.integration;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class CatalogPriceNearCacheTest {
+
+    private static final String CLEAN_CODE = "978-0132350884";
+    private static final String DESIGN_PATTERNS = "978-0201633610";
+    private static final long MAX_STALENESS = 60_000;
+
+    private final RestTemplate restTemplate = mock(RestTemplate.class);
+    private final AtomicLong now = new AtomicLong(1_000_000);
+    private final AtomicInteger fetches = new AtomicInteger();
+    private volatile double catalogPrice = 49.99;
+    // Runs inside the fetch, to interleave a delta with it
+    private volatile Runnable duringFetch = () -> { };
+    private CatalogPriceNearCache cache;
+
+    @BeforeEach
+    void setUp() {
+        when(restTemplate.getForObject(anyString(), eq(CatalogPriceNearCache.BookPrice.class), eq(CLEAN_CODE)))
+            .thenAnswer(invocation -> {
+                fetches.incrementAndGet();
+                duringFetch.run();
+                return price(CLEAN_CODE, catalogPrice);
+            });
+        when(restTemplate.getForObject(anyString(), eq(CatalogPriceNearCache.BookPrice.class), eq(DESIGN_PATTERNS)))
+            .thenAnswer(invocation -> {
+                fetches.incrementAndGet();
+                return price(DESIGN_PATTERNS, 54.99);
+            });
+        when(restTemplate.getForObject(anyString(), eq(CatalogPriceNearCache.BookPrice.class), eq("978-0000000000")))
+            .thenThrow(HttpClientErrorException.create(HttpStatus.NOT_FOUND, "Not Found", null, null, null));
+        cache = new CatalogPriceNearCache(restTemplate, "http://catalog", MAX_STALENESS, 100, now::get);
+    }
+
+    @Test
+    void testFetchesOnceThenServesLocally() {
+        // Test that the first lookup fetches and later ones are served from the cache
+        assertThat(cache.getPrice(CLEAN_CODE)).isEqualTo(49.99);
+        assertThat(cache.getPrice(CLEAN_CODE)).isEqualTo(49.99);
+
+        assertThat(fetches.get()).isEqualTo(1);
+        assertThat(cache.hits()).isEqualTo(1);
+        assertThat(cache.misses()).isEqualTo(1);
+    }
+
+    @Test
+    void testDeltasApplyInVersionOrder() {
+        // Test that newer deltas update the entry and older or repeated ones are discarded
+        cache.getPrice(CLEAN_CODE);
+
+        cache.apply(new CatalogChangeEvent(CLEAN_CODE, 44.99, null, false, 10));
+        cache.apply(new CatalogChangeEvent(CLEAN_CODE, 39.99, null, false, 9));
+        cache.apply(new CatalogChangeEvent(CLEAN_CODE, 29.99, null, false, 10));
+        assertThat(cache.getPrice(CLEAN_CODE)).isEqualTo(44.99);
+
+        // A stock-only delta keeps the price
+        cache.apply(new CatalogChangeEvent(CLEAN_CODE, null, 3, false, 11));
+        assertThat(cache.getPrice(CLEAN_CODE)).isEqualTo(44.99);
+        assertThat(fetches.get()).isEqualTo(1);
+
+        cache.apply(new CatalogChangeEvent(CLEAN_CODE, null, null, true, 12));
+        assertThat(cache.size()).isZero();
+        assertThat(cache.getPrice(CLEAN_CODE)).isEqualTo(49.99);
+        assertThat(fetches.get()).isEqualTo(2);
+    }
+
+    @Test
+    void testDeltasForUncachedTitlesAreIgnored() {
+        // Test that the feed does not fill the cache with titles this service never priced
+        cache.apply(new CatalogChangeEvent(DESIGN_PATTERNS, 10.0, null, false, 10));
+
+        assertThat(cache.size()).isZero();
+        assertThat(cache.getPrice(DESIGN_PATTERNS)).isEqualTo(54.99);
+    }
+
+    @Test
+    void testStaleEntriesAreRefetchedUnlessConfirmed() {
+        // Test that an entry older than the staleness bound is fetched again, and a delta resets that bound
+        cache.getPrice(CLEAN_CODE);
+        now.addAndGet(MAX_STALENESS - 1);
+        cache.apply(new CatalogChangeEvent(CLEAN_CODE, 44.99, null, false, 10));
+        now.addAndGet(MAX_STALENESS - 1);
+        assertThat(cache.getPrice(CLEAN_CODE)).isEqualTo(44.99);
+        assertThat(fetches.get()).isEqualTo(1);
+
+        now.addAndGet(2);
+        catalogPrice = 42.99;
+        assertThat(cache.getPrice(CLEAN_CODE)).isEqualTo(42.99);
+        assertThat(fetches.get()).isEqualTo(2);
+        assertThat(cache.getPrice(CLEAN_CODE)).isEqualTo(42.99);
+        assertThat(fetches.get()).isEqualTo(2);
+    }
+
+    @Test
+    void testDeltaDuringFetchWinsOverFetchedPrice() {
+        // Test that a delta applied while a refetch is in flight is not overwritten by the older fetched value
+        cache.getPrice(CLEAN_CODE);
+        cache.apply(new CatalogChangeEvent(CLEAN_CODE, 44.99, null, false, 10));
+        now.addAndGet(MAX_STALENESS + 1);
+        duringFetch = () -> cache.apply(new CatalogChangeEvent(CLEAN_CODE, 39.99, null, false, 11));
+
+        cache.getPrice(CLEAN_CODE);
+        duringFetch = () -> { };
+
+        assertThat(cache.getPrice(CLEAN_CODE)).isEqualTo(39.99);
+        assertThat(fetches.get()).isEqualTo(2);
+    }
+
+    @Test
+    void testUnknownTitlesAndCapacity() {
+        // Test that unknown titles are not cached and a full cache still answers without storing new titles
+        assertThat(cache.getPrice("978-0000000000")).isNull();
+        assertThat(cache.size()).isZero();
+
+        CatalogPriceNearCache small = new CatalogPriceNearCache(restTemplate, "http://catalog",
+            MAX_STALENESS, 1, now::get);
+        small.getPrice(CLEAN_CODE);
+        assertThat(small.getPrice(DESIGN_PATTERNS)).isEqualTo(54.99);
+        assertThat(small.getPrice(DESIGN_PATTERNS)).isEqualTo(54.99);
+
+        assertThat(small.size()).isEqualTo(1);
+        assertThat(fetches.get()).isEqualTo(3);
+    }
+
+    private static CatalogPriceNearCache.BookPrice price(String isbn, double price) {
+        CatalogPriceNearCache.BookPrice body = new CatalogPriceNearCache.BookPrice();
+        body.setBookId(isbn);
+        body.setPrice(price);
+        body.setFound(true);
+        return body;
+    }
+}
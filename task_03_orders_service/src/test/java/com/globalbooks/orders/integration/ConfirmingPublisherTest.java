@@ -0,0 +1,160 @@
+package com.globalbooks.orders.integration;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.AmqpTimeoutException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessagePostProcessor;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.core.ReturnedMessage;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+class ConfirmingPublisherTest {
+
+    private final RabbitTemplate rabbitTemplate = mock(RabbitTemplate.class);
+    // Correlation ids in send order, and the message id each send carried
+    private final List<String> correlationIds = new CopyOnWriteArrayList<>();
+    private final List<CorrelationData> correlations = new CopyOnWriteArrayList<>();
+    private final List<String> messageIds = new CopyOnWriteArrayList<>();
+    private volatile AmqpException sendFailure;
+    private RabbitTemplate.ConfirmCallback confirmCallback;
+    private ConfirmingPublisher publisher;
+
+    @BeforeEach
+    void setUp() {
+        doAnswer(invocation -> {
+            if (sendFailure != null) {
+                throw sendFailure;
+            }
+            MessagePostProcessor postProcessor = invocation.getArgument(3);
+            Message message = postProcessor.postProcessMessage(new Message(new byte[0], new MessageProperties()));
+            messageIds.add(message.getMessageProperties().getMessageId());
+            CorrelationData correlation = invocation.getArgument(4);
+            correlations.add(correlation);
+            correlationIds.add(correlation.getId());
+            return null;
+        }).when(rabbitTemplate).convertAndSend(anyString(), anyString(), any(Object.class),
+            any(MessagePostProcessor.class), any(CorrelationData.class));
+    }
+
+    @AfterEach
+    void tearDown() {
+        publisher.shutdown();
+    }
+
+    @Test
+    void testAckCompletesAndFreesTheWindow() throws Exception {
+        // Test that a broker ack completes the publish and releases its window slot
+        publisher = create(1, 2, 60_000);
+
+        CompletableFuture<Void> first = publisher.publish("orders.exchange", "order.payment", "{}", "order-outbox-1");
+        assertThat(messageIds).containsExactly("order-outbox-1");
+        assertThat(publisher.inFlight()).isEqualTo(1);
+        assertThatThrownBy(() -> publisher.publish("orders.exchange", "order.payment", "{}", "order-outbox-2"))
+            .isInstanceOf(AmqpTimeoutException.class);
+
+        confirmCallback.confirm(correlations.get(0), true, null);
+
+        assertThat(first).isCompleted();
+        assertThat(publisher.inFlight()).isZero();
+        assertThat(publisher.confirmed()).isEqualTo(1);
+        publisher.publish("orders.exchange", "order.payment", "{}", "order-outbox-2");
+        assertThat(messageIds).containsExactly("order-outbox-1", "order-outbox-2");
+    }
+
+    @Test
+    void testNackIsRetriedUnderANewCorrelationId() throws Exception {
+        // Test that a nacked message is sent again with the same message id and completes on the retry's ack
+        publisher = create(10, 2, 60_000);
+
+        CompletableFuture<Void> future = publisher.publish("orders.exchange", "order.payment", "{}", "order-outbox-1");
+        confirmCallback.confirm(correlations.get(0), false, "resource error");
+        awaitSends(2);
+        // A late confirm of the first attempt is ignored
+        confirmCallback.confirm(correlations.get(0), true, null);
+        assertThat(future).isNotDone();
+
+        confirmCallback.confirm(correlations.get(1), true, null);
+
+        assertThat(future).isCompleted();
+        assertThat(correlationIds).containsExactly("order-outbox-1#0", "order-outbox-1#1");
+        assertThat(messageIds).containsExactly("order-outbox-1", "order-outbox-1");
+        assertThat(publisher.retried()).isEqualTo(1);
+        assertThat(publisher.confirmed()).isEqualTo(1);
+    }
+
+    @Test
+    void testUnroutableMessageFailsWithoutRetry() {
+        // Test that a message the broker returned fails at once and gives its slot back
+        publisher = create(1, 2, 60_000);
+
+        CompletableFuture<Void> future = publisher.publish("orders.exchange", "no.such.queue", "{}", "order-outbox-1");
+        correlations.get(0).setReturned(new ReturnedMessage(new Message(new byte[0], new MessageProperties()),
+            312, "NO_ROUTE", "orders.exchange", "no.such.queue"));
+        confirmCallback.confirm(correlations.get(0), true, null);
+
+        assertThatThrownBy(future::get).isInstanceOf(ExecutionException.class).hasMessageContaining("unroutable");
+        assertThat(publisher.failed()).isEqualTo(1);
+        assertThat(publisher.retried()).isZero();
+        assertThat(publisher.inFlight()).isZero();
+        publisher.publish("orders.exchange", "order.payment", "{}", "order-outbox-2");
+    }
+
+    @Test
+    void testFailsAfterMaxRetries() {
+        // Test that send failures and missing confirms are retried, then the publish fails and frees its slot
+        publisher = create(1, 2, 100);
+
+        sendFailure = new AmqpException("connection lost");
+        CompletableFuture<Void> failedSends = publisher.publish("orders.exchange", "order.payment", "{}",
+            "order-outbox-1");
+        assertThatThrownBy(() -> failedSends.get(5, TimeUnit.SECONDS))
+            .isInstanceOf(ExecutionException.class).hasMessageContaining("after 3 attempt(s): connection lost");
+
+        sendFailure = null;
+        CompletableFuture<Void> unconfirmed = publisher.publish("orders.exchange", "order.payment", "{}",
+            "order-outbox-2");
+        assertThatThrownBy(() -> unconfirmed.get(5, TimeUnit.SECONDS))
+            .isInstanceOf(ExecutionException.class).hasMessageContaining("no confirm within 100 ms");
+        assertThat(messageIds).containsExactly("order-outbox-2", "order-outbox-2", "order-outbox-2");
+        assertThat(publisher.retried()).isEqualTo(4);
+        assertThat(publisher.failed()).isEqualTo(2);
+        assertThat(publisher.inFlight()).isZero();
+    }
+
+    private ConfirmingPublisher create(int maxInFlight, int maxRetries, long confirmTimeoutMillis) {
+        ConfirmingPublisher created = new ConfirmingPublisher(rabbitTemplate, maxInFlight, maxRetries, 50,
+            confirmTimeoutMillis);
+        ArgumentCaptor<RabbitTemplate.ConfirmCallback> callback = ArgumentCaptor.forClass(
+            RabbitTemplate.ConfirmCallback.class);
+        verify(rabbitTemplate).setConfirmCallback(callback.capture());
+        confirmCallback = callback.getValue();
+        return created;
+    }
+
+    private void awaitSends(int sends) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (correlations.size() < sends && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(correlations).hasSize(sends);
+    }
+}
@@ -0,0 +1,121 @@
+package com.globalbooks.orders.integration;
+
+import com.globalbooks.orders.model.OutboxEvent;
+import com.globalbooks.orders.repository.OutboxEventRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.AmqpException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// Not transactional: the relay runs its own claim and settle transactions
+@DataJpaTest(properties = "spring.jpa.show-sql=false")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class OutboxRelayTest {
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final ConfirmingPublisher publisher = mock(ConfirmingPublisher.class);
+    private final List<String> published = new ArrayList<>();
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void setUp() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @AfterEach
+    void tearDown() {
+        outboxEventRepository.deleteAll();
+    }
+
+    @Test
+    void testDeletesConfirmedEventsAndReschedulesTheRest() {
+        // Test that confirmed events leave the outbox and failed ones come back later with one more attempt
+        Long confirmed = stage(1L);
+        Long nacked = stage(2L);
+        Long rejected = stage(3L);
+        when(publisher.publish(anyString(), anyString(), any(), anyString())).thenAnswer(invocation -> {
+            String messageId = invocation.getArgument(3);
+            published.add(messageId);
+            if (messageId.equals("order-outbox-" + rejected)) {
+                throw new AmqpException("window full");
+            }
+            CompletableFuture<Void> confirm = new CompletableFuture<>();
+            if (messageId.equals("order-outbox-" + confirmed)) {
+                confirm.complete(null);
+            } else {
+                confirm.completeExceptionally(new AmqpException("nacked"));
+            }
+            return confirm;
+        });
+        OutboxRelay relay = new OutboxRelay(outboxEventRepository, publisher, transactionTemplate, 10, 1000, 60_000);
+
+        assertThat(relay.relayBatch()).isZero();
+
+        assertThat(published).containsExactly("order-outbox-" + confirmed, "order-outbox-" + nacked,
+            "order-outbox-" + rejected);
+        assertThat(outboxEventRepository.findById(confirmed)).isEmpty();
+        for (Long id : new Long[] {nacked, rejected}) {
+            OutboxEvent event = outboxEventRepository.findById(id).orElseThrow(AssertionError::new);
+            assertThat(event.getAttempts()).isEqualTo(1);
+            assertThat(event.getNextAttemptAt()).isAfter(LocalDateTime.now());
+        }
+        assertThat(relay.relayed()).isEqualTo(1);
+        assertThat(relay.failed()).isEqualTo(2);
+        // Nothing is due until the backoff has passed
+        assertThat(relay.relayBatch()).isZero();
+        assertThat(published).hasSize(3);
+    }
+
+    @Test
+    void testPublishesOutsideTheClaimTransaction() {
+        // Test that a batch is claimed and committed before publishing, so no lock or transaction is held meanwhile
+        stage(1L);
+        stage(2L);
+        List<Integer> dueWhilePublishing = new ArrayList<>();
+        List<Boolean> inTransaction = new ArrayList<>();
+        when(publisher.publish(anyString(), anyString(), any(), anyString())).thenAnswer(invocation -> {
+            inTransaction.add(TransactionSynchronizationManager.isActualTransactionActive());
+            // Another relay polling now finds the claimed events not due
+            dueWhilePublishing.add(transactionTemplate.execute(status ->
+                outboxEventRepository.lockDue(LocalDateTime.now(), PageRequest.of(0, 10)).size()));
+            return CompletableFuture.completedFuture(null);
+        });
+        OutboxRelay relay = new OutboxRelay(outboxEventRepository, publisher, transactionTemplate, 2, 1000, 60_000);
+
+        relay.drain();
+
+        assertThat(inTransaction).containsExactly(false, false);
+        assertThat(dueWhilePublishing).containsExactly(0, 0);
+        assertThat(outboxEventRepository.count()).isZero();
+        assertThat(relay.relayed()).isEqualTo(2);
+    }
+
+    private Long stage(Long orderId) {
+        return outboxEventRepository.save(new OutboxEvent(orderId, "orders.exchange", "order.payment",
+            "{\"orderId\":" + orderId + "}")).getId();
+    }
+}
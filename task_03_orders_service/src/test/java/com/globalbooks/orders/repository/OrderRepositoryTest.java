@@ -0,0 +1,136 @@
+package com.globalbooks.orders.repository;
+
+import com.globalbooks.orders.integration.CatalogPriceNearCache;
+import com.globalbooks.orders.integration.OrderEventProducer;
+import com.globalbooks.orders.model.Order;
+import com.globalbooks.orders.model.OrderItem;
+import com.globalbooks.orders.model.OrderPage;
+import com.globalbooks.orders.service.OrderService;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+
+import javax.persistence.EntityManagerFactory;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = {
+    "spring.jpa.properties.hibernate.generate_statistics=true",
+    "spring.jpa.show-sql=false"
+})
+@Import(OrderService.class)
+class OrderRepositoryTest {
+
+    private static final String CUSTOMER = "customer-1000";
+    private static final int ORDERS = 1000;
+    private static final int ITEMS_PER_ORDER = 3;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @MockBean
+    private CatalogPriceNearCache catalogPriceNearCache;
+
+    @MockBean
+    private OrderEventProducer orderEventProducer;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        LocalDateTime createdAt = LocalDateTime.of(2024, 1, 1, 0, 0);
+        for (int i = 0; i < ORDERS; i++) {
+            Order order = new Order();
+            order.setCustomerId(CUSTOMER);
+            order.setCreatedAt(createdAt.plusMinutes(i));
+            List<OrderItem> items = new ArrayList<>();
+            for (int j = 0; j < ITEMS_PER_ORDER; j++) {
+                OrderItem item = new OrderItem("978-00000" + j, "Title " + j, 1, 10.0);
+                item.setOrder(order);
+                items.add(item);
+            }
+            order.setItems(items);
+            order.setTotalAmount(ITEMS_PER_ORDER * 10.0);
+            entityManager.persist(order);
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void testEachOrderPageTakesTwoStatements() {
+        // Test that paging a 1,000-order history costs one id query and one fetch-joined query per page
+        Set<Long> seen = new HashSet<>();
+        String pageToken = null;
+        int pages = 0;
+        do {
+            statistics.clear();
+            OrderPage page = orderService.getOrders(CUSTOMER, null, pageToken, 250);
+
+            assertThat(countItems(page.getOrders())).isEqualTo(page.getOrders().size() * ITEMS_PER_ORDER);
+            assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+            page.getOrders().forEach(order -> seen.add(order.getOrderId()));
+            pageToken = page.getNextPageToken();
+            pages++;
+        } while (pageToken != null);
+
+        assertThat(seen).hasSize(ORDERS);
+        // Reading one id past the page tells the fourth page that nothing follows
+        assertThat(pages).isEqualTo(4);
+    }
+
+    @Test
+    void testKeysetPagesWalkHistoryOnce() {
+        // Test that following the last id of each page visits every order once, in order
+        LocalDateTime createdAt = LocalDateTime.of(1970, 1, 1, 0, 0);
+        Long orderId = 0L;
+        Set<Long> seen = new HashSet<>();
+        int pages = 0;
+        List<Long> page;
+        do {
+            page = orderRepository.findPageIdsByCustomerIdAfter(CUSTOMER, createdAt, orderId, PageRequest.of(0, 300));
+            if (!page.isEmpty()) {
+                Order last = orderRepository.findWithItemsByOrderIdIn(page.subList(page.size() - 1, page.size())).get(0);
+                createdAt = last.getCreatedAt();
+                orderId = last.getOrderId();
+            }
+            seen.addAll(page);
+            pages++;
+        } while (page.size() == 300);
+
+        assertThat(seen).hasSize(ORDERS);
+        assertThat(pages).isEqualTo(4);
+    }
+
+    private static int countItems(List<Order> orders) {
+        int items = 0;
+        for (Order order : orders) {
+            items += order.getItems().size();
+        }
+        return items;
+    }
+}
@@ -0,0 +1,131 @@
+package com.globalbooks.orders.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.globalbooks.orders.model.Order;
+import com.globalbooks.orders.model.OrderItem;
+import com.globalbooks.orders.model.OrderStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = "spring.jpa.show-sql=false")
+class OrderExporterTest {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final LocalDateTime DAY = LocalDateTime.of(2024, 3, 1, 0, 0);
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private OrderExporter exporter;
+    private final List<Long> orderIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        // A fetch size below the row count, so the cursor is read in several round trips
+        exporter = new OrderExporter(new JdbcTemplate(dataSource), readOnly, MAPPER.getFactory(), 2);
+
+        orderIds.add(persist("customer-1", DAY.plusHours(9), OrderStatus.PENDING, 0));
+        orderIds.add(persist("customer-2", DAY.plusHours(10), OrderStatus.CONFIRMED, 1));
+        orderIds.add(persist("customer-3", DAY.plusHours(11), OrderStatus.PENDING, 5));
+        orderIds.add(persist("customer-4", DAY.plusDays(1), OrderStatus.PENDING, 1));
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void testExportsOneLinePerOrderWithAllItems() throws IOException {
+        // Test that orders with none, one and many items each become one complete NDJSON line, in creation order
+        List<JsonNode> lines = export(null, null, null, 4);
+
+        assertThat(lines).extracting(line -> line.get("orderId").asLong()).containsExactlyElementsOf(orderIds);
+        assertThat(lines).extracting(line -> line.get("items").size()).containsExactly(0, 1, 5, 1);
+
+        JsonNode many = lines.get(2);
+        assertThat(many.get("customerId").asText()).isEqualTo("customer-3");
+        assertThat(many.get("status").asText()).isEqualTo("PENDING");
+        assertThat(many.get("createdAt").asText()).isEqualTo("2024-03-01T11:00:00");
+        assertThat(many.get("totalAmount").asDouble()).isEqualTo(5 * 10.0);
+        for (int i = 0; i < 5; i++) {
+            JsonNode item = many.get("items").get(i);
+            assertThat(item.get("bookId").asText()).isEqualTo("978-00000" + i);
+            assertThat(item.get("quantity").asInt()).isEqualTo(1);
+            assertThat(item.get("subtotal").asDouble()).isEqualTo(10.0);
+        }
+    }
+
+    @Test
+    void testAppliesFromToAndStatusBounds() throws IOException {
+        // Test that from is inclusive, to is exclusive and status filters, alone and together
+        assertThat(ids(export(DAY.plusHours(10), null, null, 3))).containsExactlyElementsOf(orderIds.subList(1, 4));
+        assertThat(ids(export(null, DAY.plusHours(11), null, 2))).containsExactlyElementsOf(orderIds.subList(0, 2));
+        assertThat(ids(export(null, null, OrderStatus.CONFIRMED, 1))).containsExactly(orderIds.get(1));
+        assertThat(ids(export(DAY.plusHours(9), DAY.plusDays(1), OrderStatus.PENDING, 2)))
+            .containsExactly(orderIds.get(0), orderIds.get(2));
+        assertThat(export(DAY.plusDays(2), null, null, 0)).isEmpty();
+    }
+
+    private List<JsonNode> export(LocalDateTime from, LocalDateTime to, OrderStatus status, long expected)
+            throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertThat(exporter.export(from, to, status, out)).isEqualTo(expected);
+
+        String body = out.toString(StandardCharsets.UTF_8.name());
+        List<JsonNode> lines = new ArrayList<>();
+        if (body.isEmpty()) {
+            return lines;
+        }
+        assertThat(body).endsWith("\n");
+        for (String line : body.split("\n")) {
+            lines.add(MAPPER.readTree(line));
+        }
+        return lines;
+    }
+
+    private static List<Long> ids(List<JsonNode> lines) {
+        List<Long> ids = new ArrayList<>();
+        lines.forEach(line -> ids.add(line.get("orderId").asLong()));
+        return ids;
+    }
+
+    private Long persist(String customerId, LocalDateTime createdAt, OrderStatus status, int itemCount) {
+        Order order = new Order();
+        order.setCustomerId(customerId);
+        order.setCreatedAt(createdAt);
+        order.setStatus(status);
+        List<OrderItem> items = new ArrayList<>();
+        for (int i = 0; i < itemCount; i++) {
+            OrderItem item = new OrderItem("978-00000" + i, "Title " + i, 1, 10.0);
+            item.setOrder(order);
+            items.add(item);
+        }
+        order.setItems(items);
+        order.setTotalAmount(itemCount * 10.0);
+        entityManager.persist(order);
+        return order.getOrderId();
+    }
+}
@@ -0,0 +1,104 @@
+package com.globalbooks.orders.service;
+
+import com.globalbooks.orders.integration.CatalogPriceNearCache;
+import com.globalbooks.orders.integration.OrderEventProducer;
+import com.globalbooks.orders.model.Order;
+import com.globalbooks.orders.model.OrderItem;
+import com.globalbooks.orders.repository.OrderRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+// Not transactional: createOrder opens its own transaction after pricing the lines
+@DataJpaTest(properties = "spring.jpa.show-sql=false")
+@Import(OrderService.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class OrderServiceTest {
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @MockBean
+    private CatalogPriceNearCache catalogPriceNearCache;
+
+    @MockBean
+    private OrderEventProducer orderEventProducer;
+
+    @AfterEach
+    void tearDown() {
+        orderRepository.deleteAll();
+    }
+
+    @Test
+    void testUnpricedLinesArePricedOutsideTheTransaction() {
+        // Test that only lines without a unitPrice are priced, and never while a transaction is open
+        List<Boolean> inTransaction = new ArrayList<>();
+        when(catalogPriceNearCache.getPrice("978-0132350884")).thenAnswer(invocation -> {
+            inTransaction.add(TransactionSynchronizationManager.isActualTransactionActive());
+            return 49.99;
+        });
+
+        Order created = orderService.createOrder(order(
+            new OrderItem("978-0132350884", "Clean Code", 2, 0.0),
+            item("978-0132350884", "Clean Code", 1),
+            new OrderItem("978-0201633610", "Design Patterns", 1, 54.99)));
+
+        assertThat(created.getItems()).extracting(OrderItem::getUnitPrice).containsExactly(0.0, 49.99, 54.99);
+        assertThat(created.getTotalAmount()).isEqualTo(49.99 + 54.99);
+        assertThat(inTransaction).containsExactly(false);
+        verify(orderEventProducer).stagePaymentRequired(created);
+    }
+
+    @Test
+    void testUnknownBookOrCatalogOutageStoresNothing() {
+        // Test that a failed price lookup rejects the order before anything is written
+        when(catalogPriceNearCache.getPrice("978-0000000000")).thenReturn(null);
+        when(catalogPriceNearCache.getPrice("978-0132350884"))
+            .thenThrow(new ResourceAccessException("catalog down"));
+
+        assertThatThrownBy(() -> orderService.createOrder(order(item("978-0000000000", "Unknown", 1))))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("978-0000000000");
+        assertThatThrownBy(() -> orderService.createOrder(order(item("978-0132350884", "Clean Code", 1))))
+            .isInstanceOf(ResourceAccessException.class);
+
+        assertThat(orderRepository.count()).isZero();
+        verify(orderEventProducer, never()).stagePaymentRequired(any());
+    }
+
+    private static OrderItem item(String bookId, String title, int quantity) {
+        OrderItem item = new OrderItem();
+        item.setBookId(bookId);
+        item.setBookTitle(title);
+        item.setQuantity(quantity);
+        return item;
+    }
+
+    private static Order order(OrderItem... items) {
+        Order order = new Order();
+        order.setCustomerId("customer-1");
+        order.setItems(new ArrayList<>(Arrays.asList(items)));
+        return order;
+    }
+}
@@ -0,0 +1,74 @@
+package com.globalbooks.orchestration;
+
+import com.globalbooks.orchestration.discovery.LoadBalancedService;
+import com.globalbooks.orchestration.discovery.ServiceInstance;
+import com.globalbooks.orchestration.discovery.ServiceRegistry;
+import com.globalbooks.orchestration.discovery.UddiRegistryReader;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.core.io.ResourceLoader;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Builds the {@link ServiceRegistry} from {@code service.<name>.*}: the instances
+ * listed in {@code instances} (or the single {@code url}) plus the endpoint access
+ * points of the UDDI document at {@code uddi-registry}, if set.
+ */
+@Configuration
+public class DiscoveryConfig {
+
+    private static final String[] SERVICES = {"catalog", "orders", "payments", "shipping"};
+
+    @Bean(destroyMethod = "shutdown")
+    public ServiceRegistry serviceRegistry(Environment environment, ResourceLoader resourceLoader,
+                                           @Value("${discovery.ejection.consecutive-failures:5}") int consecutiveFailures,
+                                           @Value("${discovery.ejection.base-millis:30000}") long baseEjectionMillis,
+                                           @Value("${discovery.ejection.max-millis:300000}") long maxEjectionMillis,
+                                           @Value("${discovery.ejection.max-ejected-percent:50}") int maxEjectedPercent,
+                                           @Value("${discovery.health-check.path:/actuator/health}") String healthPath,
+                                           @Value("${discovery.health-check.interval-millis:10000}") long healthIntervalMillis,
+                                           @Value("${discovery.health-check.timeout-millis:2000}") long healthTimeoutMillis)
+            throws IOException {
+        ServiceRegistry registry = new ServiceRegistry(healthPath, healthTimeoutMillis);
+        for (String name : SERVICES) {
+            List<ServiceInstance> instances = new ArrayList<>();
+            String configured = environment.getProperty("service." + name + ".instances",
+                    environment.getProperty("service." + name + ".url", ""));
+            for (String entry : configured.split(",")) {
+                if (!entry.isBlank()) {
+                    instances.add(instance(name, entry.trim()));
+                }
+            }
+            String uddiRegistry = environment.getProperty("service." + name + ".uddi-registry", "");
+            if (!uddiRegistry.isEmpty()) {
+                try (InputStream in = resourceLoader.getResource(uddiRegistry).getInputStream()) {
+                    for (String url : UddiRegistryReader.readEndpoints(in)) {
+                        if (instances.stream().noneMatch(instance -> instance.getUrl().equals(url))) {
+                            instances.add(new ServiceInstance(name, url, 1));
+                        }
+                    }
+                }
+            }
+            registry.register(new LoadBalancedService(name, instances, consecutiveFailures,
+                    baseEjectionMillis, maxEjectionMillis, maxEjectedPercent));
+        }
+        registry.startHealthChecks(healthIntervalMillis);
+        return registry;
+    }
+
+    /**
+     * Parses {@code url} or {@code url*weight}.
+     */
+    private static ServiceInstance instance(String service, String entry) {
+        int star = entry.lastIndexOf('*');
+        String url = star < 0 ? entry : entry.substring(0, star).trim();
+        int weight = star < 0 ? 1 : Integer.parseInt(entry.substring(star + 1).trim());
+        return new ServiceInstance(service, url.endsWith("/") ? url.substring(0, url.length() - 1) : url, weight);
+    }
+}
@@ -0,0 +1,50 @@
+package com.globalbooks.orchestration;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.camel.AggregationStrategy;
+import org.apache.camel.Exchange;
+
+import java.io.IOException;
+
+/**
+ * Enrich strategy that keeps the message being processed and copies one field of
+ * the service's JSON response into an exchange property. A service call in the
+ * middle of the order route therefore leaves the SOAP order in the body for the
+ * XPaths that follow it.
+ */
+public class JsonFieldAggregationStrategy implements AggregationStrategy {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final String field;
+    private final String property;
+
+    public JsonFieldAggregationStrategy(String field, String property) {
+        this.field = field;
+        this.property = property;
+    }
+
+    @Override
+    public Exchange aggregate(Exchange original, Exchange resource) {
+        if (resource == null) {
+            return original;
+        }
+        if (resource.getException() != null) {
+            original.setException(resource.getException());
+            return original;
+        }
+        String body = resource.getMessage().getBody(String.class);
+        try {
+            JsonNode value = body == null ? null : MAPPER.readTree(body).get(field);
+            if (value == null || value.isNull()) {
+                original.setException(new IllegalStateException("No " + field + " in response: " + body));
+            } else {
+                original.setProperty(property, value.isNumber() ? value.numberValue() : value.asText());
+            }
+        } catch (IOException e) {
+            original.setException(new IllegalStateException("Response is not JSON: " + body, e));
+        }
+        return original;
+    }
+}
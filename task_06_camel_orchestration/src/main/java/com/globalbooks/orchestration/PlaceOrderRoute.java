@@ -1,13 +1,23 @@
 package com.globalbooks.orchestration;
 
+import com.globalbooks.orchestration.discovery.LeastOutstandingLoadBalancer;
+import com.globalbooks.orchestration.discovery.ServiceRegistry;
+import org.apache.camel.Exchange;
 import org.apache.camel.builder.RouteBuilder;
 import org.apache.camel.language.xpath.XPathBuilder;
-import org.apache.camel.model.dataformat.JsonLibrary;
 import org.springframework.stereotype.Component;
 
 @Component
 public class PlaceOrderRoute extends RouteBuilder {
 
+    private static final String ORD_NAMESPACE = "http://bpel.globalbooks.com/";
+
+    private final ServiceRegistry serviceRegistry;
+
+    public PlaceOrderRoute(ServiceRegistry serviceRegistry) {
+        this.serviceRegistry = serviceRegistry;
+    }
+
     @Override
     public void configure() throws Exception {
         // Main orchestration route - SOAP endpoint
@@ -24,41 +34,37 @@ public class PlaceOrderRoute extends RouteBuilder {
 
             // Initialize total amount
             .setProperty("totalAmount", constant(0.0))
-            .setProperty("currentItem", constant(0))
+
+            // Price every line from the same catalog state, whatever price updates land meanwhile.
+            // Service calls are enriches so the SOAP order stays in the body for the XPaths below.
+            .enrich("direct:openPriceSnapshot", new JsonFieldAggregationStrategy("snapshotId", "priceSnapshotId"))
 
             // Process each order item
             .loop(XPathBuilder.xpath("count(//ord:item)").namespace("ord", "http://bpel.globalbooks.com/").resultType(Integer.class))
-                .setProperty("currentItem", simple("${exchangeProperty.currentItem} + 1"))
-                .setProperty("bookId", XPathBuilder.xpath("//ord:item[${exchangeProperty.currentItem}]/ord:bookId/text()").namespace("ord", "http://bpel.globalbooks.com/").resultType(String.class))
-                .setProperty("quantity", XPathBuilder.xpath("//ord:item[${exchangeProperty.currentItem}]/ord:quantity/text()").namespace("ord", "http://bpel.globalbooks.com/").resultType(Integer.class))
+                .process(PlaceOrderRoute::selectItem)
 
                 // Call Catalog Service to get book price
-                .to("direct:getBookPrice")
-                .log("Book price retrieved: ${body}")
+                .enrich("direct:getBookPrice", new JsonFieldAggregationStrategy("price", "itemPrice"))
+                .log("Book price retrieved: ${exchangeProperty.itemPrice}")
 
                 // Calculate subtotal and add to total
-                .setProperty("itemPrice", jsonpath("$.price"))
-                .setProperty("subtotal", simple("${exchangeProperty.itemPrice} * ${exchangeProperty.quantity}"))
-                .setProperty("totalAmount", simple("${exchangeProperty.totalAmount} + ${exchangeProperty.subtotal}"))
+                .process(PlaceOrderRoute::addLineToTotal)
                 .log("Current total: ${exchangeProperty.totalAmount}")
             .end()
 
             // Create order via Orders Service
-            .to("direct:createOrder")
-            .log("Order created: ${body}")
-            .setProperty("orderId", jsonpath("$.orderId"))
+            .enrich("direct:createOrder", new JsonFieldAggregationStrategy("orderId", "orderId"))
+            .log("Order created: ${exchangeProperty.orderId}")
 
             // Process payment
-            .to("direct:processPayment")
-            .log("Payment processed: ${body}")
-            .setProperty("paymentStatus", jsonpath("$.status"))
+            .enrich("direct:processPayment", new JsonFieldAggregationStrategy("status", "paymentStatus"))
+            .log("Payment processed: ${exchangeProperty.paymentStatus}")
 
             // Check payment success and create shipment
             .choice()
                 .when(simple("${exchangeProperty.paymentStatus} == 'SUCCESS'"))
-                    .to("direct:createShipment")
-                    .log("Shipment created: ${body}")
-                    .setProperty("trackingNumber", jsonpath("$.trackingNumber"))
+                    .enrich("direct:createShipment", new JsonFieldAggregationStrategy("trackingNumber", "trackingNumber"))
+                    .log("Shipment created: ${exchangeProperty.trackingNumber}")
                 .otherwise()
                     .setProperty("trackingNumber", constant(""))
             .end()
@@ -74,13 +80,30 @@ public class PlaceOrderRoute extends RouteBuilder {
             .log("=== ORDER PROCESS COMPLETED ===")
             .log("Final response: ${body}");
 
+        // Catalog price snapshot, held for the life of the order
+        from("direct:openPriceSnapshot")
+            .routeId("priceSnapshotRoute")
+            .setHeader(Exchange.HTTP_METHOD, constant("POST"))
+            .setBody(constant(""))
+            .loadBalance(balancer("catalog"))
+                .to(serviceRegistry.uris("catalog", "/catalog/api/books/prices/snapshot?bridgeEndpoint=true"))
+            .end()
+            .convertBodyTo(String.class);
+
         // Catalog Service Route
         from("direct:getBookPrice")
             .routeId("catalogServiceRoute")
             .log("Calling Catalog Service for book: ${exchangeProperty.bookId}")
             .setHeader("Content-Type", constant("application/json"))
+            // Camel would switch to GET once a query is set
+            .setHeader(Exchange.HTTP_METHOD, constant("POST"))
+            // A header rather than the endpoint URI, so each order does not create an endpoint
+            .setHeader(Exchange.HTTP_QUERY, simple("snapshot=${exchangeProperty.priceSnapshotId}"))
             .setBody(simple("{\"bookId\":\"${exchangeProperty.bookId}\"}"))
-            .to("http://localhost:8080/catalog/api/books/price?bridgeEndpoint=true")
+            .loadBalance(balancer("catalog"))
+                .to(serviceRegistry.uris("catalog", "/catalog/api/books/price?bridgeEndpoint=true"))
+            .end()
+            .removeHeader(Exchange.HTTP_QUERY)
             .convertBodyTo(String.class);
 
         // Orders Service Route
@@ -91,7 +114,9 @@ public class PlaceOrderRoute extends RouteBuilder {
             .setBody(simple("{\"customerId\":\"${exchangeProperty.customerId}\"," +
                           "\"items\":${exchangeProperty.orderItems}," +
                           "\"totalAmount\":${exchangeProperty.totalAmount}}"))
-            .to("http://localhost:8081/api/v1/orders?bridgeEndpoint=true")
+            .loadBalance(balancer("orders"))
+                .to(serviceRegistry.uris("orders", "/api/v1/orders?bridgeEndpoint=true"))
+            .end()
             .convertBodyTo(String.class);
 
         // Payments Service Route
@@ -102,7 +127,9 @@ public class PlaceOrderRoute extends RouteBuilder {
             .setBody(simple("{\"orderId\":\"${exchangeProperty.orderId}\"," +
                           "\"amount\":${exchangeProperty.totalAmount}," +
                           "\"paymentMethod\":\"${exchangeProperty.paymentMethod}\"}"))
-            .to("http://localhost:8083/api/v1/payments?bridgeEndpoint=true")
+            .loadBalance(balancer("payments"))
+                .to(serviceRegistry.uris("payments", "/api/v1/payments?bridgeEndpoint=true"))
+            .end()
             .convertBodyTo(String.class);
 
         // Shipping Service Route
@@ -113,7 +140,31 @@ public class PlaceOrderRoute extends RouteBuilder {
             .setBody(simple("{\"orderId\":\"${exchangeProperty.orderId}\"," +
                           "\"shippingAddress\":${exchangeProperty.shippingAddress}," +
                           "\"items\":${exchangeProperty.orderItems}}"))
-            .to("http://localhost:8084/api/v1/shipping?bridgeEndpoint=true")
+            .loadBalance(balancer("shipping"))
+                .to(serviceRegistry.uris("shipping", "/api/v1/shipping?bridgeEndpoint=true"))
+            .end()
             .convertBodyTo(String.class);
     }
+
+    private static void selectItem(Exchange exchange) {
+        // XPath positions are 1-based and cannot read the loop index themselves
+        int item = exchange.getProperty(Exchange.LOOP_INDEX, Integer.class) + 1;
+        exchange.setProperty("currentItem", item);
+        exchange.setProperty("bookId", XPathBuilder.xpath("//ord:item[" + item + "]/ord:bookId/text()")
+                .namespace("ord", ORD_NAMESPACE).evaluate(exchange, String.class));
+        exchange.setProperty("quantity", XPathBuilder.xpath("//ord:item[" + item + "]/ord:quantity/text()")
+                .namespace("ord", ORD_NAMESPACE).evaluate(exchange, Integer.class));
+    }
+
+    private static void addLineToTotal(Exchange exchange) {
+        double subtotal = exchange.getProperty("itemPrice", Double.class)
+                * exchange.getProperty("quantity", Integer.class);
+        exchange.setProperty("subtotal", subtotal);
+        exchange.setProperty("totalAmount", exchange.getProperty("totalAmount", Double.class) + subtotal);
+    }
+
+    private LeastOutstandingLoadBalancer balancer(String service) {
+        // One per call site: a balancer holds the endpoints it was given
+        return new LeastOutstandingLoadBalancer(serviceRegistry.service(service));
+    }
 }
\ No newline at end of file
@@ -0,0 +1,56 @@
+package com.globalbooks.orchestration.discovery;
+
+import org.apache.camel.AsyncCallback;
+import org.apache.camel.AsyncProcessor;
+import org.apache.camel.Exchange;
+import org.apache.camel.http.base.HttpOperationFailedException;
+import org.apache.camel.processor.loadbalancer.LoadBalancerSupport;
+
+/**
+ * Camel load balancer over the instances of a {@link LoadBalancedService}. Its
+ * outputs must be the endpoints from {@link ServiceRegistry#uris}, in that order,
+ * so output {@code i} is instance {@code i}.
+ */
+public class LeastOutstandingLoadBalancer extends LoadBalancerSupport {
+
+    private final LoadBalancedService service;
+
+    public LeastOutstandingLoadBalancer(LoadBalancedService service) {
+        this.service = service;
+    }
+
+    @Override
+    public boolean process(Exchange exchange, AsyncCallback callback) {
+        AsyncProcessor[] processors = doGetProcessors();
+        if (processors.length != service.getInstances().size()) {
+            exchange.setException(new IllegalStateException("Service " + service.getName() + " has "
+                    + service.getInstances().size() + " instances but " + processors.length + " endpoints"));
+            callback.done(true);
+            return true;
+        }
+        int index = service.acquire();
+        try {
+            return processors[index].process(exchange, doneSync -> {
+                service.release(index, instanceFailed(exchange.getException()));
+                callback.done(doneSync);
+            });
+        } catch (RuntimeException e) {
+            // The callback will never run, so give the slot back here
+            service.release(index, instanceFailed(e));
+            exchange.setException(e);
+            callback.done(true);
+            return true;
+        }
+    }
+
+    static boolean instanceFailed(Exception exception) {
+        if (exception == null) {
+            return false;
+        }
+        // A 4xx is the service answering; only a 5xx says the instance is in trouble
+        if (exception instanceof HttpOperationFailedException) {
+            return ((HttpOperationFailedException) exception).getStatusCode() >= 500;
+        }
+        return true;
+    }
+}
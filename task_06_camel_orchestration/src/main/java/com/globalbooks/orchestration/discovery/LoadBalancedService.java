@@ -0,0 +1,124 @@
+package com.globalbooks.orchestration.discovery;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The instances of one service with weighted least-outstanding-requests
+ * selection: each call goes to the instance with the fewest requests in flight
+ * per unit of weight, so a slow instance takes less traffic as soon as its queue
+ * builds up. Ties rotate, so an idle service still spreads its calls.
+ *
+ * An instance failing {@code consecutiveFailures} calls in a row is ejected for
+ * a time that grows with each ejection, up to a maximum, unless that would eject
+ * more than {@code maxEjectedPercent} of the instances. An ejection always runs
+ * its full time, since one passing health check says little about an instance
+ * that just failed real calls; healthy checks after it let the ejection time
+ * decay. If every instance is ejected all of them are used, as a failing call
+ * beats no call.
+ */
+public class LoadBalancedService {
+
+    private final String name;
+    private final List<ServiceInstance> instances;
+    private final int consecutiveFailures;
+    private final long baseEjectionMillis;
+    private final long maxEjectionMillis;
+    private final int maxEjectedPercent;
+    private final AtomicInteger rotation = new AtomicInteger();
+
+    public LoadBalancedService(String name, List<ServiceInstance> instances, int consecutiveFailures,
+                               long baseEjectionMillis, long maxEjectionMillis, int maxEjectedPercent) {
+        if (instances.isEmpty()) {
+            throw new IllegalArgumentException("No instances of service " + name);
+        }
+        this.name = name;
+        this.instances = Collections.unmodifiableList(instances);
+        this.consecutiveFailures = consecutiveFailures;
+        this.baseEjectionMillis = baseEjectionMillis;
+        this.maxEjectionMillis = maxEjectionMillis;
+        this.maxEjectedPercent = maxEjectedPercent;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public List<ServiceInstance> getInstances() {
+        return instances;
+    }
+
+    /**
+     * Returns the index of the instance to call and counts the call as started;
+     * every call must be ended with {@link #release}.
+     */
+    public int acquire() {
+        long now = System.currentTimeMillis();
+        int size = instances.size();
+        int start = Math.floorMod(rotation.getAndIncrement(), size);
+        int best = -1;
+        boolean bestEjected = true;
+        for (int i = 0; i < size; i++) {
+            int index = (start + i) % size;
+            ServiceInstance candidate = instances.get(index);
+            boolean ejected = candidate.isEjected(now);
+            if (best < 0 || (bestEjected && !ejected)
+                    || (ejected == bestEjected && lessLoaded(candidate, instances.get(best)))) {
+                best = index;
+                bestEjected = ejected;
+            }
+        }
+        instances.get(best).started();
+        return best;
+    }
+
+    /**
+     * Ends a call started by {@link #acquire}. {@code failed} means the instance
+     * could not serve it (no connection, a timeout or a 5xx), not that the answer
+     * was an error.
+     */
+    public void release(int index, boolean failed) {
+        ServiceInstance instance = instances.get(index);
+        instance.finished();
+        if (!failed) {
+            instance.succeeded();
+        } else if (instance.failed() >= consecutiveFailures) {
+            ejectIfAllowed(instance);
+        }
+    }
+
+    /**
+     * Applies a health check result. A healthy result does not end an ejection.
+     */
+    public void checked(ServiceInstance instance, boolean healthy) {
+        if (healthy) {
+            instance.healthy(System.currentTimeMillis());
+        } else {
+            ejectIfAllowed(instance);
+        }
+    }
+
+    public int ejectedCount() {
+        long now = System.currentTimeMillis();
+        int ejected = 0;
+        for (ServiceInstance instance : instances) {
+            if (instance.isEjected(now)) {
+                ejected++;
+            }
+        }
+        return ejected;
+    }
+
+    private void ejectIfAllowed(ServiceInstance instance) {
+        // Checked without a lock, so two concurrent ejections can overshoot by one
+        if ((ejectedCount() + 1) * 100 <= maxEjectedPercent * instances.size()) {
+            instance.eject(System.currentTimeMillis(), baseEjectionMillis, maxEjectionMillis);
+        }
+    }
+
+    private static boolean lessLoaded(ServiceInstance a, ServiceInstance b) {
+        // (outstanding + 1) / weight compared without division; the +1 counts the call being placed
+        return (long) (a.getOutstanding() + 1) * b.getWeight() < (long) (b.getOutstanding() + 1) * a.getWeight();
+    }
+}
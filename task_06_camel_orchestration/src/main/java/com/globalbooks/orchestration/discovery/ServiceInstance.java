@@ -0,0 +1,87 @@
+package com.globalbooks.orchestration.discovery;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * One instance of a downstream service: its base URL, balancing weight, the
+ * requests currently in flight to it and its ejection state.
+ */
+public class ServiceInstance {
+
+    private final String service;
+    private final String url;
+    private final int weight;
+    private final AtomicInteger outstanding = new AtomicInteger();
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private volatile long ejectedUntil;
+    // Raises the next ejection time; decays while the instance stays healthy
+    private int ejections;
+
+    public ServiceInstance(String service, String url, int weight) {
+        if (weight < 1) {
+            throw new IllegalArgumentException("Weight of " + url + " must be at least 1: " + weight);
+        }
+        this.service = service;
+        this.url = url;
+        this.weight = weight;
+    }
+
+    public String getService() {
+        return service;
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    public int getWeight() {
+        return weight;
+    }
+
+    public int getOutstanding() {
+        return outstanding.get();
+    }
+
+    public boolean isEjected(long now) {
+        return now < ejectedUntil;
+    }
+
+    void started() {
+        outstanding.incrementAndGet();
+    }
+
+    void finished() {
+        outstanding.decrementAndGet();
+    }
+
+    /**
+     * Returns the consecutive failures including this one.
+     */
+    int failed() {
+        return consecutiveFailures.incrementAndGet();
+    }
+
+    void succeeded() {
+        consecutiveFailures.set(0);
+    }
+
+    synchronized void eject(long now, long baseMillis, long maxMillis) {
+        if (isEjected(now)) {
+            return;
+        }
+        ejections++;
+        ejectedUntil = now + Math.min(baseMillis * ejections, maxMillis);
+        consecutiveFailures.set(0);
+    }
+
+    synchronized void healthy(long now) {
+        if (!isEjected(now) && ejections > 0) {
+            ejections--;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return service + "@" + url + "*" + weight;
+    }
+}
@@ -0,0 +1,106 @@
+package com.globalbooks.orchestration.discovery;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The downstream services the orchestrator calls, each a {@link LoadBalancedService},
+ * plus a background health check. Every interval each instance gets a GET on the
+ * health path; any response below 500 counts as up, so services without an
+ * actuator can be probed too. A failed probe ejects the instance like failing
+ * calls do; a passing one never ends an ejection early.
+ */
+public class ServiceRegistry {
+
+    private static final Logger log = LoggerFactory.getLogger(ServiceRegistry.class);
+
+    private final Map<String, LoadBalancedService> services = new LinkedHashMap<>();
+    private final String healthPath;
+    private final Duration healthTimeout;
+    private final HttpClient httpClient;
+    private final ScheduledExecutorService healthExecutor;
+
+    public ServiceRegistry(String healthPath, long healthTimeoutMillis) {
+        this.healthPath = healthPath;
+        this.healthTimeout = Duration.ofMillis(healthTimeoutMillis);
+        this.httpClient = HttpClient.newBuilder().connectTimeout(healthTimeout).build();
+        this.healthExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "service-health-check");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public void register(LoadBalancedService service) {
+        services.put(service.getName(), service);
+        log.info("Service {} has instances {}", service.getName(), service.getInstances());
+    }
+
+    public LoadBalancedService service(String name) {
+        LoadBalancedService service = services.get(name);
+        if (service == null) {
+            throw new IllegalArgumentException("Unknown service: " + name);
+        }
+        return service;
+    }
+
+    /**
+     * Endpoint URIs of every instance of {@code name}, in instance order, for
+     * {@code path} (which may carry endpoint options).
+     */
+    public String[] uris(String name, String path) {
+        return service(name).getInstances().stream()
+                .map(instance -> instance.getUrl() + path)
+                .toArray(String[]::new);
+    }
+
+    public void startHealthChecks(long intervalMillis) {
+        if (intervalMillis > 0) {
+            healthExecutor.scheduleWithFixedDelay(this::checkHealth, intervalMillis, intervalMillis,
+                    TimeUnit.MILLISECONDS);
+        }
+    }
+
+    public void shutdown() {
+        healthExecutor.shutdownNow();
+    }
+
+    void checkHealth() {
+        for (LoadBalancedService service : services.values()) {
+            for (ServiceInstance instance : service.getInstances()) {
+                boolean healthy = probe(instance);
+                if (!healthy) {
+                    log.warn("Health check of {} failed", instance);
+                }
+                service.checked(instance, healthy);
+            }
+        }
+    }
+
+    private boolean probe(ServiceInstance instance) {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(instance.getUrl() + healthPath))
+                .timeout(healthTimeout)
+                .GET()
+                .build();
+        try {
+            return httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() < 500;
+        } catch (IOException | IllegalArgumentException e) {
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
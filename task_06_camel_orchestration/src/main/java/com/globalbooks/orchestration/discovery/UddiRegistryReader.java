@@ -0,0 +1,84 @@
+package com.globalbooks.orchestration.discovery;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Reads service base URLs from UDDI v3 registry documents such as the catalog's
+ * {@code uddi/catalog-service-registry.xml}: every {@code accessPoint} with use
+ * type {@code endPoint} contributes its scheme, host and port. Registry exports
+ * often hold several {@code save_business}/{@code save_tModel} documents back to
+ * back, so the input does not have to have a single root element.
+ */
+public final class UddiRegistryReader {
+
+    private static final XMLInputFactory INPUT_FACTORY = XMLInputFactory.newInstance();
+
+    static {
+        INPUT_FACTORY.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        INPUT_FACTORY.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+    }
+
+    private UddiRegistryReader() {
+    }
+
+    /**
+     * Returns the distinct base URLs, e.g. {@code http://catalog-1:8081}, in
+     * document order.
+     */
+    public static List<String> readEndpoints(InputStream in) throws IOException {
+        String document = new String(in.readAllBytes(), StandardCharsets.UTF_8)
+                .replaceFirst("^\\uFEFF?\\s*<\\?xml[^>]*\\?>", "");
+        Set<String> urls = new LinkedHashSet<>();
+        try {
+            XMLStreamReader reader = INPUT_FACTORY.createXMLStreamReader(
+                    new StringReader("<registry>" + document + "</registry>"));
+            try {
+                while (reader.hasNext()) {
+                    if (reader.next() == XMLStreamConstants.START_ELEMENT
+                            && "accessPoint".equals(reader.getLocalName())
+                            && isEndpoint(reader.getAttributeValue(null, "useType"))) {
+                        String url = baseUrl(reader.getElementText().trim());
+                        if (url != null) {
+                            urls.add(url);
+                        }
+                    }
+                }
+            } finally {
+                reader.close();
+            }
+        } catch (XMLStreamException e) {
+            throw new IOException("Malformed UDDI registry document: " + e.getMessage(), e);
+        }
+        return new ArrayList<>(urls);
+    }
+
+    private static boolean isEndpoint(String useType) {
+        return useType != null && useType.toLowerCase(Locale.ROOT).equals("endpoint");
+    }
+
+    private static String baseUrl(String accessPoint) {
+        try {
+            URI uri = new URI(accessPoint);
+            if (uri.getScheme() == null || uri.getHost() == null) {
+                return null;
+            }
+            return uri.getScheme() + "://" + uri.getHost() + (uri.getPort() < 0 ? "" : ":" + uri.getPort());
+        } catch (URISyntaxException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.globalbooks.orchestration;
+
+import com.globalbooks.orchestration.discovery.LoadBalancedService;
+import com.globalbooks.orchestration.discovery.ServiceInstance;
+import com.globalbooks.orchestration.discovery.ServiceRegistry;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.camel.RoutesBuilder;
+import org.apache.camel.builder.AdviceWith;
+import org.apache.camel.test.junit5.CamelTestSupport;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs orders through the orchestration route against an in-process stub of the
+ * catalog, orders, payments and shipping services.
+ */
+class PlaceOrderRouteFlowTest extends CamelTestSupport {
+
+    private final List<String> priceQueries = new CopyOnWriteArrayList<>();
+    private final List<String> createdOrders = new CopyOnWriteArrayList<>();
+    private HttpServer server;
+
+    @Override
+    public boolean isUseAdviceWith() {
+        return true;
+    }
+
+    @Override
+    protected RoutesBuilder createRouteBuilder() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/", this::handle);
+        server.start();
+        String url = "http://localhost:" + server.getAddress().getPort();
+
+        ServiceRegistry registry = new ServiceRegistry("/actuator/health", 1000);
+        for (String name : new String[] {"catalog", "orders", "payments", "shipping"}) {
+            registry.register(new LoadBalancedService(name,
+                    Collections.singletonList(new ServiceInstance(name, url, 1)), 5, 30_000, 300_000, 50));
+        }
+        return new PlaceOrderRoute(registry);
+    }
+
+    @AfterEach
+    void stopServer() {
+        server.stop(0);
+    }
+
+    @Test
+    void testMultiItemOrderIsPricedFromSnapshot() throws Exception {
+        // Test that every line is priced from one snapshot and the order is created with the full total
+        AdviceWith.adviceWith(context, "placeOrderProcess", route -> route.replaceFromWith("direct:placeOrder"));
+        context.start();
+
+        String response = template.requestBody("direct:placeOrder", order(
+                item("978-0134685991", 2), item("978-0321127426", 3)), String.class);
+
+        // 2 x 12.50 + 3 x 20.00
+        assertThat(response).contains("<totalAmount>85.0</totalAmount>")
+                .contains("<orderId>ORD-1</orderId>")
+                .contains("<status>SUCCESS</status>")
+                .contains("<trackingNumber>TRK-1</trackingNumber>");
+        assertThat(priceQueries).containsExactly("snapshot=42", "snapshot=42");
+        assertThat(createdOrders).hasSize(1);
+        assertThat(createdOrders.get(0)).contains("\"customerId\":\"CUST001\"").contains("\"totalAmount\":85.0");
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        String body;
+        try (InputStream in = exchange.getRequestBody()) {
+            body = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        String path = exchange.getRequestURI().getPath();
+        String response;
+        if (!exchange.getRequestMethod().equals("POST")) {
+            exchange.sendResponseHeaders(405, -1);
+            exchange.close();
+            return;
+        }
+        if (path.equals("/catalog/api/books/prices/snapshot")) {
+            response = "{\"snapshotId\":42,\"expiresAt\":0}";
+        } else if (path.equals("/catalog/api/books/price")) {
+            priceQueries.add(exchange.getRequestURI().getQuery());
+            double price = body.contains("978-0134685991") ? 12.5 : 20.0;
+            response = "{\"bookId\":\"x\",\"quantity\":1,\"price\":" + price + ",\"found\":true}";
+        } else if (path.equals("/api/v1/orders")) {
+            createdOrders.add(body);
+            response = "{\"orderId\":\"ORD-1\"}";
+        } else if (path.equals("/api/v1/payments")) {
+            response = "{\"status\":\"SUCCESS\"}";
+        } else if (path.equals("/api/v1/shipping")) {
+            response = "{\"trackingNumber\":\"TRK-1\"}";
+        } else {
+            exchange.sendResponseHeaders(404, -1);
+            exchange.close();
+            return;
+        }
+        byte[] bytes = response.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static String order(String... items) {
+        return "<soapenv:Envelope xmlns:soapenv=\"http://schemas.xmlsoap.org/soap/envelope/\""
+                + " xmlns:ord=\"http://bpel.globalbooks.com/\"><soapenv:Body><ord:placeOrderRequest>"
+                + "<ord:customerId>CUST001</ord:customerId>"
+                + "<ord:orderItems>" + String.join("", items) + "</ord:orderItems>"
+                + "<ord:shippingAddress>\"123 Main St, Colombo\"</ord:shippingAddress>"
+                + "<ord:paymentMethod>CREDIT_CARD</ord:paymentMethod>"
+                + "</ord:placeOrderRequest></soapenv:Body></soapenv:Envelope>";
+    }
+
+    private static String item(String bookId, int quantity) {
+        return "<ord:item><ord:bookId>" + bookId + "</ord:bookId><ord:quantity>" + quantity
+                + "</ord:quantity></ord:item>";
+    }
+}
@@ -28,6 +28,12 @@ class PlaceOrderRouteTest {
         assertThat(camelContext.getRoute("catalogServiceRoute")).isNotNull();
     }
 
+    @Test
+    void testPriceSnapshotRouteExists() {
+        // Test that the route opening the per-order price snapshot is available
+        assertThat(camelContext.getRoute("priceSnapshotRoute")).isNotNull();
+    }
+
     @Test
     void testOrdersServiceRouteExists() {
         // Test that orders service route is available
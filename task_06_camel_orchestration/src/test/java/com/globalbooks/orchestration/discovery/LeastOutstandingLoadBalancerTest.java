@@ -0,0 +1,41 @@
+package com.globalbooks.orchestration.discovery;
+
+import org.apache.camel.AsyncCallback;
+import org.apache.camel.AsyncProcessor;
+import org.apache.camel.Exchange;
+import org.apache.camel.impl.DefaultCamelContext;
+import org.apache.camel.support.DefaultExchange;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class LeastOutstandingLoadBalancerTest {
+
+    @Test
+    void testSynchronousFailureReleasesTheInstance() throws Exception {
+        // Test that an endpoint throwing before it takes the callback still gives back its slot and completes the call
+        ServiceInstance instance = new ServiceInstance("orders", "http://orders-1:8088", 1);
+        LoadBalancedService service = new LoadBalancedService("orders", Collections.singletonList(instance),
+                5, 30_000, 300_000, 50);
+        AsyncProcessor endpoint = mock(AsyncProcessor.class);
+        when(endpoint.process(any(Exchange.class), any(AsyncCallback.class)))
+                .thenThrow(new IllegalStateException("producer not started"));
+        LeastOutstandingLoadBalancer balancer = new LeastOutstandingLoadBalancer(service);
+        balancer.addProcessor(endpoint);
+        Exchange exchange = new DefaultExchange(new DefaultCamelContext());
+        AtomicBoolean done = new AtomicBoolean();
+
+        boolean sync = balancer.process(exchange, doneSync -> done.set(doneSync));
+
+        assertThat(sync).isTrue();
+        assertThat(done).isTrue();
+        assertThat(exchange.getException()).hasMessage("producer not started");
+        assertThat(instance.getOutstanding()).isZero();
+    }
+}
@@ -0,0 +1,73 @@
+package com.globalbooks.orchestration.discovery;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LoadBalancedServiceTest {
+
+    @Test
+    void testPrefersInstanceWithFewestOutstandingPerWeight() {
+        // Test that calls go to the instance with the lowest in-flight count relative to its weight
+        ServiceInstance heavy = new ServiceInstance("catalog", "http://catalog-1:8081", 2);
+        ServiceInstance light = new ServiceInstance("catalog", "http://catalog-2:8081", 1);
+        LoadBalancedService service = new LoadBalancedService("catalog", Arrays.asList(heavy, light),
+                5, 30_000, 300_000, 50);
+
+        int[] calls = new int[2];
+        for (int i = 0; i < 6; i++) {
+            calls[service.acquire()]++;
+        }
+
+        // Six calls held open settle at four and two, matching the 2:1 weights
+        assertThat(calls[0]).isEqualTo(4);
+        assertThat(calls[1]).isEqualTo(2);
+        assertThat(heavy.getOutstanding()).isEqualTo(4);
+    }
+
+    @Test
+    void testEjectedInstanceReturnsOnlyAfterEjectionExpires() throws InterruptedException {
+        // Test that consecutive failures eject an instance and a passing health check does not cut that short
+        ServiceInstance failing = new ServiceInstance("orders", "http://orders-1:8088", 1);
+        ServiceInstance healthy = new ServiceInstance("orders", "http://orders-2:8088", 1);
+        LoadBalancedService service = new LoadBalancedService("orders", Arrays.asList(failing, healthy),
+                3, 500, 300_000, 50);
+
+        for (int i = 0; i < 3; i++) {
+            failing.started();
+            service.release(0, true);
+        }
+        assertThat(service.ejectedCount()).isEqualTo(1);
+        for (int i = 0; i < 10; i++) {
+            int index = service.acquire();
+            assertThat(index).isEqualTo(1);
+            service.release(index, false);
+        }
+
+        service.checked(failing, true);
+        assertThat(service.ejectedCount()).isEqualTo(1);
+        assertThat(service.acquire()).isEqualTo(1);
+        service.release(1, false);
+
+        Thread.sleep(600);
+        assertThat(service.ejectedCount()).isZero();
+        // Both idle again, so the rotation reaches the readmitted instance
+        assertThat(new int[] {service.acquire(), service.acquire()}).contains(0);
+    }
+
+    @Test
+    void testNeverEjectsPastMaxEjectedPercent() {
+        // Test that the last healthy half of the instances stays in rotation however it fails
+        ServiceInstance first = new ServiceInstance("payments", "http://payments-1:8083", 1);
+        ServiceInstance second = new ServiceInstance("payments", "http://payments-2:8083", 1);
+        LoadBalancedService service = new LoadBalancedService("payments", Arrays.asList(first, second),
+                1, 30_000, 300_000, 50);
+
+        service.checked(first, false);
+        service.checked(second, false);
+
+        assertThat(service.ejectedCount()).isEqualTo(1);
+    }
+}
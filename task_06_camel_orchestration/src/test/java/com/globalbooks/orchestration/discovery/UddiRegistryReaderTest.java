@@ -0,0 +1,32 @@
+package com.globalbooks.orchestration.discovery;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UddiRegistryReaderTest {
+
+    @Test
+    void testReadsEndpointAccessPointsFromConcatenatedDocuments() throws Exception {
+        // Test that endpoint access points are read from every document and reduced to distinct base URLs
+        String registry = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+                + "<uddi:save_business xmlns:uddi=\"urn:uddi-org:api_v3\"><uddi:businessEntity>"
+                + "<uddi:accessPoint useType=\"endPoint\"> http://catalog-1:8081/catalog/soap </uddi:accessPoint>"
+                + "<uddi:accessPoint useType=\"wsdlDeployment\">http://catalog-9:8081/catalog/soap?wsdl</uddi:accessPoint>"
+                + "</uddi:businessEntity></uddi:save_business>\n"
+                + "<!-- second document -->\n"
+                + "<businessEntity><hostingRedirector>"
+                + "<accessPoint useType=\"endpoint\">http://catalog-2:8081/catalog-service/soap</accessPoint>"
+                + "<accessPoint useType=\"endpoint\">http://catalog-1:8081/other</accessPoint>"
+                + "</hostingRedirector></businessEntity>";
+
+        List<String> urls = UddiRegistryReader.readEndpoints(
+                new ByteArrayInputStream(registry.getBytes(StandardCharsets.UTF_8)));
+
+        assertThat(urls).containsExactly("http://catalog-1:8081", "http://catalog-2:8081");
+    }
+}